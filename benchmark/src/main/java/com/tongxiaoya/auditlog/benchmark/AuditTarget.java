@@ -0,0 +1,82 @@
+package com.tongxiaoya.auditlog.benchmark;
+
+import com.tongxiaoya.auditlog.log.*;
+
+/**
+ * 基准测试目标
+ * <p>
+ * 注解属性为编译期常量，每种注解与代码定位组合各对应一个方法；
+ * 所有方法签名一致：两个基本类型参数及一个载荷参数
+ *
+ * @since 1.8
+ */
+public class AuditTarget {
+
+    /**
+     * 预分配的异常（不填充堆栈，隔离异常日志本身的开销）
+     */
+    static final IllegalStateException FAILURE = new IllegalStateException("benchmark") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    public Object baseline(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    public Object baselineThrowing(int id, long amount, Object payload) {
+        throw FAILURE;
+    }
+
+    @ParamLog(value = "基准测试", position = Position.ENABLED)
+    public Object paramEnabled(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @ParamLog(value = "基准测试", position = Position.DISABLED)
+    public Object paramDisabled(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @ParamLog(value = "基准测试")
+    public Object paramDefault(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @ResultLog(value = "基准测试", position = Position.ENABLED)
+    public Object resultEnabled(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @ResultLog(value = "基准测试", position = Position.DISABLED)
+    public Object resultDisabled(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @ResultLog(value = "基准测试")
+    public Object resultDefault(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @Log(value = "基准测试", position = Position.ENABLED)
+    public Object logEnabled(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @Log(value = "基准测试", position = Position.DISABLED)
+    public Object logDisabled(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @Log(value = "基准测试")
+    public Object logDefault(int id, long amount, Object payload) {
+        return payload;
+    }
+
+    @ThrowingLog(value = "基准测试")
+    public Object throwing(int id, long amount, Object payload) {
+        throw FAILURE;
+    }
+}
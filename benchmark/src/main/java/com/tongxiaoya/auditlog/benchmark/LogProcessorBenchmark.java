@@ -0,0 +1,212 @@
+package com.tongxiaoya.auditlog.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.tongxiaoya.auditlog.log.LogProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志处理器基准测试
+ * <p>
+ * 对比各日志注解与未增强方法的单次调用耗时，维度包括：代码定位、参数形态及日志级别；
+ * 日志输出至空输出端，测量值为切面、渲染与日志框架本身的开销。
+ * 运行：java -jar target/benchmarks.jar LogProcessorBenchmark -prof gc
+ *
+ * @since 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogProcessorBenchmark {
+
+    /**
+     * 调用目标
+     */
+    @Param({"DIRECT", "BASELINE", "PARAM_LOG", "RESULT_LOG", "LOG", "BASELINE_THROWING", "THROWING_LOG"})
+    public Target target;
+    /**
+     * 代码定位（仅对PARAM_LOG、RESULT_LOG、LOG生效）
+     */
+    @Param({"ENABLED", "DISABLED", "DEFAULT"})
+    public String position;
+    /**
+     * 参数形态
+     */
+    @Param({"PRIMITIVE", "ARRAY", "BEAN"})
+    public Shape shape;
+    /**
+     * 日志级别（TRACE：全部开启；INFO：注解默认的DEBUG级别关闭；OFF：全部关闭）
+     */
+    @Param({"TRACE", "INFO", "OFF"})
+    public String level;
+
+    /**
+     * 非常量参数，避免常量折叠
+     */
+    private int id = 1024;
+    private long amount = 199900L;
+
+    private Call call;
+    private Object payload;
+
+    @Setup
+    public void setup() {
+        Logger logger = (Logger) LoggerFactory.getLogger(LogProcessor.class);
+        logger.setLevel(Level.toLevel(this.level));
+        AuditTarget raw = new AuditTarget();
+        AspectJProxyFactory factory = new AspectJProxyFactory(raw);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LogProcessor());
+        AuditTarget proxy = factory.getProxy();
+        this.call = this.resolve(raw, proxy);
+        this.payload = this.shape.create();
+    }
+
+    @Benchmark
+    public Object invoke() {
+        try {
+            return this.call.invoke(this.id, this.amount, this.payload);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    /**
+     * 解析调用方法
+     *
+     * @param raw   未增强对象
+     * @param proxy 代理对象
+     * @return 返回调用方法
+     */
+    private Call resolve(AuditTarget raw, AuditTarget proxy) {
+        switch (this.target) {
+            case DIRECT:
+                return raw::baseline;
+            case BASELINE:
+                return proxy::baseline;
+            case BASELINE_THROWING:
+                return proxy::baselineThrowing;
+            case THROWING_LOG:
+                return proxy::throwing;
+            case PARAM_LOG:
+                return this.byPosition(proxy::paramEnabled, proxy::paramDisabled, proxy::paramDefault);
+            case RESULT_LOG:
+                return this.byPosition(proxy::resultEnabled, proxy::resultDisabled, proxy::resultDefault);
+            case LOG:
+                return this.byPosition(proxy::logEnabled, proxy::logDisabled, proxy::logDefault);
+            default:
+                throw new IllegalArgumentException(String.valueOf(this.target));
+        }
+    }
+
+    /**
+     * 按代码定位选择调用方法
+     *
+     * @param enabled  开启代码定位
+     * @param disabled 关闭代码定位
+     * @param def      默认代码定位
+     * @return 返回调用方法
+     */
+    private Call byPosition(Call enabled, Call disabled, Call def) {
+        switch (this.position) {
+            case "ENABLED":
+                return enabled;
+            case "DISABLED":
+                return disabled;
+            default:
+                return def;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LogProcessorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * 调用目标
+     */
+    public enum Target {
+        /**
+         * 直接调用未增强对象
+         */
+        DIRECT,
+        /**
+         * 通过代理调用无注解方法
+         */
+        BASELINE,
+        /**
+         * 通过代理调用无注解且抛出异常的方法
+         */
+        BASELINE_THROWING,
+        PARAM_LOG,
+        RESULT_LOG,
+        LOG,
+        THROWING_LOG
+    }
+
+    /**
+     * 参数形态
+     */
+    public enum Shape {
+        /**
+         * 仅基本类型
+         */
+        PRIMITIVE {
+            @Override
+            Object create() {
+                return null;
+            }
+        },
+        /**
+         * 大数组
+         */
+        ARRAY {
+            @Override
+            Object create() {
+                long[] values = new long[4096];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = i;
+                }
+                return values;
+            }
+        },
+        /**
+         * 嵌套对象
+         */
+        BEAN {
+            @Override
+            Object create() {
+                return Order.sample(10);
+            }
+        };
+
+        /**
+         * 创建载荷
+         *
+         * @return 返回载荷
+         */
+        abstract Object create();
+    }
+
+    /**
+     * 调用方法
+     */
+    @FunctionalInterface
+    interface Call {
+        Object invoke(int id, long amount, Object payload);
+    }
+}
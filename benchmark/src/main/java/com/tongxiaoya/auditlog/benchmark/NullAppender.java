@@ -0,0 +1,18 @@
+package com.tongxiaoya.auditlog.benchmark;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+/**
+ * 空输出端
+ * <p>
+ * 丢弃日志事件，仅保留日志框架创建事件的开销，避免控制台或磁盘输出干扰测量
+ *
+ * @since 1.8
+ */
+public class NullAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    @Override
+    protected void append(ILoggingEvent event) {
+    }
+}
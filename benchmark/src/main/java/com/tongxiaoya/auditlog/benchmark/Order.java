@@ -0,0 +1,71 @@
+package com.tongxiaoya.auditlog.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 嵌套对象载荷（订单-客户-地址-明细）
+ *
+ * @since 1.8
+ */
+public class Order {
+
+    private long id;
+    private String number;
+    private Customer customer;
+    private List<Item> items;
+
+    /**
+     * 创建示例订单
+     *
+     * @param itemCount 明细数量
+     * @return 返回订单
+     */
+    public static Order sample(int itemCount) {
+        Order order = new Order();
+        order.id = 20190701L;
+        order.number = "NO-20190701-0001";
+        order.customer = new Customer();
+        order.customer.name = "张三";
+        order.customer.phone = "13800000000";
+        order.customer.address = new Address();
+        order.customer.address.city = "上海";
+        order.customer.address.street = "世纪大道100号";
+        order.items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Item item = new Item();
+            item.sku = "SKU-" + i;
+            item.quantity = i + 1;
+            item.price = BigDecimal.valueOf(1999, 2);
+            order.items.add(item);
+        }
+        return order;
+    }
+
+    /**
+     * 客户
+     */
+    public static class Customer {
+        private String name;
+        private String phone;
+        private Address address;
+    }
+
+    /**
+     * 地址
+     */
+    public static class Address {
+        private String city;
+        private String street;
+    }
+
+    /**
+     * 明细
+     */
+    public static class Item {
+        private String sku;
+        private int quantity;
+        private BigDecimal price;
+    }
+}
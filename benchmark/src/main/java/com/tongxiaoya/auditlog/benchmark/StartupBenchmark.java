@@ -0,0 +1,121 @@
+package com.tongxiaoya.auditlog.benchmark;
+
+import com.tongxiaoya.auditlog.config.LogAutoConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动基准测试
+ * <p>
+ * 每次测量在新的JVM中冷启动应用上下文，并首次调用全部注解方法（包含执行计划编译及代码定位解析），最后关闭上下文；
+ * 本模块编译时开启了元数据注解处理器，用于验证引入本组件不拖慢启动，以及关闭类文件读取（本地镜像模式）时的启动开销。
+ * 运行：java -jar target/benchmarks.jar StartupBenchmark
+ *
+ * @since 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    /**
+     * 启动方式
+     */
+    @Param({"BASELINE", "AUDITED", "NATIVE"})
+    public Mode mode;
+
+    @Benchmark
+    public Object startup() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(this.mode.source)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("spring.main.banner-mode=off", "auditlog.class-file-parsing=" + (this.mode != Mode.NATIVE))
+                .run()) {
+            AuditTarget target = context.getBean(AuditTarget.class);
+            Order payload = Order.sample(1);
+            Object result = null;
+            result = target.paramEnabled(1, 1L, payload);
+            result = target.paramDisabled(1, 1L, result);
+            result = target.paramDefault(1, 1L, result);
+            result = target.resultEnabled(1, 1L, result);
+            result = target.resultDisabled(1, 1L, result);
+            result = target.resultDefault(1, 1L, result);
+            result = target.logEnabled(1, 1L, result);
+            result = target.logDisabled(1, 1L, result);
+            return target.logDefault(1, 1L, result);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StartupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * 启动方式
+     */
+    public enum Mode {
+        /**
+         * 不引入本组件（仅开启AOP）
+         */
+        BASELINE(BaselineApplication.class),
+        /**
+         * 引入本组件（优先使用元数据索引）
+         */
+        AUDITED(AuditedApplication.class),
+        /**
+         * 引入本组件并关闭类文件读取（与本地镜像中的行为一致）
+         */
+        NATIVE(AuditedApplication.class);
+
+        /**
+         * 配置类
+         */
+        private final Class<?> source;
+
+        Mode(Class<?> source) {
+            this.source = source;
+        }
+    }
+
+    /**
+     * 未引入本组件的应用
+     */
+    @Configuration
+    @ImportAutoConfiguration(AopAutoConfiguration.class)
+    static class BaselineApplication {
+
+        @Bean
+        public AuditTarget auditTarget() {
+            return new AuditTarget();
+        }
+    }
+
+    /**
+     * 引入本组件的应用
+     */
+    @Configuration
+    @ImportAutoConfiguration({AopAutoConfiguration.class, LogAutoConfiguration.class})
+    static class AuditedApplication {
+
+        @Bean
+        public AuditTarget auditTarget() {
+            return new AuditTarget();
+        }
+    }
+}
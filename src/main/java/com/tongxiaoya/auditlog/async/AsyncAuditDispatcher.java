@@ -0,0 +1,711 @@
+package com.tongxiaoya.auditlog.async;
+
+import com.tongxiaoya.auditlog.format.BinaryOutput;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEventCodec;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.sink.AuditSinkRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 异步审计分发器
+ * <p>
+ * 切面线程仅将事件写入环形缓冲区，由单个后台线程完成渲染与输出。
+ * 输出端拒绝接收（{@link AuditSinkRejectedException}）时后台线程暂停并按顺序重试同一事件，
+ * 缓冲区随之写满，由满时处理策略向切面线程施加背压。
+ * 溢出策略下缓冲区满时事件编码后写入磁盘溢出队列，溢出期间新事件同样写入溢出队列，
+ * 后台线程输出完缓冲区后按顺序读取溢出队列，记录被输出端接收后才移除并提交读取进度，读空后恢复使用缓冲区。
+ * 关闭时不再读取溢出队列，仅在超时时间内输出环形缓冲区中的事件，被拒绝的事件写入溢出队列（未设置时计入丢弃）；
+ * 溢出队列中未输出的记录保留在磁盘上，下次启动时继续输出。超时后溢出队列由消费线程退出时自行关闭，
+ * 避免在其读取记录期间关闭
+ *
+ * @since 1.8
+ */
+public class AsyncAuditDispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 消费者空闲等待时间（纳秒）
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    /**
+     * 阻塞策略下生产者等待时间（纳秒）
+     */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /**
+     * 溢出队列读取进度提交间隔（记录数）
+     */
+    private static final int SPILL_COMMIT_INTERVAL = 256;
+
+    /**
+     * 环形缓冲区
+     */
+    private final AuditRingBuffer<AuditEvent> buffer;
+    /**
+     * 满时处理策略
+     */
+    private final OverflowPolicy policy;
+    /**
+     * 采样比例（超过高水位后每N个事件保留1个）
+     */
+    private final int sampleRate;
+    /**
+     * 采样高水位
+     */
+    private final int highWaterMark;
+    /**
+     * 关闭超时时间（毫秒）
+     */
+    private final long shutdownTimeout;
+    /**
+     * 采样计数
+     */
+    private final AtomicLong sampleCounter = new AtomicLong();
+    /**
+     * 丢弃数量
+     */
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * 溢出数量
+     */
+    private final LongAdder spilled = new LongAdder();
+    /**
+     * 溢出后恢复输出数量
+     */
+    private final LongAdder recovered = new LongAdder();
+    /**
+     * 溢出后无法恢复的数量（记录损坏或方法已不存在）
+     */
+    private final LongAdder spillLost = new LongAdder();
+    /**
+     * 事件处理器
+     */
+    private volatile Consumer<AuditEvent> handler;
+    /**
+     * 按方法对象获取执行计划（恢复溢出记录）
+     */
+    private volatile Function<Method, LogPlan> plans;
+    /**
+     * 磁盘溢出队列（为空时溢出策略按阻塞处理）
+     */
+    private volatile SpillQueue spill;
+    /**
+     * 溢出记录编解码器
+     */
+    private volatile AuditEventCodec codec;
+    /**
+     * 是否处于溢出状态（溢出队列非空，新事件同样写入溢出队列以保证顺序）
+     */
+    private volatile boolean spilling;
+    /**
+     * 未提交的溢出记录数量（仅消费线程访问）
+     */
+    private int uncommitted;
+    /**
+     * 被输出端拒绝、等待重试的缓冲区事件（仅消费线程访问）
+     */
+    private AuditEvent pending;
+    /**
+     * 被输出端拒绝、等待重试的溢出记录（仅消费线程访问；重试时保留各输出端的接收状态，不再重新解码）
+     */
+    private AuditEvent spillEvent;
+    /**
+     * 输出端是否处于拒绝接收状态（仅消费线程访问）
+     */
+    private boolean stalled;
+    /**
+     * 消费线程
+     */
+    private volatile Thread worker;
+    /**
+     * 运行标志
+     */
+    private volatile boolean running;
+    /**
+     * 消费线程等待标志
+     */
+    private volatile boolean waiting;
+    /**
+     * 消费线程是否已退出（由分发器锁保护）
+     */
+    private boolean exited;
+    /**
+     * 关闭超时后是否由消费线程退出时关闭溢出队列（由分发器锁保护）
+     */
+    private boolean abandoned;
+
+    /**
+     * 构造
+     *
+     * @param bufferSize      缓冲区大小
+     * @param policy          满时处理策略
+     * @param sampleRate      采样比例
+     * @param shutdownTimeout 关闭超时时间（毫秒）
+     */
+    public AsyncAuditDispatcher(int bufferSize, OverflowPolicy policy, int sampleRate, long shutdownTimeout) {
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.policy = policy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.highWaterMark = this.buffer.capacity() - (this.buffer.capacity() >> 2);
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * 设置磁盘溢出队列（仅溢出策略生效，需在启动前设置）
+     *
+     * @param spill 磁盘溢出队列
+     * @param codec 溢出记录编解码器
+     */
+    public synchronized void setSpill(SpillQueue spill, AuditEventCodec codec) {
+        if (this.running) {
+            throw new IllegalStateException("dispatcher already started");
+        }
+        this.spill = spill;
+        this.codec = codec;
+    }
+
+    /**
+     * 启动消费线程
+     *
+     * @param handler 事件处理器（渲染与输出）
+     */
+    public void start(Consumer<AuditEvent> handler) {
+        this.start(handler, method -> null);
+    }
+
+    /**
+     * 启动消费线程（溢出队列中存在上次未输出的记录时先行输出）
+     *
+     * @param handler 事件处理器（渲染与输出）
+     * @param plans   按方法对象获取执行计划（恢复溢出记录）
+     */
+    public synchronized void start(Consumer<AuditEvent> handler, Function<Method, LogPlan> plans) {
+        if (this.running) {
+            throw new IllegalStateException("dispatcher already started");
+        }
+        if (this.policy == OverflowPolicy.SPILL && this.spill == null) {
+            logger.warn("审计日志异步分发未设置溢出队列，缓冲区满时将阻塞调用线程");
+        }
+        this.handler = handler;
+        this.plans = plans;
+        this.spilling = this.spill != null && !this.spill.isEmpty();
+        this.exited = false;
+        this.abandoned = false;
+        this.running = true;
+        Thread thread = new Thread(this::consume, "auditlog-async");
+        thread.setDaemon(true);
+        this.worker = thread;
+        thread.start();
+    }
+
+    /**
+     * 分发事件
+     *
+     * @param event 审计事件
+     * @return 返回是否已被接收（未启动或已关闭时返回false，由调用方同步处理）
+     */
+    public boolean dispatch(AuditEvent event) {
+        if (!this.running) {
+            return false;
+        }
+        boolean accepted;
+        switch (this.policy) {
+            case BLOCK:
+                if (!this.offerBlocking(event)) {
+                    return false;
+                }
+                accepted = true;
+                break;
+            case DROP_OLDEST:
+                accepted = this.offerDroppingOldest(event);
+                break;
+            case SAMPLE:
+                accepted = this.offerSampling(event);
+                break;
+            case SPILL:
+                if (!this.offerSpilling(event)) {
+                    return false;
+                }
+                accepted = true;
+                break;
+            default:
+                accepted = this.buffer.offer(event);
+                if (!accepted) {
+                    this.dropped.increment();
+                }
+        }
+        if (accepted) {
+            this.signal();
+        }
+        return true;
+    }
+
+    /**
+     * 非阻塞分发事件（异步返回值的完成回调可能运行在事件循环线程上，不得等待）
+     * <p>
+     * 不论满时处理策略，缓冲区满时直接丢弃并计数；溢出期间同样写入缓冲区，可能先于溢出队列中的记录输出
+     *
+     * @param event 审计事件
+     * @return 返回是否已被接收或丢弃（未启动或已关闭时返回false，由调用方同步处理）
+     */
+    public boolean tryDispatch(AuditEvent event) {
+        if (!this.running) {
+            return false;
+        }
+        if (!this.buffer.offer(event)) {
+            this.dropped.increment();
+        } else {
+            this.signal();
+        }
+        return true;
+    }
+
+    /**
+     * 写入缓冲区后唤醒消费线程；写入期间分发器已关闭时，消费线程及关闭线程可能均已输出完毕，由写入线程自行输出
+     */
+    private void signal() {
+        if (this.running) {
+            if (this.waiting) {
+                LockSupport.unpark(this.worker);
+            }
+            return;
+        }
+        Consumer<AuditEvent> handler = this.handler;
+        AuditEvent event;
+        while ((event = this.buffer.poll()) != null) {
+            if (!this.handle(handler, event)) {
+                this.retain(event);
+            }
+        }
+    }
+
+    /**
+     * 关闭并输出缓冲区中剩余事件（不读取溢出队列）
+     */
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            if (!this.running) {
+                return;
+            }
+            this.running = false;
+            thread = this.worker;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(this.shutdownTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (!this.exited) {
+                // 消费线程可能正在读取溢出记录，由其退出时关闭溢出队列
+                this.abandoned = true;
+                logger.warn("审计日志异步线程未能在{}毫秒内完成输出，剩余事件：{}，溢出队列：{}字节",
+                        this.shutdownTimeout, this.buffer.size(), this.getSpillBytes());
+                return;
+            }
+        }
+        // 关闭期间并发写入的事件由当前线程补充输出
+        this.drainBuffer(this.handler);
+        this.closeSpill();
+    }
+
+    /**
+     * 丢弃数量
+     *
+     * @return 返回丢弃数量（含关闭时被输出端拒绝且无法写入溢出队列的事件）
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * 溢出数量
+     *
+     * @return 返回写入溢出队列的事件数量
+     */
+    public long getSpilledCount() {
+        return this.spilled.sum();
+    }
+
+    /**
+     * 溢出后恢复输出数量
+     *
+     * @return 返回从溢出队列读取并输出的事件数量（含上次启动遗留的记录）
+     */
+    public long getRecoveredCount() {
+        return this.recovered.sum();
+    }
+
+    /**
+     * 溢出后无法恢复的数量
+     *
+     * @return 返回记录损坏或方法已不存在的数量
+     */
+    public long getSpillLostCount() {
+        return this.spillLost.sum();
+    }
+
+    /**
+     * 溢出队列占用磁盘大小
+     *
+     * @return 返回字节数，未设置溢出队列时返回0
+     */
+    public long getSpillBytes() {
+        SpillQueue spill = this.spill;
+        return spill != null ? spill.getBytes() : 0L;
+    }
+
+    /**
+     * 当前积压数量
+     *
+     * @return 返回积压数量
+     */
+    public int getBacklog() {
+        return this.buffer.size();
+    }
+
+    /**
+     * 缓冲区容量
+     *
+     * @return 返回缓冲区容量
+     */
+    public int getCapacity() {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * 缓冲区饱和度
+     *
+     * @return 返回积压数量与容量之比（0~1，溢出期间为1）
+     */
+    public double getSaturation() {
+        return this.spilling ? 1D : (double) this.buffer.size() / this.buffer.capacity();
+    }
+
+    /**
+     * 阻塞写入
+     *
+     * @param event 审计事件
+     * @return 返回是否写入成功，分发器关闭时返回false
+     */
+    private boolean offerBlocking(AuditEvent event) {
+        while (!this.buffer.offer(event)) {
+            if (!this.running) {
+                return false;
+            }
+            if (this.waiting) {
+                LockSupport.unpark(this.worker);
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃最早事件后写入
+     *
+     * @param event 审计事件
+     * @return 返回是否写入成功
+     */
+    private boolean offerDroppingOldest(AuditEvent event) {
+        while (!this.buffer.offer(event)) {
+            if (this.buffer.poll() != null) {
+                this.dropped.increment();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按采样比例写入
+     *
+     * @param event 审计事件
+     * @return 返回是否写入成功
+     */
+    private boolean offerSampling(AuditEvent event) {
+        if (this.buffer.size() >= this.highWaterMark && this.sampleCounter.getAndIncrement() % this.sampleRate != 0) {
+            this.dropped.increment();
+            return false;
+        }
+        if (!this.buffer.offer(event)) {
+            this.dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 溢出写入（缓冲区满或处于溢出状态时写入溢出队列，溢出队列达到上限时阻塞）
+     *
+     * @param event 审计事件
+     * @return 返回是否写入成功，分发器关闭时返回false
+     */
+    private boolean offerSpilling(AuditEvent event) {
+        SpillQueue spill = this.spill;
+        if (spill == null) {
+            return this.offerBlocking(event);
+        }
+        if (!this.spilling && this.buffer.offer(event)) {
+            return true;
+        }
+        try {
+            BinaryOutput record = this.codec.encode(event);
+            for (; ; ) {
+                synchronized (spill) {
+                    if (spill.append(record.getBuffer(), 0, record.size())) {
+                        this.spilling = true;
+                        break;
+                    }
+                }
+                if (!this.running) {
+                    return false;
+                }
+                if (this.waiting) {
+                    LockSupport.unpark(this.worker);
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("审计事件写入溢出队列失败，改为阻塞等待缓冲区", e);
+            return this.offerBlocking(event);
+        }
+        this.spilled.increment();
+        return true;
+    }
+
+    /**
+     * 消费循环
+     */
+    private void consume() {
+        Consumer<AuditEvent> handler = this.handler;
+        while (this.running) {
+            AuditEvent event = this.pending != null ? this.pending : this.buffer.poll();
+            if (event != null) {
+                if (this.handle(handler, event)) {
+                    this.pending = null;
+                } else {
+                    // 保留事件按顺序重试，缓冲区写满后由满时处理策略施加背压
+                    this.pending = event;
+                    this.backOff();
+                }
+                continue;
+            }
+            if (this.spilling && this.drainSpill(handler)) {
+                continue;
+            }
+            this.waiting = true;
+            if (this.buffer.isEmpty() && !this.spilling && this.running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            this.waiting = false;
+        }
+        SpillQueue spill = this.spill;
+        if (this.spillEvent != null) {
+            // 部分输出端已接收的溢出记录连同接收状态重新写入，避免下次启动时重复输出
+            if (this.respill(this.spillEvent)) {
+                spill.remove();
+                this.uncommitted++;
+            }
+            this.spillEvent = null;
+        }
+        this.drainBuffer(handler);
+        if (spill != null && this.uncommitted > 0) {
+            this.commitSpill(spill);
+        }
+        synchronized (this) {
+            this.exited = true;
+            if (this.abandoned) {
+                this.closeSpill();
+            }
+        }
+    }
+
+    /**
+     * 关闭时输出缓冲区中的事件（输出端拒绝后其余事件不再尝试输出，直接写入溢出队列）
+     *
+     * @param handler 事件处理器
+     */
+    private void drainBuffer(Consumer<AuditEvent> handler) {
+        AuditEvent event = this.pending;
+        this.pending = null;
+        if (event == null) {
+            event = this.buffer.poll();
+        }
+        boolean rejected = false;
+        while (event != null) {
+            if (rejected || !this.handle(handler, event)) {
+                rejected = true;
+                this.retain(event);
+            }
+            event = this.buffer.poll();
+        }
+    }
+
+    /**
+     * 保留关闭时被输出端拒绝的事件（写入溢出队列，下次启动时输出；未设置或写入失败时计入丢弃）
+     *
+     * @param event 审计事件
+     */
+    private void retain(AuditEvent event) {
+        if (this.spill == null) {
+            logger.warn("审计输出端拒绝接收，关闭时丢弃事件：{}.{}", event.getPlan().getClassName(), event.getPlan().getMethodName());
+        } else if (!this.respill(event)) {
+            logger.warn("关闭时被输出端拒绝的事件未能写入溢出队列，已丢弃：{}.{}", event.getPlan().getClassName(), event.getPlan().getMethodName());
+        } else {
+            return;
+        }
+        this.dropped.increment();
+    }
+
+    /**
+     * 关闭时将事件写入溢出队列末尾（含各输出端的接收状态）
+     *
+     * @param event 审计事件
+     * @return 返回是否写入成功，溢出队列已满或写入失败时返回false
+     */
+    private boolean respill(AuditEvent event) {
+        SpillQueue spill = this.spill;
+        try {
+            BinaryOutput record = this.codec.encode(event);
+            synchronized (spill) {
+                if (spill.append(record.getBuffer(), 0, record.size())) {
+                    this.spilled.increment();
+                    return true;
+                }
+            }
+            logger.warn("审计日志溢出队列已满");
+        } catch (IOException | RuntimeException e) {
+            logger.error("关闭时审计事件写入溢出队列失败", e);
+        }
+        return false;
+    }
+
+    /**
+     * 输出一条溢出记录
+     *
+     * @param handler 事件处理器
+     * @return 返回是否需要继续读取，溢出队列读空或输出端拒绝接收时返回false
+     */
+    private boolean drainSpill(Consumer<AuditEvent> handler) {
+        SpillQueue spill = this.spill;
+        AuditEvent event = this.spillEvent;
+        if (event == null) {
+            byte[] record;
+            try {
+                record = spill.peek();
+            } catch (IOException e) {
+                logger.error("审计日志溢出队列读取失败", e);
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                return false;
+            }
+            if (record == null) {
+                synchronized (spill) {
+                    if (spill.isEmpty()) {
+                        this.spilling = false;
+                    }
+                }
+                this.commitSpill(spill);
+                return this.spilling;
+            }
+            try {
+                event = this.codec.decode(record, this.plans);
+            } catch (RuntimeException e) {
+                logger.warn("审计日志溢出记录已损坏", e);
+            }
+        }
+        if (event != null) {
+            if (!this.handle(handler, event)) {
+                // 记录保留在溢出队列中，稍后仅向拒绝过的输出端重试
+                this.spillEvent = event;
+                this.backOff();
+                return false;
+            }
+            this.spillEvent = null;
+            this.recovered.increment();
+        } else {
+            this.spillLost.increment();
+        }
+        spill.remove();
+        if (++this.uncommitted >= SPILL_COMMIT_INTERVAL) {
+            this.commitSpill(spill);
+        }
+        return true;
+    }
+
+    /**
+     * 提交溢出队列读取进度
+     *
+     * @param spill 磁盘溢出队列
+     */
+    private void commitSpill(SpillQueue spill) {
+        try {
+            spill.commit();
+            this.uncommitted = 0;
+        } catch (IOException e) {
+            logger.error("审计日志溢出队列提交失败", e);
+        }
+    }
+
+    /**
+     * 关闭磁盘溢出队列（未提交的记录下次启动时重新输出）
+     */
+    private void closeSpill() {
+        SpillQueue spill = this.spill;
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.close();
+        } catch (IOException e) {
+            logger.error("审计日志溢出队列关闭失败", e);
+        }
+    }
+
+    /**
+     * 输出端拒绝接收后等待重试（关闭时立即返回）
+     */
+    private void backOff() {
+        if (this.running) {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * 处理事件
+     *
+     * @param handler 事件处理器
+     * @param event   审计事件
+     * @return 返回是否已被接收，输出端拒绝接收时返回false（其他异常记录后视为已处理）
+     */
+    private boolean handle(Consumer<AuditEvent> handler, AuditEvent event) {
+        try {
+            handler.accept(event);
+        } catch (AuditSinkRejectedException e) {
+            if (!this.stalled) {
+                this.stalled = true;
+                logger.warn("审计输出端拒绝接收，暂停输出并重试：{}", e.getMessage());
+            }
+            return false;
+        } catch (Throwable e) {
+            logger.error("审计日志输出失败", e);
+        }
+        if (this.stalled) {
+            this.stalled = false;
+            logger.info("审计输出端恢复接收");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,135 @@
+package com.tongxiaoya.auditlog.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区（多生产者多消费者）
+ * <p>
+ * 槽位及序号数组在构造时一次性分配，入队出队仅做CAS，不产生额外对象
+ *
+ * @param <E> 元素类型
+ * @since 1.8
+ */
+public class AuditRingBuffer<E> {
+
+    /**
+     * 槽位
+     */
+    private final AtomicReferenceArray<E> slots;
+    /**
+     * 槽位序号
+     */
+    private final AtomicLongArray sequences;
+    /**
+     * 下标掩码
+     */
+    private final int mask;
+    /**
+     * 写入位置
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * 读取位置
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量（向上取整为2的幂）
+     */
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be greater than 1");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 入队
+     *
+     * @param element 元素
+     * @return 返回是否成功，缓冲区已满时返回false
+     */
+    public boolean offer(E element) {
+        long position = this.tail.get();
+        for (; ; ) {
+            int index = (int) position & this.mask;
+            long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.slots.lazySet(index, element);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * 出队
+     *
+     * @return 返回元素，缓冲区为空时返回null
+     */
+    public E poll() {
+        long position = this.head.get();
+        for (; ; ) {
+            int index = (int) position & this.mask;
+            long difference = this.sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (this.head.compareAndSet(position, position + 1)) {
+                    E element = this.slots.get(index);
+                    this.slots.lazySet(index, null);
+                    this.sequences.set(index, position + this.mask + 1);
+                    return element;
+                }
+                position = this.head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = this.head.get();
+            }
+        }
+    }
+
+    /**
+     * 当前元素数量（并发下为近似值）
+     *
+     * @return 返回元素数量
+     */
+    public int size() {
+        long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0, Math.min(size, this.capacity()));
+    }
+
+    /**
+     * 是否为空
+     *
+     * @return 返回布尔值
+     */
+    public boolean isEmpty() {
+        return this.tail.get() == this.head.get();
+    }
+
+    /**
+     * 容量
+     *
+     * @return 返回容量
+     */
+    public int capacity() {
+        return this.mask + 1;
+    }
+}
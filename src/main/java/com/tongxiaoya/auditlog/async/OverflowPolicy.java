@@ -0,0 +1,29 @@
+package com.tongxiaoya.auditlog.async;
+
+/**
+ * 缓冲区满时的处理策略
+ *
+ * @since 1.8
+ */
+public enum OverflowPolicy {
+    /**
+     * 阻塞调用线程直至有空位
+     */
+    BLOCK,
+    /**
+     * 丢弃最新事件
+     */
+    DROP_NEWEST,
+    /**
+     * 丢弃最早事件
+     */
+    DROP_OLDEST,
+    /**
+     * 超过高水位后按比例采样，满时丢弃最新事件
+     */
+    SAMPLE,
+    /**
+     * 溢出至磁盘队列，输出端追上后按原顺序补充输出；磁盘队列达到上限时阻塞调用线程
+     */
+    SPILL
+}
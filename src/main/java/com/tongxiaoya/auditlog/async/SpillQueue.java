@@ -0,0 +1,554 @@
+package com.tongxiaoya.auditlog.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 磁盘溢出队列
+ * <p>
+ * 记录以“长度 + CRC32 + 内容”的格式追加到分段文件，按追加顺序读取；读取分为查看与移除两步，
+ * 仅移除后的读取进度可经提交写入检查点文件，已提交的分段随即删除，分段文件总大小不超过上限。重启时从检查点继续读取上次未提交的记录
+ * （至少一次：检查点之后已输出的记录可能重复），分段尾部的不完整或损坏记录将被跳过。文件格式：
+ * <pre>
+ * 分段：  spill-{序号}.dat，记录：int 长度 | int CRC32 | byte[长度] 内容
+ * 检查点：spill.checkpoint，long 分段序号 | long 分段内偏移 | int CRC32
+ * </pre>
+ * 写入经页缓存，进程崩溃不会丢失；分段滚动及关闭时刷盘
+ *
+ * @since 1.8
+ */
+public class SpillQueue implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 记录头长度
+     */
+    static final int RECORD_HEADER_SIZE = 8;
+    /**
+     * 分段文件前缀
+     */
+    static final String FILE_PREFIX = "spill-";
+    /**
+     * 分段文件后缀
+     */
+    static final String FILE_SUFFIX = ".dat";
+    /**
+     * 检查点文件
+     */
+    static final String CHECKPOINT_FILE = "spill.checkpoint";
+
+    /**
+     * 目录
+     */
+    private final Path directory;
+    /**
+     * 分段大小
+     */
+    private final long segmentSize;
+    /**
+     * 分段文件总大小上限
+     */
+    private final long maxBytes;
+    /**
+     * 校验
+     */
+    private final CRC32 crc = new CRC32();
+    /**
+     * 记录头缓冲区
+     */
+    private final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    /**
+     * 分段（序号 -> 文件大小）
+     */
+    private final TreeMap<Long, Long> segments = new TreeMap<>();
+    /**
+     * 写入缓冲区（记录头与内容一次写入）
+     */
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(4096);
+    /**
+     * 分段文件总大小
+     */
+    private long totalBytes;
+    /**
+     * 写入分段序号
+     */
+    private long writeSequence;
+    /**
+     * 写入分段文件
+     */
+    private FileChannel writeChannel;
+    /**
+     * 读取分段序号
+     */
+    private long readSequence;
+    /**
+     * 读取分段内偏移
+     */
+    private long readOffset;
+    /**
+     * 读取分段文件
+     */
+    private FileChannel readChannel;
+    /**
+     * 已查看未移除的记录（位于读取偏移处）
+     */
+    private byte[] peeked;
+    /**
+     * 已提交的分段序号
+     */
+    private long commitSequence;
+    /**
+     * 已提交的分段内偏移
+     */
+    private long commitOffset;
+    /**
+     * 跳过的损坏分段数量
+     */
+    private long corruptedCount;
+    /**
+     * 是否已关闭
+     */
+    private boolean closed;
+
+    /**
+     * 构造（恢复目录中上次未提交的记录）
+     *
+     * @param directory   目录
+     * @param segmentSize 分段大小（字节）
+     * @param maxBytes    分段文件总大小上限（字节）
+     * @throws IOException IO异常
+     */
+    public SpillQueue(Path directory, long segmentSize, long maxBytes) throws IOException {
+        if (segmentSize <= RECORD_HEADER_SIZE || maxBytes < segmentSize) {
+            throw new IllegalArgumentException("segmentSize must be positive and not greater than maxBytes");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+        this.recover();
+    }
+
+    /**
+     * 追加记录
+     *
+     * @param data   记录内容
+     * @param offset 开始下标
+     * @param length 长度
+     * @return 返回是否追加成功，超过总大小上限时返回false
+     * @throws IOException IO异常
+     */
+    public synchronized boolean append(byte[] data, int offset, int length) throws IOException {
+        if (this.closed) {
+            throw new IOException("spill queue closed");
+        }
+        long required = RECORD_HEADER_SIZE + length;
+        if (length <= 0 || required > this.segmentSize) {
+            throw new IllegalArgumentException("record size out of range: " + length);
+        }
+        if (this.totalBytes + required > this.maxBytes) {
+            return false;
+        }
+        long position = this.segments.get(this.writeSequence);
+        if (position > 0 && position + required > this.segmentSize) {
+            this.roll();
+            position = 0L;
+        }
+        this.crc.reset();
+        this.crc.update(data, offset, length);
+        if (this.writeBuffer.capacity() < required) {
+            this.writeBuffer = ByteBuffer.allocate((int) Math.max(required, this.writeBuffer.capacity() * 2L));
+        }
+        this.writeBuffer.clear();
+        this.writeBuffer.putInt(length).putInt((int) this.crc.getValue()).put(data, offset, length).flip();
+        writeFully(this.writeChannel, this.writeBuffer, position);
+        this.segments.put(this.writeSequence, position + required);
+        this.totalBytes += required;
+        return true;
+    }
+
+    /**
+     * 读取并移除下一条记录（读取进度需经{@link #commit()}提交）
+     *
+     * @return 返回记录内容，无记录时返回null
+     * @throws IOException IO异常
+     */
+    public synchronized byte[] poll() throws IOException {
+        byte[] record = this.peek();
+        if (record != null) {
+            this.remove();
+        }
+        return record;
+    }
+
+    /**
+     * 查看下一条记录（不移除，重复调用返回同一条记录；不完整或损坏的内容直接跳过）
+     *
+     * @return 返回记录内容，无记录时返回null
+     * @throws IOException IO异常
+     */
+    public synchronized byte[] peek() throws IOException {
+        if (this.peeked != null) {
+            return this.peeked;
+        }
+        while (!this.closed) {
+            long end = this.segments.get(this.readSequence);
+            if (this.readOffset + RECORD_HEADER_SIZE <= end) {
+                byte[] record = this.read(end);
+                if (record != null) {
+                    this.peeked = record;
+                    return record;
+                }
+            } else if (this.readOffset < end) {
+                // 上次未写完的记录头
+                this.skip("incomplete record header");
+            }
+            if (this.readSequence == this.writeSequence) {
+                return null;
+            }
+            this.closeReader();
+            this.readSequence = this.segments.higherKey(this.readSequence);
+            this.readOffset = 0L;
+        }
+        return null;
+    }
+
+    /**
+     * 移除{@link #peek()}查看的记录（移除后的读取进度需经{@link #commit()}提交）
+     *
+     * @throws IllegalStateException 没有已查看的记录
+     */
+    public synchronized void remove() {
+        if (this.peeked == null) {
+            throw new IllegalStateException("no peeked record");
+        }
+        this.readOffset += RECORD_HEADER_SIZE + this.peeked.length;
+        this.peeked = null;
+    }
+
+    /**
+     * 提交读取进度（写入检查点并删除已读完的分段；队列读空时重新开始写入分段；已查看未移除的记录不在提交范围内）
+     *
+     * @throws IOException IO异常
+     */
+    public synchronized void commit() throws IOException {
+        if (this.closed || this.commitSequence == this.readSequence && this.commitOffset == this.readOffset) {
+            return;
+        }
+        if (this.readSequence == this.writeSequence && this.readOffset > 0 && this.readOffset == this.segments.get(this.writeSequence)) {
+            this.roll();
+            this.closeReader();
+            this.readSequence = this.writeSequence;
+            this.readOffset = 0L;
+        }
+        this.writeCheckpoint(this.readSequence, this.readOffset);
+        this.commitSequence = this.readSequence;
+        this.commitOffset = this.readOffset;
+        while (this.segments.firstKey() < this.commitSequence) {
+            long sequence = this.segments.firstKey();
+            this.totalBytes -= this.segments.remove(sequence);
+            Files.deleteIfExists(this.segmentPath(sequence));
+        }
+    }
+
+    /**
+     * 是否无未读取的记录
+     *
+     * @return 返回布尔值，关闭后返回true
+     */
+    public synchronized boolean isEmpty() {
+        return this.closed || this.readSequence == this.writeSequence && this.readOffset >= this.segments.get(this.writeSequence);
+    }
+
+    /**
+     * 分段文件总大小（含已读取未删除的部分）
+     *
+     * @return 返回字节数
+     */
+    public synchronized long getBytes() {
+        return this.totalBytes;
+    }
+
+    /**
+     * 分段文件总大小上限
+     *
+     * @return 返回字节数
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 跳过的损坏分段数量
+     *
+     * @return 返回数量
+     */
+    public synchronized long getCorruptedCount() {
+        return corruptedCount;
+    }
+
+    /**
+     * 关闭（写入已提交的读取进度，未提交的记录下次启动时重新读取）
+     *
+     * @throws IOException IO异常
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.peeked = null;
+        this.closeReader();
+        this.writeChannel.force(false);
+        this.writeChannel.close();
+        this.writeCheckpoint(this.commitSequence, this.commitOffset);
+    }
+
+    /**
+     * 恢复目录中的分段及检查点，并开始新的写入分段
+     *
+     * @throws IOException IO异常
+     */
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    long sequence = Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+                    long size = Files.size(path);
+                    if (size > 0) {
+                        this.segments.put(sequence, size);
+                    } else {
+                        // 空分段（上次未写入的写入分段）
+                        Files.delete(path);
+                    }
+                } catch (NumberFormatException e) {
+                    logger.warn("忽略无法识别的溢出队列文件：{}", path);
+                }
+            }
+        }
+        long[] checkpoint = this.readCheckpoint();
+        long readSequence = checkpoint != null ? checkpoint[0] : this.segments.isEmpty() ? 0L : this.segments.firstKey();
+        long readOffset = checkpoint != null ? checkpoint[1] : 0L;
+        while (!this.segments.isEmpty() && this.segments.firstKey() < readSequence) {
+            Files.deleteIfExists(this.segmentPath(this.segments.pollFirstEntry().getKey()));
+        }
+        if (this.segments.isEmpty() || this.segments.firstKey() > readSequence) {
+            readOffset = 0L;
+            readSequence = this.segments.isEmpty() ? readSequence : this.segments.firstKey();
+        }
+        for (long size : this.segments.values()) {
+            this.totalBytes += size;
+        }
+        this.writeSequence = this.segments.isEmpty() ? readSequence : this.segments.lastKey();
+        this.openWriter(this.segments.isEmpty() ? this.writeSequence : this.writeSequence + 1);
+        this.readSequence = this.segments.firstKey();
+        this.readOffset = this.readSequence == this.writeSequence ? 0L : readOffset;
+        this.commitSequence = this.readSequence;
+        this.commitOffset = this.readOffset;
+        long pending = this.totalBytes - this.readOffset;
+        if (pending > 0) {
+            logger.info("审计日志溢出队列存在未输出的记录：{}字节", pending);
+        }
+    }
+
+    /**
+     * 读取当前位置的记录
+     *
+     * @param end 读取分段的有效长度
+     * @return 返回记录内容（不移动读取偏移），记录不完整或损坏时跳过分段剩余部分并返回null
+     * @throws IOException IO异常
+     */
+    private byte[] read(long end) throws IOException {
+        FileChannel channel = this.reader();
+        this.header.clear();
+        readFully(channel, this.header, this.readOffset);
+        this.header.flip();
+        int length = this.header.getInt();
+        int checksum = this.header.getInt();
+        if (length <= 0 || this.readOffset + RECORD_HEADER_SIZE + length > end) {
+            this.skip("invalid record length " + length);
+            return null;
+        }
+        byte[] record = new byte[length];
+        readFully(channel, ByteBuffer.wrap(record), this.readOffset + RECORD_HEADER_SIZE);
+        this.crc.reset();
+        this.crc.update(record, 0, length);
+        if ((int) this.crc.getValue() != checksum) {
+            this.skip("checksum mismatch");
+            return null;
+        }
+        return record;
+    }
+
+    /**
+     * 跳过读取分段的剩余部分
+     *
+     * @param reason 原因
+     */
+    private void skip(String reason) {
+        logger.warn("跳过溢出队列分段{}中偏移{}之后的内容：{}", this.segmentPath(this.readSequence), this.readOffset, reason);
+        this.corruptedCount++;
+        this.readOffset = this.segments.get(this.readSequence);
+    }
+
+    /**
+     * 获取读取分段文件
+     *
+     * @return 返回文件通道
+     * @throws IOException IO异常
+     */
+    private FileChannel reader() throws IOException {
+        if (this.readSequence == this.writeSequence) {
+            return this.writeChannel;
+        }
+        if (this.readChannel == null) {
+            this.readChannel = FileChannel.open(this.segmentPath(this.readSequence), StandardOpenOption.READ);
+        }
+        return this.readChannel;
+    }
+
+    /**
+     * 关闭读取分段文件
+     *
+     * @throws IOException IO异常
+     */
+    private void closeReader() throws IOException {
+        if (this.readChannel != null) {
+            this.readChannel.close();
+            this.readChannel = null;
+        }
+    }
+
+    /**
+     * 滚动写入分段
+     *
+     * @throws IOException IO异常
+     */
+    private void roll() throws IOException {
+        this.writeChannel.force(false);
+        if (this.readSequence == this.writeSequence) {
+            // 读取分段改为独立打开
+            this.readChannel = this.writeChannel;
+        } else {
+            this.writeChannel.close();
+        }
+        this.openWriter(this.writeSequence + 1);
+    }
+
+    /**
+     * 打开新的写入分段
+     *
+     * @param sequence 分段序号
+     * @throws IOException IO异常
+     */
+    private void openWriter(long sequence) throws IOException {
+        this.writeChannel = FileChannel.open(this.segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.writeSequence = sequence;
+        this.segments.put(sequence, 0L);
+    }
+
+    /**
+     * 读取检查点
+     *
+     * @return 返回分段序号及分段内偏移，不存在或损坏时返回null
+     * @throws IOException IO异常
+     */
+    private long[] readCheckpoint() throws IOException {
+        Path path = this.directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() == 20) {
+            long sequence = buffer.getLong();
+            long offset = buffer.getLong();
+            this.crc.reset();
+            this.crc.update(buffer.array(), 0, 16);
+            if ((int) this.crc.getValue() == buffer.getInt()) {
+                return new long[]{sequence, offset};
+            }
+        }
+        logger.warn("溢出队列检查点已损坏，将从最早的分段开始读取：{}", path);
+        return null;
+    }
+
+    /**
+     * 写入检查点（先写临时文件再原子替换）
+     *
+     * @param sequence 分段序号
+     * @param offset   分段内偏移
+     * @throws IOException IO异常
+     */
+    private void writeCheckpoint(long sequence, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(20).putLong(sequence).putLong(offset);
+        this.crc.reset();
+        this.crc.update(buffer.array(), 0, 16);
+        buffer.putInt((int) this.crc.getValue());
+        Path target = this.directory.resolve(CHECKPOINT_FILE);
+        Path temp = this.directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, buffer.array());
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 分段文件路径
+     *
+     * @param sequence 分段序号
+     * @return 返回文件路径
+     */
+    private Path segmentPath(long sequence) {
+        return this.directory.resolve(String.format("%s%020d%s", FILE_PREFIX, sequence, FILE_SUFFIX));
+    }
+
+    /**
+     * 在指定位置完整写入
+     *
+     * @param channel  文件通道
+     * @param buffer   内容
+     * @param position 位置
+     * @throws IOException IO异常
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * 在指定位置完整读取
+     *
+     * @param channel  文件通道
+     * @param buffer   缓冲区
+     * @param position 位置
+     * @throws IOException IO异常，文件长度不足时抛出
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("unexpected end of spill segment");
+            }
+            position += read;
+        }
+    }
+}
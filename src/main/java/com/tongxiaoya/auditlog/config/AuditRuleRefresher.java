@@ -0,0 +1,78 @@
+package com.tongxiaoya.auditlog.config;
+
+import com.tongxiaoya.auditlog.rule.AuditRule;
+import com.tongxiaoya.auditlog.rule.AuditRuleRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 审计规则刷新
+ * <p>
+ * 配置刷新（Spring Cloud的EnvironmentChangeEvent、RefreshScopeRefreshedEvent）后从环境重新绑定审计规则，
+ * 按事件类名判断，无需依赖Spring Cloud
+ *
+ * @since 1.8
+ */
+class AuditRuleRefresher implements ApplicationListener<ApplicationEvent> {
+
+    /**
+     * 刷新事件类名
+     */
+    private static final Set<String> REFRESH_EVENTS = new HashSet<>(Arrays.asList(
+            "org.springframework.cloud.context.environment.EnvironmentChangeEvent",
+            "org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent"
+    ));
+
+    /**
+     * 环境
+     */
+    private final Environment environment;
+    /**
+     * 审计规则注册表
+     */
+    private final AuditRuleRegistry registry;
+    /**
+     * 刷新事件类名
+     */
+    private final Set<String> refreshEvents;
+
+    /**
+     * 构造
+     *
+     * @param environment 环境
+     * @param registry    审计规则注册表
+     */
+    AuditRuleRefresher(Environment environment, AuditRuleRegistry registry) {
+        this(environment, registry, REFRESH_EVENTS);
+    }
+
+    /**
+     * 构造
+     *
+     * @param environment   环境
+     * @param registry      审计规则注册表
+     * @param refreshEvents 刷新事件类名
+     */
+    AuditRuleRefresher(Environment environment, AuditRuleRegistry registry, Set<String> refreshEvents) {
+        this.environment = environment;
+        this.registry = registry;
+        this.refreshEvents = refreshEvents;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (this.refreshEvents.contains(event.getClass().getName())) {
+            this.registry.setPropertyRules(Binder.get(this.environment)
+                    .bind("auditlog.rules", Bindable.listOf(AuditRule.class))
+                    .orElse(Collections.emptyList()));
+        }
+    }
+}
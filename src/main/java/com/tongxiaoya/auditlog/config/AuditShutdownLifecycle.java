@@ -0,0 +1,57 @@
+package com.tongxiaoya.auditlog.config;
+
+import com.tongxiaoya.auditlog.log.LogProcessor;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * 审计日志关闭顺序
+ * <p>
+ * 容器关闭时生命周期的停止先于任何Bean的销毁，在此阶段由日志处理器依次输出去重汇总、
+ * 异步缓冲区中的事件并刷新输出端，保证输出端关闭（destroyMethod）之前事件已全部写出；
+ * 位于最晚启动、最早停止的阶段
+ *
+ * @since 1.8
+ */
+class AuditShutdownLifecycle implements SmartLifecycle {
+
+    /**
+     * 日志处理器
+     */
+    private final LogProcessor processor;
+    /**
+     * 运行标志
+     */
+    private volatile boolean running;
+
+    /**
+     * 构造
+     *
+     * @param processor 日志处理器
+     */
+    AuditShutdownLifecycle(LogProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public void start() {
+        this.running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (this.running) {
+            this.running = false;
+            this.processor.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
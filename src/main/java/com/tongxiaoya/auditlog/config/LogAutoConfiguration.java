@@ -1,10 +1,60 @@
 package com.tongxiaoya.auditlog.config;
 
+import com.tongxiaoya.auditlog.async.AsyncAuditDispatcher;
+import com.tongxiaoya.auditlog.async.OverflowPolicy;
+import com.tongxiaoya.auditlog.async.SpillQueue;
+import com.tongxiaoya.auditlog.dedup.ThrowableDeduplicator;
+import com.tongxiaoya.auditlog.format.AuditFormat;
+import com.tongxiaoya.auditlog.format.AuditFormatter;
+import com.tongxiaoya.auditlog.format.BinaryAuditEncoder;
+import com.tongxiaoya.auditlog.format.JsonAuditFormatter;
+import com.tongxiaoya.auditlog.format.TextAuditFormatter;
+import com.tongxiaoya.auditlog.journal.BinaryJournalAuditSink;
+import com.tongxiaoya.auditlog.journal.JournalAuditSink;
+import com.tongxiaoya.auditlog.journal.JournalWriter;
+import com.tongxiaoya.auditlog.log.AuditEventCodec;
 import com.tongxiaoya.auditlog.log.LogProcessor;
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import com.tongxiaoya.auditlog.metrics.AuditMetrics;
+import com.tongxiaoya.auditlog.metrics.MicrometerAuditMetrics;
+import com.tongxiaoya.auditlog.metrics.MicrometerDispatcherMetrics;
+import com.tongxiaoya.auditlog.reactive.AsyncResultHandler;
+import com.tongxiaoya.auditlog.reactive.AsyncResultHandlers;
+import com.tongxiaoya.auditlog.render.ArrayRenderer;
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import com.tongxiaoya.auditlog.render.TypeRenderer;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+import com.tongxiaoya.auditlog.rule.AuditRuleEndpoint;
+import com.tongxiaoya.auditlog.rule.AuditRuleRegistry;
+import com.tongxiaoya.auditlog.scope.AuditScopeFilter;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import com.tongxiaoya.auditlog.sink.JdbcAuditSink;
+import com.tongxiaoya.auditlog.sink.Slf4jAuditSink;
+import com.tongxiaoya.auditlog.sink.TcpAuditSink;
+import com.tongxiaoya.auditlog.support.MethodParser;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 日志自动装配
@@ -13,10 +63,242 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @ConditionalOnClass({Logger.class})
+@EnableConfigurationProperties(LogProperties.class)
+@AutoConfigureAfter(name = "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration")
 public class LogAutoConfiguration {
 
     @Bean
-    public LogProcessor logProcessor() {
-        return new LogProcessor();
+    public LogProcessor logProcessor(ObjectProvider<AuditSink> sinks, ObjectProvider<AsyncAuditDispatcher> dispatcher,
+                                     ObjectProvider<ThrowableDeduplicator> deduplicator, ObjectProvider<AsyncResultHandler> asyncHandlers,
+                                     AuditMetrics auditMetrics, AuditRuleRegistry auditRuleRegistry, MaskingPolicy auditMaskingPolicy,
+                                     LogProperties properties) {
+        LogProcessor processor = new LogProcessor();
+        processor.setClassFileParsing(properties.isClassFileParsing());
+        MethodParser.getCache().setMaxSize(properties.getMethodCacheSize());
+        processor.setMetrics(auditMetrics);
+        processor.setRules(auditRuleRegistry);
+        processor.setSlowThreshold(properties.getSlowThreshold());
+        processor.setLoggerRouting(properties.getSlf4j().getRouting(), properties.getSlf4j().getCategoryPrefix());
+        processor.setSinks(sinks.orderedStream().collect(Collectors.toList()));
+        List<AsyncResultHandler> handlers = asyncHandlers.orderedStream().collect(Collectors.toList());
+        handlers.addAll(AsyncResultHandlers.create(properties.getRender().getMaxElements()));
+        processor.setAsyncHandlers(handlers);
+        processor.setMasking(auditMaskingPolicy);
+        dispatcher.ifAvailable(processor::setDispatcher);
+        deduplicator.ifAvailable(processor::setDeduplicator);
+        return processor;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AuditMetrics.class)
+    public AuditMetrics auditMetrics() {
+        return new AuditMetrics();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AuditRuleRegistry.class)
+    public AuditRuleRegistry auditRuleRegistry(LogProperties properties) {
+        AuditRuleRegistry registry = new AuditRuleRegistry();
+        registry.setPropertyRules(properties.getRules());
+        return registry;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(MaskingPolicy.class)
+    public MaskingPolicy auditMaskingPolicy(LogProperties properties) {
+        LogProperties.Mask mask = properties.getMask();
+        return mask.isEnabled() ? MaskingPolicy.of(mask.getRules()) : MaskingPolicy.disabled();
+    }
+
+    @Bean
+    public AuditRuleRefresher auditRuleRefresher(Environment environment, AuditRuleRegistry auditRuleRegistry) {
+        return new AuditRuleRefresher(environment, auditRuleRegistry);
+    }
+
+    @Bean
+    public AuditShutdownLifecycle auditShutdownLifecycle(LogProcessor logProcessor) {
+        return new AuditShutdownLifecycle(logProcessor);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "auditlog.slf4j", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public Slf4jAuditSink slf4jAuditSink(AuditFormatter auditFormatter) {
+        return new Slf4jAuditSink(auditFormatter);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AuditFormatter.class)
+    public AuditFormatter auditFormatter(LogProperties properties, ValueRenderer auditValueRenderer) {
+        if (properties.getFormat() == AuditFormat.JSON) {
+            return new JsonAuditFormatter(auditValueRenderer, properties.getRender().getMaxStackDepth());
+        }
+        return new TextAuditFormatter(auditValueRenderer, properties.getRender().getMaxStackDepth());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ValueRenderer.class)
+    public ValueRenderer auditValueRenderer(LogProperties properties, ObjectProvider<TypeRenderer<?>> typeRenderers, MaskingPolicy auditMaskingPolicy) {
+        LogProperties.Render render = properties.getRender();
+        Map<Class<?>, TypeRenderer<?>> customRenderers = new HashMap<>();
+        typeRenderers.orderedStream().forEach(renderer -> {
+            Class<?> type = ResolvableType.forClass(TypeRenderer.class, renderer.getClass()).resolveGeneric(0);
+            if (type != null) {
+                customRenderers.putIfAbsent(type, renderer);
+            }
+        });
+        return new ObjectGraphRenderer(
+                render.getMaxLength(),
+                render.getMaxDepth(),
+                render.getMaxElements(),
+                new ArrayRenderer(render.getMaxElements(), render.getMaxBytes(), render.getByteFormat()),
+                customRenderers,
+                auditMaskingPolicy,
+                render.getFieldTypes()
+        );
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "auditlog.async", name = "enabled", havingValue = "true")
+    public AsyncAuditDispatcher asyncAuditDispatcher(LogProperties properties, ValueRenderer auditValueRenderer) throws IOException {
+        LogProperties.Async async = properties.getAsync();
+        AsyncAuditDispatcher dispatcher = new AsyncAuditDispatcher(async.getBufferSize(), async.getOverflowPolicy(), async.getSampleRate(), async.getShutdownTimeout());
+        if (async.getOverflowPolicy() == OverflowPolicy.SPILL) {
+            LogProperties.Spill spill = async.getSpill();
+            dispatcher.setSpill(
+                    new SpillQueue(Paths.get(spill.getDirectory()), spill.getSegmentSize(), spill.getMaxBytes()),
+                    new AuditEventCodec(auditValueRenderer)
+            );
+        }
+        return dispatcher;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "auditlog.dedup", name = "enabled", havingValue = "true")
+    public ThrowableDeduplicator throwableDeduplicator(LogProperties properties) {
+        LogProperties.Dedup dedup = properties.getDedup();
+        return new ThrowableDeduplicator(dedup.getWindow(), dedup.getMaxEntries(), dedup.getFingerprintDepth());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "auditlog.journal", name = "enabled", havingValue = "true")
+    public AuditSink journalAuditSink(LogProperties properties, ValueRenderer auditValueRenderer) throws IOException {
+        LogProperties.Journal journal = properties.getJournal();
+        JournalWriter writer = new JournalWriter(
+                Paths.get(journal.getDirectory()),
+                journal.getSegmentSize(),
+                journal.getRollInterval(),
+                journal.getSyncInterval()
+        );
+        if (journal.isBinary()) {
+            return new BinaryJournalAuditSink(writer, new BinaryAuditEncoder(auditValueRenderer, properties.getRender().getMaxStackDepth()));
+        }
+        return new JournalAuditSink(writer, new JsonAuditFormatter(auditValueRenderer, properties.getRender().getMaxStackDepth()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "auditlog.tcp", name = "enabled", havingValue = "true")
+    public TcpAuditSink tcpAuditSink(LogProperties properties, ValueRenderer auditValueRenderer) {
+        LogProperties.Tcp tcp = properties.getTcp();
+        TcpAuditSink sink = new TcpAuditSink(
+                tcp.getHost(),
+                tcp.getPort(),
+                new JsonAuditFormatter(auditValueRenderer, properties.getRender().getMaxStackDepth()),
+                tcp.getBatchSize(),
+                tcp.getFlushInterval(),
+                tcp.getBufferSize(),
+                tcp.getConnectTimeout(),
+                tcp.getAckTimeout(),
+                tcp.getRetryBackoff(),
+                tcp.getMaxRetryBackoff(),
+                tcp.getCompressionLevel()
+        );
+        sink.setOfferTimeout(tcp.getOfferTimeout());
+        return sink;
+    }
+
+    /**
+     * JDBC输出端装配
+     *
+     * @since 1.8
+     */
+    @Configuration
+    @ConditionalOnClass(DataSource.class)
+    @ConditionalOnProperty(prefix = "auditlog.jdbc", name = "enabled", havingValue = "true")
+    static class JdbcSinkConfiguration {
+
+        @Bean(initMethod = "start", destroyMethod = "close")
+        @ConditionalOnSingleCandidate(DataSource.class)
+        public JdbcAuditSink jdbcAuditSink(DataSource dataSource, ValueRenderer auditValueRenderer, LogProperties properties) {
+            LogProperties.Jdbc jdbc = properties.getJdbc();
+            JdbcAuditSink sink = new JdbcAuditSink(
+                    dataSource,
+                    auditValueRenderer,
+                    jdbc.getTableName(),
+                    jdbc.getBatchSize(),
+                    jdbc.getFlushInterval(),
+                    jdbc.getMaxRetries(),
+                    jdbc.getRetryBackoff(),
+                    jdbc.getQueueCapacity()
+            );
+            sink.setOfferTimeout(jdbc.getOfferTimeout());
+            return sink;
+        }
+    }
+
+    /**
+     * Actuator端点装配
+     *
+     * @since 1.8
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(AuditRuleEndpoint.class)
+        public AuditRuleEndpoint auditRuleEndpoint(AuditRuleRegistry auditRuleRegistry) {
+            return new AuditRuleEndpoint(auditRuleRegistry);
+        }
+    }
+
+    /**
+     * Micrometer指标装配
+     *
+     * @since 1.8
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerMetricsConfiguration {
+
+        @Bean
+        public MicrometerAuditMetrics micrometerAuditMetrics(AuditMetrics auditMetrics) {
+            return new MicrometerAuditMetrics(auditMetrics);
+        }
+
+        @Bean
+        @ConditionalOnProperty(prefix = "auditlog.async", name = "enabled", havingValue = "true")
+        public MicrometerDispatcherMetrics micrometerDispatcherMetrics(AsyncAuditDispatcher asyncAuditDispatcher) {
+            return new MicrometerDispatcherMetrics(asyncAuditDispatcher);
+        }
+    }
+
+    /**
+     * 请求审计范围装配
+     *
+     * @since 1.8
+     */
+    @Configuration
+    @ConditionalOnClass(name = "javax.servlet.Filter")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "auditlog.scope", name = "enabled", havingValue = "true")
+    static class ScopeConfiguration {
+
+        @Bean
+        public FilterRegistrationBean<AuditScopeFilter> auditScopeFilter(LogProperties properties) {
+            LogProperties.Scope scope = properties.getScope();
+            FilterRegistrationBean<AuditScopeFilter> registration = new FilterRegistrationBean<>(new AuditScopeFilter(scope.getCapacity(), scope.isSummary()));
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+            return registration;
+        }
     }
 }
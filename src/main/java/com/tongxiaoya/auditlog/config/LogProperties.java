@@ -0,0 +1,881 @@
+package com.tongxiaoya.auditlog.config;
+
+import com.tongxiaoya.auditlog.async.OverflowPolicy;
+import com.tongxiaoya.auditlog.format.AuditFormat;
+import com.tongxiaoya.auditlog.log.LoggerRouting;
+import com.tongxiaoya.auditlog.mask.MaskType;
+import com.tongxiaoya.auditlog.render.ByteFormat;
+import com.tongxiaoya.auditlog.rule.AuditRule;
+import com.tongxiaoya.auditlog.support.MethodInfoCache;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日志配置
+ *
+ * @since 1.8
+ */
+@ConfigurationProperties(prefix = "auditlog")
+public class LogProperties {
+
+    /**
+     * 输出格式
+     */
+    private AuditFormat format = AuditFormat.TEXT;
+    /**
+     * 慢调用阈值（毫秒，0为关闭）：@Log仅输出耗时超过阈值或抛出异常的调用
+     */
+    private long slowThreshold = 0L;
+    /**
+     * 是否允许运行时读取类文件获取代码定位（关闭时仅使用编译期元数据索引；GraalVM本地镜像中始终关闭）
+     */
+    private boolean classFileParsing = true;
+    /**
+     * 方法信息缓存容量（运行时读取类文件得到的代码定位按方法缓存，全局生效，超出时按写入顺序淘汰）
+     */
+    private int methodCacheSize = MethodInfoCache.DEFAULT_MAX_SIZE;
+    /**
+     * 异步配置
+     */
+    private final Async async = new Async();
+    /**
+     * SLF4J输出端配置
+     */
+    private final Slf4j slf4j = new Slf4j();
+    /**
+     * JDBC输出端配置
+     */
+    private final Jdbc jdbc = new Jdbc();
+    /**
+     * 文件输出端配置
+     */
+    private final Journal journal = new Journal();
+    /**
+     * TCP输出端配置
+     */
+    private final Tcp tcp = new Tcp();
+    /**
+     * 渲染配置
+     */
+    private final Render render = new Render();
+    /**
+     * 请求审计范围配置
+     */
+    private final Scope scope = new Scope();
+    /**
+     * 异常去重配置
+     */
+    private final Dedup dedup = new Dedup();
+    /**
+     * 脱敏配置
+     */
+    private final Mask mask = new Mask();
+    /**
+     * 审计规则（按顺序匹配，首个匹配的规则生效）
+     */
+    private List<AuditRule> rules = new ArrayList<>();
+
+    public AuditFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(AuditFormat format) {
+        this.format = format;
+    }
+
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(long slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public boolean isClassFileParsing() {
+        return classFileParsing;
+    }
+
+    public void setClassFileParsing(boolean classFileParsing) {
+        this.classFileParsing = classFileParsing;
+    }
+
+    public int getMethodCacheSize() {
+        return methodCacheSize;
+    }
+
+    public void setMethodCacheSize(int methodCacheSize) {
+        this.methodCacheSize = methodCacheSize;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Render getRender() {
+        return render;
+    }
+
+    public Slf4j getSlf4j() {
+        return slf4j;
+    }
+
+    public Jdbc getJdbc() {
+        return jdbc;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public Tcp getTcp() {
+        return tcp;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public Dedup getDedup() {
+        return dedup;
+    }
+
+    public Mask getMask() {
+        return mask;
+    }
+
+    public List<AuditRule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<AuditRule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 异步配置
+     *
+     * @since 1.8
+     */
+    public static class Async {
+        /**
+         * 是否开启异步输出
+         */
+        private boolean enabled = false;
+        /**
+         * 缓冲区大小（向上取整为2的幂）
+         */
+        private int bufferSize = 8192;
+        /**
+         * 缓冲区满时处理策略
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        /**
+         * 采样比例（SAMPLE策略下超过高水位后每N个事件保留1个）
+         */
+        private int sampleRate = 10;
+        /**
+         * 关闭时等待输出缓冲区的超时时间（毫秒，不读取溢出队列）
+         */
+        private long shutdownTimeout = 5000L;
+        /**
+         * 磁盘溢出队列配置（SPILL策略）
+         */
+        private final Spill spill = new Spill();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(long shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+
+        public Spill getSpill() {
+            return spill;
+        }
+    }
+
+    /**
+     * 磁盘溢出队列配置
+     *
+     * @since 1.8
+     */
+    public static class Spill {
+        /**
+         * 目录
+         */
+        private String directory = "audit-spill";
+        /**
+         * 分段大小（字节）
+         */
+        private long segmentSize = 16 * 1024 * 1024;
+        /**
+         * 磁盘占用上限（字节，达到上限后阻塞调用线程）
+         */
+        private long maxBytes = 1024 * 1024 * 1024;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(long segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    /**
+     * 渲染配置
+     *
+     * @since 1.8
+     */
+    public static class Render {
+        /**
+         * 单个参数或返回结果的最大输出长度
+         */
+        private int maxLength = 4096;
+        /**
+         * 对象图最大遍历深度
+         */
+        private int maxDepth = 3;
+        /**
+         * 数组及集合最大输出元素数量
+         */
+        private int maxElements = 100;
+        /**
+         * 字节数组最大输出字节数
+         */
+        private int maxBytes = 32;
+        /**
+         * 字节数组输出格式
+         */
+        private ByteFormat byteFormat = ByteFormat.HEX;
+        /**
+         * 异常堆栈最大输出层数（0为不限制）
+         */
+        private int maxStackDepth = 0;
+        /**
+         * 按字段输出的类型（全类名或包名，包含子包；其他类型使用toString输出）
+         */
+        private List<String> fieldTypes = new ArrayList<>();
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxElements() {
+            return maxElements;
+        }
+
+        public void setMaxElements(int maxElements) {
+            this.maxElements = maxElements;
+        }
+
+        public int getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public ByteFormat getByteFormat() {
+            return byteFormat;
+        }
+
+        public void setByteFormat(ByteFormat byteFormat) {
+            this.byteFormat = byteFormat;
+        }
+
+        public int getMaxStackDepth() {
+            return maxStackDepth;
+        }
+
+        public void setMaxStackDepth(int maxStackDepth) {
+            this.maxStackDepth = maxStackDepth;
+        }
+
+        public List<String> getFieldTypes() {
+            return fieldTypes;
+        }
+
+        public void setFieldTypes(List<String> fieldTypes) {
+            this.fieldTypes = fieldTypes;
+        }
+    }
+
+    /**
+     * SLF4J输出端配置
+     *
+     * @since 1.8
+     */
+    public static class Slf4j {
+        /**
+         * 是否开启
+         */
+        private boolean enabled = true;
+        /**
+         * 日志路由（PROCESSOR：统一输出至日志处理器的日志；TARGET：输出至切入方法所在类的日志）
+         */
+        private LoggerRouting routing = LoggerRouting.PROCESSOR;
+        /**
+         * 日志分类前缀（仅对TARGET生效，日志名称为“前缀.全类名”）
+         */
+        private String categoryPrefix;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public LoggerRouting getRouting() {
+            return routing;
+        }
+
+        public void setRouting(LoggerRouting routing) {
+            this.routing = routing;
+        }
+
+        public String getCategoryPrefix() {
+            return categoryPrefix;
+        }
+
+        public void setCategoryPrefix(String categoryPrefix) {
+            this.categoryPrefix = categoryPrefix;
+        }
+    }
+
+    /**
+     * JDBC输出端配置
+     *
+     * @since 1.8
+     */
+    public static class Jdbc {
+        /**
+         * 是否开启
+         */
+        private boolean enabled = false;
+        /**
+         * 表名
+         */
+        private String tableName = "audit_log";
+        /**
+         * 批量大小
+         */
+        private int batchSize = 100;
+        /**
+         * 刷新间隔（毫秒）
+         */
+        private long flushInterval = 1000L;
+        /**
+         * 瞬时故障最大重试次数
+         */
+        private int maxRetries = 3;
+        /**
+         * 重试退避时间（毫秒）
+         */
+        private long retryBackoff = 200L;
+        /**
+         * 待写入队列容量
+         */
+        private int queueCapacity = 10000;
+        /**
+         * 队列已满时写入方最长等待时间（毫秒，超时后拒绝，由异步分发器重试或溢出）
+         */
+        private long offerTimeout = 1000L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public void setTableName(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public long getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(long retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getOfferTimeout() {
+            return offerTimeout;
+        }
+
+        public void setOfferTimeout(long offerTimeout) {
+            this.offerTimeout = offerTimeout;
+        }
+    }
+
+    /**
+     * TCP输出端配置
+     *
+     * @since 1.8
+     */
+    public static class Tcp {
+        /**
+         * 是否开启
+         */
+        private boolean enabled = false;
+        /**
+         * 采集端主机
+         */
+        private String host = "localhost";
+        /**
+         * 采集端端口
+         */
+        private int port = 9400;
+        /**
+         * 批量大小
+         */
+        private int batchSize = 500;
+        /**
+         * 刷新间隔（毫秒）
+         */
+        private long flushInterval = 1000L;
+        /**
+         * 内存缓冲上限（字节，采集端不可用时写入方阻塞等待）
+         */
+        private long bufferSize = 16L * 1024 * 1024;
+        /**
+         * 内存缓冲已满时写入方最长等待时间（毫秒，超时后拒绝，由异步分发器重试或溢出）
+         */
+        private long offerTimeout = 1000L;
+        /**
+         * 连接超时（毫秒）
+         */
+        private int connectTimeout = 3000;
+        /**
+         * 确认超时（毫秒）
+         */
+        private int ackTimeout = 5000;
+        /**
+         * 重连初始退避时间（毫秒，按失败次数指数增长）
+         */
+        private long retryBackoff = 200L;
+        /**
+         * 重连最大退避时间（毫秒）
+         */
+        private long maxRetryBackoff = 30000L;
+        /**
+         * deflate压缩级别（1~9）
+         */
+        private int compressionLevel = 1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public long getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(long bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public long getOfferTimeout() {
+            return offerTimeout;
+        }
+
+        public void setOfferTimeout(long offerTimeout) {
+            this.offerTimeout = offerTimeout;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public int getAckTimeout() {
+            return ackTimeout;
+        }
+
+        public void setAckTimeout(int ackTimeout) {
+            this.ackTimeout = ackTimeout;
+        }
+
+        public long getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(long retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public long getMaxRetryBackoff() {
+            return maxRetryBackoff;
+        }
+
+        public void setMaxRetryBackoff(long maxRetryBackoff) {
+            this.maxRetryBackoff = maxRetryBackoff;
+        }
+
+        public int getCompressionLevel() {
+            return compressionLevel;
+        }
+
+        public void setCompressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+        }
+    }
+
+    /**
+     * 文件输出端配置
+     *
+     * @since 1.8
+     */
+    public static class Journal {
+        /**
+         * 是否开启
+         */
+        private boolean enabled = false;
+        /**
+         * 目录
+         */
+        private String directory = "audit-journal";
+        /**
+         * 分段大小（字节）
+         */
+        private int segmentSize = 64 * 1024 * 1024;
+        /**
+         * 分段滚动间隔（毫秒，小于等于0时仅按大小滚动）
+         */
+        private long rollInterval = 3600000L;
+        /**
+         * 组提交刷盘间隔（毫秒，小于等于0时每条记录刷盘）
+         */
+        private long syncInterval = 100L;
+        /**
+         * 是否使用二进制格式（方法信息按模式编号仅写入一次，使用JournalDecoder转换为JSON）
+         */
+        private boolean binary = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public long getRollInterval() {
+            return rollInterval;
+        }
+
+        public void setRollInterval(long rollInterval) {
+            this.rollInterval = rollInterval;
+        }
+
+        public long getSyncInterval() {
+            return syncInterval;
+        }
+
+        public void setSyncInterval(long syncInterval) {
+            this.syncInterval = syncInterval;
+        }
+
+        public boolean isBinary() {
+            return binary;
+        }
+
+        public void setBinary(boolean binary) {
+            this.binary = binary;
+        }
+    }
+
+    /**
+     * 请求审计范围配置
+     *
+     * @since 1.8
+     */
+    public static class Scope {
+        /**
+         * 是否开启
+         */
+        private boolean enabled = false;
+        /**
+         * 每个请求暂存的最大事件数量
+         */
+        private int capacity = 64;
+        /**
+         * 丢弃暂存事件时是否输出摘要
+         */
+        private boolean summary = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public boolean isSummary() {
+            return summary;
+        }
+
+        public void setSummary(boolean summary) {
+            this.summary = summary;
+        }
+    }
+
+    /**
+     * 异常去重配置
+     *
+     * @since 1.8
+     */
+    public static class Dedup {
+        /**
+         * 是否开启
+         */
+        private boolean enabled = false;
+        /**
+         * 时间窗口（毫秒）
+         */
+        private long window = 60000L;
+        /**
+         * 最大窗口数量
+         */
+        private int maxEntries = 1024;
+        /**
+         * 参与指纹计算的栈顶帧数
+         */
+        private int fingerprintDepth = 8;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindow() {
+            return window;
+        }
+
+        public void setWindow(long window) {
+            this.window = window;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getFingerprintDepth() {
+            return fingerprintDepth;
+        }
+
+        public void setFingerprintDepth(int fingerprintDepth) {
+            this.fingerprintDepth = fingerprintDepth;
+        }
+    }
+
+    /**
+     * 脱敏配置
+     *
+     * @since 1.8
+     */
+    public static class Mask {
+        /**
+         * 是否开启（关闭时同时忽略@Sensitive注解）
+         */
+        private boolean enabled = true;
+        /**
+         * 按名称的脱敏规则（字段名称、参数名称或Map键与脱敏类型的映射，如：phone: PHONE；忽略大小写及连字符、下划线）
+         */
+        private Map<String, MaskType> rules = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Map<String, MaskType> getRules() {
+            return rules;
+        }
+
+        public void setRules(Map<String, MaskType> rules) {
+            this.rules = rules;
+        }
+    }
+}
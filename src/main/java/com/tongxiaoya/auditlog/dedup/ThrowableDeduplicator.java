@@ -0,0 +1,284 @@
+package com.tongxiaoya.auditlog.dedup;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 异常去重器
+ * <p>
+ * 相同指纹的异常（@ThrowingLog异常事件及@Log失败的调用事件）在时间窗口内仅输出首次事件，其余计数；窗口结束后输出一条汇总事件（重复次数、首次及末次时间）。
+ * 窗口数量有上限，超出时不再去重，直接输出。
+ * <p>
+ * 每次失败在业务线程上的开销：计算指纹（异常部分按异常对象缓存，仅在同一异常穿过多层切入方法时命中；
+ * 每次调用新抛出的异常仍需一次{@link Throwable#getStackTrace()}，开销与栈深成正比，通常是去重的主要成本），
+ * 加一次窗口查找。窗口已满时业务线程顺带清理已结束的窗口（遍历全部窗口），每个清理周期内至多一次，
+ * 其余调用直接输出，不会在失败高峰中对每个新指纹重复遍历
+ *
+ * @since 1.8
+ */
+public class ThrowableDeduplicator implements AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 时间窗口（毫秒）
+     */
+    private final long window;
+    /**
+     * 最大窗口数量
+     */
+    private final int maxEntries;
+    /**
+     * 参与指纹计算的栈顶帧数
+     */
+    private final int fingerprintDepth;
+    /**
+     * 清理周期（毫秒）
+     */
+    private final long sweepPeriod;
+    /**
+     * 时钟（毫秒）
+     */
+    private final LongSupplier clock;
+    /**
+     * 业务线程上次清理时间（毫秒）
+     */
+    private final AtomicLong lastInlineSweep = new AtomicLong(Long.MIN_VALUE);
+    /**
+     * 去重窗口
+     */
+    private final ConcurrentMap<Long, Window> windows = new ConcurrentHashMap<>();
+    /**
+     * 被合并的异常数量
+     */
+    private final LongAdder suppressed = new LongAdder();
+    /**
+     * 窗口清理线程
+     */
+    private final ScheduledExecutorService sweeper;
+    /**
+     * 汇总事件输出
+     */
+    private volatile Consumer<AuditEvent> output;
+
+    /**
+     * 构造
+     *
+     * @param window           时间窗口（毫秒）
+     * @param maxEntries       最大窗口数量
+     * @param fingerprintDepth 参与指纹计算的栈顶帧数
+     */
+    public ThrowableDeduplicator(long window, int maxEntries, int fingerprintDepth) {
+        this(window, maxEntries, fingerprintDepth, System::currentTimeMillis);
+    }
+
+    /**
+     * 构造
+     *
+     * @param window           时间窗口（毫秒）
+     * @param maxEntries       最大窗口数量
+     * @param fingerprintDepth 参与指纹计算的栈顶帧数
+     * @param clock            时钟（毫秒）
+     */
+    ThrowableDeduplicator(long window, int maxEntries, int fingerprintDepth, LongSupplier clock) {
+        this.window = Math.max(1L, window);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.fingerprintDepth = Math.max(1, fingerprintDepth);
+        this.sweepPeriod = Math.min(this.window, 1000L);
+        this.clock = clock;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auditlog-dedup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 启动窗口清理
+     *
+     * @param output 汇总事件输出
+     */
+    public synchronized void start(Consumer<AuditEvent> output) {
+        if (this.output != null) {
+            return;
+        }
+        this.output = output;
+        this.sweeper.scheduleWithFixedDelay(this::sweep, this.sweepPeriod, this.sweepPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 判断异常事件是否输出
+     *
+     * @param event 异常事件或失败的调用事件
+     * @return 返回布尔值，窗口内的重复异常返回false
+     */
+    public boolean accept(AuditEvent event) {
+        long fingerprint = ThrowableFingerprint.of(event.getType(), event.getPlan().getMethod(), event.getThrowable(), this.fingerprintDepth);
+        long now = this.clock.getAsLong();
+        Window current = this.windows.get(fingerprint);
+        if (current != null) {
+            if (current.suppress(now)) {
+                this.suppressed.increment();
+                return false;
+            }
+            if (this.windows.remove(fingerprint, current)) {
+                this.emit(current);
+            }
+        }
+        if (this.windows.size() >= this.maxEntries) {
+            if (!this.trySweep(now) || this.windows.size() >= this.maxEntries) {
+                return true;
+            }
+        }
+        Window previous = this.windows.putIfAbsent(fingerprint, new Window(event, now + this.window));
+        if (previous != null && previous.suppress(now)) {
+            this.suppressed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 被合并的异常数量
+     *
+     * @return 返回数量
+     */
+    public long getSuppressedCount() {
+        return this.suppressed.sum();
+    }
+
+    /**
+     * 输出全部未结束窗口的汇总并停止清理线程
+     */
+    @Override
+    public void close() {
+        this.sweeper.shutdownNow();
+        for (Map.Entry<Long, Window> entry : this.windows.entrySet()) {
+            if (this.windows.remove(entry.getKey(), entry.getValue())) {
+                this.emit(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 窗口已满时在业务线程上清理（每个清理周期至多一次）
+     *
+     * @param now 当前时间（毫秒）
+     * @return 返回是否进行了清理
+     */
+    private boolean trySweep(long now) {
+        long last = this.lastInlineSweep.get();
+        if (last != Long.MIN_VALUE && now - last < this.sweepPeriod || !this.lastInlineSweep.compareAndSet(last, now)) {
+            return false;
+        }
+        this.sweep();
+        return true;
+    }
+
+    /**
+     * 清理已结束的窗口
+     */
+    private void sweep() {
+        long now = this.clock.getAsLong();
+        for (Map.Entry<Long, Window> entry : this.windows.entrySet()) {
+            Window window = entry.getValue();
+            if (window.isExpired(now) && this.windows.remove(entry.getKey(), window)) {
+                this.emit(window);
+            }
+        }
+    }
+
+    /**
+     * 结束窗口并输出汇总事件
+     *
+     * @param window 去重窗口
+     */
+    private void emit(Window window) {
+        AuditEvent summary = window.close();
+        Consumer<AuditEvent> output = this.output;
+        if (summary == null || output == null) {
+            return;
+        }
+        try {
+            output.accept(summary);
+        } catch (Exception e) {
+            logger.error("重复异常汇总输出失败", e);
+        }
+    }
+
+    /**
+     * 去重窗口
+     *
+     * @since 1.8
+     */
+    private static final class Window {
+        /**
+         * 首次事件
+         */
+        private final AuditEvent first;
+        /**
+         * 窗口结束时间（毫秒）
+         */
+        private final long deadline;
+        /**
+         * 重复次数
+         */
+        private int count;
+        /**
+         * 首次重复时间（毫秒）
+         */
+        private long firstTimestamp;
+        /**
+         * 末次重复时间（毫秒）
+         */
+        private long lastTimestamp;
+        /**
+         * 是否已结束
+         */
+        private boolean closed;
+
+        Window(AuditEvent first, long deadline) {
+            this.first = first;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 窗口内计数
+         *
+         * @param now 当前时间（毫秒）
+         * @return 返回是否计入本窗口
+         */
+        synchronized boolean suppress(long now) {
+            if (this.closed || now >= this.deadline) {
+                return false;
+            }
+            if (this.count++ == 0) {
+                this.firstTimestamp = now;
+            }
+            this.lastTimestamp = now;
+            return true;
+        }
+
+        boolean isExpired(long now) {
+            return now >= this.deadline;
+        }
+
+        /**
+         * 结束窗口
+         *
+         * @return 返回汇总事件，无重复时返回null
+         */
+        synchronized AuditEvent close() {
+            this.closed = true;
+            return this.count > 0 ? this.first.repeat(this.count, this.firstTimestamp, this.lastTimestamp) : null;
+        }
+    }
+}
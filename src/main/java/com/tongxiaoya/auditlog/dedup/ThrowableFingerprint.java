@@ -0,0 +1,124 @@
+package com.tongxiaoya.auditlog.dedup;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 异常指纹
+ * <p>
+ * 由事件类型、切入方法、异常类型及栈顶若干帧（含异常原因）计算64位哈希，不包含异常信息（通常带有业务数据）。
+ * 异常部分的哈希按异常对象缓存：同一异常穿过多层切入方法或作为其他异常的原因时，不再重复获取堆栈及计算
+ *
+ * @since 1.8
+ */
+public final class ThrowableFingerprint {
+
+    /**
+     * 异常原因最大参与层数
+     */
+    private static final int MAX_CAUSE_DEPTH = 3;
+    /**
+     * 缓存大小（2的幂，按对象标识哈希直接映射，冲突时覆盖）
+     */
+    private static final int CACHE_SIZE = 1024;
+    /**
+     * 异常哈希缓存
+     */
+    private static final AtomicReferenceArray<Cached> CACHE = new AtomicReferenceArray<>(CACHE_SIZE);
+    /**
+     * 异常类名哈希
+     */
+    private static final ClassValue<Integer> TYPE_HASHES = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return type.getName().hashCode();
+        }
+    };
+
+    private ThrowableFingerprint() {
+    }
+
+    /**
+     * 计算异常指纹
+     *
+     * @param type       事件类型（同一方法的@Log与@ThrowingLog事件分别去重）
+     * @param method     切入方法
+     * @param throwable  异常
+     * @param frameDepth 参与计算的栈顶帧数
+     * @return 返回异常指纹
+     */
+    public static long of(AuditEvent.Type type, Method method, Throwable throwable, int frameDepth) {
+        long hash = mix(mix(1125899906842597L, type.ordinal()), method.hashCode());
+        return mix(hash, throwableHash(throwable, frameDepth, 0));
+    }
+
+    /**
+     * 计算异常哈希（含原因，按异常对象缓存）
+     *
+     * @param throwable  异常
+     * @param frameDepth 参与计算的栈顶帧数
+     * @param depth      当前原因层数
+     * @return 返回哈希
+     */
+    private static long throwableHash(Throwable throwable, int frameDepth, int depth) {
+        if (throwable == null || depth > MAX_CAUSE_DEPTH) {
+            return 0L;
+        }
+        int index = System.identityHashCode(throwable) & (CACHE_SIZE - 1);
+        Cached cached = CACHE.get(index);
+        if (cached != null && cached.get() == throwable && cached.frameDepth == frameDepth && cached.depth == depth) {
+            return cached.hash;
+        }
+        long hash = mix(7L, TYPE_HASHES.get(throwable.getClass()));
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        int count = Math.min(stackTrace.length, frameDepth);
+        for (int i = 0; i < count; i++) {
+            hash = mix(hash, stackTrace[i].hashCode());
+        }
+        Throwable cause = throwable.getCause();
+        hash = mix(hash, throwableHash(cause != throwable ? cause : null, frameDepth, depth + 1));
+        CACHE.lazySet(index, new Cached(throwable, frameDepth, depth, hash));
+        return hash;
+    }
+
+    /**
+     * 混合哈希
+     *
+     * @param hash  当前哈希
+     * @param value 新值
+     * @return 返回哈希
+     */
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * 缓存的异常哈希（弱引用，不阻止异常被回收）
+     *
+     * @since 1.8
+     */
+    private static final class Cached extends WeakReference<Throwable> {
+        /**
+         * 参与计算的栈顶帧数
+         */
+        private final int frameDepth;
+        /**
+         * 原因层数
+         */
+        private final int depth;
+        /**
+         * 哈希
+         */
+        private final long hash;
+
+        Cached(Throwable throwable, int frameDepth, int depth, long hash) {
+            super(throwable);
+            this.frameDepth = frameDepth;
+            this.depth = depth;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.tongxiaoya.auditlog.format;
+
+/**
+ * 审计日志输出格式
+ *
+ * @since 1.8
+ */
+public enum AuditFormat {
+    /**
+     * 文本
+     */
+    TEXT,
+    /**
+     * JSON
+     */
+    JSON
+}
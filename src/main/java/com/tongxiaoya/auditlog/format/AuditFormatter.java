@@ -0,0 +1,28 @@
+package com.tongxiaoya.auditlog.format;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+
+/**
+ * 审计事件格式化器
+ *
+ * @since 1.8
+ */
+public interface AuditFormatter {
+
+    /**
+     * 格式化审计事件
+     *
+     * @param event   审计事件
+     * @param builder 输出缓冲区
+     */
+    void format(AuditEvent event, StringBuilder builder);
+
+    /**
+     * 异常信息是否已写入输出内容（为false时异常交由日志框架输出）
+     *
+     * @return 返回布尔值
+     */
+    default boolean isThrowableIncluded() {
+        return false;
+    }
+}
@@ -0,0 +1,255 @@
+package com.tongxiaoya.auditlog.format;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.Level;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 二进制解码器
+ * <p>
+ * 将{@link BinaryAuditEncoder}编码的记录还原为与{@link JsonAuditFormatter}相同结构的单行JSON；
+ * 模式记录仅更新模式表，每个文件（或数据流）开始前应调用{@link #reset()}。实例非线程安全
+ *
+ * @since 1.8
+ */
+public class BinaryAuditDecoder {
+
+    private static final AuditEvent.Type[] TYPES = AuditEvent.Type.values();
+    private static final Level[] LEVELS = Level.values();
+
+    /**
+     * 模式表
+     */
+    private final Map<Integer, Schema> schemas = new HashMap<>();
+    /**
+     * JSON写入器
+     */
+    private final JsonWriter writer = new JsonWriter();
+
+    /**
+     * 判断是否为二进制记录
+     *
+     * @param record 记录内容
+     * @return 返回布尔值
+     */
+    public static boolean isBinary(byte[] record) {
+        return record.length > 0 && (record[0] == BinaryAuditEncoder.SCHEMA || record[0] == BinaryAuditEncoder.EVENT);
+    }
+
+    /**
+     * 清空模式表
+     */
+    public void reset() {
+        this.schemas.clear();
+    }
+
+    /**
+     * 解码记录
+     *
+     * @param record  记录内容
+     * @param builder 输出缓冲区
+     * @return 返回是否输出了事件（模式记录返回false）
+     * @throws IllegalArgumentException 记录格式不正确或引用了未定义的模式
+     */
+    public boolean decode(byte[] record, StringBuilder builder) {
+        BinaryInput input = new BinaryInput(record);
+        int tag = input.readByte();
+        if (tag == BinaryAuditEncoder.SCHEMA) {
+            this.readSchema(input);
+            return false;
+        }
+        if (tag != BinaryAuditEncoder.EVENT) {
+            throw new IllegalArgumentException("unknown record tag: " + tag);
+        }
+        int id = input.readVarint();
+        Schema schema = this.schemas.get(id);
+        if (schema == null) {
+            throw new IllegalArgumentException("undefined schema: " + id);
+        }
+        Level level = valueOf(LEVELS, input.readByte());
+        int flags = input.readByte();
+        boolean failed = (flags & BinaryAuditEncoder.FLAG_FAILED) != 0;
+        JsonWriter writer = this.writer.reset(builder);
+        writer.beginObject()
+                .name("timestamp").value(input.readVarlong())
+                .name("thread").value(input.readString())
+                .name("type").value(schema.type.name())
+                .name("level").value(level.name())
+                .name("class").value(schema.className)
+                .name("method").value(schema.methodName);
+        if ((flags & BinaryAuditEncoder.FLAG_POSITIONED) != 0) {
+            writer.name("location").value(schema.location);
+        }
+        writer.name("business").value(schema.business);
+        switch (schema.type) {
+            case PARAM:
+                this.readParams(input, schema, writer.name("params"));
+                break;
+            case RESULT:
+                this.readOutcome(input, writer, failed);
+                long duration = input.readVarlong() - 1;
+                if (duration >= 0) {
+                    writer.name("durationNanos").value(duration);
+                }
+                break;
+            case THROWING:
+                int repeated = input.readVarint();
+                if (repeated > 0) {
+                    this.readRepeated(input, writer, repeated);
+                } else {
+                    this.readThrowable(input, writer.name("exception"), 0);
+                }
+                break;
+            case INVOCATION:
+                this.readParams(input, schema, writer.name("params"));
+                writer.name("outcome").value(failed ? "FAILURE" : "SUCCESS");
+                if ((flags & BinaryAuditEncoder.FLAG_REPEATED) != 0) {
+                    this.readRepeated(input, writer, input.readVarint());
+                } else {
+                    this.readOutcome(input, writer, failed);
+                }
+                writer.name("durationNanos").value(input.readVarlong());
+                break;
+            default:
+        }
+        writer.endObject();
+        return true;
+    }
+
+    /**
+     * 读取模式记录
+     *
+     * @param input 输入
+     */
+    private void readSchema(BinaryInput input) {
+        int id = input.readVarint();
+        AuditEvent.Type type = valueOf(TYPES, input.readByte());
+        String className = input.readString();
+        String methodName = input.readString();
+        String business = input.readString();
+        String location = input.readString();
+        String[] paramNames = new String[input.readVarint()];
+        for (int i = 0; i < paramNames.length; i++) {
+            paramNames[i] = input.readString();
+        }
+        this.schemas.put(id, new Schema(type, className, methodName, business, location, paramNames));
+    }
+
+    /**
+     * 读取参数值
+     *
+     * @param input  输入
+     * @param schema 模式
+     * @param writer JSON写入器
+     */
+    private void readParams(BinaryInput input, Schema schema, JsonWriter writer) {
+        writer.beginObject();
+        int count = input.readVarint();
+        for (int i = 0; i < count; i++) {
+            String name = i < schema.paramNames.length ? schema.paramNames[i] : "arg" + i;
+            writer.name(name).value(input.readString());
+        }
+        writer.endObject();
+    }
+
+    /**
+     * 读取重复异常汇总
+     *
+     * @param input    输入
+     * @param writer   JSON写入器
+     * @param repeated 重复次数
+     */
+    private void readRepeated(BinaryInput input, JsonWriter writer, int repeated) {
+        writer.name("repeated").value(repeated)
+                .name("firstTimestamp").value(input.readVarlong())
+                .name("exception").beginObject()
+                .name("class").value(input.readString())
+                .name("message").value(input.readString())
+                .endObject();
+    }
+
+    /**
+     * 读取结果或异常
+     *
+     * @param input  输入
+     * @param writer JSON写入器
+     * @param failed 是否失败
+     */
+    private void readOutcome(BinaryInput input, JsonWriter writer, boolean failed) {
+        if (failed) {
+            this.readThrowable(input, writer.name("exception"), 0);
+        } else {
+            writer.name("result").value(input.readString());
+        }
+    }
+
+    /**
+     * 读取异常
+     *
+     * @param input  输入
+     * @param writer JSON写入器
+     * @param depth  当前层数
+     */
+    private void readThrowable(BinaryInput input, JsonWriter writer, int depth) {
+        if (depth > BinaryAuditEncoder.MAX_CAUSE_DEPTH) {
+            throw new IllegalArgumentException("cause nesting too deep");
+        }
+        writer.beginObject()
+                .name("class").value(input.readString())
+                .name("message").value(input.readString());
+        int count = input.readVarint();
+        writer.name("stack").beginArray();
+        for (int i = 0; i < count; i++) {
+            writer.value(input.readString());
+        }
+        writer.endArray();
+        int omitted = input.readVarint();
+        if (omitted > 0) {
+            writer.name("framesOmitted").value(omitted);
+        }
+        if (input.readByte() != 0) {
+            this.readThrowable(input, writer.name("cause"), depth + 1);
+        }
+        writer.endObject();
+    }
+
+    /**
+     * 按序号获取枚举值
+     *
+     * @param values  枚举值
+     * @param ordinal 序号
+     * @param <E>     枚举类型
+     * @return 返回枚举值
+     */
+    private static <E extends Enum<E>> E valueOf(E[] values, int ordinal) {
+        if (ordinal >= values.length) {
+            throw new IllegalArgumentException("unknown " + values[0].getDeclaringClass().getSimpleName() + ": " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    /**
+     * 解码后的模式
+     *
+     * @since 1.8
+     */
+    private static final class Schema {
+        private final AuditEvent.Type type;
+        private final String className;
+        private final String methodName;
+        private final String business;
+        private final String location;
+        private final String[] paramNames;
+
+        Schema(AuditEvent.Type type, String className, String methodName, String business, String location, String[] paramNames) {
+            this.type = type;
+            this.className = className;
+            this.methodName = methodName;
+            this.business = business;
+            this.location = location;
+            this.paramNames = paramNames;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.tongxiaoya.auditlog.format;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.log.RestoredThrowable;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 二进制编码器
+ * <p>
+ * 每个切入方法的每种事件类型分配一个模式编号，类名、方法名、业务名称、代码定位及参数名称仅在模式记录中写入一次，
+ * 事件记录只包含模式编号、时间、线程及渲染后的值；模式记录须先于引用它的事件记录写入同一文件或数据流。
+ * 记录格式（varint为变长整数，str为“varint(长度+1) + UTF-8”，0表示空值）：
+ * <pre>
+ * 模式：  byte 0x01 | varint 编号 | byte 事件类型 | str 类名 | str 方法名 | str 业务名称 | str 代码定位
+ *         | varint 参数数量 | str[] 参数名称
+ * 事件：  byte 0x02 | varint 模式编号 | byte 日志级别 | byte 标记(1:代码定位 2:失败 4:重复汇总) | varlong 时间 | str 线程
+ *         | PARAM：      varint 数量 | str[] 参数值
+ *         | RESULT：     (失败 ? 异常 : str 结果) | varlong 耗时+1（0为未测量）
+ *         | THROWING：   varint 重复次数 | (重复次数 > 0 ? varlong 首次时间 | str 异常类名 | str 异常信息 : 异常)
+ *         | INVOCATION： varint 数量 | str[] 参数值 | (重复汇总 ? 汇总 : 失败 ? 异常 : str 结果) | varlong 耗时
+ * 汇总：  varint 重复次数 | varlong 首次时间 | str 异常类名 | str 异常信息
+ * 异常：  str 类名 | str 信息 | varint 帧数 | str[] 帧 | varint 省略帧数 | byte 是否有原因 | [异常]
+ * </pre>
+ * 编号在进程内有效，解码时以文件（或数据流）为单位重建模式表，见{@link BinaryAuditDecoder}
+ *
+ * @since 1.8
+ */
+public class BinaryAuditEncoder {
+
+    /**
+     * 模式记录标记
+     */
+    static final int SCHEMA = 0x01;
+    /**
+     * 事件记录标记
+     */
+    static final int EVENT = 0x02;
+    /**
+     * 代码定位标记
+     */
+    static final int FLAG_POSITIONED = 1;
+    /**
+     * 失败标记
+     */
+    static final int FLAG_FAILED = 2;
+    /**
+     * 重复汇总标记（仅调用事件）
+     */
+    static final int FLAG_REPEATED = 4;
+    /**
+     * 异常原因最大输出层数
+     */
+    static final int MAX_CAUSE_DEPTH = 5;
+
+    /**
+     * 输出缓冲区保留的最大容量
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    /**
+     * 事件类型数量
+     */
+    private static final int TYPE_COUNT = AuditEvent.Type.values().length;
+
+    /**
+     * 值渲染器
+     */
+    private final ValueRenderer renderer;
+    /**
+     * 异常堆栈最大输出层数（0为不限制）
+     */
+    private final int maxStackDepth;
+    /**
+     * 按方法及事件类型的模式
+     */
+    private final ConcurrentMap<Method, Schema[]> schemas = new ConcurrentHashMap<>();
+    /**
+     * 全部模式（按编号顺序）
+     */
+    private final List<Schema> registered = new CopyOnWriteArrayList<>();
+    /**
+     * 模式编号
+     */
+    private final AtomicInteger ids = new AtomicInteger();
+    /**
+     * 线程复用的输出缓冲区
+     */
+    private final ThreadLocal<BinaryOutput> outputs = ThreadLocal.withInitial(() -> new BinaryOutput(256));
+    /**
+     * 线程复用的渲染缓冲区
+     */
+    private final ThreadLocal<StringBuilder> scratches = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 构造
+     *
+     * @param renderer      值渲染器
+     * @param maxStackDepth 异常堆栈最大输出层数（0为不限制）
+     */
+    public BinaryAuditEncoder(ValueRenderer renderer, int maxStackDepth) {
+        this.renderer = renderer;
+        this.maxStackDepth = Math.max(0, maxStackDepth);
+    }
+
+    /**
+     * 获取事件对应的模式（首次出现时分配编号）
+     *
+     * @param event 审计事件
+     * @return 返回模式
+     */
+    public Schema schemaOf(AuditEvent event) {
+        LogPlan plan = event.getPlan();
+        Schema[] slots = this.schemas.computeIfAbsent(plan.getMethod(), key -> new Schema[TYPE_COUNT]);
+        int index = event.getType().ordinal();
+        Schema schema = slots[index];
+        if (schema == null) {
+            synchronized (slots) {
+                schema = slots[index];
+                if (schema == null) {
+                    schema = this.createSchema(event);
+                    slots[index] = schema;
+                    this.registered.add(schema);
+                }
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * 获取全部模式（按注册顺序，用于在新文件开头重新写入）
+     *
+     * @return 返回模式快照
+     */
+    public List<Schema> getSchemas() {
+        return new ArrayList<>(this.registered);
+    }
+
+    /**
+     * 获取全部模式记录（按注册顺序，用于在新文件开头重新写入）
+     *
+     * @return 返回模式记录
+     */
+    public List<byte[]> getSchemaRecords() {
+        List<byte[]> records = new ArrayList<>(this.registered.size());
+        for (Schema schema : this.registered) {
+            records.add(schema.record);
+        }
+        return records;
+    }
+
+    /**
+     * 编码事件记录
+     *
+     * @param event  审计事件
+     * @param schema 事件对应的模式
+     * @return 返回线程复用的输出缓冲区（下次编码前有效）
+     */
+    public BinaryOutput encode(AuditEvent event, Schema schema) {
+        BinaryOutput output = this.outputs.get();
+        if (output.capacity() > MAX_RETAINED_CAPACITY) {
+            output = new BinaryOutput(256);
+            this.outputs.set(output);
+        }
+        output.reset()
+                .writeByte(EVENT)
+                .writeVarint(schema.id)
+                .writeByte(event.getLevel().ordinal())
+                .writeByte((event.isPositioned() ? FLAG_POSITIONED : 0) | (event.isFailed() ? FLAG_FAILED : 0)
+                        | (event.getType() == AuditEvent.Type.INVOCATION && event.getRepeated() > 0 ? FLAG_REPEATED : 0))
+                .writeVarlong(event.getTimestamp())
+                .writeString(event.getThreadName());
+        switch (event.getType()) {
+            case PARAM:
+                this.writeParams(output, event);
+                break;
+            case RESULT:
+                this.writeOutcome(output, event);
+                output.writeVarlong(event.getDuration() + 1);
+                break;
+            case THROWING:
+                output.writeVarint(event.getRepeated());
+                if (event.getRepeated() > 0) {
+                    this.writeRepeated(output, event);
+                } else {
+                    this.writeThrowable(output, event.getThrowable(), 0);
+                }
+                break;
+            case INVOCATION:
+                this.writeParams(output, event);
+                if (event.getRepeated() > 0) {
+                    output.writeVarint(event.getRepeated());
+                    this.writeRepeated(output, event);
+                } else {
+                    this.writeOutcome(output, event);
+                }
+                output.writeVarlong(event.getDuration());
+                break;
+            default:
+        }
+        return output;
+    }
+
+    /**
+     * 创建模式
+     *
+     * @param event 审计事件
+     * @return 返回模式
+     */
+    private Schema createSchema(AuditEvent event) {
+        int id = this.ids.incrementAndGet();
+        LogPlan plan = event.getPlan();
+        LogPlan.Entry entry = event.getEntry();
+        String[] paramNames = event.getParamNames();
+        BinaryOutput output = new BinaryOutput(128)
+                .writeByte(SCHEMA)
+                .writeVarint(id)
+                .writeByte(event.getType().ordinal())
+                .writeString(plan.getClassName())
+                .writeString(plan.getMethodName())
+                .writeString(entry.getBusName())
+                .writeString(entry.getLocation(true))
+                .writeVarint(paramNames.length);
+        for (String paramName : paramNames) {
+            output.writeString(paramName);
+        }
+        return new Schema(id, output.toByteArray());
+    }
+
+    /**
+     * 写入参数值
+     *
+     * @param output 输出缓冲区
+     * @param event  审计事件
+     */
+    private void writeParams(BinaryOutput output, AuditEvent event) {
+        Object[] args = event.getArgs();
+        int count = Math.min(event.getParamNames().length, args.length);
+        output.writeVarint(count);
+        for (int i = 0; i < count; i++) {
+            this.writeValue(output, args[i]);
+        }
+    }
+
+    /**
+     * 写入重复异常汇总（重复次数之后的部分）
+     *
+     * @param output 输出缓冲区
+     * @param event  汇总事件
+     */
+    private void writeRepeated(BinaryOutput output, AuditEvent event) {
+        Throwable throwable = event.getThrowable();
+        output.writeVarlong(event.getFirstTimestamp())
+                .writeString(RestoredThrowable.getTypeName(throwable))
+                .writeString(throwable.getMessage());
+    }
+
+    /**
+     * 写入结果或异常
+     *
+     * @param output 输出缓冲区
+     * @param event  审计事件
+     */
+    private void writeOutcome(BinaryOutput output, AuditEvent event) {
+        if (event.isFailed()) {
+            this.writeThrowable(output, event.getThrowable(), 0);
+        } else {
+            this.writeValue(output, event.getResult());
+        }
+    }
+
+    /**
+     * 写入渲染后的值
+     *
+     * @param output 输出缓冲区
+     * @param value  值
+     */
+    private void writeValue(BinaryOutput output, Object value) {
+        if (value == null) {
+            output.writeString(null);
+            return;
+        }
+        StringBuilder scratch = this.scratches.get();
+        scratch.setLength(0);
+        this.renderer.render(scratch, value);
+        output.writeString(scratch);
+        if (scratch.capacity() > MAX_RETAINED_CAPACITY) {
+            this.scratches.remove();
+        }
+    }
+
+    /**
+     * 写入异常
+     *
+     * @param output    输出缓冲区
+     * @param throwable 异常
+     * @param depth     当前层数
+     */
+    private void writeThrowable(BinaryOutput output, Throwable throwable, int depth) {
+        output.writeString(RestoredThrowable.getTypeName(throwable)).writeString(throwable.getMessage());
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        int count = this.maxStackDepth > 0 ? Math.min(stackTrace.length, this.maxStackDepth) : stackTrace.length;
+        output.writeVarint(count);
+        for (int i = 0; i < count; i++) {
+            output.writeString(stackTrace[i].toString());
+        }
+        output.writeVarint(stackTrace.length - count);
+        Throwable cause = throwable.getCause();
+        if (cause != null && cause != throwable && depth < MAX_CAUSE_DEPTH) {
+            output.writeByte(1);
+            this.writeThrowable(output, cause, depth + 1);
+        } else {
+            output.writeByte(0);
+        }
+    }
+
+    /**
+     * 模式
+     *
+     * @since 1.8
+     */
+    public static final class Schema {
+        /**
+         * 编号
+         */
+        private final int id;
+        /**
+         * 模式记录
+         */
+        private final byte[] record;
+        /**
+         * 最近写入的分段序号（0为尚未写入；分段滚动后需重新写入）
+         */
+        private volatile long segment;
+
+        Schema(int id, byte[] record) {
+            this.id = id;
+            this.record = record;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * 获取模式记录（共享数组，只读）
+         *
+         * @return 返回模式记录
+         */
+        public byte[] getRecord() {
+            return record;
+        }
+
+        /**
+         * 是否已写入指定分段
+         *
+         * @param segment 分段序号
+         * @return 返回布尔值
+         */
+        public boolean isEmitted(long segment) {
+            return this.segment == segment;
+        }
+
+        /**
+         * 标记已写入指定分段
+         *
+         * @param segment 分段序号
+         */
+        public void markEmitted(long segment) {
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tongxiaoya.auditlog.format;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 二进制输入（与{@link BinaryOutput}的编码对应）
+ *
+ * @since 1.8
+ */
+public final class BinaryInput {
+
+    /**
+     * 内容
+     */
+    private final byte[] data;
+    /**
+     * 当前下标
+     */
+    private int position;
+
+    public BinaryInput(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * 读取单个字节
+     *
+     * @return 返回无符号字节值
+     */
+    public int readByte() {
+        if (this.position >= this.data.length) {
+            throw new IllegalArgumentException("truncated record");
+        }
+        return this.data[this.position++] & 0xFF;
+    }
+
+    /**
+     * 读取变长整数
+     *
+     * @return 返回值
+     */
+    public int readVarint() {
+        long value = this.readVarlong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("varint out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 读取变长长整数
+     *
+     * @return 返回值
+     */
+    public long readVarlong() {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = this.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    /**
+     * 读取字符串
+     *
+     * @return 返回字符串，空值返回null
+     */
+    public String readString() {
+        int length = this.readVarint() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > this.data.length - this.position) {
+            throw new IllegalArgumentException("truncated record");
+        }
+        String value = new String(this.data, this.position, length, StandardCharsets.UTF_8);
+        this.position += length;
+        return value;
+    }
+}
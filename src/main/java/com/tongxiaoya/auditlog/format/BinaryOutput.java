@@ -0,0 +1,189 @@
+package com.tongxiaoya.auditlog.format;
+
+import java.util.Arrays;
+
+/**
+ * 二进制输出缓冲区
+ * <p>
+ * 整数使用变长编码（每字节7位，高位为后续标记），字符串为“变长长度 + UTF-8内容”，长度写入为实际长度加1，0表示空值；
+ * 字符串直接由字符序列编码，不创建中间字符串；实例可通过{@link #reset()}重复使用
+ *
+ * @since 1.8
+ */
+public final class BinaryOutput {
+
+    /**
+     * 缓冲区
+     */
+    private byte[] buffer;
+    /**
+     * 已写入长度
+     */
+    private int size;
+
+    /**
+     * 构造
+     *
+     * @param capacity 初始容量
+     */
+    public BinaryOutput(int capacity) {
+        this.buffer = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * 重置
+     *
+     * @return 返回当前缓冲区
+     */
+    public BinaryOutput reset() {
+        this.size = 0;
+        return this;
+    }
+
+    /**
+     * 获取缓冲区（有效内容为前{@link #size()}个字节）
+     *
+     * @return 返回缓冲区
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * 复制已写入内容
+     *
+     * @return 返回字节数组
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    /**
+     * 写入单个字节
+     *
+     * @param value 值
+     * @return 返回当前缓冲区
+     */
+    public BinaryOutput writeByte(int value) {
+        this.ensure(1);
+        this.buffer[this.size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * 写入变长整数（非负数）
+     *
+     * @param value 值
+     * @return 返回当前缓冲区
+     */
+    public BinaryOutput writeVarint(int value) {
+        return this.writeVarlong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 写入变长长整数（负数按无符号处理，占10个字节）
+     *
+     * @param value 值
+     * @return 返回当前缓冲区
+     */
+    public BinaryOutput writeVarlong(long value) {
+        this.ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            this.buffer[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.buffer[this.size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * 写入字符串（可为空）
+     *
+     * @param value 值
+     * @return 返回当前缓冲区
+     */
+    public BinaryOutput writeString(CharSequence value) {
+        if (value == null) {
+            return this.writeVarint(0);
+        }
+        int end = value.length();
+        int length = utf8Length(value, end);
+        this.writeVarint(length + 1);
+        this.ensure(length);
+        byte[] bytes = this.buffer;
+        int position = this.size;
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    bytes[position++] = '?';
+                }
+            } else {
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        this.size = position;
+        return this;
+    }
+
+    /**
+     * 计算UTF-8编码长度（不成对的代理字符按1个字节计算，编码为?）
+     *
+     * @param value 字符序列
+     * @param end   结束下标
+     * @return 返回编码长度
+     */
+    private static int utf8Length(CharSequence value, int end) {
+        int length = 0;
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length++;
+                }
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 确保剩余容量
+     *
+     * @param required 需要的字节数
+     */
+    private void ensure(int required) {
+        if (this.size + required > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length << 1, this.size + required));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tongxiaoya.auditlog.format;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.log.RestoredThrowable;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+
+/**
+ * JSON格式化器
+ * <p>
+ * 每个事件输出为单行JSON，字段包括：时间、线程、类型、级别、方法、业务名称、按声明顺序的参数、结果及异常
+ * （综合日志另含调用结局及耗时）；
+ * 重复异常汇总事件另含repeated及firstTimestamp字段且不含堆栈；写入器与渲染缓冲区按线程复用
+ *
+ * @since 1.8
+ */
+public class JsonAuditFormatter implements AuditFormatter {
+
+    /**
+     * 渲染缓冲区保留的最大容量
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    /**
+     * 异常原因最大输出层数
+     */
+    private static final int MAX_CAUSE_DEPTH = 5;
+
+    /**
+     * 值渲染器
+     */
+    private final ValueRenderer renderer;
+    /**
+     * 异常堆栈最大输出层数（0为不限制）
+     */
+    private final int maxStackDepth;
+    /**
+     * 线程复用的写入器
+     */
+    private final ThreadLocal<JsonWriter> writers = ThreadLocal.withInitial(JsonWriter::new);
+    /**
+     * 线程复用的渲染缓冲区
+     */
+    private final ThreadLocal<StringBuilder> scratches = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 构造
+     *
+     * @param renderer 值渲染器
+     */
+    public JsonAuditFormatter(ValueRenderer renderer) {
+        this(renderer, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param renderer      值渲染器
+     * @param maxStackDepth 异常堆栈最大输出层数（0为不限制）
+     */
+    public JsonAuditFormatter(ValueRenderer renderer, int maxStackDepth) {
+        this.renderer = renderer;
+        this.maxStackDepth = Math.max(0, maxStackDepth);
+    }
+
+    @Override
+    public void format(AuditEvent event, StringBuilder builder) {
+        LogPlan plan = event.getPlan();
+        JsonWriter writer = this.writers.get().reset(builder);
+        writer.beginObject()
+                .name("timestamp").value(event.getTimestamp())
+                .name("thread").value(event.getThreadName())
+                .name("type").value(event.getType().name())
+                .name("level").value(event.getLevel().name())
+                .name("class").value(plan.getClassName())
+                .name("method").value(plan.getMethodName());
+        if (event.isPositioned()) {
+            writer.name("location").value(event.getLocation());
+        }
+        writer.name("business").value(event.getEntry().getBusName());
+        switch (event.getType()) {
+            case PARAM:
+                this.writeParams(writer.name("params"), event.getParamNames(), event.getArgs());
+                break;
+            case RESULT:
+                if (event.isFailed()) {
+                    this.writeThrowable(writer.name("exception"), event.getThrowable(), 0);
+                } else {
+                    this.writeValue(writer.name("result"), event.getResult());
+                }
+                if (event.getDuration() >= 0) {
+                    writer.name("durationNanos").value(event.getDuration());
+                }
+                break;
+            case THROWING:
+                if (event.getRepeated() > 0) {
+                    this.writeRepeated(writer, event);
+                } else {
+                    this.writeThrowable(writer.name("exception"), event.getThrowable(), 0);
+                }
+                break;
+            case INVOCATION:
+                this.writeParams(writer.name("params"), event.getParamNames(), event.getArgs());
+                writer.name("outcome").value(event.isFailed() ? "FAILURE" : "SUCCESS");
+                if (event.getRepeated() > 0) {
+                    this.writeRepeated(writer, event);
+                } else if (event.isFailed()) {
+                    this.writeThrowable(writer.name("exception"), event.getThrowable(), 0);
+                } else {
+                    this.writeValue(writer.name("result"), event.getResult());
+                }
+                writer.name("durationNanos").value(event.getDuration());
+                break;
+            default:
+        }
+        writer.endObject();
+    }
+
+    @Override
+    public boolean isThrowableIncluded() {
+        return true;
+    }
+
+    /**
+     * 写入重复异常汇总
+     *
+     * @param writer JSON写入器
+     * @param event  汇总事件
+     */
+    private void writeRepeated(JsonWriter writer, AuditEvent event) {
+        Throwable throwable = event.getThrowable();
+        writer.name("repeated").value(event.getRepeated())
+                .name("firstTimestamp").value(event.getFirstTimestamp())
+                .name("exception").beginObject()
+                .name("class").value(RestoredThrowable.getTypeName(throwable))
+                .name("message").value(throwable.getMessage())
+                .endObject();
+    }
+
+    /**
+     * 写入参数（按声明顺序）
+     *
+     * @param writer     JSON写入器
+     * @param paramNames 参数名称
+     * @param args       参数值
+     */
+    protected void writeParams(JsonWriter writer, String[] paramNames, Object[] args) {
+        writer.beginObject();
+        int count = Math.min(paramNames.length, args.length);
+        for (int i = 0; i < count; i++) {
+            this.writeValue(writer.name(paramNames[i]), args[i]);
+        }
+        writer.endObject();
+    }
+
+    /**
+     * 写入渲染后的值
+     *
+     * @param writer JSON写入器
+     * @param value  值
+     */
+    protected void writeValue(JsonWriter writer, Object value) {
+        if (value == null) {
+            writer.nullValue();
+            return;
+        }
+        StringBuilder scratch = this.scratches.get();
+        scratch.setLength(0);
+        this.renderer.render(scratch, value);
+        writer.value(scratch, 0, scratch.length());
+        if (scratch.capacity() > MAX_RETAINED_CAPACITY) {
+            this.scratches.remove();
+        }
+    }
+
+    /**
+     * 写入异常
+     *
+     * @param writer    JSON写入器
+     * @param throwable 异常
+     * @param depth     当前层数
+     */
+    protected void writeThrowable(JsonWriter writer, Throwable throwable, int depth) {
+        if (throwable == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject()
+                .name("class").value(RestoredThrowable.getTypeName(throwable))
+                .name("message").value(throwable.getMessage());
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        int count = this.maxStackDepth > 0 ? Math.min(stackTrace.length, this.maxStackDepth) : stackTrace.length;
+        writer.name("stack").beginArray();
+        for (int i = 0; i < count; i++) {
+            writer.value(stackTrace[i].toString());
+        }
+        writer.endArray();
+        if (stackTrace.length > count) {
+            writer.name("framesOmitted").value(stackTrace.length - count);
+        }
+        Throwable cause = throwable.getCause();
+        if (cause != null && cause != throwable && depth < MAX_CAUSE_DEPTH) {
+            this.writeThrowable(writer.name("cause"), cause, depth + 1);
+        }
+        writer.endObject();
+    }
+}
@@ -0,0 +1,249 @@
+package com.tongxiaoya.auditlog.format;
+
+/**
+ * 流式JSON写入器
+ * <p>
+ * 直接写入外部提供的缓冲区，自动处理逗号分隔与字符串转义；实例可通过{@link #reset(StringBuilder)}重复使用
+ *
+ * @since 1.8
+ */
+public final class JsonWriter {
+
+    /**
+     * 十六进制字符
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * 最大嵌套层数
+     */
+    private static final int MAX_NESTING = 32;
+
+    /**
+     * 各层是否已写入元素
+     */
+    private final boolean[] written = new boolean[MAX_NESTING];
+    /**
+     * 输出缓冲区
+     */
+    private StringBuilder builder;
+    /**
+     * 当前层数
+     */
+    private int depth;
+    /**
+     * 是否刚写入名称（下一个值不需要逗号）
+     */
+    private boolean afterName;
+
+    /**
+     * 重置写入器
+     *
+     * @param builder 输出缓冲区
+     * @return 返回当前写入器
+     */
+    public JsonWriter reset(StringBuilder builder) {
+        this.builder = builder;
+        this.depth = 0;
+        this.afterName = false;
+        this.written[0] = false;
+        return this;
+    }
+
+    /**
+     * 开始对象
+     *
+     * @return 返回当前写入器
+     */
+    public JsonWriter beginObject() {
+        return this.open('{');
+    }
+
+    /**
+     * 结束对象
+     *
+     * @return 返回当前写入器
+     */
+    public JsonWriter endObject() {
+        return this.close('}');
+    }
+
+    /**
+     * 开始数组
+     *
+     * @return 返回当前写入器
+     */
+    public JsonWriter beginArray() {
+        return this.open('[');
+    }
+
+    /**
+     * 结束数组
+     *
+     * @return 返回当前写入器
+     */
+    public JsonWriter endArray() {
+        return this.close(']');
+    }
+
+    /**
+     * 写入名称
+     *
+     * @param name 名称
+     * @return 返回当前写入器
+     */
+    public JsonWriter name(String name) {
+        this.separate();
+        this.quote(name, 0, name.length());
+        this.builder.append(':');
+        this.afterName = true;
+        return this;
+    }
+
+    /**
+     * 写入字符串值
+     *
+     * @param value 值
+     * @return 返回当前写入器
+     */
+    public JsonWriter value(CharSequence value) {
+        if (value == null) {
+            return this.nullValue();
+        }
+        return this.value(value, 0, value.length());
+    }
+
+    /**
+     * 写入字符串值（片段）
+     *
+     * @param value 值
+     * @param start 开始下标
+     * @param end   结束下标
+     * @return 返回当前写入器
+     */
+    public JsonWriter value(CharSequence value, int start, int end) {
+        this.separate();
+        this.quote(value, start, end);
+        return this;
+    }
+
+    /**
+     * 写入数值
+     *
+     * @param value 值
+     * @return 返回当前写入器
+     */
+    public JsonWriter value(long value) {
+        this.separate();
+        this.builder.append(value);
+        return this;
+    }
+
+    /**
+     * 写入布尔值
+     *
+     * @param value 值
+     * @return 返回当前写入器
+     */
+    public JsonWriter value(boolean value) {
+        this.separate();
+        this.builder.append(value);
+        return this;
+    }
+
+    /**
+     * 写入null
+     *
+     * @return 返回当前写入器
+     */
+    public JsonWriter nullValue() {
+        this.separate();
+        this.builder.append("null");
+        return this;
+    }
+
+    /**
+     * 开始嵌套结构
+     *
+     * @param c 开始符
+     * @return 返回当前写入器
+     */
+    private JsonWriter open(char c) {
+        this.separate();
+        this.builder.append(c);
+        if (++this.depth >= MAX_NESTING) {
+            throw new IllegalStateException("json nesting too deep");
+        }
+        this.written[this.depth] = false;
+        return this;
+    }
+
+    /**
+     * 结束嵌套结构
+     *
+     * @param c 结束符
+     * @return 返回当前写入器
+     */
+    private JsonWriter close(char c) {
+        this.builder.append(c);
+        this.depth--;
+        return this;
+    }
+
+    /**
+     * 写入分隔符
+     */
+    private void separate() {
+        if (this.afterName) {
+            this.afterName = false;
+            return;
+        }
+        if (this.written[this.depth]) {
+            this.builder.append(',');
+        } else {
+            this.written[this.depth] = true;
+        }
+    }
+
+    /**
+     * 写入转义后的字符串
+     *
+     * @param value 值
+     * @param start 开始下标
+     * @param end   结束下标
+     */
+    private void quote(CharSequence value, int start, int end) {
+        StringBuilder builder = this.builder;
+        builder.append('"');
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        builder.append("\\u")
+                                .append(HEX_DIGITS[(c >> 12) & 0xF])
+                                .append(HEX_DIGITS[(c >> 8) & 0xF])
+                                .append(HEX_DIGITS[(c >> 4) & 0xF])
+                                .append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+}
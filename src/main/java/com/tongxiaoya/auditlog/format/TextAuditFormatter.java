@@ -0,0 +1,187 @@
+package com.tongxiaoya.auditlog.format;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.RestoredThrowable;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 文本格式化器
+ * <p>
+ * 输出形如：调用方法：【...】，业务名称：【...】，接收参数：【{...}】，
+ * 综合日志合并为一行：接收参数：【{...}】，返回结果：【...】，耗时：【x毫秒】；
+ * 限制异常堆栈层数时由格式化器输出堆栈，否则异常交由日志框架输出
+ *
+ * @since 1.8
+ */
+public class TextAuditFormatter implements AuditFormatter {
+
+    /**
+     * 异常原因最大输出层数
+     */
+    private static final int MAX_CAUSE_DEPTH = 5;
+
+    /**
+     * 时间格式
+     */
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /**
+     * 值渲染器
+     */
+    private final ValueRenderer renderer;
+    /**
+     * 异常堆栈最大输出层数（0为不限制）
+     */
+    private final int maxStackDepth;
+
+    /**
+     * 构造
+     *
+     * @param renderer 值渲染器
+     */
+    public TextAuditFormatter(ValueRenderer renderer) {
+        this(renderer, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param renderer      值渲染器
+     * @param maxStackDepth 异常堆栈最大输出层数（0为不限制）
+     */
+    public TextAuditFormatter(ValueRenderer renderer, int maxStackDepth) {
+        this.renderer = renderer;
+        this.maxStackDepth = Math.max(0, maxStackDepth);
+    }
+
+    @Override
+    public void format(AuditEvent event, StringBuilder builder) {
+        builder.append(event.getPrefix());
+        switch (event.getType()) {
+            case PARAM:
+                this.appendParams(event, builder.append("接收参数：【"));
+                builder.append("】");
+                break;
+            case RESULT:
+                if (event.isFailed()) {
+                    this.appendThrowable(event, this.appendDuration(event, builder).append("，异常信息："));
+                    break;
+                }
+                builder.append("返回结果：【");
+                this.renderer.render(builder, event.getResult());
+                builder.append("】");
+                if (event.getDuration() >= 0) {
+                    this.appendDuration(event, builder.append("，"));
+                }
+                break;
+            case THROWING:
+                if (event.getRepeated() > 0) {
+                    this.appendRepeated(event, builder);
+                } else {
+                    this.appendThrowable(event, builder.append("异常信息："));
+                }
+                break;
+            case INVOCATION:
+                this.appendParams(event, builder.append("接收参数：【"));
+                builder.append("】，");
+                if (event.getRepeated() > 0) {
+                    this.appendRepeated(event, builder);
+                } else if (event.isFailed()) {
+                    this.appendThrowable(event, this.appendDuration(event, builder).append("，异常信息："));
+                } else {
+                    builder.append("返回结果：【");
+                    this.renderer.render(builder, event.getResult());
+                    this.appendDuration(event, builder.append("】，"));
+                }
+                break;
+            default:
+        }
+    }
+
+    @Override
+    public boolean isThrowableIncluded() {
+        return this.maxStackDepth > 0;
+    }
+
+    /**
+     * 输出重复异常汇总
+     *
+     * @param event   审计事件
+     * @param builder 输出缓冲区
+     */
+    private void appendRepeated(AuditEvent event, StringBuilder builder) {
+        Throwable throwable = event.getThrowable();
+        builder.append("重复异常：【").append(RestoredThrowable.getTypeName(throwable));
+        if (throwable.getMessage() != null) {
+            builder.append(": ").append(throwable.getMessage());
+        }
+        builder.append("】，重复次数：【").append(event.getRepeated())
+                .append("】，首次时间：【");
+        TIME_FORMATTER.formatTo(Instant.ofEpochMilli(event.getFirstTimestamp()), builder);
+        builder.append("】，末次时间：【");
+        TIME_FORMATTER.formatTo(Instant.ofEpochMilli(event.getTimestamp()), builder);
+        builder.append("】");
+    }
+
+    /**
+     * 输出异常堆栈（仅限制堆栈层数时）
+     *
+     * @param event   审计事件
+     * @param builder 输出缓冲区
+     */
+    private void appendThrowable(AuditEvent event, StringBuilder builder) {
+        if (this.maxStackDepth == 0) {
+            return;
+        }
+        Throwable throwable = event.getThrowable();
+        for (int depth = 0; throwable != null && depth <= MAX_CAUSE_DEPTH; depth++) {
+            builder.append(System.lineSeparator());
+            if (depth > 0) {
+                builder.append("Caused by: ");
+            }
+            builder.append(throwable);
+            StackTraceElement[] stackTrace = throwable.getStackTrace();
+            int count = Math.min(stackTrace.length, this.maxStackDepth);
+            for (int i = 0; i < count; i++) {
+                builder.append(System.lineSeparator()).append("\tat ").append(stackTrace[i]);
+            }
+            if (stackTrace.length > count) {
+                builder.append(System.lineSeparator()).append("\t... ").append(stackTrace.length - count).append(" more");
+            }
+            Throwable cause = throwable.getCause();
+            throwable = cause != throwable ? cause : null;
+        }
+    }
+
+    /**
+     * 输出调用耗时
+     *
+     * @param event   审计事件
+     * @param builder 输出缓冲区
+     * @return 返回输出缓冲区
+     */
+    private StringBuilder appendDuration(AuditEvent event, StringBuilder builder) {
+        return builder.append("耗时：【").append(event.getDuration() / 1_000_000L).append("毫秒】");
+    }
+
+    /**
+     * 渲染参数（按声明顺序）
+     *
+     * @param event   审计事件
+     * @param builder 输出缓冲区
+     */
+    private void appendParams(AuditEvent event, StringBuilder builder) {
+        builder.append('{');
+        String[] paramKeys = event.getParamKeys();
+        Object[] params = event.getArgs();
+        int count = Math.min(paramKeys.length, params.length);
+        for (int i = 0; i < count; i++) {
+            this.renderer.render(builder.append(paramKeys[i]), params[i]);
+        }
+        builder.append('}');
+    }
+}
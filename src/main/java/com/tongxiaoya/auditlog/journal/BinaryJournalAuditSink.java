@@ -0,0 +1,110 @@
+package com.tongxiaoya.auditlog.journal;
+
+import com.tongxiaoya.auditlog.format.BinaryAuditEncoder;
+import com.tongxiaoya.auditlog.format.BinaryOutput;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 审计日志文件二进制输出端
+ * <p>
+ * 事件以{@link BinaryAuditEncoder}编码后追加至{@link JournalWriter}：每个分段开头写入已知的全部模式记录，
+ * 分段内尚未写入的模式（新出现的，或段首记录超出分段大小被截断的）在其首个事件之前写入，
+ * 模式是否已写入按分段序号记录，因此每个分段均可独立解码（见{@link JournalDecoder}）
+ *
+ * @since 1.8
+ */
+public class BinaryJournalAuditSink implements AuditSink {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 文件写入器
+     */
+    private final JournalWriter writer;
+    /**
+     * 二进制编码器
+     */
+    private final BinaryAuditEncoder encoder;
+    /**
+     * 最近一次写入段首的模式（写入器锁保护）
+     */
+    private List<BinaryAuditEncoder.Schema> preamble = Collections.emptyList();
+    /**
+     * 已同步段首模式写入状态的分段序号（写入器锁保护）
+     */
+    private long preambleSegment;
+
+    /**
+     * 构造
+     *
+     * @param writer  文件写入器
+     * @param encoder 二进制编码器
+     */
+    public BinaryJournalAuditSink(JournalWriter writer, BinaryAuditEncoder encoder) {
+        this.writer = writer;
+        this.encoder = encoder;
+        writer.setPreamble(this::preamble);
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        try {
+            BinaryAuditEncoder.Schema schema = this.encoder.schemaOf(event);
+            BinaryOutput output = this.encoder.encode(event, schema);
+            byte[] record = schema.getRecord();
+            synchronized (this.writer) {
+                long segment = this.writer.reserve(record.length + output.size(), 2);
+                if (this.preambleSegment != segment) {
+                    int count = this.writer.getPreambleCount();
+                    for (int i = 0; i < count; i++) {
+                        this.preamble.get(i).markEmitted(segment);
+                    }
+                    this.preambleSegment = segment;
+                }
+                if (!schema.isEmitted(segment)) {
+                    this.writer.append(record, 0, record.length);
+                    schema.markEmitted(segment);
+                }
+                this.writer.append(output.getBuffer(), 0, output.size());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("审计日志写入文件失败：{}.{}", event.getPlan().getClassName(), event.getPlan().getMethodName(), e);
+        }
+    }
+
+    /**
+     * 获取段首记录（滚动时在写入器锁内调用，记录本次写入的模式）
+     *
+     * @return 返回段首记录
+     */
+    private List<byte[]> preamble() {
+        this.preamble = this.encoder.getSchemas();
+        List<byte[]> records = new ArrayList<>(this.preamble.size());
+        for (BinaryAuditEncoder.Schema schema : this.preamble) {
+            records.add(schema.getRecord());
+        }
+        return records;
+    }
+
+    @Override
+    public void flush() {
+        this.writer.sync();
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            logger.error("审计日志文件关闭失败", e);
+        }
+    }
+}
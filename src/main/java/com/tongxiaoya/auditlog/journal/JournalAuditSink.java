@@ -0,0 +1,82 @@
+package com.tongxiaoya.auditlog.journal;
+
+import com.tongxiaoya.auditlog.format.AuditFormatter;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 审计日志文件输出端
+ * <p>
+ * 事件格式化后以UTF-8编码追加至{@link JournalWriter}，不经过通用日志框架
+ *
+ * @since 1.8
+ */
+public class JournalAuditSink implements AuditSink {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 日志信息缓冲区保留的最大容量
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    /**
+     * 线程复用的日志信息缓冲区
+     */
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 文件写入器
+     */
+    private final JournalWriter writer;
+    /**
+     * 审计事件格式化器
+     */
+    private final AuditFormatter formatter;
+
+    /**
+     * 构造
+     *
+     * @param writer    文件写入器
+     * @param formatter 审计事件格式化器
+     */
+    public JournalAuditSink(JournalWriter writer, AuditFormatter formatter) {
+        this.writer = writer;
+        this.formatter = formatter;
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        StringBuilder builder = BUFFERS.get();
+        builder.setLength(0);
+        try {
+            this.formatter.format(event, builder);
+            this.writer.append(builder.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("审计日志写入文件失败：{}.{}", event.getPlan().getClassName(), event.getPlan().getMethodName(), e);
+        } finally {
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFERS.remove();
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        this.writer.sync();
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            logger.error("审计日志文件关闭失败", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.tongxiaoya.auditlog.journal;
+
+import com.tongxiaoya.auditlog.format.BinaryAuditDecoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.BiConsumer;
+
+/**
+ * 审计日志文件解码工具
+ * <p>
+ * 按分段顺序将记录转换为单行JSON：二进制记录经{@link BinaryAuditDecoder}解码（每个分段重建模式表），
+ * 文本记录原样输出；无法解码的记录跳过，并通知失败处理器（命令行输出至标准错误）。
+ * 命令行：java -cp spring-boot-starter-auditlog.jar com.tongxiaoya.auditlog.journal.JournalDecoder &lt;目录&gt; [输出文件]
+ *
+ * @since 1.8
+ */
+public final class JournalDecoder {
+
+    private JournalDecoder() {
+    }
+
+    /**
+     * 解码目录下全部分段（无法解码的记录仅计数）
+     *
+     * @param directory 目录
+     * @param out       输出（每条记录一行）
+     * @return 返回无法解码的记录数量
+     * @throws IOException IO异常
+     */
+    public static long decode(Path directory, Appendable out) throws IOException {
+        return decode(directory, out, (segment, e) -> {
+        });
+    }
+
+    /**
+     * 解码目录下全部分段
+     *
+     * @param directory      目录
+     * @param out            输出（每条记录一行）
+     * @param failureHandler 失败处理器（参数为所在分段及解码异常）
+     * @return 返回无法解码的记录数量
+     * @throws IOException IO异常
+     */
+    public static long decode(Path directory, Appendable out, BiConsumer<Path, IllegalArgumentException> failureHandler) throws IOException {
+        BinaryAuditDecoder decoder = new BinaryAuditDecoder();
+        StringBuilder builder = new StringBuilder(256);
+        long failures = 0L;
+        for (Path segment : JournalReader.segments(directory)) {
+            decoder.reset();
+            for (byte[] record : JournalReader.records(segment)) {
+                if (!BinaryAuditDecoder.isBinary(record)) {
+                    out.append(new String(record, StandardCharsets.UTF_8)).append('\n');
+                    continue;
+                }
+                builder.setLength(0);
+                try {
+                    if (decoder.decode(record, builder)) {
+                        out.append(builder).append('\n');
+                    }
+                } catch (IllegalArgumentException e) {
+                    failures++;
+                    failureHandler.accept(segment, e);
+                }
+            }
+        }
+        return failures;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("用法：JournalDecoder <目录> [输出文件]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        long failures;
+        try (Writer out = args.length == 2
+                ? Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            failures = decode(directory, out, (segment, e) -> System.err.println(segment.getFileName() + ": " + e.getMessage()));
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.tongxiaoya.auditlog.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * 审计日志文件读取器
+ * <p>
+ * 按分段序号顺序回放全部记录；遇到校验失败或不完整的记录（如进程崩溃时写入中断）时跳过该分段剩余内容
+ *
+ * @since 1.8
+ */
+public class JournalReader implements Iterable<byte[]> {
+
+    /**
+     * 目录
+     */
+    private final Path directory;
+
+    /**
+     * 构造
+     *
+     * @param directory 目录
+     */
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Iterator<byte[]> iterator() {
+        try {
+            return new RecordIterator(segments(this.directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 回放单个分段的全部记录
+     *
+     * @param segment 分段文件
+     * @return 返回记录
+     */
+    public static Iterable<byte[]> records(Path segment) {
+        return () -> new RecordIterator(Collections.singletonList(segment));
+    }
+
+    /**
+     * 获取目录下全部分段文件（按序号排序）
+     *
+     * @param directory 目录
+     * @return 返回分段文件列表
+     * @throws IOException IO异常
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, JournalWriter.FILE_PREFIX + "*" + JournalWriter.FILE_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * 获取目录下最大分段序号
+     *
+     * @param directory 目录
+     * @return 返回最大分段序号，不存在分段时返回0
+     * @throws IOException IO异常
+     */
+    static long lastSequence(Path directory) throws IOException {
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            return 0L;
+        }
+        String name = segments.get(segments.size() - 1).getFileName().toString();
+        return Long.parseLong(name.substring(JournalWriter.FILE_PREFIX.length(), name.length() - JournalWriter.FILE_SUFFIX.length()));
+    }
+
+    /**
+     * 记录迭代器
+     *
+     * @since 1.8
+     */
+    private static final class RecordIterator implements Iterator<byte[]> {
+        /**
+         * 校验
+         */
+        private final CRC32 crc = new CRC32();
+        /**
+         * 分段文件
+         */
+        private final Iterator<Path> segments;
+        /**
+         * 当前分段内容
+         */
+        private ByteBuffer buffer;
+        /**
+         * 下一条记录
+         */
+        private byte[] next;
+
+        RecordIterator(List<Path> segments) {
+            this.segments = segments.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.next == null) {
+                if (this.buffer != null) {
+                    this.next = this.read(this.buffer);
+                    if (this.next != null) {
+                        break;
+                    }
+                    this.buffer = null;
+                }
+                if (!this.segments.hasNext()) {
+                    return false;
+                }
+                this.buffer = this.open(this.segments.next());
+            }
+            return true;
+        }
+
+        @Override
+        public byte[] next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            byte[] record = this.next;
+            this.next = null;
+            return record;
+        }
+
+        /**
+         * 打开分段
+         *
+         * @param path 分段文件
+         * @return 返回分段内容，格式不正确时返回null
+         */
+        private ByteBuffer open(Path path) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.remaining() < JournalWriter.HEADER_SIZE
+                        || buffer.getInt() != JournalWriter.MAGIC
+                        || buffer.getInt() != JournalWriter.VERSION) {
+                    return null;
+                }
+                return buffer;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * 读取下一条记录
+         *
+         * @param buffer 分段内容
+         * @return 返回记录内容，已到结尾或记录损坏时返回null
+         */
+        private byte[] read(ByteBuffer buffer) {
+            if (buffer.remaining() < JournalWriter.RECORD_HEADER_SIZE) {
+                return null;
+            }
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return null;
+            }
+            byte[] record = new byte[length];
+            buffer.get(record);
+            this.crc.reset();
+            this.crc.update(record, 0, length);
+            return (int) this.crc.getValue() == checksum ? record : null;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.tongxiaoya.auditlog.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * 审计日志文件写入器
+ * <p>
+ * 记录以“长度 + CRC32 + 内容”的格式追加到内存映射的分段文件中，分段按大小及时间滚动，
+ * 按组提交间隔统一刷盘；可设置段首记录（如二进制格式的模式记录），每个新分段开头写入；文件格式：
+ * <pre>
+ * 段头：  int 魔数(AUDT) | int 版本
+ * 记录：  int 长度 | int CRC32 | byte[长度] 内容
+ * 结尾：  int 0（映射文件预分配空间为0）
+ * </pre>
+ *
+ * @since 1.8
+ */
+public class JournalWriter implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 魔数（AUDT）
+     */
+    static final int MAGIC = 0x41554454;
+    /**
+     * 格式版本
+     */
+    static final int VERSION = 1;
+    /**
+     * 段头长度
+     */
+    static final int HEADER_SIZE = 8;
+    /**
+     * 记录头长度
+     */
+    static final int RECORD_HEADER_SIZE = 8;
+    /**
+     * 分段文件前缀
+     */
+    static final String FILE_PREFIX = "audit-";
+    /**
+     * 分段文件后缀
+     */
+    static final String FILE_SUFFIX = ".journal";
+
+    /**
+     * 目录
+     */
+    private final Path directory;
+    /**
+     * 分段大小
+     */
+    private final int segmentSize;
+    /**
+     * 滚动间隔（毫秒）
+     */
+    private final long rollInterval;
+    /**
+     * 校验
+     */
+    private final CRC32 crc = new CRC32();
+    /**
+     * 刷盘调度器
+     */
+    private final ScheduledExecutorService syncer;
+    /**
+     * 段首记录
+     */
+    private volatile Supplier<List<byte[]>> preamble = Collections::emptyList;
+    /**
+     * 当前分段序号
+     */
+    private long sequence;
+    /**
+     * 当前分段文件
+     */
+    private RandomAccessFile file;
+    /**
+     * 当前分段映射
+     */
+    private MappedByteBuffer buffer;
+    /**
+     * 当前分段写入的段首记录数量
+     */
+    private int preambleCount;
+    /**
+     * 剩余的预留空间（字节，预留范围内追加不再滚动）
+     */
+    private int reserved;
+    /**
+     * 当前分段滚动时间
+     */
+    private long rollDeadline;
+    /**
+     * 是否有未刷盘数据
+     */
+    private boolean dirty;
+    /**
+     * 是否已关闭
+     */
+    private boolean closed;
+
+    /**
+     * 构造
+     *
+     * @param directory    目录
+     * @param segmentSize  分段大小（字节）
+     * @param rollInterval 滚动间隔（毫秒，小于等于0时仅按大小滚动）
+     * @param syncInterval 组提交刷盘间隔（毫秒，小于等于0时每次追加后刷盘）
+     * @throws IOException IO异常
+     */
+    public JournalWriter(Path directory, int segmentSize, long rollInterval, long syncInterval) throws IOException {
+        if (segmentSize <= HEADER_SIZE + RECORD_HEADER_SIZE + 4) {
+            throw new IllegalArgumentException("segmentSize too small");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.rollInterval = rollInterval;
+        this.sequence = JournalReader.lastSequence(directory);
+        if (syncInterval > 0) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "auditlog-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.syncer.scheduleWithFixedDelay(this::sync, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * 设置段首记录（在写入器锁内获取，应快速返回）
+     *
+     * @param preamble 段首记录
+     */
+    public void setPreamble(Supplier<List<byte[]>> preamble) {
+        this.preamble = preamble;
+    }
+
+    /**
+     * 获取当前分段序号（每次滚动递增，尚未打开分段时为0）
+     *
+     * @return 返回分段序号
+     */
+    public synchronized long getSequence() {
+        return this.buffer != null ? this.sequence : 0L;
+    }
+
+    /**
+     * 获取当前分段写入的段首记录数量（段首记录超出分段大小时截断，仅写入前若干条）
+     *
+     * @return 返回段首记录数量
+     */
+    public synchronized int getPreambleCount() {
+        return this.preambleCount;
+    }
+
+    /**
+     * 预留空间：剩余空间不足或到达滚动时间时先滚动至新分段；
+     * 调用方在持有写入器锁期间追加的记录总长不超过预留大小时，保证写入同一分段
+     *
+     * @param length  记录内容总长度
+     * @param records 记录数量
+     * @return 返回记录将写入的分段序号
+     * @throws IOException IO异常
+     */
+    public synchronized long reserve(int length, int records) throws IOException {
+        if (this.closed) {
+            throw new IOException("journal closed");
+        }
+        int required = RECORD_HEADER_SIZE * records + length;
+        if (length <= 0 || required > this.segmentSize - HEADER_SIZE - 4) {
+            throw new IllegalArgumentException("record size out of range: " + length);
+        }
+        this.rollIfNeeded(required);
+        this.reserved = required;
+        return this.sequence;
+    }
+
+    /**
+     * 追加记录
+     *
+     * @param data 记录内容
+     * @throws IOException IO异常
+     */
+    public synchronized void append(byte[] data) throws IOException {
+        this.append(data, 0, data.length);
+    }
+
+    /**
+     * 追加记录
+     *
+     * @param data   记录内容
+     * @param offset 开始下标
+     * @param length 长度
+     * @throws IOException IO异常
+     */
+    public synchronized void append(byte[] data, int offset, int length) throws IOException {
+        if (this.closed) {
+            throw new IOException("journal closed");
+        }
+        int required = RECORD_HEADER_SIZE + length;
+        if (length <= 0 || required > this.segmentSize - HEADER_SIZE - 4) {
+            throw new IllegalArgumentException("record size out of range: " + length);
+        }
+        if (this.reserved >= required) {
+            this.reserved -= required;
+        } else {
+            this.reserved = 0;
+            this.rollIfNeeded(required);
+        }
+        this.put(data, offset, length);
+        if (this.syncer == null) {
+            this.buffer.force();
+        } else {
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * 刷盘
+     */
+    public synchronized void sync() {
+        if (this.dirty && this.buffer != null) {
+            this.buffer.force();
+            this.dirty = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.syncer != null) {
+            this.syncer.shutdown();
+        }
+        this.closeSegment();
+    }
+
+    /**
+     * 写入记录（调用方已确认剩余空间）
+     *
+     * @param data   记录内容
+     * @param offset 开始下标
+     * @param length 长度
+     */
+    private void put(byte[] data, int offset, int length) {
+        this.crc.reset();
+        this.crc.update(data, offset, length);
+        this.buffer.putInt(length);
+        this.buffer.putInt((int) this.crc.getValue());
+        this.buffer.put(data, offset, length);
+    }
+
+    /**
+     * 剩余空间不足或到达滚动时间时滚动至新分段
+     *
+     * @param required 需要的空间
+     * @throws IOException IO异常
+     */
+    private void rollIfNeeded(int required) throws IOException {
+        if (this.buffer == null || this.buffer.remaining() < required + 4
+                || (this.rollInterval > 0 && System.currentTimeMillis() >= this.rollDeadline)) {
+            this.roll(required);
+        }
+    }
+
+    /**
+     * 滚动至新分段并写入段首记录
+     *
+     * @param reserved 为当前记录保留的空间（段首记录超出剩余空间时截断）
+     * @throws IOException IO异常
+     */
+    private void roll(int reserved) throws IOException {
+        this.closeSegment();
+        this.sequence++;
+        Path path = this.directory.resolve(segmentName(this.sequence));
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        this.file.setLength(this.segmentSize);
+        this.buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+        this.buffer.putInt(MAGIC);
+        this.buffer.putInt(VERSION);
+        this.preambleCount = 0;
+        for (byte[] record : this.preamble.get()) {
+            if (this.buffer.remaining() < RECORD_HEADER_SIZE + record.length + reserved + 4) {
+                logger.warn("审计日志段首记录超出分段大小，已截断：{}", path);
+                break;
+            }
+            this.put(record, 0, record.length);
+            this.preambleCount++;
+        }
+        this.rollDeadline = System.currentTimeMillis() + this.rollInterval;
+        logger.debug("审计日志文件滚动至：{}", path);
+    }
+
+    /**
+     * 关闭当前分段
+     *
+     * @throws IOException IO异常
+     */
+    private void closeSegment() throws IOException {
+        if (this.buffer != null) {
+            this.buffer.force();
+            this.dirty = false;
+            this.buffer = null;
+        }
+        if (this.file != null) {
+            this.file.close();
+            this.file = null;
+        }
+    }
+
+    /**
+     * 分段文件名
+     *
+     * @param sequence 分段序号
+     * @return 返回文件名
+     */
+    static String segmentName(long sequence) {
+        return String.format("%s%020d%s", FILE_PREFIX, sequence, FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,306 @@
+package com.tongxiaoya.auditlog.log;
+
+import com.tongxiaoya.auditlog.select.FieldSelection;
+
+/**
+ * 审计事件
+ * <p>
+ * 切面线程上仅捕获参数、结果等引用，渲染与输出可延迟至后台线程完成
+ *
+ * @since 1.8
+ */
+public final class AuditEvent {
+
+    /**
+     * 事件类型
+     */
+    private final Type type;
+    /**
+     * 日志执行计划
+     */
+    private final LogPlan plan;
+    /**
+     * 注解执行计划
+     */
+    private final LogPlan.Entry entry;
+    /**
+     * 是否进行代码定位（捕获时已完成决策）
+     */
+    private final boolean positioned;
+    /**
+     * 参数列表
+     */
+    private final Object[] args;
+    /**
+     * 返回结果
+     */
+    private final Object result;
+    /**
+     * 异常
+     */
+    private final Throwable throwable;
+    /**
+     * 调用耗时（纳秒，未测量时为-1）
+     */
+    private final long duration;
+    /**
+     * 事件时间（毫秒）
+     */
+    private final long timestamp;
+    /**
+     * 调用线程名称
+     */
+    private final String threadName;
+    /**
+     * 重复次数（仅重复异常汇总事件大于0）
+     */
+    private final int repeated;
+    /**
+     * 首次重复时间（毫秒，仅重复异常汇总事件）
+     */
+    private final long firstTimestamp;
+    /**
+     * 已接收事件的输出端（按输出端顺序的位图，仅输出线程访问；部分输出端拒绝后重试时跳过已接收的输出端）
+     */
+    private long delivered;
+
+    /**
+     * 构造
+     *
+     * @param type       事件类型
+     * @param plan       日志执行计划
+     * @param entry      注解执行计划
+     * @param positioned 是否进行代码定位
+     * @param args       参数列表
+     * @param result     返回结果
+     * @param throwable  异常
+     * @param duration   调用耗时（纳秒，未测量时为-1）
+     */
+    AuditEvent(Type type, LogPlan plan, LogPlan.Entry entry, boolean positioned, Object[] args, Object result, Throwable throwable, long duration) {
+        this.type = type;
+        this.plan = plan;
+        this.entry = entry;
+        this.positioned = positioned;
+        this.args = args;
+        this.result = result;
+        this.throwable = throwable;
+        this.duration = duration;
+        this.timestamp = System.currentTimeMillis();
+        this.threadName = Thread.currentThread().getName();
+        this.repeated = 0;
+        this.firstTimestamp = this.timestamp;
+    }
+
+    /**
+     * 构造（恢复溢出队列中的事件）
+     *
+     * @param type           事件类型
+     * @param plan           日志执行计划
+     * @param entry          注解执行计划
+     * @param positioned     是否进行代码定位
+     * @param args           参数列表
+     * @param result         返回结果
+     * @param throwable      异常
+     * @param duration       调用耗时（纳秒，未测量时为-1）
+     * @param timestamp      事件时间（毫秒）
+     * @param threadName     调用线程名称
+     * @param repeated       重复次数
+     * @param firstTimestamp 首次重复时间（毫秒）
+     */
+    AuditEvent(Type type, LogPlan plan, LogPlan.Entry entry, boolean positioned, Object[] args, Object result, Throwable throwable, long duration,
+               long timestamp, String threadName, int repeated, long firstTimestamp) {
+        this.type = type;
+        this.plan = plan;
+        this.entry = entry;
+        this.positioned = positioned;
+        this.args = args;
+        this.result = result;
+        this.throwable = throwable;
+        this.duration = duration;
+        this.timestamp = timestamp;
+        this.threadName = threadName;
+        this.repeated = repeated;
+        this.firstTimestamp = firstTimestamp;
+    }
+
+    /**
+     * 构造重复异常汇总事件
+     *
+     * @param source         首次事件
+     * @param repeated       重复次数
+     * @param firstTimestamp 首次重复时间（毫秒）
+     * @param lastTimestamp  末次重复时间（毫秒）
+     */
+    private AuditEvent(AuditEvent source, int repeated, long firstTimestamp, long lastTimestamp) {
+        this.type = source.type;
+        this.plan = source.plan;
+        this.entry = source.entry;
+        this.positioned = source.positioned;
+        this.args = source.args;
+        this.result = source.result;
+        this.throwable = source.throwable;
+        this.duration = source.duration;
+        this.timestamp = lastTimestamp;
+        this.threadName = source.threadName;
+        this.repeated = repeated;
+        this.firstTimestamp = firstTimestamp;
+    }
+
+    /**
+     * 创建重复异常汇总事件
+     *
+     * @param repeated       重复次数
+     * @param firstTimestamp 首次重复时间（毫秒）
+     * @param lastTimestamp  末次重复时间（毫秒）
+     * @return 返回汇总事件（时间为末次重复时间）
+     */
+    public AuditEvent repeat(int repeated, long firstTimestamp, long lastTimestamp) {
+        return new AuditEvent(this, repeated, firstTimestamp, lastTimestamp);
+    }
+
+    /**
+     * 已接收事件的输出端
+     *
+     * @return 返回按输出端顺序的位图
+     */
+    long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * 设置已接收事件的输出端
+     *
+     * @param delivered 按输出端顺序的位图
+     */
+    void setDelivered(long delivered) {
+        this.delivered = delivered;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LogPlan getPlan() {
+        return plan;
+    }
+
+    public LogPlan.Entry getEntry() {
+        return entry;
+    }
+
+    public boolean isPositioned() {
+        return positioned;
+    }
+
+    /**
+     * 获取方法描述
+     *
+     * @return 返回方法描述
+     */
+    public String getLocation() {
+        return this.entry.getLocation(this.positioned);
+    }
+
+    /**
+     * 获取信息前缀
+     *
+     * @return 返回信息前缀
+     */
+    public String getPrefix() {
+        return this.entry.getPrefix(this.positioned);
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    /**
+     * 获取参数输出名称（声明字段选择时为属性路径）
+     *
+     * @return 返回参数输出名称
+     */
+    public String[] getParamNames() {
+        FieldSelection selection = this.entry.getParamSelection();
+        return selection != null ? selection.getNames() : this.plan.getParamNames();
+    }
+
+    /**
+     * 获取参数输出键（预先拼接分隔符及等号）
+     *
+     * @return 返回参数输出键
+     */
+    public String[] getParamKeys() {
+        FieldSelection selection = this.entry.getParamSelection();
+        return selection != null ? selection.getKeys() : this.plan.getParamKeys();
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    /**
+     * 是否调用失败（携带异常）
+     *
+     * @return 返回布尔值
+     */
+    public boolean isFailed() {
+        return this.throwable != null;
+    }
+
+    /**
+     * 获取输出级别（携带异常时为错误级别）
+     *
+     * @return 返回日志级别
+     */
+    public Level getLevel() {
+        return this.throwable != null ? Level.ERROR : this.entry.getLevel();
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public int getRepeated() {
+        return repeated;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    /**
+     * 事件类型
+     *
+     * @since 1.8
+     */
+    public enum Type {
+        /**
+         * 参数
+         */
+        PARAM,
+        /**
+         * 结果（异步返回值另含异常及耗时）
+         */
+        RESULT,
+        /**
+         * 异常
+         */
+        THROWING,
+        /**
+         * 调用（综合日志，一次调用一个事件：参数、结果或异常及耗时）
+         */
+        INVOCATION
+    }
+}
@@ -0,0 +1,307 @@
+package com.tongxiaoya.auditlog.log;
+
+import com.tongxiaoya.auditlog.format.BinaryInput;
+import com.tongxiaoya.auditlog.format.BinaryOutput;
+import com.tongxiaoya.auditlog.render.RenderedValue;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * 审计事件编解码器（溢出队列）
+ * <p>
+ * 参数及返回值在编码时渲染为文本（已完成字段选择与脱敏），异常仅保存类名、信息、堆栈及原因链，
+ * 不使用Java序列化；解码时按方法签名重新查找执行计划，参数及返回值恢复为{@link RenderedValue}，
+ * 异常恢复为{@link RestoredThrowable}，输出结果与原事件一致。格式：
+ * <pre>
+ * byte 版本 | string 声明类 | string 方法名 | varint 参数个数 | string[] 参数类型
+ * byte 事件类型 | byte 注解级别 | byte 是否代码定位
+ * varlong 时间 | string 线程 | varlong 耗时+1 | varint 重复次数 | varlong 首次重复时间
+ * varint 参数个数+1（0为空） | string[] 参数 | string 返回值 | 异常 | varlong 已接收的输出端（版本2，按输出端顺序的位图）
+ * 异常：  byte 是否存在 | string 类名 | string 信息 | varint 帧数 | 帧[] | 原因（同异常）
+ * 帧：    string 类 | string 方法 | string 文件 | varint 行号+2
+ * </pre>
+ *
+ * @since 1.8
+ */
+public final class AuditEventCodec {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 格式版本
+     */
+    private static final int VERSION = 2;
+    /**
+     * 不含已接收输出端的格式版本
+     */
+    private static final int VERSION_1 = 1;
+    /**
+     * 最多保存的原因层数
+     */
+    private static final int MAX_CAUSE_DEPTH = 8;
+    /**
+     * 线程缓存的缓冲区最大保留容量
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    /**
+     * 事件类型（按序号）
+     */
+    private static final AuditEvent.Type[] TYPES = AuditEvent.Type.values();
+    /**
+     * 日志级别（按序号）
+     */
+    private static final Level[] LEVELS = Level.values();
+
+    /**
+     * 值渲染器
+     */
+    private final ValueRenderer renderer;
+    /**
+     * 线程复用的输出缓冲区
+     */
+    private final ThreadLocal<BinaryOutput> outputs = ThreadLocal.withInitial(() -> new BinaryOutput(1024));
+    /**
+     * 线程复用的渲染缓冲区
+     */
+    private final ThreadLocal<StringBuilder> scratches = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 构造
+     *
+     * @param renderer 值渲染器（应与输出端使用的渲染器一致）
+     */
+    public AuditEventCodec(ValueRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * 编码事件
+     *
+     * @param event 审计事件
+     * @return 返回当前线程复用的输出缓冲区（下次编码前有效）
+     */
+    public BinaryOutput encode(AuditEvent event) {
+        BinaryOutput output = this.outputs.get();
+        if (output.capacity() > MAX_RETAINED_CAPACITY) {
+            output = new BinaryOutput(1024);
+            this.outputs.set(output);
+        }
+        output.reset();
+        Method method = event.getPlan().getMethod();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        output.writeByte(VERSION)
+                .writeString(method.getDeclaringClass().getName())
+                .writeString(method.getName())
+                .writeVarint(parameterTypes.length);
+        for (Class<?> parameterType : parameterTypes) {
+            output.writeString(parameterType.getName());
+        }
+        output.writeByte(event.getType().ordinal())
+                .writeByte(event.getEntry().getLevel().ordinal())
+                .writeByte(event.isPositioned() ? 1 : 0)
+                .writeVarlong(event.getTimestamp())
+                .writeString(event.getThreadName())
+                .writeVarlong(event.getDuration() + 1)
+                .writeVarint(event.getRepeated())
+                .writeVarlong(event.getFirstTimestamp());
+        Object[] args = event.getArgs();
+        if (args == null) {
+            output.writeVarint(0);
+        } else {
+            output.writeVarint(args.length + 1);
+            for (Object arg : args) {
+                this.writeValue(output, arg);
+            }
+        }
+        this.writeValue(output, event.getResult());
+        this.writeThrowable(output, event.getThrowable(), 0);
+        output.writeVarlong(event.getDelivered());
+        return output;
+    }
+
+    /**
+     * 解码事件
+     *
+     * @param record 记录内容
+     * @param plans  按方法对象获取执行计划
+     * @return 返回审计事件，方法或注解已不存在时返回null
+     * @throws IllegalArgumentException 记录损坏
+     */
+    public AuditEvent decode(byte[] record, Function<Method, LogPlan> plans) {
+        BinaryInput input = new BinaryInput(record);
+        int version = input.readByte();
+        if (version != VERSION && version != VERSION_1) {
+            throw new IllegalArgumentException("unsupported version: " + version);
+        }
+        String className = input.readString();
+        String methodName = input.readString();
+        String[] parameterTypes = new String[input.readVarint()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = input.readString();
+        }
+        AuditEvent.Type type = valueOf(TYPES, input.readByte());
+        Level level = valueOf(LEVELS, input.readByte());
+        boolean positioned = input.readByte() != 0;
+        long timestamp = input.readVarlong();
+        String threadName = input.readString();
+        long duration = input.readVarlong() - 1;
+        int repeated = input.readVarint();
+        long firstTimestamp = input.readVarlong();
+        int argCount = input.readVarint();
+        Object[] args = null;
+        if (argCount > 0) {
+            args = new Object[argCount - 1];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = RenderedValue.of(input.readString());
+            }
+        }
+        Object result = RenderedValue.of(input.readString());
+        Throwable throwable = this.readThrowable(input, 0);
+        long delivered = version == VERSION ? input.readVarlong() : 0L;
+        Method method = this.resolveMethod(className, methodName, parameterTypes);
+        LogPlan plan = method != null ? plans.apply(method) : null;
+        LogPlan.Entry entry = plan != null ? this.resolveEntry(plan, type) : null;
+        if (entry == null) {
+            logger.warn("无法恢复{}.{}方法的审计事件：方法或注解已不存在", className, methodName);
+            return null;
+        }
+        if (entry.getLevel() != level) {
+            entry = entry.withLevel(level);
+        }
+        AuditEvent event = new AuditEvent(type, plan, entry, positioned, args, result, throwable, duration, timestamp, threadName, repeated, firstTimestamp);
+        event.setDelivered(delivered);
+        return event;
+    }
+
+    /**
+     * 写入渲染后的值
+     *
+     * @param output 输出缓冲区
+     * @param value  值
+     */
+    private void writeValue(BinaryOutput output, Object value) {
+        if (value == null) {
+            output.writeString(null);
+            return;
+        }
+        StringBuilder scratch = this.scratches.get();
+        scratch.setLength(0);
+        this.renderer.render(scratch, value);
+        output.writeString(scratch);
+        if (scratch.capacity() > MAX_RETAINED_CAPACITY) {
+            this.scratches.remove();
+        }
+    }
+
+    /**
+     * 写入异常
+     *
+     * @param output    输出缓冲区
+     * @param throwable 异常
+     * @param depth     当前层数
+     */
+    private void writeThrowable(BinaryOutput output, Throwable throwable, int depth) {
+        if (throwable == null || depth > MAX_CAUSE_DEPTH) {
+            output.writeByte(0);
+            return;
+        }
+        output.writeByte(1)
+                .writeString(RestoredThrowable.getTypeName(throwable))
+                .writeString(throwable.getMessage());
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        output.writeVarint(stackTrace.length);
+        for (StackTraceElement element : stackTrace) {
+            output.writeString(element.getClassName())
+                    .writeString(element.getMethodName())
+                    .writeString(element.getFileName())
+                    .writeVarint(element.getLineNumber() + 2);
+        }
+        Throwable cause = throwable.getCause();
+        this.writeThrowable(output, cause != throwable ? cause : null, depth + 1);
+    }
+
+    /**
+     * 读取异常
+     *
+     * @param input 输入
+     * @param depth 当前层数
+     * @return 返回恢复的异常，不存在时返回null
+     */
+    private Throwable readThrowable(BinaryInput input, int depth) {
+        if (input.readByte() == 0) {
+            return null;
+        }
+        if (depth > MAX_CAUSE_DEPTH) {
+            throw new IllegalArgumentException("cause chain too deep");
+        }
+        String className = input.readString();
+        String message = input.readString();
+        StackTraceElement[] stackTrace = new StackTraceElement[input.readVarint()];
+        for (int i = 0; i < stackTrace.length; i++) {
+            stackTrace[i] = new StackTraceElement(input.readString(), input.readString(), input.readString(), input.readVarint() - 2);
+        }
+        Throwable cause = this.readThrowable(input, depth + 1);
+        return new RestoredThrowable(className, message, stackTrace, cause);
+    }
+
+    /**
+     * 解析方法对象
+     *
+     * @param className      声明类全类名
+     * @param methodName     方法名称
+     * @param parameterTypes 参数类型名称
+     * @return 返回方法对象，类或方法不存在时返回null
+     */
+    private Method resolveMethod(String className, String methodName, String[] parameterTypes) {
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        try {
+            Class<?>[] types = new Class<?>[parameterTypes.length];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = ClassUtils.forName(parameterTypes[i], classLoader);
+            }
+            return ClassUtils.forName(className, classLoader).getDeclaredMethod(methodName, types);
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 按事件类型获取注解执行计划
+     *
+     * @param plan 日志执行计划
+     * @param type 事件类型
+     * @return 返回注解执行计划
+     */
+    private LogPlan.Entry resolveEntry(LogPlan plan, AuditEvent.Type type) {
+        switch (type) {
+            case PARAM:
+                return plan.getParamEntry();
+            case RESULT:
+                return plan.getResultEntry();
+            case THROWING:
+                return plan.getThrowingEntry();
+            default:
+                return plan.getLogEntry();
+        }
+    }
+
+    /**
+     * 按序号获取枚举值
+     *
+     * @param values  枚举值
+     * @param ordinal 序号
+     * @param <E>     枚举类型
+     * @return 返回枚举值
+     */
+    private static <E extends Enum<E>> E valueOf(E[] values, int ordinal) {
+        if (ordinal >= values.length) {
+            throw new IllegalArgumentException("invalid ordinal: " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
@@ -25,4 +25,34 @@ public @interface Log {
      * 代码定位支持
      */
     Position position() default Position.DEFAULT;
+
+    /**
+     * 采样比例（0~1，默认全部输出）
+     */
+    double sampleRate() default 1.0D;
+
+    /**
+     * 每秒最多输出次数（令牌桶限流，小于等于0时不限流）
+     */
+    int rateLimit() default 0;
+
+    /**
+     * 自适应采样（异步输出缓冲区积压超过一半后按积压比例降低输出比例）
+     */
+    boolean adaptive() default false;
+
+    /**
+     * 慢调用阈值（毫秒）：仅输出耗时超过阈值或抛出异常的调用；0为关闭，小于0时使用全局配置
+     */
+    long slowThreshold() default -1L;
+
+    /**
+     * 参数字段选择（属性路径，首段为参数名称，如order.id、user.name；为空时输出全部参数）
+     */
+    String[] fields() default {};
+
+    /**
+     * 返回值字段选择（属性路径，相对于返回值，如id、customer.name；为空时输出完整返回值）
+     */
+    String[] resultFields() default {};
 }
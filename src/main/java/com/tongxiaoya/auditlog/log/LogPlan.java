@@ -0,0 +1,581 @@
+package com.tongxiaoya.auditlog.log;
+
+import com.tongxiaoya.auditlog.mask.MaskedValue;
+import com.tongxiaoya.auditlog.mask.Masker;
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import com.tongxiaoya.auditlog.metrics.AuditMetrics;
+import com.tongxiaoya.auditlog.metrics.MethodMetrics;
+import com.tongxiaoya.auditlog.reactive.AsyncResultHandler;
+import com.tongxiaoya.auditlog.sampling.AuditSampler;
+import com.tongxiaoya.auditlog.select.FieldSelection;
+import com.tongxiaoya.auditlog.support.MethodInfo;
+import com.tongxiaoya.auditlog.support.MethodMetadataIndex;
+import com.tongxiaoya.auditlog.support.MethodParser;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 日志执行计划
+ * <p>
+ * 每个切入方法编译一次：解析注解取值、日志级别、代码定位决策、敏感参数的脱敏器并预先拼接信息前缀，
+ * 切面热路径上仅需渲染参数与返回值
+ *
+ * @since 1.8
+ */
+public final class LogPlan {
+
+    /**
+     * 参数名称解析器（仅按方法对象编译时使用）
+     */
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 方法对象
+     */
+    private final Method method;
+    /**
+     * 所在类全类名
+     */
+    private final String className;
+    /**
+     * 方法名称
+     */
+    private final String methodName;
+    /**
+     * 输出日志
+     */
+    private final Logger logger;
+    /**
+     * 参数名称
+     */
+    private final String[] paramNames;
+    /**
+     * 参数前缀（如：name=）
+     */
+    private final String[] paramKeys;
+    /**
+     * 参数日志
+     */
+    private final Entry paramEntry;
+    /**
+     * 结果日志
+     */
+    private final Entry resultEntry;
+    /**
+     * 异常日志
+     */
+    private final Entry throwingEntry;
+    /**
+     * 综合日志
+     */
+    private final Entry logEntry;
+    /**
+     * 方法指标（仅综合日志，记录调用耗时）
+     */
+    private final MethodMetrics metrics;
+    /**
+     * 慢调用阈值（纳秒，仅综合日志；小于0时使用全局配置）
+     */
+    private final long slowThreshold;
+    /**
+     * 异步返回值处理器（仅综合日志及返回值日志，同步返回值为空）
+     */
+    private final AsyncResultHandler asyncHandler;
+    /**
+     * 参数脱敏器（按声明顺序，无敏感参数时为空）
+     */
+    private final Masker[] paramMaskers;
+    /**
+     * 返回值脱敏器（非敏感返回值为空）
+     */
+    private final Masker resultMasker;
+
+    /**
+     * 构造
+     *
+     * @param method         方法对象
+     * @param className      所在类全类名
+     * @param parameterNames 参数名称（为空时解析类文件或元数据索引）
+     * @param metrics        审计指标注册表
+     * @param loggers        按全类名获取输出日志
+     * @param asyncHandlers  异步返回值处理器
+     * @param masking          脱敏策略
+     * @param classFileParsing 代码定位是否允许读取类文件
+     */
+    private LogPlan(Method method, String className, String[] parameterNames, AuditMetrics metrics, Function<String, Logger> loggers,
+                    List<AsyncResultHandler> asyncHandlers, MaskingPolicy masking, boolean classFileParsing) {
+        this.method = method;
+        this.className = className;
+        this.methodName = this.method.getName();
+        this.logger = loggers.apply(this.className);
+        MethodInfo positionInfo = null;
+        Log log = this.method.getAnnotation(Log.class);
+        ParamLog paramLog = this.method.getAnnotation(ParamLog.class);
+        ResultLog resultLog = this.method.getAnnotation(ResultLog.class);
+        ThrowingLog throwingLog = this.method.getAnnotation(ThrowingLog.class);
+        if (this.needPosition(log != null ? log.position() : null)
+                || this.needPosition(paramLog != null ? paramLog.position() : null)
+                || this.needPosition(resultLog != null ? resultLog.position() : null)) {
+            positionInfo = MethodParser.getMethodInfo(this.method, parameterNames, classFileParsing);
+        }
+        MethodInfo nameInfo = positionInfo;
+        if (parameterNames == null && nameInfo == null) {
+            nameInfo = MethodMetadataIndex.find(this.method);
+        }
+        this.paramNames = this.resolveParamNames(parameterNames, nameInfo);
+        this.paramKeys = new String[this.paramNames.length];
+        for (int i = 0; i < this.paramNames.length; i++) {
+            this.paramKeys[i] = (i == 0 ? "" : ", ") + this.paramNames[i] + "=";
+        }
+        this.paramMaskers = this.createParamMaskers(masking);
+        this.resultMasker = masking.forResult(this.method);
+        String plainLocation = this.className + "." + this.methodName;
+        String positionLocation = this.createLocation(positionInfo, plainLocation);
+        this.asyncHandler = log == null && resultLog == null ? null : this.findAsyncHandler(asyncHandlers);
+        boolean async = this.asyncHandler != null;
+        this.logEntry = log == null ? null : new Entry(log.value(), log.level(), log.position(), plainLocation, positionLocation,
+                this.createSampler(log.value(), log.sampleRate(), log.rateLimit(), log.adaptive(), metrics),
+                FieldSelection.ofParams(this.method, this.paramNames, log.fields(), masking), FieldSelection.ofResult(this.method, async, log.resultFields(), masking));
+        this.paramEntry = paramLog == null ? null : new Entry(paramLog.value(), paramLog.level(), paramLog.position(), plainLocation, positionLocation,
+                this.createSampler(paramLog.value(), paramLog.sampleRate(), paramLog.rateLimit(), paramLog.adaptive(), metrics),
+                FieldSelection.ofParams(this.method, this.paramNames, paramLog.fields(), masking), null);
+        this.resultEntry = resultLog == null ? null : new Entry(resultLog.value(), resultLog.level(), resultLog.position(), plainLocation, positionLocation,
+                this.createSampler(resultLog.value(), resultLog.sampleRate(), resultLog.rateLimit(), resultLog.adaptive(), metrics),
+                null, FieldSelection.ofResult(this.method, async, resultLog.fields(), masking));
+        this.throwingEntry = throwingLog == null ? null : new Entry(throwingLog.value(), Level.ERROR, Position.DISABLED, plainLocation, positionLocation, null, null, null);
+        this.metrics = log == null ? null : metrics.register(this.className, this.method, log.value());
+        this.slowThreshold = log == null || log.slowThreshold() < 0 ? -1L : TimeUnit.MILLISECONDS.toNanos(log.slowThreshold());
+    }
+
+    /**
+     * 编译执行计划
+     *
+     * @param signature     方法签名
+     * @param metrics       审计指标注册表
+     * @param loggers       按全类名获取输出日志
+     * @param asyncHandlers 异步返回值处理器
+     * @param masking          脱敏策略
+     * @param classFileParsing 代码定位是否允许读取类文件
+     * @return 返回执行计划
+     */
+    static LogPlan compile(MethodSignature signature, AuditMetrics metrics, Function<String, Logger> loggers, List<AsyncResultHandler> asyncHandlers,
+                           MaskingPolicy masking, boolean classFileParsing) {
+        return new LogPlan(signature.getMethod(), signature.getDeclaringTypeName(), signature.getParameterNames(), metrics, loggers, asyncHandlers,
+                masking, classFileParsing);
+    }
+
+    /**
+     * 按方法对象编译执行计划（恢复溢出队列中的事件时，方法尚未被调用过）
+     *
+     * @param method        方法对象
+     * @param metrics       审计指标注册表
+     * @param loggers       按全类名获取输出日志
+     * @param asyncHandlers 异步返回值处理器
+     * @param masking          脱敏策略
+     * @param classFileParsing 代码定位是否允许读取类文件
+     * @return 返回执行计划
+     */
+    static LogPlan compile(Method method, AuditMetrics metrics, Function<String, Logger> loggers, List<AsyncResultHandler> asyncHandlers,
+                           MaskingPolicy masking, boolean classFileParsing) {
+        String[] parameterNames = PARAMETER_NAME_DISCOVERER.getParameterNames(method);
+        return new LogPlan(method, method.getDeclaringClass().getName(), parameterNames, metrics, loggers, asyncHandlers, masking, classFileParsing);
+    }
+
+    /**
+     * 创建参数脱敏器
+     *
+     * @param masking 脱敏策略
+     * @return 返回参数脱敏器，无敏感参数时返回null
+     */
+    private Masker[] createParamMaskers(MaskingPolicy masking) {
+        Masker[] maskers = new Masker[this.paramNames.length];
+        boolean sensitive = false;
+        for (int i = 0; i < maskers.length; i++) {
+            maskers[i] = masking.forParameter(this.method, i, this.paramNames[i]);
+            sensitive |= maskers[i] != null;
+        }
+        return sensitive ? maskers : null;
+    }
+
+    /**
+     * 按方法返回类型查找异步返回值处理器
+     *
+     * @param asyncHandlers 异步返回值处理器
+     * @return 返回首个支持的处理器，同步返回值返回null
+     */
+    private AsyncResultHandler findAsyncHandler(List<AsyncResultHandler> asyncHandlers) {
+        Class<?> returnType = this.method.getReturnType();
+        for (AsyncResultHandler handler : asyncHandlers) {
+            if (handler.supports(returnType)) {
+                return handler;
+            }
+        }
+        return null;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * 获取输出日志（按日志路由每个方法解析一次）
+     *
+     * @return 返回输出日志
+     */
+    public Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * 判断输出日志是否开启指定级别
+     *
+     * @param level 日志级别
+     * @return 返回布尔值
+     */
+    public boolean isLevelEnabled(Level level) {
+        switch (level) {
+            case DEBUG:
+                return this.logger.isDebugEnabled();
+            case INFO:
+                return this.logger.isInfoEnabled();
+            case WARN:
+                return this.logger.isWarnEnabled();
+            case ERROR:
+                return this.logger.isErrorEnabled();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 获取参数名称（共享数组，只读）
+     *
+     * @return 返回参数名称
+     */
+    public String[] getParamNames() {
+        return paramNames;
+    }
+
+    public Entry getParamEntry() {
+        return paramEntry;
+    }
+
+    public Entry getResultEntry() {
+        return resultEntry;
+    }
+
+    public Entry getThrowingEntry() {
+        return throwingEntry;
+    }
+
+    public Entry getLogEntry() {
+        return logEntry;
+    }
+
+    public MethodMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public AsyncResultHandler getAsyncHandler() {
+        return asyncHandler;
+    }
+
+    /**
+     * 获取参与渲染的参数（字段选择优先，否则对敏感参数进行脱敏包装）
+     *
+     * @param entry 注解执行计划
+     * @param args  参数列表
+     * @return 返回参与渲染的参数，无字段选择及敏感参数时返回参数列表本身
+     */
+    public Object[] captureArgs(Entry entry, Object[] args) {
+        if (entry.getParamSelection() != null || this.paramMaskers == null) {
+            return entry.selectArgs(args);
+        }
+        Object[] values = args.clone();
+        for (int i = 0; i < values.length && i < this.paramMaskers.length; i++) {
+            values[i] = MaskedValue.wrap(values[i], this.paramMaskers[i]);
+        }
+        return values;
+    }
+
+    /**
+     * 获取参与渲染的返回值（字段选择优先，否则对敏感返回值进行脱敏包装）
+     *
+     * @param entry  注解执行计划
+     * @param result 返回值
+     * @return 返回参与渲染的返回值
+     */
+    public Object captureResult(Entry entry, Object result) {
+        if (entry.resultSelection != null || this.resultMasker == null) {
+            return entry.selectResult(result);
+        }
+        return MaskedValue.wrap(result, this.resultMasker);
+    }
+
+    /**
+     * 获取参数前缀（按声明顺序，如：name=、, id=；共享数组，只读）
+     *
+     * @return 返回参数前缀
+     */
+    public String[] getParamKeys() {
+        return paramKeys;
+    }
+
+    /**
+     * 判断是否需要代码定位信息
+     *
+     * @param position 代码定位
+     * @return 返回布尔值
+     */
+    private boolean needPosition(Position position) {
+        return position != null && position != Position.DISABLED;
+    }
+
+    /**
+     * 解析参数名称
+     *
+     * @param parameterNames 签名参数名称
+     * @param positionInfo   方法信息
+     * @return 返回参数名称
+     */
+    private String[] resolveParamNames(String[] parameterNames, MethodInfo positionInfo) {
+        if (parameterNames != null) {
+            return parameterNames.clone();
+        }
+        int count = this.method.getParameterCount();
+        String[] names = new String[count];
+        List<String> parsed = positionInfo != null ? positionInfo.getParamNames() : null;
+        for (int i = 0; i < count; i++) {
+            names[i] = parsed != null && parsed.size() == count ? parsed.get(i) : "arg" + i;
+        }
+        return names;
+    }
+
+    /**
+     * 创建采样器
+     *
+     * @param business   业务名称
+     * @param sampleRate 采样比例
+     * @param rateLimit  每秒最多输出次数
+     * @param adaptive   是否自适应采样
+     * @param metrics    审计指标注册表
+     * @return 返回采样器，未配置采样时返回null
+     */
+    private AuditSampler createSampler(String business, double sampleRate, int rateLimit, boolean adaptive, AuditMetrics metrics) {
+        if (!AuditSampler.isConfigured(sampleRate, rateLimit, adaptive)) {
+            return null;
+        }
+        return AuditSampler.of(sampleRate, rateLimit, adaptive, metrics.register(this.className, this.method, business));
+    }
+
+    /**
+     * 创建代码定位信息
+     *
+     * @param methodInfo    方法信息
+     * @param plainLocation 无定位信息时的方法描述
+     * @return 返回代码定位信息
+     */
+    private String createLocation(MethodInfo methodInfo, String plainLocation) {
+        if (methodInfo == null || methodInfo.getLineNumber() == MethodParser.UNKNOWN_LINE_NUMBER) {
+            return plainLocation;
+        }
+        return new StackTraceElement(
+                methodInfo.getClassAllName(),
+                methodInfo.getMethodName(),
+                methodInfo.getClassSimpleName() + ".java",
+                methodInfo.getLineNumber()
+        ).toString();
+    }
+
+    /**
+     * 单个注解的执行计划
+     *
+     * @since 1.8
+     */
+    public static final class Entry {
+        /**
+         * 业务名称
+         */
+        private final String busName;
+        /**
+         * 日志级别
+         */
+        private final Level level;
+        /**
+         * 代码定位
+         */
+        private final Position position;
+        /**
+         * 不带代码定位的方法描述
+         */
+        private final String plainLocation;
+        /**
+         * 带代码定位的方法描述
+         */
+        private final String positionLocation;
+        /**
+         * 不带代码定位的信息前缀
+         */
+        private final String plainPrefix;
+        /**
+         * 带代码定位的信息前缀
+         */
+        private final String positionPrefix;
+        /**
+         * 采样器（为空时全部输出）
+         */
+        private final AuditSampler sampler;
+        /**
+         * 参数字段选择（为空时输出全部参数）
+         */
+        private final FieldSelection paramSelection;
+        /**
+         * 返回值字段选择（为空时输出完整返回值）
+         */
+        private final FieldSelection resultSelection;
+
+        /**
+         * 构造
+         *
+         * @param busName          业务名称
+         * @param level            日志级别
+         * @param position         代码定位
+         * @param plainLocation    不带代码定位的方法描述
+         * @param positionLocation 带代码定位的方法描述
+         * @param sampler          采样器
+         * @param paramSelection   参数字段选择
+         * @param resultSelection  返回值字段选择
+         */
+        Entry(String busName, Level level, Position position, String plainLocation, String positionLocation, AuditSampler sampler,
+              FieldSelection paramSelection, FieldSelection resultSelection) {
+            this.busName = busName;
+            this.level = level;
+            this.position = position;
+            this.plainLocation = plainLocation;
+            this.positionLocation = position == Position.DISABLED ? plainLocation : positionLocation;
+            this.plainPrefix = createPrefix(this.plainLocation, busName);
+            this.positionPrefix = createPrefix(this.positionLocation, busName);
+            this.sampler = sampler;
+            this.paramSelection = paramSelection;
+            this.resultSelection = resultSelection;
+        }
+
+        public String getBusName() {
+            return busName;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public Position getPosition() {
+            return position;
+        }
+
+        public AuditSampler getSampler() {
+            return sampler;
+        }
+
+        public FieldSelection getParamSelection() {
+            return paramSelection;
+        }
+
+        /**
+         * 选择参与渲染的参数
+         *
+         * @param args 参数列表
+         * @return 返回选择的字段值，未声明字段选择时返回参数列表
+         */
+        public Object[] selectArgs(Object[] args) {
+            return this.paramSelection == null ? args : this.paramSelection.select(args);
+        }
+
+        /**
+         * 选择参与渲染的返回值
+         *
+         * @param result 返回值
+         * @return 返回属性路径与字段值的映射，未声明字段选择时返回返回值
+         */
+        public Object selectResult(Object result) {
+            return this.resultSelection == null ? result : this.resultSelection.selectResult(result);
+        }
+
+        /**
+         * 复制并修改日志级别
+         *
+         * @param level 日志级别
+         * @return 返回新的注解执行计划
+         */
+        public Entry withLevel(Level level) {
+            return new Entry(this.busName, level, this.position, this.plainLocation, this.positionLocation, this.sampler,
+                    this.paramSelection, this.resultSelection);
+        }
+
+        /**
+         * 是否进行代码定位
+         *
+         * @param debugEnabled 是否开启调试级别（默认代码定位仅在调试级别开启）
+         * @return 返回布尔值
+         */
+        public boolean isPositioned(boolean debugEnabled) {
+            switch (this.position) {
+                case ENABLED:
+                    return true;
+                case DEFAULT:
+                    return debugEnabled;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * 获取方法描述
+         *
+         * @param positioned 是否进行代码定位
+         * @return 返回方法描述
+         */
+        public String getLocation(boolean positioned) {
+            return positioned ? this.positionLocation : this.plainLocation;
+        }
+
+        /**
+         * 获取信息前缀
+         *
+         * @param positioned 是否进行代码定位
+         * @return 返回信息前缀
+         */
+        public String getPrefix(boolean positioned) {
+            return positioned ? this.positionPrefix : this.plainPrefix;
+        }
+
+        /**
+         * 创建信息前缀
+         *
+         * @param location 方法描述
+         * @param busName  业务名称
+         * @return 返回信息前缀
+         */
+        private static String createPrefix(String location, String busName) {
+            return "调用方法：【" + location + "】，业务名称：【" + busName + "】，";
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.tongxiaoya.auditlog.log;
 
-import com.tongxiaoya.auditlog.support.ArrayType;
-import com.tongxiaoya.auditlog.support.MethodInfo;
-import com.tongxiaoya.auditlog.support.MethodParser;
+import com.tongxiaoya.auditlog.async.AsyncAuditDispatcher;
+import com.tongxiaoya.auditlog.async.OverflowPolicy;
+import com.tongxiaoya.auditlog.dedup.ThrowableDeduplicator;
+import com.tongxiaoya.auditlog.format.TextAuditFormatter;
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import com.tongxiaoya.auditlog.metrics.AuditMetrics;
+import com.tongxiaoya.auditlog.reactive.AsyncResultHandler;
+import com.tongxiaoya.auditlog.reactive.AsyncResultHandlers;
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import com.tongxiaoya.auditlog.rule.AuditRuleRegistry;
+import com.tongxiaoya.auditlog.sampling.AuditSampler;
+import com.tongxiaoya.auditlog.scope.AuditScope;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import com.tongxiaoya.auditlog.sink.AuditSinkRejectedException;
+import com.tongxiaoya.auditlog.sink.Slf4jAuditSink;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
@@ -11,7 +23,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
-import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 日志处理器
@@ -24,9 +41,183 @@ public class LogProcessor {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     /**
-     * 代表本地方法，不进行代码定位
+     * 未开启异步输出时异步返回值完成事件的缓冲区大小
      */
-    private static final int LINE_NUMBER = -2;
+    private static final int COMPLETION_BUFFER_SIZE = 1024;
+    /**
+     * 未开启异步输出时异步返回值完成事件的关闭超时时间（毫秒）
+     */
+    private static final long COMPLETION_SHUTDOWN_TIMEOUT = 1000L;
+
+    /**
+     * 日志执行计划缓存
+     */
+    private final ConcurrentMap<Method, LogPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * 审计指标注册表
+     */
+    private volatile AuditMetrics metrics = new AuditMetrics();
+
+    /**
+     * 全局慢调用阈值（纳秒，0为关闭）
+     */
+    private volatile long slowThreshold;
+
+    /**
+     * 审计输出端
+     */
+    private volatile AuditSink[] sinks = {new Slf4jAuditSink(new TextAuditFormatter(new ObjectGraphRenderer()))};
+
+    /**
+     * 异步分发器（为空时同步输出）
+     */
+    private volatile AsyncAuditDispatcher dispatcher;
+
+    /**
+     * 未开启异步输出时异步返回值完成事件的分发器（首次完成时创建，满时丢弃并计数）
+     */
+    private volatile AsyncAuditDispatcher completionDispatcher;
+
+    /**
+     * 审计规则注册表
+     */
+    private volatile AuditRuleRegistry rules = new AuditRuleRegistry();
+
+    /**
+     * 异常去重器（为空时不去重）
+     */
+    private volatile ThrowableDeduplicator deduplicator;
+
+    /**
+     * 审计范围结束时的事件输出
+     */
+    private final Consumer<AuditEvent> output = this::dispatch;
+
+    /**
+     * 按全类名获取输出日志（默认统一输出至日志处理器的日志）
+     */
+    private volatile Function<String, Logger> loggers = className -> this.logger;
+
+    /**
+     * 异步返回值处理器
+     */
+    private volatile List<AsyncResultHandler> asyncHandlers = AsyncResultHandlers.create(100);
+
+    /**
+     * 脱敏策略（默认仅使用注解）
+     */
+    private volatile MaskingPolicy masking = MaskingPolicy.annotations();
+
+    /**
+     * 代码定位是否允许读取类文件（本地镜像中始终关闭）
+     */
+    private volatile boolean classFileParsing = true;
+
+    /**
+     * 设置审计指标注册表
+     *
+     * @param metrics 审计指标注册表
+     */
+    public void setMetrics(AuditMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 设置全局慢调用阈值（@Log未指定阈值时生效）
+     *
+     * @param slowThreshold 慢调用阈值（毫秒，0为关闭）
+     */
+    public void setSlowThreshold(long slowThreshold) {
+        this.slowThreshold = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, slowThreshold));
+    }
+
+    /**
+     * 设置审计输出端
+     *
+     * @param sinks 审计输出端（最多64个，按顺序记录各输出端的接收状态）
+     */
+    public void setSinks(List<AuditSink> sinks) {
+        if (sinks.size() > Long.SIZE) {
+            throw new IllegalArgumentException("at most " + Long.SIZE + " audit sinks are supported");
+        }
+        this.sinks = sinks.toArray(new AuditSink[0]);
+    }
+
+    /**
+     * 设置异步分发器（应在其他设置完成后调用，溢出队列中遗留的记录将立即开始输出）
+     *
+     * @param dispatcher 异步分发器
+     */
+    public void setDispatcher(AsyncAuditDispatcher dispatcher) {
+        dispatcher.start(this::write, this::restorePlan);
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * 设置审计规则注册表
+     *
+     * @param rules 审计规则注册表
+     */
+    public void setRules(AuditRuleRegistry rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 设置异常去重器
+     *
+     * @param deduplicator 异常去重器
+     */
+    public void setDeduplicator(ThrowableDeduplicator deduplicator) {
+        deduplicator.start(this::dispatch);
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * 设置日志路由（已编译的执行计划将重新编译）
+     *
+     * @param routing        日志路由
+     * @param categoryPrefix 分类前缀（仅对TARGET生效，为空时直接使用全类名）
+     */
+    public void setLoggerRouting(LoggerRouting routing, String categoryPrefix) {
+        if (routing == LoggerRouting.TARGET) {
+            String prefix = categoryPrefix == null || categoryPrefix.trim().isEmpty() ? "" : categoryPrefix.trim() + '.';
+            this.loggers = className -> LoggerFactory.getLogger(prefix + className);
+        } else {
+            this.loggers = className -> this.logger;
+        }
+        this.plans.clear();
+    }
+
+    /**
+     * 设置异步返回值处理器（已编译的执行计划将重新编译）
+     *
+     * @param asyncHandlers 异步返回值处理器（按顺序匹配返回类型）
+     */
+    public void setAsyncHandlers(List<AsyncResultHandler> asyncHandlers) {
+        this.asyncHandlers = asyncHandlers;
+        this.plans.clear();
+    }
+
+    /**
+     * 设置脱敏策略（已编译的执行计划将重新编译）
+     *
+     * @param masking 脱敏策略（应与值渲染器使用的策略一致）
+     */
+    public void setMasking(MaskingPolicy masking) {
+        this.masking = masking;
+        this.plans.clear();
+    }
+
+    /**
+     * 设置代码定位是否允许读取类文件（已编译的执行计划将重新编译）
+     *
+     * @param classFileParsing 是否允许读取类文件（关闭时仅使用编译期元数据索引，不初始化Javassist）
+     */
+    public void setClassFileParsing(boolean classFileParsing) {
+        this.classFileParsing = classFileParsing;
+        this.plans.clear();
+    }
 
     /**
      * 打印参数日志
@@ -35,26 +226,32 @@ public class LogProcessor {
      */
     @Before("@annotation(com.tongxiaoya.auditlog.log.ParamLog)")
     public void beforePrint(JoinPoint joinPoint) {
-        if (this.isEnable()) {
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            ParamLog annotation = signature.getMethod().getAnnotation(ParamLog.class);
-            this.beforePrint(signature, joinPoint.getArgs(), annotation.value(), annotation.level(), annotation.position());
+        LogPlan plan = this.getPlan(joinPoint);
+        LogPlan.Entry entry = this.resolve(plan, plan.getParamEntry());
+        if (entry != null && this.isEnable(plan, entry.getLevel()) && this.sample(entry)) {
+            this.beforePrint(plan, entry, joinPoint.getArgs());
         }
     }
 
     /**
-     * 打印返回值日志
+     * 打印返回值日志（异步返回值在值到达时输出，审计范围在调用时确定）
      *
      * @param joinPoint 切入点
-     * @param result    返回结果
+     * @return 返回方法返回值
+     * @throws Throwable 异常
      */
-    @AfterReturning(value = "@annotation(com.tongxiaoya.auditlog.log.ResultLog)", returning = "result")
-    public void afterPrint(JoinPoint joinPoint, Object result) {
-        if (this.isEnable()) {
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            ResultLog annotation = signature.getMethod().getAnnotation(ResultLog.class);
-            this.afterPrint(signature, result, annotation.value(), annotation.level(), annotation.position());
+    @Around(value = "@annotation(com.tongxiaoya.auditlog.log.ResultLog)")
+    public Object afterPrint(ProceedingJoinPoint joinPoint) throws Throwable {
+        LogPlan plan = this.getPlan(joinPoint);
+        AsyncResultHandler handler = plan.getAsyncHandler();
+        long start = handler != null ? System.nanoTime() : 0L;
+        Object result = joinPoint.proceed();
+        if (handler != null && result != null) {
+            AuditScope scope = AuditScope.current();
+            return handler.decorate(result, start, (value, throwable, duration) -> this.afterPrint(plan, value, throwable, duration, scope, true));
         }
+        this.afterPrint(plan, result, null, -1L, AuditScope.current(), false);
+        return result;
     }
 
     /**
@@ -63,39 +260,18 @@ public class LogProcessor {
      * @param joinPoint 切入点
      * @param throwable 异常
      */
-    @AfterThrowing(value = "@annotation(com.tongxiaoya.auditlog.log.ThrowingLog)||@annotation(com.tongxiaoya.auditlog.log.Log)", throwing = "throwable")
+    @AfterThrowing(value = "@annotation(com.tongxiaoya.auditlog.log.ThrowingLog)", throwing = "throwable")
     public void throwingPrint(JoinPoint joinPoint, Throwable throwable) {
-        if (this.isEnable()) {
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            Method method = signature.getMethod();
-            String methodName = method.getName();
-            try {
-                ThrowingLog annotation = method.getAnnotation(ThrowingLog.class);
-                if (annotation != null) {
-                    logger.error(
-                            this.getThrowingInfo(
-                                    annotation.value(),
-                                    MethodParser.getMethodInfo(signature, -2)
-                            ),
-                            throwable
-                    );
-                } else {
-                    logger.error(
-                            this.getThrowingInfo(
-                                    method.getAnnotation(Log.class).value(),
-                                    MethodParser.getMethodInfo(signature, -2)
-                            ),
-                            throwable
-                    );
-                }
-            } catch (Exception e) {
-                logger.error("{}.{}方法错误", signature.getDeclaringTypeName(), methodName);
-            }
+        LogPlan plan = this.getPlan(joinPoint);
+        LogPlan.Entry entry = this.resolve(plan, plan.getThrowingEntry());
+        if (entry == null || !this.isEnable(plan, Level.ERROR)) {
+            return;
         }
+        this.publishDeduplicated(new AuditEvent(AuditEvent.Type.THROWING, plan, entry, false, null, null, throwable, -1L), AuditScope.current(), false);
     }
 
     /**
-     * 打印环绕日志
+     * 打印环绕日志（每次调用合并为一个事件；配置慢调用阈值时，仅在超过阈值或抛出异常时渲染输出；异步返回值在完成时输出，审计范围在调用时确定）
      *
      * @param joinPoint 切入点
      * @return 返回方法返回值
@@ -103,334 +279,305 @@ public class LogProcessor {
      */
     @Around(value = "@annotation(com.tongxiaoya.auditlog.log.Log)")
     public Object aroundPrint(ProceedingJoinPoint joinPoint) throws Throwable {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         Object[] args = joinPoint.getArgs();
-        Object result = joinPoint.proceed(args);
-        if (this.isEnable()) {
-            Log annotation = signature.getMethod().getAnnotation(Log.class);
-            this.beforePrint(signature, args, annotation.value(), annotation.level(), annotation.position());
-            this.afterPrint(signature, result, annotation.value(), annotation.level(), annotation.position());
+        LogPlan plan = this.getPlan(joinPoint);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed(args);
+        } catch (Throwable e) {
+            this.aroundPrint(plan, args, null, e, System.nanoTime() - start, AuditScope.current(), false);
+            throw e;
         }
+        AsyncResultHandler handler = plan.getAsyncHandler();
+        if (handler != null && result != null) {
+            AuditScope scope = AuditScope.current();
+            return handler.decorate(result, start, (value, throwable, duration) -> this.aroundPrint(plan, args, value, throwable, duration, scope, true));
+        }
+        this.aroundPrint(plan, args, result, null, System.nanoTime() - start, AuditScope.current(), false);
         return result;
     }
 
     /**
-     * 打印参数日志
+     * 获取日志执行计划（每个方法仅编译一次）
      *
-     * @param signature 方法签名
-     * @param args      参数列表
-     * @param busName   业务名称
-     * @param level     日志级别
-     * @param position  代码定位开启标志
+     * @param joinPoint 切入点
+     * @return 返回日志执行计划
      */
-    private void beforePrint(MethodSignature signature, Object[] args, String busName, Level level, Position position) {
+    private LogPlan getPlan(JoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         Method method = signature.getMethod();
-        String methodName = method.getName();
-        try {
-            if (logger.isDebugEnabled()) {
-                if (position == Position.DEFAULT || position == Position.ENABLED) {
-                    this.print(
-                            level,
-                            this.getBeforeInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature.getDeclaringTypeName(), methodName, signature.getParameterNames()),
-                                    args
-                            )
-                    );
-                } else {
-                    this.print(
-                            level,
-                            this.getBeforeInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature, -2),
-                                    args
-                            )
-                    );
-                }
-            } else {
-                if (position == Position.ENABLED) {
-                    this.print(
-                            level,
-                            this.getBeforeInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature.getDeclaringTypeName(), methodName, signature.getParameterNames()),
-                                    args
-                            )
-                    );
-                } else {
-                    this.print(
-                            level,
-                            this.getBeforeInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature, -2),
-                                    args
-                            )
-                    );
-                }
-            }
-        } catch (Exception e) {
-            logger.error("{}.{}方法错误", signature.getDeclaringTypeName(), methodName);
+        LogPlan plan = this.plans.get(method);
+        if (plan == null) {
+            plan = this.plans.computeIfAbsent(method, key -> LogPlan.compile(signature, this.metrics, this.loggers, this.asyncHandlers, this.masking,
+                    this.classFileParsing));
+        }
+        return plan;
+    }
+
+    /**
+     * 获取恢复溢出记录所用的执行计划（方法尚未调用过时按方法对象编译）
+     *
+     * @param method 方法对象
+     * @return 返回日志执行计划
+     */
+    private LogPlan restorePlan(Method method) {
+        LogPlan plan = this.plans.get(method);
+        if (plan == null) {
+            plan = this.plans.computeIfAbsent(method, key -> LogPlan.compile(key, this.metrics, this.loggers, this.asyncHandlers, this.masking,
+                    this.classFileParsing));
         }
+        return plan;
+    }
+
+    /**
+     * 打印参数日志
+     *
+     * @param plan  日志执行计划
+     * @param entry 注解执行计划
+     * @param args  参数列表
+     */
+    private void beforePrint(LogPlan plan, LogPlan.Entry entry, Object[] args) {
+        this.publish(new AuditEvent(AuditEvent.Type.PARAM, plan, entry, entry.isPositioned(plan.getLogger().isDebugEnabled()), plan.captureArgs(entry, args), null, null, -1L),
+                AuditScope.current(), false);
     }
 
     /**
      * 打印返回值日志
      *
-     * @param signature 方法签名
+     * @param plan      日志执行计划
      * @param result    返回结果
-     * @param busName   业务名称
-     * @param level     日志级别
-     * @param position  代码定位开启标志
+     * @param throwable 异常（仅异步返回值）
+     * @param duration  耗时（纳秒，仅异步返回值，同步时为-1）
+     * @param scope     调用时的审计范围
+     * @param completed 是否在异步返回值的完成回调中
      */
-    private void afterPrint(MethodSignature signature, Object result, String busName, Level level, Position position) {
-        Method method = signature.getMethod();
-        String methodName = method.getName();
-        try {
-            if (logger.isDebugEnabled()) {
-                if (position == Position.DEFAULT || position == Position.ENABLED) {
-                    this.print(
-                            level,
-                            this.getAfterInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature.getDeclaringTypeName(), methodName, signature.getParameterNames()),
-                                    result
-                            )
-                    );
-                } else {
-                    this.print(
-                            level,
-                            this.getAfterInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature, -2),
-                                    result
-                            )
-                    );
-                }
-            } else {
-                if (position == Position.ENABLED) {
-                    this.print(
-                            level,
-                            this.getAfterInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature.getDeclaringTypeName(), methodName, signature.getParameterNames()),
-                                    result
-                            )
-                    );
-                } else {
-                    this.print(
-                            level,
-                            this.getAfterInfo(
-                                    busName,
-                                    MethodParser.getMethodInfo(signature, -2),
-                                    result
-                            )
-                    );
-                }
-            }
-        } catch (Exception e) {
-            logger.error("{}.{}方法错误", signature.getDeclaringTypeName(), methodName);
+    private void afterPrint(LogPlan plan, Object result, Throwable throwable, long duration, AuditScope scope, boolean completed) {
+        LogPlan.Entry entry = this.resolve(plan, plan.getResultEntry());
+        if (entry != null && this.isEnable(plan, throwable != null ? Level.ERROR : entry.getLevel()) && this.sample(entry)) {
+            this.publish(new AuditEvent(AuditEvent.Type.RESULT, plan, entry, entry.isPositioned(plan.getLogger().isDebugEnabled()), null, plan.captureResult(entry, result), throwable, duration),
+                    scope, completed);
         }
     }
 
     /**
-     * 获取日志信息字符串
+     * 打印环绕日志
      *
-     * @param busName    业务名
-     * @param methodInfo 方法信息
-     * @param params     参数值
-     * @return 返回日志信息字符串
-     */
-    private String getBeforeInfo(String busName, MethodInfo methodInfo, Object[] params) {
-        StringBuilder builder = this.createInfoBuilder(busName, methodInfo);
-        builder.append("接收参数：【");
-        List<String> paramNames = methodInfo.getParamNames();
-        int count = paramNames.size();
-        if (count > 0) {
-            Map<String, Object> paramMap = new HashMap<>(count);
-            for (int i = 0; i < count; i++) {
-                paramMap.put(paramNames.get(i), this.getParam(params[i]));
-            }
-            return builder.append(paramMap).append("】").toString();
+     * @param plan      日志执行计划
+     * @param args      参数列表
+     * @param result    返回结果
+     * @param throwable 异常
+     * @param duration  耗时（纳秒）
+     * @param scope     调用时的审计范围
+     * @param completed 是否在异步返回值的完成回调中
+     */
+    private void aroundPrint(LogPlan plan, Object[] args, Object result, Throwable throwable, long duration, AuditScope scope, boolean completed) {
+        plan.getMetrics().recordLatency(duration);
+        LogPlan.Entry entry;
+        if (this.isReported(plan, duration, throwable) && (entry = this.resolve(plan, plan.getLogEntry())) != null
+                && this.isEnable(plan, throwable != null ? Level.ERROR : entry.getLevel()) && this.sample(entry)) {
+            AuditEvent event = new AuditEvent(AuditEvent.Type.INVOCATION, plan, entry, entry.isPositioned(plan.getLogger().isDebugEnabled()), plan.captureArgs(entry, args), plan.captureResult(entry, result), throwable, duration);
+            this.publishDeduplicated(event, scope, completed);
         }
-        return builder.append("{}】").toString();
     }
 
     /**
-     * 获取日志信息字符串
+     * 判断调用是否需要输出（未配置慢调用阈值、超过阈值或抛出异常）
      *
-     * @param busName    业务名
-     * @param methodInfo 方法信息
-     * @param result     返回结果
-     * @return 返回日志信息字符串
+     * @param plan      日志执行计划
+     * @param duration  调用耗时（纳秒）
+     * @param throwable 异常
+     * @return 返回布尔值
      */
-    private String getAfterInfo(String busName, MethodInfo methodInfo, Object result) {
-        return this.createInfoBuilder(busName, methodInfo).append("返回结果：【").append(result).append("】").toString();
+    private boolean isReported(LogPlan plan, long duration, Throwable throwable) {
+        long threshold = plan.getSlowThreshold() >= 0 ? plan.getSlowThreshold() : this.slowThreshold;
+        return threshold == 0 || duration >= threshold || throwable != null;
     }
 
     /**
-     * 获取日志信息字符串
+     * 按审计规则解析生效的注解执行计划
      *
-     * @param busName    业务名
-     * @param methodInfo 方法信息
-     * @return 返回日志信息字符串
+     * @param plan  日志执行计划
+     * @param entry 注解执行计划
+     * @return 返回生效的注解执行计划，关闭输出时返回null
      */
-    private String getThrowingInfo(String busName, MethodInfo methodInfo) {
-        return this.createInfoBuilder(busName, methodInfo).append("异常信息：").toString();
+    private LogPlan.Entry resolve(LogPlan plan, LogPlan.Entry entry) {
+        return this.rules.getSnapshot().resolve(plan, entry);
     }
 
     /**
-     * 创建日志信息builder
+     * 采样判断（在创建事件及渲染参数之前进行）
      *
-     * @param busName    业务名
-     * @param methodInfo 方法信息
-     * @return 返回日志信息builder
-     */
-    private StringBuilder createInfoBuilder(String busName, MethodInfo methodInfo) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("调用方法：【");
-        if (methodInfo.getLineNumber() == LINE_NUMBER) {
-            builder.append(methodInfo.getClassAllName()).append(".").append(methodInfo.getMethodName());
-        } else {
-            builder.append(this.createMethodStack(methodInfo));
+     * @param entry 注解执行计划
+     * @return 返回是否输出
+     */
+    private boolean sample(LogPlan.Entry entry) {
+        AuditSampler sampler = entry.getSampler();
+        if (sampler == null) {
+            return true;
+        }
+        AsyncAuditDispatcher dispatcher = this.dispatcher;
+        return sampler.sample(sampler.isAdaptive() && dispatcher != null ? dispatcher.getSaturation() : 0D);
+    }
+
+    /**
+     * 发布审计事件（调用时处于审计范围内时暂存至范围结束，范围仅在其所属线程上暂存）
+     * <p>
+     * 异步返回值的完成回调可能运行在事件循环线程上，不在所属线程或范围已结束时以非阻塞方式交由后台线程输出，
+     * 缓冲区满时丢弃并计数，不等待输出端
+     *
+     * @param event     审计事件
+     * @param scope     调用时的审计范围
+     * @param completed 是否在异步返回值的完成回调中
+     */
+    private void publish(AuditEvent event, AuditScope scope, boolean completed) {
+        if (scope != null && scope.buffer(event, this.output)) {
+            return;
+        }
+        if (!completed) {
+            this.dispatch(event);
+            return;
+        }
+        AsyncAuditDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null && (dispatcher = this.completionDispatcher) == null) {
+            dispatcher = this.startCompletionDispatcher();
+        }
+        if (!dispatcher.tryDispatch(event)) {
+            this.dispatch(event);
         }
-        return builder.append("】，").append("业务名称：【").append(busName).append("】，");
     }
 
     /**
-     * 获取对应参数
+     * 发布审计事件（失败事件经过异常去重，窗口内的重复异常仅计数）
      *
-     * @param param 参数
-     * @return 返回参数
+     * @param event     审计事件
+     * @param scope     调用时的审计范围
+     * @param completed 是否在异步返回值的完成回调中
      */
-    private Object getParam(Object param) {
-        Class<?> type = param.getClass();
-        return type.isArray() ? this.getList(type, param) : param;
+    private void publishDeduplicated(AuditEvent event, AuditScope scope, boolean completed) {
+        ThrowableDeduplicator deduplicator = this.deduplicator;
+        if (deduplicator == null || !event.isFailed() || deduplicator.accept(event)) {
+            this.publish(event, scope, completed);
+        }
     }
 
     /**
-     * 获取数组类型参数列表
+     * 启动未开启异步输出时异步返回值完成事件的分发器（仅启动一次）
      *
-     * @param valueType 数组类型
-     * @param value     参数值
-     * @return 返回参数列表
-     */
-    @SuppressWarnings("unchecked")
-    private List<Object> getList(Class valueType, Object value) {
-        if (valueType.isAssignableFrom(ArrayType.OBJECT_ARRAY.getType())) {
-            Object[] array = (Object[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            Collections.addAll(list, array);
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.INT_ARRAY.getType())) {
-            int[] array = (int[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (int v : array) {
-                list.add(v);
-            }
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.LONG_ARRAY.getType())) {
-            long[] array = (long[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (long v : array) {
-                list.add(v);
-            }
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.DOUBLE_ARRAY.getType())) {
-            double[] array = (double[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (double v : array) {
-                list.add(v);
-            }
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.FLOAT_ARRAY.getType())) {
-            float[] array = (float[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (float v : array) {
-                list.add(v);
-            }
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.CHAR_ARRAY.getType())) {
-            char[] array = (char[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (char v : array) {
-                list.add(v);
-            }
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.BOOLEAN_ARRAY.getType())) {
-            boolean[] array = (boolean[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (boolean v : array) {
-                list.add(v);
-            }
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.BYTE_ARRAY.getType())) {
-            byte[] array = (byte[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (byte v : array) {
-                list.add(v);
-            }
-            return list;
-        } else if (valueType.isAssignableFrom(ArrayType.SHORT_ARRAY.getType())) {
-            short[] array = (short[]) value;
-            List<Object> list = new ArrayList<>(array.length);
-            for (short v : array) {
-                list.add(v);
-            }
-            return list;
-        } else {
-            return new ArrayList<>(0);
+     * @return 返回分发器
+     */
+    private synchronized AsyncAuditDispatcher startCompletionDispatcher() {
+        if (this.completionDispatcher == null) {
+            AsyncAuditDispatcher dispatcher = new AsyncAuditDispatcher(COMPLETION_BUFFER_SIZE, OverflowPolicy.DROP_NEWEST, 1, COMPLETION_SHUTDOWN_TIMEOUT);
+            dispatcher.start(this::write);
+            this.completionDispatcher = dispatcher;
         }
+        return this.completionDispatcher;
     }
 
     /**
-     * 创建方法栈
+     * 未开启异步输出时因缓冲区满而丢弃的异步返回值完成事件数量
      *
-     * @param methodInfo 方法信息
-     * @return 返回栈信息
-     */
-    private StackTraceElement createMethodStack(MethodInfo methodInfo) {
-        return new StackTraceElement(
-                methodInfo.getClassAllName(),
-                methodInfo.getMethodName(),
-                String.format("%s.java", methodInfo.getClassSimpleName()),
-                methodInfo.getLineNumber()
-        );
+     * @return 返回丢弃数量
+     */
+    public long getCompletionDroppedCount() {
+        AsyncAuditDispatcher dispatcher = this.completionDispatcher;
+        return dispatcher != null ? dispatcher.getDroppedCount() : 0L;
     }
 
     /**
-     * 打印信息
+     * 分发审计事件（开启异步时交由后台线程输出）
      *
-     * @param level 日志级别
-     * @param msg   输出信息
-     */
-    private void print(Level level, String msg) {
-        switch (level) {
-            case DEBUG:
-                logger.debug(msg);
-                break;
-            case INFO:
-                logger.info(msg);
-                break;
-            case WARN:
-                logger.warn(msg);
-                break;
-            case ERROR:
-                logger.error(msg);
-                break;
-            default:
+     * @param event 审计事件
+     */
+    private void dispatch(AuditEvent event) {
+        AsyncAuditDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null || !dispatcher.dispatch(event)) {
+            try {
+                this.write(event);
+            } catch (AuditSinkRejectedException e) {
+                LogPlan plan = event.getPlan();
+                logger.warn("{}.{}方法的审计事件被输出端拒绝：{}", plan.getClassName(), plan.getMethodName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 输出审计事件至尚未接收的输出端
+     * <p>
+     * 各输出端的接收状态记录在事件中（溢出时一并编码）：任一输出端拒绝时其余输出端照常写入，
+     * 再抛出拒绝异常由调用方重试或溢出，重试时仅写入拒绝过的输出端，已接收的输出端不会重复输出
+     *
+     * @param event 审计事件
+     * @throws AuditSinkRejectedException 存在输出端已满或已关闭，未接收该事件
+     */
+    public void write(AuditEvent event) {
+        AuditSink[] sinks = this.sinks;
+        long delivered = event.getDelivered();
+        AuditSinkRejectedException rejected = null;
+        for (int i = 0; i < sinks.length; i++) {
+            long bit = 1L << i;
+            if ((delivered & bit) != 0) {
+                continue;
+            }
+            try {
+                sinks[i].write(event);
+                delivered |= bit;
+            } catch (AuditSinkRejectedException e) {
+                if (rejected == null) {
+                    rejected = e;
+                }
+            } catch (Exception e) {
+                // 意外异常不视为已接收，事件因其他输出端拒绝而重试时一并重试
+                LogPlan plan = event.getPlan();
+                logger.error("{}.{}方法的审计事件输出失败", plan.getClassName(), plan.getMethodName(), e);
+            }
+        }
+        event.setDelivered(delivered);
+        if (rejected != null) {
+            throw rejected;
+        }
+    }
+
+    /**
+     * 关闭（按顺序输出去重窗口中的汇总事件、异步缓冲区及异步返回值完成事件中的事件，最后刷新全部输出端；
+     * 应在输出端关闭之前调用，输出端自身由各自的生命周期关闭）
+     */
+    public void shutdown() {
+        ThrowableDeduplicator deduplicator = this.deduplicator;
+        if (deduplicator != null) {
+            deduplicator.close();
+        }
+        AsyncAuditDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        AsyncAuditDispatcher completionDispatcher = this.completionDispatcher;
+        if (completionDispatcher != null) {
+            completionDispatcher.shutdown();
+        }
+        for (AuditSink sink : this.sinks) {
+            try {
+                sink.flush();
+            } catch (Exception e) {
+                logger.error("审计输出端刷新失败", e);
+            }
         }
     }
 
     /**
-     * 判断是否开启打印
+     * 判断是否开启打印（在创建事件及渲染参数之前进行）
      *
+     * @param plan  日志执行计划
+     * @param level 日志级别
      * @return 返回布尔值
      */
-    private boolean isEnable() {
-        return logger.isDebugEnabled() ||
-                logger.isInfoEnabled() ||
-                logger.isWarnEnabled() ||
-                logger.isErrorEnabled() ||
-                logger.isTraceEnabled();
+    private boolean isEnable(LogPlan plan, Level level) {
+        for (AuditSink sink : this.sinks) {
+            if (sink.isEnabled(plan, level)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,17 @@
+package com.tongxiaoya.auditlog.log;
+
+/**
+ * 日志路由
+ *
+ * @since 1.8
+ */
+public enum LoggerRouting {
+    /**
+     * 统一输出至日志处理器的日志（com.tongxiaoya.auditlog.log.LogProcessor）
+     */
+    PROCESSOR,
+    /**
+     * 输出至切入方法所在类的日志（可附加分类前缀），可按包配置日志级别
+     */
+    TARGET
+}
@@ -25,4 +25,24 @@ public @interface ParamLog {
      * 代码定位支持
      */
     Position position() default Position.DEFAULT;
+
+    /**
+     * 采样比例（0~1，默认全部输出）
+     */
+    double sampleRate() default 1.0D;
+
+    /**
+     * 每秒最多输出次数（令牌桶限流，小于等于0时不限流）
+     */
+    int rateLimit() default 0;
+
+    /**
+     * 自适应采样（异步输出缓冲区积压超过一半后按积压比例降低输出比例）
+     */
+    boolean adaptive() default false;
+
+    /**
+     * 字段选择（属性路径，首段为参数名称，如order.id、user.name；为空时输出全部参数）
+     */
+    String[] fields() default {};
 }
@@ -0,0 +1,58 @@
+package com.tongxiaoya.auditlog.log;
+
+/**
+ * 恢复的异常
+ * <p>
+ * 溢出队列不序列化异常对象本身，仅保存类名、信息、堆栈及原因链，恢复时以本类代替原异常；
+ * 输出异常类名时应使用{@link #getTypeName(Throwable)}
+ *
+ * @since 1.8
+ */
+public final class RestoredThrowable extends Throwable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 原异常全类名
+     */
+    private final String className;
+
+    /**
+     * 构造
+     *
+     * @param className 原异常全类名
+     * @param message   异常信息
+     * @param stack     异常堆栈
+     * @param cause     原因
+     */
+    public RestoredThrowable(String className, String message, StackTraceElement[] stack, Throwable cause) {
+        super(message, cause, false, true);
+        this.className = className;
+        this.setStackTrace(stack);
+    }
+
+    /**
+     * 获取异常全类名（恢复的异常返回原异常全类名）
+     *
+     * @param throwable 异常
+     * @return 返回全类名
+     */
+    public static String getTypeName(Throwable throwable) {
+        return throwable instanceof RestoredThrowable ? ((RestoredThrowable) throwable).className : throwable.getClass().getName();
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        String message = this.getLocalizedMessage();
+        return message != null ? this.className + ": " + message : this.className;
+    }
+}
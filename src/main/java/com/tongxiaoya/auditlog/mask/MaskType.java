@@ -0,0 +1,63 @@
+package com.tongxiaoya.auditlog.mask;
+
+/**
+ * 脱敏类型
+ *
+ * @since 1.8
+ */
+public enum MaskType {
+    /**
+     * 全部遮盖（保留长度）
+     */
+    FULL(0, 0),
+    /**
+     * 手机号（保留前3位、后4位，如：138****5678）
+     */
+    PHONE(3, 4),
+    /**
+     * 身份证号（保留前3位、后4位）
+     */
+    ID_CARD(3, 4),
+    /**
+     * 银行卡号（保留前4位、后4位）
+     */
+    BANK_CARD(4, 4),
+    /**
+     * 姓名（保留首字，如：张**）
+     */
+    NAME(1, 0),
+    /**
+     * 电子邮箱（保留用户名首字符及域名，如：z***@example.com）
+     */
+    EMAIL(1, 0),
+    /**
+     * 地址（保留前6个字符）
+     */
+    ADDRESS(6, 0),
+    /**
+     * 密码（固定输出******，不暴露长度）
+     */
+    PASSWORD(0, 0);
+
+    /**
+     * 默认保留的前缀字符数
+     */
+    private final int prefix;
+    /**
+     * 默认保留的后缀字符数
+     */
+    private final int suffix;
+
+    MaskType(int prefix, int suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    public int getPrefix() {
+        return prefix;
+    }
+
+    public int getSuffix() {
+        return suffix;
+    }
+}
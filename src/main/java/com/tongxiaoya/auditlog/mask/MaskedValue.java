@@ -0,0 +1,57 @@
+package com.tongxiaoya.auditlog.mask;
+
+/**
+ * 待脱敏的值
+ * <p>
+ * 执行计划对敏感参数、返回值及选择的敏感字段进行包装，渲染时按脱敏器输出；
+ * 不识别该类型的值渲染器通过{@link #toString()}同样得到脱敏后的文本
+ *
+ * @since 1.8
+ */
+public final class MaskedValue {
+
+    /**
+     * 原始值
+     */
+    private final Object value;
+    /**
+     * 脱敏器
+     */
+    private final Masker masker;
+
+    /**
+     * 构造
+     *
+     * @param value  原始值
+     * @param masker 脱敏器
+     */
+    public MaskedValue(Object value, Masker masker) {
+        this.value = value;
+        this.masker = masker;
+    }
+
+    /**
+     * 包装值
+     *
+     * @param value  原始值
+     * @param masker 脱敏器（为空时不包装）
+     * @return 返回包装后的值，值或脱敏器为空时返回原始值
+     */
+    public static Object wrap(Object value, Masker masker) {
+        return value == null || masker == null ? value : new MaskedValue(value, masker);
+    }
+
+    /**
+     * 脱敏输出
+     *
+     * @param out 输出缓冲区
+     */
+    public void mask(StringBuilder out) {
+        this.masker.mask(this.value, out);
+    }
+
+    @Override
+    public String toString() {
+        return this.masker.mask(this.value);
+    }
+}
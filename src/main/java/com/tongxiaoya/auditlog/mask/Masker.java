@@ -0,0 +1,180 @@
+package com.tongxiaoya.auditlog.mask;
+
+/**
+ * 脱敏器
+ * <p>
+ * 按字符直接写入输出缓冲区，不使用正则；字符串与标量（数字、字符等）按脱敏类型遮盖，
+ * 其他对象（集合、普通对象）整体输出为******
+ *
+ * @since 1.8
+ */
+public final class Masker {
+
+    /**
+     * 遮盖字符
+     */
+    private static final char MASK = '*';
+    /**
+     * 固定遮盖文本（密码及非标量值）
+     */
+    private static final String FIXED = "******";
+
+    /**
+     * 脱敏类型
+     */
+    private final MaskType type;
+    /**
+     * 保留的前缀字符数
+     */
+    private final int prefix;
+    /**
+     * 保留的后缀字符数
+     */
+    private final int suffix;
+
+    /**
+     * 构造
+     *
+     * @param type   脱敏类型
+     * @param prefix 保留的前缀字符数
+     * @param suffix 保留的后缀字符数
+     */
+    private Masker(MaskType type, int prefix, int suffix) {
+        this.type = type;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * 创建脱敏器
+     *
+     * @param type 脱敏类型
+     * @return 返回脱敏器
+     */
+    public static Masker of(MaskType type) {
+        return of(type, -1, -1);
+    }
+
+    /**
+     * 创建脱敏器
+     *
+     * @param type   脱敏类型
+     * @param prefix 保留的前缀字符数（小于0时使用脱敏类型的默认值）
+     * @param suffix 保留的后缀字符数（小于0时使用脱敏类型的默认值）
+     * @return 返回脱敏器
+     */
+    public static Masker of(MaskType type, int prefix, int suffix) {
+        return new Masker(type, prefix < 0 ? type.getPrefix() : prefix, suffix < 0 ? type.getSuffix() : suffix);
+    }
+
+    /**
+     * 创建脱敏器
+     *
+     * @param sensitive 敏感数据注解
+     * @return 返回脱敏器
+     */
+    static Masker of(Sensitive sensitive) {
+        return of(sensitive.value(), sensitive.prefix(), sensitive.suffix());
+    }
+
+    public MaskType getType() {
+        return type;
+    }
+
+    /**
+     * 脱敏输出
+     *
+     * @param value 值
+     * @param out   输出缓冲区
+     */
+    public void mask(Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof CharSequence) {
+            this.maskText((CharSequence) value, out);
+        } else if (value instanceof Number || value instanceof Character || value instanceof Enum) {
+            this.maskText(String.valueOf(value), out);
+        } else {
+            out.append(FIXED);
+        }
+    }
+
+    /**
+     * 脱敏为字符串
+     *
+     * @param value 值
+     * @return 返回脱敏后的字符串
+     */
+    public String mask(Object value) {
+        StringBuilder builder = new StringBuilder();
+        this.mask(value, builder);
+        return builder.toString();
+    }
+
+    /**
+     * 脱敏输出文本
+     *
+     * @param text 文本
+     * @param out  输出缓冲区
+     */
+    private void maskText(CharSequence text, StringBuilder out) {
+        int length = text.length();
+        if (this.type == MaskType.PASSWORD) {
+            out.append(FIXED);
+            return;
+        }
+        if (this.type == MaskType.EMAIL) {
+            int at = lastIndexOf(text, '@');
+            if (at > 0) {
+                this.maskRange(text, 0, at, out);
+                out.append(text, at, length);
+                return;
+            }
+        }
+        this.maskRange(text, 0, length, out);
+    }
+
+    /**
+     * 脱敏输出文本区间（保留长度不足以遮盖任何字符时全部遮盖）
+     *
+     * @param text  文本
+     * @param start 开始下标
+     * @param end   结束下标
+     * @param out   输出缓冲区
+     */
+    private void maskRange(CharSequence text, int start, int end, StringBuilder out) {
+        int length = end - start;
+        int head = this.prefix;
+        int tail = this.suffix;
+        if (head + tail >= length) {
+            head = 0;
+            tail = 0;
+        }
+        out.append(text, start, start + head);
+        for (int i = head; i < length - tail; i++) {
+            out.append(MASK);
+        }
+        out.append(text, end - tail, end);
+    }
+
+    /**
+     * 查找字符最后出现的下标
+     *
+     * @param text 文本
+     * @param c    字符
+     * @return 返回下标，不存在时返回-1
+     */
+    private static int lastIndexOf(CharSequence text, char c) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "Masker{" + this.type + ", prefix=" + this.prefix + ", suffix=" + this.suffix + '}';
+    }
+}
@@ -0,0 +1,190 @@
+package com.tongxiaoya.auditlog.mask;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 脱敏策略
+ * <p>
+ * 由{@link Sensitive}注解及按名称配置的脱敏规则组成；仅在编译对象渲染器及执行计划时按字段、参数查找一次，
+ * 得到的脱敏器随渲染器及执行计划缓存，调用时不进行反射及正则匹配。
+ * 名称匹配忽略大小写及连字符、下划线（如：id-card、idCard、ID_CARD视为相同）
+ *
+ * @since 1.8
+ */
+public final class MaskingPolicy {
+
+    /**
+     * 名称比较（忽略大小写及连字符、下划线）
+     */
+    private static final Comparator<String> NAME_ORDER = MaskingPolicy::compareNames;
+    /**
+     * 关闭脱敏
+     */
+    private static final MaskingPolicy DISABLED = new MaskingPolicy(false, Collections.emptyMap());
+    /**
+     * 仅使用注解
+     */
+    private static final MaskingPolicy ANNOTATIONS = new MaskingPolicy(true, Collections.emptyMap());
+
+    /**
+     * 是否开启
+     */
+    private final boolean enabled;
+    /**
+     * 按名称的脱敏规则
+     */
+    private final Map<String, Masker> rules;
+
+    /**
+     * 构造
+     *
+     * @param enabled 是否开启
+     * @param rules   按名称的脱敏规则
+     */
+    private MaskingPolicy(boolean enabled, Map<String, Masker> rules) {
+        this.enabled = enabled;
+        this.rules = rules;
+    }
+
+    /**
+     * 关闭脱敏（忽略注解）
+     *
+     * @return 返回脱敏策略
+     */
+    public static MaskingPolicy disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * 仅使用{@link Sensitive}注解
+     *
+     * @return 返回脱敏策略
+     */
+    public static MaskingPolicy annotations() {
+        return ANNOTATIONS;
+    }
+
+    /**
+     * 使用注解及按名称配置的脱敏规则
+     *
+     * @param rules 字段或参数名称与脱敏类型的映射
+     * @return 返回脱敏策略
+     */
+    public static MaskingPolicy of(Map<String, MaskType> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return ANNOTATIONS;
+        }
+        Map<String, Masker> maskers = new TreeMap<>(NAME_ORDER);
+        rules.forEach((name, type) -> {
+            if (name != null && type != null) {
+                maskers.put(name.trim(), Masker.of(type));
+            }
+        });
+        return new MaskingPolicy(true, maskers);
+    }
+
+    /**
+     * 是否配置了按名称的脱敏规则
+     *
+     * @return 返回布尔值
+     */
+    public boolean hasRules() {
+        return !this.rules.isEmpty();
+    }
+
+    /**
+     * 查找字段的脱敏器（注解优先，其次按字段名称）
+     *
+     * @param field 字段
+     * @return 返回脱敏器，非敏感字段返回null
+     */
+    public Masker forField(Field field) {
+        if (!this.enabled) {
+            return null;
+        }
+        Sensitive sensitive = field.getAnnotation(Sensitive.class);
+        return sensitive != null ? Masker.of(sensitive) : this.forName(field.getName());
+    }
+
+    /**
+     * 查找方法参数的脱敏器（注解优先，其次按参数名称）
+     *
+     * @param method 方法对象
+     * @param index  参数下标
+     * @param name   参数名称
+     * @return 返回脱敏器，非敏感参数返回null
+     */
+    public Masker forParameter(Method method, int index, String name) {
+        if (!this.enabled) {
+            return null;
+        }
+        for (Annotation annotation : method.getParameterAnnotations()[index]) {
+            if (annotation instanceof Sensitive) {
+                return Masker.of((Sensitive) annotation);
+            }
+        }
+        return this.forName(name);
+    }
+
+    /**
+     * 查找方法返回值的脱敏器（仅注解）
+     *
+     * @param method 方法对象
+     * @return 返回脱敏器，非敏感返回值返回null
+     */
+    public Masker forResult(Method method) {
+        if (!this.enabled) {
+            return null;
+        }
+        Sensitive sensitive = method.getAnnotation(Sensitive.class);
+        return sensitive != null ? Masker.of(sensitive) : null;
+    }
+
+    /**
+     * 按名称查找脱敏器（字段名称、参数名称或Map键）
+     *
+     * @param name 名称
+     * @return 返回脱敏器，未配置时返回null
+     */
+    public Masker forName(String name) {
+        return this.rules.isEmpty() || name == null ? null : this.rules.get(name);
+    }
+
+    /**
+     * 比较名称（忽略大小写及连字符、下划线，不创建新字符串）
+     *
+     * @param left  名称
+     * @param right 名称
+     * @return 返回比较结果
+     */
+    private static int compareNames(String left, String right) {
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < left.length() && isSeparator(left.charAt(i))) {
+                i++;
+            }
+            while (j < right.length() && isSeparator(right.charAt(j))) {
+                j++;
+            }
+            if (i == left.length() || j == right.length()) {
+                return (left.length() - i) - (right.length() - j);
+            }
+            char a = Character.toLowerCase(left.charAt(i++));
+            char b = Character.toLowerCase(right.charAt(j++));
+            if (a != b) {
+                return a - b;
+            }
+        }
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '-' || c == '_';
+    }
+}
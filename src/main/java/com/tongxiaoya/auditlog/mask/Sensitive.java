@@ -0,0 +1,30 @@
+package com.tongxiaoya.auditlog.mask;
+
+import java.lang.annotation.*;
+
+/**
+ * 敏感数据
+ * <p>
+ * 标注在字段、方法参数或方法（返回值）上，渲染时按脱敏类型输出；优先于配置的脱敏规则
+ *
+ * @since 1.8
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Sensitive {
+    /**
+     * 脱敏类型
+     */
+    MaskType value() default MaskType.FULL;
+
+    /**
+     * 保留的前缀字符数（小于0时使用脱敏类型的默认值）
+     */
+    int prefix() default -1;
+
+    /**
+     * 保留的后缀字符数（小于0时使用脱敏类型的默认值）
+     */
+    int suffix() default -1;
+}
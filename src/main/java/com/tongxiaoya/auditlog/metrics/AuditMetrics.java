@@ -0,0 +1,103 @@
+package com.tongxiaoya.auditlog.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 审计指标注册表
+ * <p>
+ * 方法指标随日志执行计划编译时创建，按类名、方法签名及业务名称区分，新增时通知监听器（如Micrometer绑定）；
+ * 延迟直方图仅在开启耗时统计后创建，未开启时记录耗时无开销
+ *
+ * @since 1.8
+ */
+public class AuditMetrics {
+
+    /**
+     * 方法指标
+     */
+    private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    /**
+     * 新增监听器
+     */
+    private final List<Consumer<MethodMetrics>> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * 是否开启耗时统计
+     */
+    private volatile boolean latencyEnabled;
+
+    /**
+     * 获取或创建方法指标
+     *
+     * @param className 所在类全类名
+     * @param method    方法对象
+     * @param business  业务名称
+     * @return 返回方法指标
+     */
+    public MethodMetrics register(String className, Method method, String business) {
+        String key = className + "#" + MethodMetrics.signature(method) + "#" + business;
+        MethodMetrics metrics = this.methods.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        MethodMetrics created = new MethodMetrics(className, method, business);
+        metrics = this.methods.putIfAbsent(key, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (this.latencyEnabled) {
+            created.enableLatency();
+        }
+        for (Consumer<MethodMetrics> listener : this.listeners) {
+            listener.accept(created);
+        }
+        return created;
+    }
+
+    /**
+     * 开启耗时统计（已存在及之后新增的方法指标创建延迟直方图，由指标消费方调用）
+     */
+    public void enableLatency() {
+        this.latencyEnabled = true;
+        for (MethodMetrics metrics : this.methods.values()) {
+            metrics.enableLatency();
+        }
+    }
+
+    /**
+     * 是否开启耗时统计
+     *
+     * @return 返回布尔值
+     */
+    public boolean isLatencyEnabled() {
+        return this.latencyEnabled;
+    }
+
+    /**
+     * 添加新增监听器（已存在的方法指标立即通知）
+     *
+     * @param listener 监听器
+     */
+    public synchronized void addListener(Consumer<MethodMetrics> listener) {
+        this.listeners.add(listener);
+        for (MethodMetrics metrics : new ArrayList<>(this.methods.values())) {
+            listener.accept(metrics);
+        }
+    }
+
+    /**
+     * 全部方法指标
+     *
+     * @return 返回方法指标
+     */
+    public Collection<MethodMetrics> getMethods() {
+        return Collections.unmodifiableCollection(this.methods.values());
+    }
+}
@@ -0,0 +1,274 @@
+package com.tongxiaoya.auditlog.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图（纳秒）
+ * <p>
+ * 采用HDR风格的对数线性分桶（以1024纳秒为单位，每个2的幂区间8个子桶，分位值取桶上界，相对误差不超过12.5%），
+ * 共232个桶；按线程号分条记录以降低（而非消除）多线程写入的竞争，读取时合并各分条。
+ * 累计快照覆盖整个生命周期；区间快照仅覆盖上一次区间快照之后的记录（类似HDR Recorder），用于分位及最大耗时，
+ * 记录路径不变，区间边界处并发写入的单次记录可能分属相邻两个区间
+ *
+ * @since 1.8
+ */
+public class LatencyHistogram {
+
+    /**
+     * 记录单位位数（1024纳秒，低于单位的耗时合并为一个桶）
+     */
+    private static final int UNIT_BITS = 10;
+    /**
+     * 子桶位数
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    /**
+     * 每个区间的子桶数量
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * 可记录的最大指数（2^30个单位，约18分钟）
+     */
+    private static final int MAX_EXPONENT = 30;
+    /**
+     * 桶数量
+     */
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+    /**
+     * 最大可记录值（单位）
+     */
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    /**
+     * 分条内总数下标
+     */
+    private static final int COUNT_INDEX = BUCKET_COUNT;
+    /**
+     * 分条内总和下标
+     */
+    private static final int SUM_INDEX = BUCKET_COUNT + 1;
+    /**
+     * 分条内最大值下标
+     */
+    private static final int MAX_INDEX = BUCKET_COUNT + 2;
+    /**
+     * 分条数量
+     */
+    private static final int STRIPE_COUNT = stripeCount();
+
+    /**
+     * 分条
+     */
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPE_COUNT];
+    /**
+     * 上一次区间快照时的各桶累计数量（仅区间快照访问）
+     */
+    private final long[] intervalCounts = new long[BUCKET_COUNT];
+    /**
+     * 上一次区间快照时的累计耗时（仅区间快照访问）
+     */
+    private long intervalSum;
+    /**
+     * 区间快照重置前的最大耗时（累计快照合并）
+     */
+    private volatile long resetMax;
+
+    /**
+     * 构造
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            this.stripes[i] = new AtomicLongArray(BUCKET_COUNT + 3);
+        }
+    }
+
+    /**
+     * 记录耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos >>> UNIT_BITS, MAX_VALUE);
+        AtomicLongArray stripe = this.stripes[(int) Thread.currentThread().getId() & (STRIPE_COUNT - 1)];
+        stripe.incrementAndGet(bucketIndex(value));
+        stripe.incrementAndGet(COUNT_INDEX);
+        stripe.addAndGet(SUM_INDEX, nanos);
+        long max;
+        while ((max = stripe.get(MAX_INDEX)) < nanos) {
+            if (stripe.compareAndSet(MAX_INDEX, max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 获取累计快照
+     *
+     * @return 返回创建以来全部记录的快照
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = this.resetMax;
+        for (AtomicLongArray stripe : this.stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+            count += stripe.get(COUNT_INDEX);
+            sum += stripe.get(SUM_INDEX);
+            max = Math.max(max, stripe.get(MAX_INDEX));
+        }
+        return new Snapshot(counts, count, sum, max);
+    }
+
+    /**
+     * 获取区间快照（各桶按与上一次区间快照的差值计算，最大耗时随之重置）
+     *
+     * @return 返回上一次区间快照（首次为创建）以来记录的快照
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : this.stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+            sum += stripe.get(SUM_INDEX);
+            max = Math.max(max, stripe.getAndSet(MAX_INDEX, 0));
+        }
+        if (max > this.resetMax) {
+            this.resetMax = max;
+        }
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long total = counts[i];
+            counts[i] = total - this.intervalCounts[i];
+            this.intervalCounts[i] = total;
+            count += counts[i];
+        }
+        long intervalSum = sum - this.intervalSum;
+        this.intervalSum = sum;
+        return new Snapshot(counts, count, intervalSum, max);
+    }
+
+    /**
+     * 计算值所在桶
+     *
+     * @param value 值（单位）
+     * @return 返回桶下标
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * 计算桶上界
+     *
+     * @param index 桶下标
+     * @return 返回桶内最大值（纳秒）
+     */
+    static long bucketUpperBound(int index) {
+        long upper;
+        if (index < SUB_BUCKET_COUNT) {
+            upper = index;
+        } else {
+            int shift = index / SUB_BUCKET_COUNT - 1;
+            long lower = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+            upper = lower + (1L << shift) - 1;
+        }
+        return ((upper + 1) << UNIT_BITS) - 1;
+    }
+
+    /**
+     * 分条数量（不小于CPU核数的2的幂，最多4）
+     *
+     * @return 返回分条数量
+     */
+    private static int stripeCount() {
+        int processors = Math.min(4, Runtime.getRuntime().availableProcessors());
+        return Integer.highestOneBit(Math.max(1, processors - 1)) << 1;
+    }
+
+    /**
+     * 直方图快照
+     *
+     * @since 1.8
+     */
+    public static final class Snapshot {
+        /**
+         * 各桶数量
+         */
+        private final long[] counts;
+        /**
+         * 总数
+         */
+        private final long count;
+        /**
+         * 总耗时（纳秒）
+         */
+        private final long sum;
+        /**
+         * 最大耗时（纳秒）
+         */
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * 平均耗时（纳秒）
+         *
+         * @return 返回平均耗时
+         */
+        public double getMean() {
+            return this.count == 0 ? 0 : (double) this.sum / this.count;
+        }
+
+        /**
+         * 分位耗时（纳秒，返回所在桶上界）
+         *
+         * @param quantile 分位（0~1）
+         * @return 返回分位耗时
+         */
+        public long getValueAtQuantile(double quantile) {
+            long total = 0;
+            for (long c : this.counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total);
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank && this.counts[i] > 0) {
+                    return Math.min(bucketUpperBound(i), this.max);
+                }
+            }
+            return this.max;
+        }
+    }
+}
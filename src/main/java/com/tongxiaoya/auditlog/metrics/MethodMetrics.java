@@ -0,0 +1,128 @@
+package com.tongxiaoya.auditlog.metrics;
+
+import java.lang.reflect.Method;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 方法指标
+ *
+ * @since 1.8
+ */
+public final class MethodMetrics {
+
+    /**
+     * 所在类全类名
+     */
+    private final String className;
+    /**
+     * 方法名称
+     */
+    private final String methodName;
+    /**
+     * 方法签名（方法名及参数类型简单名称，区分重载方法）
+     */
+    private final String signature;
+    /**
+     * 业务名称
+     */
+    private final String business;
+    /**
+     * 延迟直方图（开启耗时统计后创建）
+     */
+    private volatile LatencyHistogram latency;
+    /**
+     * 采样丢弃数量
+     */
+    private final LongAdder sampledOut = new LongAdder();
+
+    /**
+     * 构造
+     *
+     * @param className 所在类全类名
+     * @param method    方法对象
+     * @param business  业务名称
+     */
+    public MethodMetrics(String className, Method method, String business) {
+        this.className = className;
+        this.methodName = method.getName();
+        this.signature = signature(method);
+        this.business = business;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public String getBusiness() {
+        return business;
+    }
+
+    /**
+     * 获取延迟直方图（仅综合日志记录）
+     *
+     * @return 返回延迟直方图，未开启耗时统计时返回null
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 开启耗时统计（创建延迟直方图，重复调用无效）
+     */
+    synchronized void enableLatency() {
+        if (this.latency == null) {
+            this.latency = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * 记录调用耗时（未开启耗时统计时忽略）
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordLatency(long nanos) {
+        LatencyHistogram latency = this.latency;
+        if (latency != null) {
+            latency.record(nanos);
+        }
+    }
+
+    /**
+     * 记录一次采样丢弃
+     */
+    public void incrementSampledOut() {
+        this.sampledOut.increment();
+    }
+
+    /**
+     * 采样丢弃数量
+     *
+     * @return 返回采样丢弃数量
+     */
+    public long getSampledOutCount() {
+        return this.sampledOut.sum();
+    }
+
+    /**
+     * 生成方法签名
+     *
+     * @param method 方法对象
+     * @return 返回方法签名，如：place(Order,BigDecimal)
+     */
+    static String signature(Method method) {
+        StringJoiner joiner = new StringJoiner(",", method.getName() + "(", ")");
+        for (Class<?> type : method.getParameterTypes()) {
+            joiner.add(type.getSimpleName());
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,188 @@
+package com.tongxiaoya.auditlog.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer指标绑定
+ * <p>
+ * 每个方法输出：auditlog.method.calls（调用次数）、auditlog.method.time（总耗时，秒）、
+ * auditlog.method.latency（分位耗时，秒，quantile标签为0.5/0.9/0.99/max）、
+ * auditlog.method.sampled.out（采样丢弃数量）；标签signature区分重载方法。
+ * 绑定时开启耗时统计，同一次采集的各指标共用一个直方图快照；调用次数及总耗时为累计值，
+ * 分位及最大耗时仅统计上一次采集以来的调用（区间内无调用时为0），不随进程运行时间而钝化
+ *
+ * @since 1.8
+ */
+public class MicrometerAuditMetrics implements MeterBinder {
+
+    /**
+     * 分位
+     */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    /**
+     * 快照有效期（纳秒，同一次采集内的各指标读取同一快照）
+     */
+    private static final long SNAPSHOT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 审计指标注册表
+     */
+    private final AuditMetrics metrics;
+
+    /**
+     * 构造
+     *
+     * @param metrics 审计指标注册表
+     */
+    public MicrometerAuditMetrics(AuditMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.metrics.enableLatency();
+        this.metrics.addListener(method -> this.bind(registry, method));
+    }
+
+    /**
+     * 绑定单个方法指标
+     *
+     * @param registry 指标注册表
+     * @param method   方法指标
+     */
+    private void bind(MeterRegistry registry, MethodMetrics method) {
+        Tags tags = Tags.of("class", method.getClassName(), "method", method.getMethodName(),
+                "signature", method.getSignature(), "business", method.getBusiness());
+        FunctionCounter.builder("auditlog.method.sampled.out", method, MethodMetrics::getSampledOutCount)
+                .tags(tags)
+                .description("审计事件采样丢弃数量")
+                .register(registry);
+        LatencyHistogram latency = method.getLatency();
+        if (latency == null) {
+            // 仅采样的方法（未标注@Log）不记录耗时
+            return;
+        }
+        CachedSnapshot snapshot = new CachedSnapshot(latency);
+        FunctionCounter.builder("auditlog.method.calls", snapshot, s -> s.get().getCount())
+                .tags(tags)
+                .description("审计方法调用次数")
+                .register(registry);
+        FunctionCounter.builder("auditlog.method.time", snapshot, s -> toSeconds(s.get().getSum()))
+                .tags(tags)
+                .baseUnit("seconds")
+                .description("审计方法总耗时")
+                .register(registry);
+        for (double quantile : QUANTILES) {
+            this.registerLatency(registry, tags.and("quantile", String.valueOf(quantile)), snapshot,
+                    s -> toSeconds(s.getInterval().getValueAtQuantile(quantile)), "审计方法分位耗时（上一次采集以来）");
+        }
+        this.registerLatency(registry, tags.and("quantile", "max"), snapshot, s -> toSeconds(s.getInterval().getMax()), "审计方法最大耗时（上一次采集以来）");
+    }
+
+    /**
+     * 注册耗时指标
+     *
+     * @param registry    指标注册表
+     * @param tags        标签
+     * @param snapshot    直方图快照
+     * @param value       取值函数
+     * @param description 描述
+     */
+    private void registerLatency(MeterRegistry registry, Tags tags, CachedSnapshot snapshot, ToDoubleFunction<CachedSnapshot> value, String description) {
+        Gauge.builder("auditlog.method.latency", snapshot, value)
+                .tags(tags)
+                .baseUnit("seconds")
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * 纳秒转秒
+     *
+     * @param nanos 纳秒
+     * @return 返回秒
+     */
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * 短期缓存的直方图快照（一次采集只合并一次分条，区间快照在有效期过后的首次读取时切换）
+     *
+     * @since 1.8
+     */
+    static final class CachedSnapshot {
+        /**
+         * 延迟直方图
+         */
+        private final LatencyHistogram histogram;
+        /**
+         * 有效期（纳秒）
+         */
+        private final long ttlNanos;
+        /**
+         * 累计快照
+         */
+        private volatile LatencyHistogram.Snapshot snapshot;
+        /**
+         * 累计快照时间（纳秒）
+         */
+        private volatile long takenAt;
+        /**
+         * 区间快照
+         */
+        private LatencyHistogram.Snapshot interval;
+        /**
+         * 区间快照时间（纳秒）
+         */
+        private long intervalTakenAt;
+
+        CachedSnapshot(LatencyHistogram histogram) {
+            this(histogram, SNAPSHOT_TTL_NANOS);
+        }
+
+        CachedSnapshot(LatencyHistogram histogram, long ttlNanos) {
+            this.histogram = histogram;
+            this.ttlNanos = ttlNanos;
+        }
+
+        /**
+         * 获取累计快照（超过有效期时重新生成）
+         *
+         * @return 返回快照
+         */
+        LatencyHistogram.Snapshot get() {
+            LatencyHistogram.Snapshot snapshot = this.snapshot;
+            long now = System.nanoTime();
+            if (snapshot == null || now - this.takenAt >= this.ttlNanos) {
+                snapshot = this.histogram.snapshot();
+                this.snapshot = snapshot;
+                this.takenAt = now;
+            }
+            return snapshot;
+        }
+
+        /**
+         * 获取区间快照（超过有效期时切换至新区间）
+         *
+         * @return 返回上一次切换以来的快照
+         */
+        synchronized LatencyHistogram.Snapshot getInterval() {
+            LatencyHistogram.Snapshot interval = this.interval;
+            long now = System.nanoTime();
+            if (interval == null || now - this.intervalTakenAt >= this.ttlNanos) {
+                interval = this.histogram.intervalSnapshot();
+                this.interval = interval;
+                this.intervalTakenAt = now;
+            }
+            return interval;
+        }
+    }
+}
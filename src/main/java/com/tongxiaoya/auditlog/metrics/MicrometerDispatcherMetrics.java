@@ -0,0 +1,56 @@
+package com.tongxiaoya.auditlog.metrics;
+
+import com.tongxiaoya.auditlog.async.AsyncAuditDispatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 异步分发器Micrometer指标绑定
+ * <p>
+ * 输出：auditlog.async.backlog（缓冲区积压数量）、auditlog.async.dropped（丢弃数量）、
+ * auditlog.spill.spilled（溢出数量）、auditlog.spill.recovered（溢出后恢复输出数量）、
+ * auditlog.spill.lost（溢出后无法恢复的数量）、auditlog.spill.bytes（溢出队列占用磁盘大小）
+ *
+ * @since 1.8
+ */
+public class MicrometerDispatcherMetrics implements MeterBinder {
+
+    /**
+     * 异步分发器
+     */
+    private final AsyncAuditDispatcher dispatcher;
+
+    /**
+     * 构造
+     *
+     * @param dispatcher 异步分发器
+     */
+    public MicrometerDispatcherMetrics(AsyncAuditDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auditlog.async.backlog", this.dispatcher, AsyncAuditDispatcher::getBacklog)
+                .description("审计异步缓冲区积压数量")
+                .register(registry);
+        FunctionCounter.builder("auditlog.async.dropped", this.dispatcher, AsyncAuditDispatcher::getDroppedCount)
+                .description("审计事件丢弃数量")
+                .register(registry);
+        FunctionCounter.builder("auditlog.spill.spilled", this.dispatcher, AsyncAuditDispatcher::getSpilledCount)
+                .description("审计事件溢出至磁盘数量")
+                .register(registry);
+        FunctionCounter.builder("auditlog.spill.recovered", this.dispatcher, AsyncAuditDispatcher::getRecoveredCount)
+                .description("审计事件溢出后恢复输出数量")
+                .register(registry);
+        FunctionCounter.builder("auditlog.spill.lost", this.dispatcher, AsyncAuditDispatcher::getSpillLostCount)
+                .description("审计事件溢出后无法恢复的数量")
+                .register(registry);
+        Gauge.builder("auditlog.spill.bytes", this.dispatcher, AsyncAuditDispatcher::getSpillBytes)
+                .baseUnit("bytes")
+                .description("审计溢出队列占用磁盘大小")
+                .register(registry);
+    }
+}
@@ -0,0 +1,572 @@
+package com.tongxiaoya.auditlog.processor;
+
+import com.tongxiaoya.auditlog.format.JsonWriter;
+import com.tongxiaoya.auditlog.support.MethodMetadataIndex;
+import com.tongxiaoya.auditlog.support.MethodParser;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 审计元数据注解处理器
+ * <p>
+ * 编译期扫描带日志注解的方法，生成方法元数据索引（参数名称、所在类及行号），运行时无需通过Javassist读取类文件；
+ * 同时生成GraalVM本地镜像的反射配置：注解方法，以及参数、返回值类型和字段选择路径上各类型的字段及公共方法（用于渲染及字段选择），
+ * 按顶层类型分别位于META-INF/native-image/com.tongxiaoya.auditlog/模块名/顶层类型全类名/reflect-config.json，模块名通过-Aauditlog.module指定（默认为default）。
+ * 增量编译时索引文件与已有内容合并（仅替换本次编译的顶层类型的条目），反射配置仅重新生成本次编译的顶层类型。
+ * 未注册为服务，需在编译插件中显式开启，例如Maven：
+ * {@code <annotationProcessorPaths>}中加入本依赖，并在{@code <annotationProcessors>}中指定本类
+ *
+ * @since 1.8
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(AuditMetadataProcessor.MODULE_OPTION)
+public class AuditMetadataProcessor extends AbstractProcessor {
+
+    /**
+     * 模块名选项（区分多个模块生成的本地镜像配置）
+     */
+    static final String MODULE_OPTION = "auditlog.module";
+
+    /**
+     * 日志注解（处理器声明处理全部注解，以便在类型删除全部日志注解后重新编译时仍被调用，移除其已有的索引条目）
+     */
+    private static final Set<String> LOG_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "com.tongxiaoya.auditlog.log.Log",
+            "com.tongxiaoya.auditlog.log.ParamLog",
+            "com.tongxiaoya.auditlog.log.ResultLog",
+            "com.tongxiaoya.auditlog.log.ThrowingLog"
+    ));
+
+    /**
+     * 索引条目（按索引键排序，保证生成结果稳定）
+     */
+    private final Map<String, String> entries = new TreeMap<>();
+    /**
+     * 反射配置（顶层类型全类名 -> 反射配置）
+     */
+    private final Map<String, ReflectHints> hints = new TreeMap<>();
+    /**
+     * 本次编译的顶层类型（增量编译时替换其已有的索引条目及反射配置）
+     */
+    private final Set<String> compiledTypes = new TreeSet<>();
+
+    /**
+     * 源码行号解析器
+     */
+    private SourceLines sourceLines;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        try {
+            this.sourceLines = SourceLines.create(processingEnv);
+        } catch (LinkageError e) {
+            // 编译器树接口不存在
+            this.sourceLines = null;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element root : roundEnv.getRootElements()) {
+            if (root instanceof TypeElement) {
+                this.compiledTypes.add(this.processingEnv.getElementUtils().getBinaryName((TypeElement) root).toString());
+            }
+        }
+        for (TypeElement annotation : annotations) {
+            if (!LOG_ANNOTATIONS.contains(annotation.getQualifiedName().toString())) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.METHOD) {
+                    this.collect((ExecutableElement) element);
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            this.writeIndex();
+            this.writeReflectConfigs();
+        }
+        return false;
+    }
+
+    /**
+     * 收集方法元数据
+     *
+     * @param method 方法元素
+     */
+    private void collect(ExecutableElement method) {
+        TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+        TypeElement topLevelType = declaringType;
+        while (topLevelType.getEnclosingElement() instanceof TypeElement) {
+            topLevelType = (TypeElement) topLevelType.getEnclosingElement();
+        }
+        ReflectHints hints = this.hints.computeIfAbsent(
+                this.processingEnv.getElementUtils().getBinaryName(topLevelType).toString(), name -> new ReflectHints());
+        StringBuilder descriptor = new StringBuilder("(");
+        StringBuilder paramNames = new StringBuilder();
+        List<String> parameterTypes = new ArrayList<>(method.getParameters().size());
+        for (VariableElement parameter : method.getParameters()) {
+            this.appendDescriptor(descriptor, parameter.asType());
+            parameterTypes.add(this.getTypeName(parameter.asType()));
+            this.collectRenderedType(hints.renderedTypes, parameter.asType(), true);
+            if (paramNames.length() > 0) {
+                paramNames.append(',');
+            }
+            paramNames.append(parameter.getSimpleName());
+        }
+        this.appendDescriptor(descriptor.append(')'), method.getReturnType());
+        this.collectRenderedType(hints.renderedTypes, method.getReturnType(), true);
+        this.collectSelectedTypes(hints.renderedTypes, method);
+        String className = this.processingEnv.getElementUtils().getBinaryName(declaringType).toString();
+        String key = MethodMetadataIndex.key(className, method.getSimpleName().toString(), descriptor.toString());
+        int lineNumber = this.sourceLines != null ? this.sourceLines.getLineNumber(method) : MethodParser.UNKNOWN_LINE_NUMBER;
+        this.entries.put(key, lineNumber + "\t" + paramNames);
+        hints.methods.computeIfAbsent(className, name -> new TreeMap<>())
+                .put(key, new MethodHint(method.getSimpleName().toString(), parameterTypes));
+    }
+
+    /**
+     * 收集需要反射读取字段的类型（数组取元素类型，泛型参数仅展开一层，跳过JDK类型）
+     *
+     * @param renderedTypes 需要反射读取字段的类型
+     * @param type          类型
+     * @param arguments     是否展开泛型参数
+     */
+    private void collectRenderedType(Set<String> renderedTypes, TypeMirror type, boolean arguments) {
+        while (type.getKind() == TypeKind.ARRAY) {
+            type = ((ArrayType) type).getComponentType();
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        DeclaredType declaredType = (DeclaredType) type;
+        String name = this.processingEnv.getElementUtils().getBinaryName((TypeElement) declaredType.asElement()).toString();
+        if (!name.startsWith("java.") && !name.startsWith("javax.")) {
+            renderedTypes.add(name);
+        }
+        if (arguments) {
+            for (TypeMirror argument : declaredType.getTypeArguments()) {
+                this.collectRenderedType(renderedTypes, argument, false);
+            }
+        }
+    }
+
+    /**
+     * 收集字段选择路径上的类型（参数路径首段为参数名称，返回值路径相对于返回值或异步返回值到达的值）
+     *
+     * @param renderedTypes 需要反射读取字段的类型
+     * @param method        方法元素
+     */
+    private void collectSelectedTypes(Set<String> renderedTypes, ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            String annotationName = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (!annotationName.startsWith("com.tongxiaoya.auditlog.log.")) {
+                continue;
+            }
+            boolean resultLog = annotationName.endsWith(".ResultLog");
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                String name = entry.getKey().getSimpleName().toString();
+                if ("fields".equals(name) && !resultLog) {
+                    for (String path : this.getStrings(entry.getValue())) {
+                        String[] segments = path.trim().split("\\.");
+                        for (VariableElement parameter : method.getParameters()) {
+                            if (parameter.getSimpleName().contentEquals(segments[0])) {
+                                this.collectPathTypes(renderedTypes, parameter.asType(), segments, 1);
+                            }
+                        }
+                    }
+                } else if ("resultFields".equals(name) || "fields".equals(name)) {
+                    TypeMirror resultType = method.getReturnType();
+                    for (String path : this.getStrings(entry.getValue())) {
+                        String[] segments = path.trim().split("\\.");
+                        this.collectPathTypes(renderedTypes, resultType, segments, 0);
+                        if (resultType.getKind() == TypeKind.DECLARED && ((DeclaredType) resultType).getTypeArguments().size() == 1) {
+                            this.collectPathTypes(renderedTypes, ((DeclaredType) resultType).getTypeArguments().get(0), segments, 0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 沿属性路径收集类型（按getter或字段解析，遇到Map或无法解析时停止）
+     *
+     * @param renderedTypes 需要反射读取字段的类型
+     * @param type          当前类型
+     * @param segments      路径
+     * @param from          当前属性下标
+     */
+    private void collectPathTypes(Set<String> renderedTypes, TypeMirror type, String[] segments, int from) {
+        for (int i = from; i < segments.length && type.getKind() == TypeKind.DECLARED; i++) {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            if (this.isMap(type)) {
+                return;
+            }
+            TypeMirror next = this.findPropertyType(element, segments[i]);
+            if (next == null) {
+                return;
+            }
+            this.collectRenderedType(renderedTypes, type, false);
+            this.collectRenderedType(renderedTypes, next, false);
+            type = next;
+        }
+    }
+
+    /**
+     * 查找属性类型（优先公共getter，其次字段，含父类成员）
+     *
+     * @param element  类型元素
+     * @param property 属性名称
+     * @return 返回属性类型，不存在时返回null
+     */
+    private TypeMirror findPropertyType(TypeElement element, String property) {
+        if (property.isEmpty()) {
+            return null;
+        }
+        List<? extends Element> members = this.processingEnv.getElementUtils().getAllMembers(element);
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (ExecutableElement getter : ElementFilter.methodsIn(members)) {
+            String name = getter.getSimpleName().toString();
+            if (getter.getParameters().isEmpty() && getter.getReturnType().getKind() != TypeKind.VOID
+                    && (name.equals("get" + suffix) || name.equals("is" + suffix) && getter.getReturnType().getKind() == TypeKind.BOOLEAN)) {
+                return getter.getReturnType();
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(members)) {
+            if (field.getSimpleName().contentEquals(property)) {
+                return field.asType();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否为Map类型
+     *
+     * @param type 类型
+     * @return 返回布尔值
+     */
+    private boolean isMap(TypeMirror type) {
+        TypeElement map = this.processingEnv.getElementUtils().getTypeElement("java.util.Map");
+        return map != null && this.processingEnv.getTypeUtils().isAssignable(
+                this.processingEnv.getTypeUtils().erasure(type), this.processingEnv.getTypeUtils().erasure(map.asType()));
+    }
+
+    /**
+     * 获取字符串数组注解值
+     *
+     * @param value 注解值
+     * @return 返回字符串列表
+     */
+    private List<String> getStrings(AnnotationValue value) {
+        Object raw = value.getValue();
+        if (!(raw instanceof List)) {
+            return Collections.singletonList(String.valueOf(raw));
+        }
+        List<String> strings = new ArrayList<>();
+        for (Object item : (List<?>) raw) {
+            strings.add(String.valueOf(((AnnotationValue) item).getValue()));
+        }
+        return strings;
+    }
+
+    /**
+     * 获取反射配置中的类型名称（按擦除后的类型）
+     *
+     * @param type 类型
+     * @return 返回类型名称
+     */
+    private String getTypeName(TypeMirror type) {
+        TypeMirror erased = this.processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return this.getTypeName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return this.processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) erased).asElement()).toString();
+        }
+        if (erased.getKind().isPrimitive()) {
+            return erased.getKind().name().toLowerCase();
+        }
+        return "java.lang.Object";
+    }
+
+    /**
+     * 添加类型描述符（按擦除后的类型）
+     *
+     * @param builder 描述符builder
+     * @param type    类型
+     */
+    private void appendDescriptor(StringBuilder builder, TypeMirror type) {
+        TypeMirror erased = this.processingEnv.getTypeUtils().erasure(type);
+        switch (erased.getKind()) {
+            case BOOLEAN:
+                builder.append('Z');
+                break;
+            case BYTE:
+                builder.append('B');
+                break;
+            case CHAR:
+                builder.append('C');
+                break;
+            case SHORT:
+                builder.append('S');
+                break;
+            case INT:
+                builder.append('I');
+                break;
+            case LONG:
+                builder.append('J');
+                break;
+            case FLOAT:
+                builder.append('F');
+                break;
+            case DOUBLE:
+                builder.append('D');
+                break;
+            case VOID:
+                builder.append('V');
+                break;
+            case ARRAY:
+                this.appendDescriptor(builder.append('['), ((ArrayType) erased).getComponentType());
+                break;
+            case DECLARED:
+                TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+                builder.append('L')
+                        .append(this.processingEnv.getElementUtils().getBinaryName(element).toString().replace('.', '/'))
+                        .append(';');
+                break;
+            default:
+                builder.append("Ljava/lang/Object;");
+        }
+    }
+
+    /**
+     * 写入索引文件（保留已有索引中未参与本次编译的类型的条目）
+     */
+    private void writeIndex() {
+        Map<String, String> merged = new TreeMap<>();
+        boolean replaced = this.readIndex(merged);
+        if (this.entries.isEmpty() && !replaced) {
+            return;
+        }
+        merged.putAll(this.entries);
+        StringBuilder builder = new StringBuilder("# auditlog method metadata\n");
+        for (Map.Entry<String, String> entry : merged.entrySet()) {
+            builder.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+        }
+        this.writeResource(MethodMetadataIndex.LOCATION, builder);
+    }
+
+    /**
+     * 读取输出目录中已有的索引文件（跳过本次编译的类型的条目）
+     *
+     * @param entries 索引条目
+     * @return 返回是否跳过了已有条目
+     */
+    private boolean readIndex(Map<String, String> entries) {
+        boolean replaced = false;
+        try {
+            FileObject resource = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", MethodMetadataIndex.LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int keyEnd = line.indexOf('\t');
+                    int classEnd = line.indexOf('#');
+                    if (line.isEmpty() || classEnd <= 0 || keyEnd <= classEnd) {
+                        continue;
+                    }
+                    if (this.isCompiled(line.substring(0, classEnd))) {
+                        replaced = true;
+                    } else {
+                        entries.put(line.substring(0, keyEnd), line.substring(keyEnd + 1));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 首次编译，索引文件不存在
+        }
+        return replaced;
+    }
+
+    /**
+     * 是否为本次编译的类型（含其嵌套类型）
+     *
+     * @param className 全类名（二进制名称）
+     * @return 返回布尔值
+     */
+    private boolean isCompiled(String className) {
+        for (String compiledType : this.compiledTypes) {
+            if (className.equals(compiledType) || className.startsWith(compiledType + "$")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入本次编译的各顶层类型的本地镜像反射配置（不再含注解方法的类型写入空配置）
+     */
+    private void writeReflectConfigs() {
+        String module = this.processingEnv.getOptions().getOrDefault(MODULE_OPTION, "default");
+        Set<String> types = new TreeSet<>(this.compiledTypes);
+        types.addAll(this.hints.keySet());
+        for (String type : types) {
+            String location = "META-INF/native-image/com.tongxiaoya.auditlog/" + module + "/" + type + "/reflect-config.json";
+            ReflectHints hints = this.hints.get(type);
+            if (hints == null) {
+                if (!this.exists(location)) {
+                    continue;
+                }
+                hints = new ReflectHints();
+            }
+            this.writeResource(location, this.toReflectConfig(hints));
+        }
+    }
+
+    /**
+     * 生成反射配置
+     *
+     * @param hints 反射配置
+     * @return 返回反射配置内容
+     */
+    private CharSequence toReflectConfig(ReflectHints hints) {
+        StringBuilder builder = new StringBuilder();
+        Set<String> renderedTypes = new TreeSet<>(hints.renderedTypes);
+        JsonWriter writer = new JsonWriter().reset(builder).beginArray();
+        for (Map.Entry<String, Map<String, MethodHint>> entry : hints.methods.entrySet()) {
+            writer.beginObject().name("name").value(entry.getKey());
+            if (renderedTypes.remove(entry.getKey())) {
+                writer.name("allDeclaredFields").value(true).name("allPublicMethods").value(true);
+            }
+            writer.name("methods").beginArray();
+            for (MethodHint hint : entry.getValue().values()) {
+                writer.beginObject().name("name").value(hint.name).name("parameterTypes").beginArray();
+                for (String parameterType : hint.parameterTypes) {
+                    writer.value(parameterType);
+                }
+                writer.endArray().endObject();
+            }
+            writer.endArray().endObject();
+        }
+        for (String renderedType : renderedTypes) {
+            writer.beginObject().name("name").value(renderedType)
+                    .name("allDeclaredFields").value(true).name("allPublicMethods").value(true).endObject();
+        }
+        writer.endArray();
+        return builder.append('\n');
+    }
+
+    /**
+     * 输出目录中是否已存在资源文件
+     *
+     * @param location 资源位置
+     * @return 返回布尔值
+     */
+    private boolean exists(String location) {
+        try {
+            FileObject resource = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", location);
+            try (InputStream ignored = resource.openInputStream()) {
+                return true;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 写入资源文件
+     *
+     * @param location 资源位置
+     * @param content  资源内容
+     */
+    private void writeResource(String location, CharSequence content) {
+        try {
+            FileObject resource = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", location);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.append(content);
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "无法生成" + location + "：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 顶层类型的反射配置
+     *
+     * @since 1.8
+     */
+    private static final class ReflectHints {
+        /**
+         * 反射方法（全类名 -> 索引键 -> 参数类型）
+         */
+        private final Map<String, Map<String, MethodHint>> methods = new TreeMap<>();
+        /**
+         * 需要反射读取字段的类型（参数、返回值及字段选择路径上的类型）
+         */
+        private final Set<String> renderedTypes = new TreeSet<>();
+    }
+
+    /**
+     * 反射方法
+     *
+     * @since 1.8
+     */
+    private static final class MethodHint {
+        /**
+         * 方法名称
+         */
+        private final String name;
+        /**
+         * 参数类型
+         */
+        private final List<String> parameterTypes;
+
+        private MethodHint(String name, List<String> parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tongxiaoya.auditlog.processor;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import com.tongxiaoya.auditlog.support.MethodParser;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+
+/**
+ * 源码行号解析器
+ * <p>
+ * 基于javac的编译器树接口，与运行时读取类文件一致，取方法体首条语句所在行；
+ * 非javac编译器（如ECJ）下不可用，此时索引中不记录行号
+ *
+ * @since 1.8
+ */
+final class SourceLines {
+
+    private final Trees trees;
+
+    private SourceLines(Trees trees) {
+        this.trees = trees;
+    }
+
+    /**
+     * 创建行号解析器
+     *
+     * @param processingEnv 处理环境
+     * @return 返回行号解析器，不可用时返回null
+     */
+    static SourceLines create(ProcessingEnvironment processingEnv) {
+        try {
+            return new SourceLines(Trees.instance(processingEnv));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取方法行号
+     *
+     * @param method 方法元素
+     * @return 返回方法行号，无方法体时返回未知行号
+     */
+    int getLineNumber(ExecutableElement method) {
+        TreePath path = this.trees.getPath(method);
+        if (path == null || !(path.getLeaf() instanceof MethodTree)) {
+            return MethodParser.UNKNOWN_LINE_NUMBER;
+        }
+        BlockTree body = ((MethodTree) path.getLeaf()).getBody();
+        if (body == null) {
+            return MethodParser.UNKNOWN_LINE_NUMBER;
+        }
+        CompilationUnitTree unit = path.getCompilationUnit();
+        SourcePositions positions = this.trees.getSourcePositions();
+        long position = body.getStatements().isEmpty()
+                ? positions.getEndPosition(unit, body) - 1
+                : positions.getStartPosition(unit, body.getStatements().get(0));
+        return position < 0 ? MethodParser.UNKNOWN_LINE_NUMBER : (int) unit.getLineMap().getLineNumber(position);
+    }
+}
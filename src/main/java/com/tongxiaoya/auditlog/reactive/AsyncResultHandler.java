@@ -0,0 +1,47 @@
+package com.tongxiaoya.auditlog.reactive;
+
+/**
+ * 异步返回值处理器
+ * <p>
+ * 为异步返回值附加非阻塞的完成回调，在值到达（或失败）时输出审计事件，不创建线程、不阻塞调用线程
+ *
+ * @since 1.8
+ */
+public interface AsyncResultHandler {
+
+    /**
+     * 是否支持方法声明的返回类型（执行计划编译时判断一次）
+     *
+     * @param returnType 方法返回类型
+     * @return 返回布尔值
+     */
+    boolean supports(Class<?> returnType);
+
+    /**
+     * 附加完成回调
+     *
+     * @param result   方法返回值（非空）
+     * @param start    调用开始时间（纳秒，惰性发布者以订阅时间为准）
+     * @param callback 完成回调（每次完成仅回调一次）
+     * @return 返回替换后的返回值（须可赋值给方法声明的返回类型）
+     */
+    Object decorate(Object result, long start, Callback callback);
+
+    /**
+     * 完成回调
+     *
+     * @since 1.8
+     */
+    @FunctionalInterface
+    interface Callback {
+
+        /**
+         * 完成
+         *
+         * @param value     结果值
+         * @param throwable 异常（成功时为空）
+         * @param duration  耗时（纳秒）
+         */
+        void complete(Object value, Throwable throwable, long duration);
+    }
+}
@@ -0,0 +1,37 @@
+package com.tongxiaoya.auditlog.reactive;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内置异步返回值处理器
+ *
+ * @since 1.8
+ */
+public final class AsyncResultHandlers {
+
+    /**
+     * 是否存在Reactor（可选依赖）
+     */
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Flux", AsyncResultHandlers.class.getClassLoader());
+
+    private AsyncResultHandlers() {
+    }
+
+    /**
+     * 创建内置处理器（存在Reactor时支持Mono、Flux）
+     *
+     * @param maxElements Flux最多保留的元素数量
+     * @return 返回处理器列表
+     */
+    public static List<AsyncResultHandler> create(int maxElements) {
+        List<AsyncResultHandler> handlers = new ArrayList<>(2);
+        handlers.add(new CompletionStageResultHandler());
+        if (REACTOR_PRESENT) {
+            handlers.add(new ReactorResultHandler(maxElements));
+        }
+        return handlers;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tongxiaoya.auditlog.reactive;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * CompletionStage（含CompletableFuture）返回值处理器
+ * <p>
+ * 在原对象上注册完成回调并原样返回，不改变调用方拿到的对象及其异常语义
+ *
+ * @since 1.8
+ */
+public class CompletionStageResultHandler implements AsyncResultHandler {
+
+    @Override
+    public boolean supports(Class<?> returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType);
+    }
+
+    @Override
+    public Object decorate(Object result, long start, Callback callback) {
+        ((CompletionStage<?>) result).whenComplete((value, throwable) -> callback.complete(value, unwrap(throwable), System.nanoTime() - start));
+        return result;
+    }
+
+    /**
+     * 解包异步异常
+     *
+     * @param throwable 异常
+     * @return 返回原始异常
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -0,0 +1,139 @@
+package com.tongxiaoya.auditlog.reactive;
+
+import com.tongxiaoya.auditlog.render.TruncatedList;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactor（Mono、Flux）返回值处理器
+ * <p>
+ * 发布者为惰性的，每次订阅单独记录：耗时从订阅开始计算，在完成、失败或取消时回调一次；
+ * Flux仅保留前若干个元素作为结果，其余元素只计数（渲染时输出元素总数），不影响背压及执行线程
+ *
+ * @since 1.8
+ */
+public class ReactorResultHandler implements AsyncResultHandler {
+
+    /**
+     * Flux最多保留的元素数量
+     */
+    private final int maxElements;
+
+    /**
+     * 构造
+     *
+     * @param maxElements Flux最多保留的元素数量
+     */
+    public ReactorResultHandler(int maxElements) {
+        this.maxElements = Math.max(0, maxElements);
+    }
+
+    /**
+     * 仅支持声明为Mono或Flux的方法，保证替换后的发布者可赋值给返回类型
+     *
+     * @param returnType 方法返回类型
+     * @return 返回布尔值
+     */
+    @Override
+    public boolean supports(Class<?> returnType) {
+        return returnType == Mono.class || returnType == Flux.class;
+    }
+
+    @Override
+    public Object decorate(Object result, long start, Callback callback) {
+        if (result instanceof Mono) {
+            Mono<?> mono = (Mono<?>) result;
+            return Mono.defer(() -> {
+                Capture capture = new Capture(false, 1);
+                return mono.doOnNext(capture::add).doOnError(capture::fail).doFinally(signal -> capture.complete(callback));
+            });
+        }
+        Flux<?> flux = (Flux<?>) result;
+        return Flux.defer(() -> {
+            Capture capture = new Capture(true, this.maxElements);
+            return flux.doOnNext(capture::add).doOnError(capture::fail).doFinally(signal -> capture.complete(callback));
+        });
+    }
+
+    /**
+     * 单次订阅的结果记录（Reactive Streams保证信号串行，无需同步）
+     *
+     * @since 1.8
+     */
+    private static final class Capture {
+        /**
+         * 订阅时间（纳秒）
+         */
+        private final long start = System.nanoTime();
+        /**
+         * 是否多元素
+         */
+        private final boolean multiple;
+        /**
+         * 最多保留的元素数量
+         */
+        private final int maxElements;
+        /**
+         * 保留的元素
+         */
+        private final List<Object> elements = new ArrayList<>();
+        /**
+         * 元素总数（含未保留的元素）
+         */
+        private long count;
+        /**
+         * 异常
+         */
+        private Throwable throwable;
+
+        /**
+         * 构造
+         *
+         * @param multiple    是否多元素
+         * @param maxElements 最多保留的元素数量
+         */
+        private Capture(boolean multiple, int maxElements) {
+            this.multiple = multiple;
+            this.maxElements = maxElements;
+        }
+
+        /**
+         * 记录元素
+         *
+         * @param element 元素
+         */
+        private void add(Object element) {
+            this.count++;
+            if (this.elements.size() < this.maxElements) {
+                this.elements.add(element);
+            }
+        }
+
+        /**
+         * 记录异常
+         *
+         * @param throwable 异常
+         */
+        private void fail(Throwable throwable) {
+            this.throwable = throwable;
+        }
+
+        /**
+         * 完成回调
+         *
+         * @param callback 完成回调
+         */
+        private void complete(Callback callback) {
+            Object value;
+            if (this.multiple) {
+                value = new TruncatedList<>(this.elements, this.count);
+            } else {
+                value = this.elements.isEmpty() ? null : this.elements.get(0);
+            }
+            callback.complete(value, this.throwable, System.nanoTime() - this.start);
+        }
+    }
+}
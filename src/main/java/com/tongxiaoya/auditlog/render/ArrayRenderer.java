@@ -0,0 +1,264 @@
+package com.tongxiaoya.auditlog.render;
+
+import com.tongxiaoya.auditlog.support.ArrayType;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * 数组渲染器
+ * <p>
+ * 基本类型数组直接写入输出缓冲区，不装箱、不创建中间集合；
+ * 超出元素上限时仅输出前N个元素及总长度，字节数组输出长度及前N个字节；
+ * 对象数组中嵌套的数组最多展开{@value #MAX_NESTING}层，引用自身或外层数组时输出为&lt;cycle&gt;
+ *
+ * @since 1.8
+ */
+public class ArrayRenderer {
+
+    /**
+     * 十六进制字符
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * 嵌套数组最大展开层数
+     */
+    static final int MAX_NESTING = 8;
+    /**
+     * 循环引用标记
+     */
+    private static final String CYCLE = "<cycle>";
+
+    /**
+     * 最大元素数量
+     */
+    private final int maxElements;
+    /**
+     * 字节数组最大输出字节数
+     */
+    private final int maxBytes;
+    /**
+     * 字节数组输出格式
+     */
+    private final ByteFormat byteFormat;
+
+    /**
+     * 构造
+     */
+    public ArrayRenderer() {
+        this(100, 32, ByteFormat.HEX);
+    }
+
+    /**
+     * 构造
+     *
+     * @param maxElements 最大元素数量
+     * @param maxBytes    字节数组最大输出字节数
+     * @param byteFormat  字节数组输出格式
+     */
+    public ArrayRenderer(int maxElements, int maxBytes, ByteFormat byteFormat) {
+        this.maxElements = Math.max(0, maxElements);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.byteFormat = byteFormat;
+    }
+
+    /**
+     * 渲染数组
+     *
+     * @param builder 输出缓冲区
+     * @param array   数组
+     */
+    public void render(StringBuilder builder, Object array) {
+        this.render(builder, array, null);
+    }
+
+    /**
+     * 渲染数组
+     *
+     * @param builder  输出缓冲区
+     * @param array    数组
+     * @param visiting 正在渲染的外层对象数组（首次遇到嵌套数组时创建）
+     */
+    private void render(StringBuilder builder, Object array, Set<Object> visiting) {
+        ArrayType arrayType = ArrayType.of(array.getClass());
+        if (arrayType == null) {
+            builder.append(array);
+            return;
+        }
+        switch (arrayType) {
+            case BYTE_ARRAY:
+                this.renderBytes(builder, (byte[]) array);
+                break;
+            case INT_ARRAY: {
+                int[] values = (int[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    this.separate(builder, i).append(values[i]);
+                }
+                this.close(builder, count, values.length);
+                break;
+            }
+            case LONG_ARRAY: {
+                long[] values = (long[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    this.separate(builder, i).append(values[i]);
+                }
+                this.close(builder, count, values.length);
+                break;
+            }
+            case DOUBLE_ARRAY: {
+                double[] values = (double[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    this.separate(builder, i).append(values[i]);
+                }
+                this.close(builder, count, values.length);
+                break;
+            }
+            case FLOAT_ARRAY: {
+                float[] values = (float[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    this.separate(builder, i).append(values[i]);
+                }
+                this.close(builder, count, values.length);
+                break;
+            }
+            case CHAR_ARRAY: {
+                char[] values = (char[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    this.separate(builder, i).append(values[i]);
+                }
+                this.close(builder, count, values.length);
+                break;
+            }
+            case BOOLEAN_ARRAY: {
+                boolean[] values = (boolean[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    this.separate(builder, i).append(values[i]);
+                }
+                this.close(builder, count, values.length);
+                break;
+            }
+            case SHORT_ARRAY: {
+                short[] values = (short[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    this.separate(builder, i).append(values[i]);
+                }
+                this.close(builder, count, values.length);
+                break;
+            }
+            default: {
+                Object[] values = (Object[]) array;
+                int count = this.open(builder, values.length);
+                for (int i = 0; i < count; i++) {
+                    Object value = values[i];
+                    this.separate(builder, i);
+                    if (value != null && value.getClass().isArray()) {
+                        if (visiting == null) {
+                            visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+                            visiting.add(values);
+                        }
+                        this.renderNested(builder, value, visiting);
+                    } else {
+                        builder.append(value);
+                    }
+                }
+                this.close(builder, count, values.length);
+            }
+        }
+    }
+
+    /**
+     * 渲染嵌套数组（引用外层数组时输出循环引用标记，超出层数时不再展开）
+     *
+     * @param builder  输出缓冲区
+     * @param value    嵌套数组
+     * @param visiting 正在渲染的外层对象数组
+     */
+    private void renderNested(StringBuilder builder, Object value, Set<Object> visiting) {
+        if (!(value instanceof Object[])) {
+            this.render(builder, value, visiting);
+        } else if (visiting.contains(value)) {
+            builder.append(CYCLE);
+        } else if (visiting.size() >= MAX_NESTING) {
+            builder.append("[...]");
+        } else {
+            visiting.add(value);
+            try {
+                this.render(builder, value, visiting);
+            } finally {
+                visiting.remove(value);
+            }
+        }
+    }
+
+    /**
+     * 渲染字节数组（长度 + 前N个字节）
+     *
+     * @param builder 输出缓冲区
+     * @param values  字节数组
+     */
+    private void renderBytes(StringBuilder builder, byte[] values) {
+        int count = Math.min(values.length, this.maxBytes);
+        builder.append("byte[").append(values.length).append("]{");
+        if (this.byteFormat == ByteFormat.BASE64) {
+            byte[] prefix = count == values.length ? values : Arrays.copyOf(values, count);
+            builder.append("base64=").append(Base64.getEncoder().encodeToString(prefix));
+        } else {
+            builder.append("hex=");
+            for (int i = 0; i < count; i++) {
+                int value = values[i];
+                builder.append(HEX_DIGITS[(value >> 4) & 0xF]).append(HEX_DIGITS[value & 0xF]);
+            }
+        }
+        if (count < values.length) {
+            builder.append("...");
+        }
+        builder.append('}');
+    }
+
+    /**
+     * 开始输出数组
+     *
+     * @param builder 输出缓冲区
+     * @param length  数组长度
+     * @return 返回实际输出元素数量
+     */
+    private int open(StringBuilder builder, int length) {
+        builder.append('[');
+        return Math.min(length, this.maxElements);
+    }
+
+    /**
+     * 输出元素分隔符
+     *
+     * @param builder 输出缓冲区
+     * @param index   元素下标
+     * @return 返回输出缓冲区
+     */
+    private StringBuilder separate(StringBuilder builder, int index) {
+        return index == 0 ? builder : builder.append(", ");
+    }
+
+    /**
+     * 结束输出数组
+     *
+     * @param builder 输出缓冲区
+     * @param count   实际输出元素数量
+     * @param length  数组长度
+     */
+    private void close(StringBuilder builder, int count, int length) {
+        if (count < length) {
+            builder.append(count == 0 ? "" : ", ").append("...(").append(length).append(" total)");
+        }
+        builder.append(']');
+    }
+}
@@ -0,0 +1,17 @@
+package com.tongxiaoya.auditlog.render;
+
+/**
+ * 字节数组输出格式
+ *
+ * @since 1.8
+ */
+public enum ByteFormat {
+    /**
+     * 十六进制
+     */
+    HEX,
+    /**
+     * Base64
+     */
+    BASE64
+}
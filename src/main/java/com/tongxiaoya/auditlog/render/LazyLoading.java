@@ -0,0 +1,54 @@
+package com.tongxiaoya.auditlog.render;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * 延迟加载检测
+ * <p>
+ * 存在Hibernate时通过Hibernate.isInitialized判断，避免渲染时触发数据库加载
+ *
+ * @since 1.8
+ */
+final class LazyLoading {
+
+    /**
+     * Hibernate.isInitialized句柄（不存在Hibernate时为null）
+     */
+    private static final MethodHandle IS_INITIALIZED = lookup();
+
+    private LazyLoading() {
+    }
+
+    /**
+     * 是否已初始化
+     *
+     * @param value 对象
+     * @return 返回布尔值
+     */
+    static boolean isInitialized(Object value) {
+        if (IS_INITIALIZED == null) {
+            return true;
+        }
+        try {
+            return (boolean) IS_INITIALIZED.invokeExact(value);
+        } catch (Throwable e) {
+            return true;
+        }
+    }
+
+    /**
+     * 查找Hibernate.isInitialized
+     *
+     * @return 返回方法句柄
+     */
+    private static MethodHandle lookup() {
+        try {
+            Class<?> hibernate = Class.forName("org.hibernate.Hibernate", false, LazyLoading.class.getClassLoader());
+            return MethodHandles.publicLookup().findStatic(hibernate, "isInitialized", MethodType.methodType(boolean.class, Object.class));
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+}
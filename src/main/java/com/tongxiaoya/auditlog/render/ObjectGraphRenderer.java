@@ -0,0 +1,594 @@
+package com.tongxiaoya.auditlog.render;
+
+import com.tongxiaoya.auditlog.mask.MaskedValue;
+import com.tongxiaoya.auditlog.mask.Masker;
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+
+/**
+ * 对象图渲染器
+ * <p>
+ * 按类缓存渲染方式，遍历对象图时受长度预算、深度、元素数量限制并识别循环引用，
+ * 审计单次调用的开销与参数大小无关；未初始化的延迟加载对象（Hibernate）不会被触发加载。
+ * 普通对象默认使用toString输出，显式开启的类型（全类名或包名）及含有敏感字段的类型按字段输出，
+ * 敏感字段的脱敏器随对象渲染器按类编译一次；含有敏感字段但字段无法访问的类型整体输出为******，不调用toString
+ *
+ * @since 1.8
+ */
+public class ObjectGraphRenderer implements ValueRenderer {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 循环引用标记
+     */
+    private static final String CYCLE = "<cycle>";
+    /**
+     * 未初始化延迟加载对象标记
+     */
+    private static final String LAZY = "<lazy>";
+    /**
+     * 无法按字段脱敏时的输出
+     */
+    private static final String MASKED = "******";
+    /**
+     * 查找敏感字段时遍历字段类型的最大深度
+     */
+    private static final int MAX_SENSITIVE_DEPTH = 4;
+
+    /**
+     * 单个值最大长度
+     */
+    private final int maxLength;
+    /**
+     * 最大深度
+     */
+    private final int maxDepth;
+    /**
+     * 集合及数组最大输出元素数量
+     */
+    private final int maxElements;
+    /**
+     * 基本类型数组渲染器
+     */
+    private final ArrayRenderer arrayRenderer;
+    /**
+     * 自定义类型渲染器
+     */
+    private final Map<Class<?>, TypeRenderer<?>> customRenderers;
+    /**
+     * 脱敏策略
+     */
+    private final MaskingPolicy masking;
+    /**
+     * 按字段输出的类型（全类名或包名）
+     */
+    private final Set<String> fieldTypes;
+    /**
+     * 按类缓存的渲染方式
+     */
+    private final ClassValue<Resolved> resolved = new ClassValue<Resolved>() {
+        @Override
+        protected Resolved computeValue(Class<?> type) {
+            return ObjectGraphRenderer.this.resolve(type);
+        }
+    };
+    /**
+     * 线程复用的渲染上下文
+     */
+    private final ThreadLocal<RenderContext> contexts = ThreadLocal.withInitial(() -> new RenderContext(this));
+
+    /**
+     * 构造
+     */
+    public ObjectGraphRenderer() {
+        this(4096, 3, 100, new ArrayRenderer(), Collections.<Class<?>, TypeRenderer<?>>emptyMap());
+    }
+
+    /**
+     * 构造
+     *
+     * @param maxLength       单个值最大长度
+     * @param maxDepth        最大深度
+     * @param maxElements     集合及数组最大输出元素数量
+     * @param arrayRenderer   基本类型数组渲染器
+     * @param customRenderers 自定义类型渲染器
+     */
+    public ObjectGraphRenderer(int maxLength, int maxDepth, int maxElements, ArrayRenderer arrayRenderer, Map<Class<?>, TypeRenderer<?>> customRenderers) {
+        this(maxLength, maxDepth, maxElements, arrayRenderer, customRenderers, MaskingPolicy.annotations());
+    }
+
+    /**
+     * 构造
+     *
+     * @param maxLength       单个值最大长度
+     * @param maxDepth        最大深度
+     * @param maxElements     集合及数组最大输出元素数量
+     * @param arrayRenderer   基本类型数组渲染器
+     * @param customRenderers 自定义类型渲染器
+     * @param masking         脱敏策略
+     */
+    public ObjectGraphRenderer(int maxLength, int maxDepth, int maxElements, ArrayRenderer arrayRenderer, Map<Class<?>, TypeRenderer<?>> customRenderers,
+                               MaskingPolicy masking) {
+        this(maxLength, maxDepth, maxElements, arrayRenderer, customRenderers, masking, Collections.<String>emptyList());
+    }
+
+    /**
+     * 构造
+     *
+     * @param maxLength       单个值最大长度
+     * @param maxDepth        最大深度
+     * @param maxElements     集合及数组最大输出元素数量
+     * @param arrayRenderer   基本类型数组渲染器
+     * @param customRenderers 自定义类型渲染器
+     * @param masking         脱敏策略
+     * @param fieldTypes      按字段输出的类型（全类名或包名，包含子包）
+     */
+    public ObjectGraphRenderer(int maxLength, int maxDepth, int maxElements, ArrayRenderer arrayRenderer, Map<Class<?>, TypeRenderer<?>> customRenderers,
+                               MaskingPolicy masking, Collection<String> fieldTypes) {
+        this.maxLength = Math.max(16, maxLength);
+        this.maxDepth = Math.max(1, maxDepth);
+        this.maxElements = Math.max(0, maxElements);
+        this.arrayRenderer = arrayRenderer;
+        this.customRenderers = new HashMap<>(customRenderers);
+        this.masking = masking;
+        this.fieldTypes = new HashSet<>(fieldTypes);
+    }
+
+    @Override
+    public void render(StringBuilder builder, Object value) {
+        RenderContext context = this.contexts.get();
+        if (context.isInUse()) {
+            context = new RenderContext(this);
+        }
+        context.begin(builder, this.maxLength);
+        try {
+            this.renderValue(value, context);
+        } finally {
+            context.end();
+        }
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    int getMaxElements() {
+        return maxElements;
+    }
+
+    /**
+     * 渲染值
+     *
+     * @param value   值
+     * @param context 渲染上下文
+     */
+    @SuppressWarnings("unchecked")
+    void renderValue(Object value, RenderContext context) {
+        if (context.isExhausted()) {
+            return;
+        }
+        if (value == null) {
+            context.append("null");
+            return;
+        }
+        Resolved resolved = this.resolved.get(value.getClass());
+        if (!resolved.container) {
+            resolved.renderer.render(value, context);
+            return;
+        }
+        if (!LazyLoading.isInitialized(value)) {
+            context.append(LAZY);
+            return;
+        }
+        if (context.isVisiting(value)) {
+            context.append(CYCLE);
+            return;
+        }
+        if (!context.enter(value)) {
+            if (value instanceof Collection || value instanceof Object[]) {
+                context.append("[...]");
+            } else if (value instanceof Map) {
+                context.append("{...}");
+            } else {
+                context.append(value.getClass().getSimpleName()).append("{...}");
+            }
+            return;
+        }
+        try {
+            resolved.renderer.render(value, context);
+        } finally {
+            context.exit(value);
+        }
+    }
+
+    /**
+     * 解析类型对应的渲染方式
+     *
+     * @param type 类型
+     * @return 返回渲染方式
+     */
+    @SuppressWarnings("unchecked")
+    private Resolved resolve(Class<?> type) {
+        if (type == MaskedValue.class) {
+            return new Resolved((value, context) -> ((MaskedValue) value).mask(context.getBuilder()), false);
+        }
+        if (type == RenderedValue.class) {
+            return new Resolved((value, context) -> context.getBuilder().append(((RenderedValue) value).getText()), false);
+        }
+        TypeRenderer<?> custom = this.findCustom(type);
+        if (custom != null) {
+            return new Resolved((TypeRenderer<Object>) custom, true);
+        }
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return new Resolved((value, context) -> context.append((CharSequence) value), false);
+        }
+        if (type.isArray()) {
+            if (type.getComponentType().isPrimitive()) {
+                return new Resolved((value, context) -> this.arrayRenderer.render(context.getBuilder(), value), false);
+            }
+            return new Resolved((value, context) -> this.renderArray((Object[]) value, context), true);
+        }
+        if (this.isScalar(type)) {
+            return new Resolved((value, context) -> context.append(String.valueOf(value)), false);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return new Resolved((value, context) -> this.renderCollection((Collection<?>) value, context), true);
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return new Resolved((value, context) -> this.renderMap((Map<?, ?>) value, context), true);
+        }
+        if (this.isPlatformType(type)) {
+            return new Resolved((value, context) -> context.append(String.valueOf(value)), false);
+        }
+        boolean sensitive = this.isSensitive(type, 0, new HashSet<>());
+        BeanRenderer bean = sensitive || this.isFieldType(type) ? BeanRenderer.compile(type, this.masking) : null;
+        if (bean == null && sensitive) {
+            // toString()可能输出敏感字段，无法按字段脱敏时整体遮盖
+            logger.warn("{}含有敏感字段但无法按字段输出，整体输出为{}", type.getName(), MASKED);
+            return new Resolved((value, context) -> context.append(type.getSimpleName()).append('{').append(MASKED).append('}'), false);
+        }
+        if (bean == null) {
+            return new Resolved((value, context) -> {
+                if (LazyLoading.isInitialized(value)) {
+                    context.append(String.valueOf(value));
+                } else {
+                    context.append(LAZY);
+                }
+            }, false);
+        }
+        return new Resolved(bean, true);
+    }
+
+    /**
+     * 是否含有敏感字段（字段标注脱敏注解或匹配按名称的脱敏规则；同时检查字段的声明类型、
+     * 数组元素类型及泛型参数类型，toString()通常会输出嵌套对象的字段）
+     *
+     * @param type    类型
+     * @param depth   当前深度
+     * @param visited 已检查的类型
+     * @return 返回布尔值
+     */
+    private boolean isSensitive(Class<?> type, int depth, Set<Class<?>> visited) {
+        if (depth > MAX_SENSITIVE_DEPTH || type.isPrimitive() || this.isPlatformType(type) || !visited.add(type)) {
+            return false;
+        }
+        try {
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    if (this.masking.forField(field) != null || this.isSensitive(field.getGenericType(), depth + 1, visited)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (LinkageError e) {
+            // 字段类型无法加载时按普通对象处理
+        }
+        return false;
+    }
+
+    /**
+     * 是否含有敏感字段（按声明类型）
+     *
+     * @param type    声明类型
+     * @param depth   当前深度
+     * @param visited 已检查的类型
+     * @return 返回布尔值
+     */
+    private boolean isSensitive(Type type, int depth, Set<Class<?>> visited) {
+        if (type instanceof Class) {
+            Class<?> raw = (Class<?>) type;
+            return this.isSensitive(raw.isArray() ? raw.getComponentType() : raw, depth, visited);
+        }
+        if (type instanceof ParameterizedType) {
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                if (this.isSensitive(argument, depth, visited)) {
+                    return true;
+                }
+            }
+            return this.isSensitive(((ParameterizedType) type).getRawType(), depth, visited);
+        }
+        return false;
+    }
+
+    /**
+     * 是否按字段输出（类名或所在包及上级包已开启）
+     *
+     * @param type 类型
+     * @return 返回布尔值
+     */
+    private boolean isFieldType(Class<?> type) {
+        if (this.fieldTypes.isEmpty()) {
+            return false;
+        }
+        String name = type.getName();
+        for (int end = name.length(); end > 0; end = name.lastIndexOf('.', end - 1)) {
+            if (this.fieldTypes.contains(name.substring(0, end))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 查找自定义渲染器（按类层次由近及远）
+     *
+     * @param type 类型
+     * @return 返回自定义渲染器
+     */
+    private TypeRenderer<?> findCustom(Class<?> type) {
+        if (this.customRenderers.isEmpty()) {
+            return null;
+        }
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            TypeRenderer<?> renderer = this.customRenderers.get(current);
+            if (renderer != null) {
+                return renderer;
+            }
+            for (Class<?> face : current.getInterfaces()) {
+                renderer = this.customRenderers.get(face);
+                if (renderer != null) {
+                    return renderer;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否为标量类型（直接输出）
+     *
+     * @param type 类型
+     * @return 返回布尔值
+     */
+    private boolean isScalar(Class<?> type) {
+        return Number.class.isAssignableFrom(type)
+                || type == Boolean.class
+                || type == Character.class
+                || type.isEnum()
+                || Enum.class.isAssignableFrom(type)
+                || Date.class.isAssignableFrom(type)
+                || TemporalAccessor.class.isAssignableFrom(type)
+                || type == UUID.class
+                || type == Class.class
+                || Throwable.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 是否为平台类型（使用toString输出）
+     *
+     * @param type 类型
+     * @return 返回布尔值
+     */
+    private boolean isPlatformType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("jdk.");
+    }
+
+    /**
+     * 渲染对象数组
+     *
+     * @param array   对象数组
+     * @param context 渲染上下文
+     */
+    private void renderArray(Object[] array, RenderContext context) {
+        context.append('[');
+        int count = Math.min(array.length, this.maxElements);
+        for (int i = 0; i < count && !context.isExhausted(); i++) {
+            if (i > 0) {
+                context.append(", ");
+            }
+            this.renderValue(array[i], context);
+        }
+        this.closeSequence(context, count, array.length, ']');
+    }
+
+    /**
+     * 渲染集合
+     *
+     * @param collection 集合
+     * @param context    渲染上下文
+     */
+    private void renderCollection(Collection<?> collection, RenderContext context) {
+        context.append('[');
+        int count = 0;
+        for (Object element : collection) {
+            if (count >= this.maxElements || context.isExhausted()) {
+                break;
+            }
+            if (count > 0) {
+                context.append(", ");
+            }
+            this.renderValue(element, context);
+            count++;
+        }
+        this.closeSequence(context, count, collection instanceof TruncatedList ? ((TruncatedList<?>) collection).getTotal() : collection.size(), ']');
+    }
+
+    /**
+     * 渲染映射（按键名匹配脱敏规则）
+     *
+     * @param map     映射
+     * @param context 渲染上下文
+     */
+    private void renderMap(Map<?, ?> map, RenderContext context) {
+        context.append('{');
+        int count = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (count >= this.maxElements || context.isExhausted()) {
+                break;
+            }
+            if (count > 0) {
+                context.append(", ");
+            }
+            Object key = entry.getKey();
+            this.renderValue(key, context);
+            context.append('=');
+            Masker masker = key instanceof String ? this.masking.forName((String) key) : null;
+            if (masker != null) {
+                masker.mask(entry.getValue(), context.getBuilder());
+            } else {
+                this.renderValue(entry.getValue(), context);
+            }
+            count++;
+        }
+        this.closeSequence(context, count, map.size(), '}');
+    }
+
+    /**
+     * 结束输出序列
+     *
+     * @param context 渲染上下文
+     * @param count   实际输出元素数量
+     * @param size    元素总数
+     * @param close   结束符
+     */
+    private void closeSequence(RenderContext context, int count, long size, char close) {
+        if (count < size) {
+            context.append(count == 0 ? "" : ", ").append("...(").append(String.valueOf(size)).append(" total)");
+        }
+        context.append(close);
+    }
+
+    /**
+     * 渲染方式
+     *
+     * @since 1.8
+     */
+    private static final class Resolved {
+        /**
+         * 渲染器
+         */
+        private final TypeRenderer<Object> renderer;
+        /**
+         * 是否为容器（需要深度及循环引用检查）
+         */
+        private final boolean container;
+
+        Resolved(TypeRenderer<Object> renderer, boolean container) {
+            this.renderer = renderer;
+            this.container = container;
+        }
+    }
+
+    /**
+     * 普通对象渲染器（按类编译字段访问句柄及脱敏器）
+     *
+     * @since 1.8
+     */
+    static final class BeanRenderer implements TypeRenderer<Object> {
+        /**
+         * 类名
+         */
+        private final String name;
+        /**
+         * 字段前缀（如：id=）
+         */
+        private final String[] keys;
+        /**
+         * 字段访问句柄
+         */
+        private final MethodHandle[] getters;
+        /**
+         * 字段脱敏器（非敏感字段为空）
+         */
+        private final Masker[] maskers;
+
+        private BeanRenderer(String name, String[] keys, MethodHandle[] getters, Masker[] maskers) {
+            this.name = name;
+            this.keys = keys;
+            this.getters = getters;
+            this.maskers = maskers;
+        }
+
+        /**
+         * 编译对象渲染器
+         *
+         * @param type    类型
+         * @param masking 脱敏策略
+         * @return 返回对象渲染器，字段无法访问时返回null
+         */
+        static BeanRenderer compile(Class<?> type, MaskingPolicy masking) {
+            List<String> keys = new ArrayList<>();
+            List<MethodHandle> getters = new ArrayList<>();
+            List<Masker> maskers = new ArrayList<>();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType getterType = MethodType.methodType(Object.class, Object.class);
+            try {
+                for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                    for (Field field : current.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        keys.add(field.getName());
+                        getters.add(lookup.unreflectGetter(field).asType(getterType));
+                        maskers.add(masking.forField(field));
+                    }
+                }
+            } catch (Exception | LinkageError e) {
+                return null;
+            }
+            String[] names = new String[keys.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = (i == 0 ? "" : ", ") + keys.get(i) + "=";
+            }
+            return new BeanRenderer(type.getSimpleName(), names, getters.toArray(new MethodHandle[0]), maskers.toArray(new Masker[0]));
+        }
+
+        @Override
+        public void render(Object value, RenderContext context) {
+            context.append(this.name).append('{');
+            for (int i = 0; i < this.getters.length && !context.isExhausted(); i++) {
+                context.append(this.keys[i]);
+                Object fieldValue;
+                try {
+                    fieldValue = this.getters[i].invokeExact(value);
+                } catch (Throwable e) {
+                    fieldValue = "<error>";
+                }
+                if (this.maskers[i] != null) {
+                    this.maskers[i].mask(fieldValue, context.getBuilder());
+                } else {
+                    context.render(fieldValue);
+                }
+            }
+            context.append('}');
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tongxiaoya.auditlog.render;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 渲染上下文
+ * <p>
+ * 记录单个值渲染过程中的长度预算、当前深度及访问路径（用于识别循环引用），同一线程内复用
+ *
+ * @since 1.8
+ */
+public final class RenderContext {
+
+    /**
+     * 截断标记
+     */
+    private static final String ELLIPSIS = "...";
+
+    /**
+     * 对象图渲染器
+     */
+    private final ObjectGraphRenderer renderer;
+    /**
+     * 当前访问路径
+     */
+    private final Map<Object, Boolean> path = new IdentityHashMap<>();
+    /**
+     * 输出缓冲区
+     */
+    private StringBuilder builder;
+    /**
+     * 长度上限（缓冲区下标）
+     */
+    private int limit;
+    /**
+     * 当前深度
+     */
+    private int depth;
+    /**
+     * 是否正在使用（防止重入时共用）
+     */
+    private boolean inUse;
+
+    /**
+     * 构造
+     *
+     * @param renderer 对象图渲染器
+     */
+    RenderContext(ObjectGraphRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * 开始渲染
+     *
+     * @param builder   输出缓冲区
+     * @param maxLength 最大长度
+     * @return 返回当前上下文
+     */
+    RenderContext begin(StringBuilder builder, int maxLength) {
+        this.builder = builder;
+        this.limit = builder.length() + maxLength;
+        this.depth = 0;
+        this.inUse = true;
+        return this;
+    }
+
+    /**
+     * 结束渲染，超出预算部分截断
+     */
+    void end() {
+        if (this.builder.length() > this.limit) {
+            this.builder.setLength(this.limit);
+            this.builder.append(ELLIPSIS);
+        }
+        this.path.clear();
+        this.builder = null;
+        this.inUse = false;
+    }
+
+    /**
+     * 是否正在使用
+     *
+     * @return 返回布尔值
+     */
+    boolean isInUse() {
+        return inUse;
+    }
+
+    /**
+     * 渲染嵌套值
+     *
+     * @param value 值
+     */
+    public void render(Object value) {
+        this.renderer.renderValue(value, this);
+    }
+
+    /**
+     * 追加文本（仅追加预算内的部分）
+     *
+     * @param text 文本
+     * @return 返回当前上下文
+     */
+    public RenderContext append(CharSequence text) {
+        if (text == null) {
+            return this.append("null");
+        }
+        int remaining = this.remaining();
+        if (remaining > 0) {
+            int length = text.length();
+            if (length <= remaining) {
+                this.builder.append(text);
+            } else {
+                this.builder.append(text, 0, remaining + 1);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 追加字符
+     *
+     * @param c 字符
+     * @return 返回当前上下文
+     */
+    public RenderContext append(char c) {
+        if (this.remaining() > 0) {
+            this.builder.append(c);
+        }
+        return this;
+    }
+
+    /**
+     * 预算是否已用尽
+     *
+     * @return 返回布尔值
+     */
+    public boolean isExhausted() {
+        return this.builder.length() >= this.limit;
+    }
+
+    /**
+     * 剩余预算
+     *
+     * @return 返回剩余长度
+     */
+    public int remaining() {
+        return this.limit - this.builder.length();
+    }
+
+    /**
+     * 获取输出缓冲区（直接写入时需自行控制长度，超出部分将在结束时截断）
+     *
+     * @return 返回输出缓冲区
+     */
+    public StringBuilder getBuilder() {
+        return builder;
+    }
+
+    /**
+     * 集合及数组最大输出元素数量
+     *
+     * @return 返回最大元素数量
+     */
+    public int getMaxElements() {
+        return this.renderer.getMaxElements();
+    }
+
+    /**
+     * 进入对象（深度加一并记录访问路径）
+     *
+     * @param value 对象
+     * @return 返回是否可以进入，超出深度或循环引用时返回false
+     */
+    boolean enter(Object value) {
+        if (this.depth >= this.renderer.getMaxDepth()) {
+            return false;
+        }
+        if (this.path.put(value, Boolean.TRUE) != null) {
+            return false;
+        }
+        this.depth++;
+        return true;
+    }
+
+    /**
+     * 是否循环引用
+     *
+     * @param value 对象
+     * @return 返回布尔值
+     */
+    boolean isVisiting(Object value) {
+        return this.path.containsKey(value);
+    }
+
+    /**
+     * 离开对象
+     *
+     * @param value 对象
+     */
+    void exit(Object value) {
+        this.depth--;
+        this.path.remove(value);
+    }
+}
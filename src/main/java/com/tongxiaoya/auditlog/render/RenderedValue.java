@@ -0,0 +1,45 @@
+package com.tongxiaoya.auditlog.render;
+
+/**
+ * 已渲染的值
+ * <p>
+ * 溢出队列恢复的事件中参数及返回值仅保留渲染后的文本，渲染时原样输出，不再受长度预算限制；
+ * 不识别该类型的值渲染器通过{@link #toString()}同样得到渲染后的文本
+ *
+ * @since 1.8
+ */
+public final class RenderedValue {
+
+    /**
+     * 渲染后的文本
+     */
+    private final String text;
+
+    /**
+     * 构造
+     *
+     * @param text 渲染后的文本
+     */
+    public RenderedValue(String text) {
+        this.text = text;
+    }
+
+    /**
+     * 包装文本
+     *
+     * @param text 渲染后的文本
+     * @return 返回包装后的值，文本为空时返回null
+     */
+    public static Object of(String text) {
+        return text == null ? null : new RenderedValue(text);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return this.text;
+    }
+}
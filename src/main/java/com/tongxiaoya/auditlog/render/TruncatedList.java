@@ -0,0 +1,59 @@
+package com.tongxiaoya.auditlog.render;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * 截断的列表
+ * <p>
+ * 仅保留前若干个元素，同时记录原始元素总数；渲染时在保留的元素之后输出总数
+ *
+ * @param <E> 元素类型
+ * @since 1.8
+ */
+public final class TruncatedList<E> extends AbstractList<E> {
+
+    /**
+     * 保留的元素
+     */
+    private final List<E> elements;
+    /**
+     * 元素总数
+     */
+    private final long total;
+
+    /**
+     * 构造
+     *
+     * @param elements 保留的元素
+     * @param total    元素总数（不小于保留的元素数量）
+     */
+    public TruncatedList(List<E> elements, long total) {
+        this.elements = elements;
+        this.total = Math.max(total, elements.size());
+    }
+
+    @Override
+    public E get(int index) {
+        return this.elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.elements.size();
+    }
+
+    /**
+     * 元素总数
+     *
+     * @return 返回包含未保留元素在内的总数
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return this.total > this.elements.size() ? super.toString() + "...(" + this.total + " total)" : super.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.tongxiaoya.auditlog.render;
+
+/**
+ * 指定类型渲染器
+ * <p>
+ * 注册后按类缓存，对该类型及其子类型生效；嵌套值应通过{@link RenderContext#render(Object)}输出，
+ * 以继承深度、长度及循环引用限制
+ *
+ * @param <T> 类型
+ * @since 1.8
+ */
+public interface TypeRenderer<T> {
+
+    /**
+     * 渲染值
+     *
+     * @param value   值
+     * @param context 渲染上下文
+     */
+    void render(T value, RenderContext context);
+}
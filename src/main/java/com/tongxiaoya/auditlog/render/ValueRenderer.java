@@ -0,0 +1,17 @@
+package com.tongxiaoya.auditlog.render;
+
+/**
+ * 值渲染器（参数及返回结果的输出方式）
+ *
+ * @since 1.8
+ */
+public interface ValueRenderer {
+
+    /**
+     * 渲染值
+     *
+     * @param builder 输出缓冲区
+     * @param value   值
+     */
+    void render(StringBuilder builder, Object value);
+}
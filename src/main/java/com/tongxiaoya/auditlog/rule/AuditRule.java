@@ -0,0 +1,86 @@
+package com.tongxiaoya.auditlog.rule;
+
+import com.tongxiaoya.auditlog.log.Level;
+
+/**
+ * 审计规则
+ * <p>
+ * 按类及方法（target，如：com.example.OrderService#query*）或业务名称（business）匹配，
+ * 支持通配符*；匹配后可关闭输出或修改日志级别，未配置的条件视为全部匹配
+ *
+ * @since 1.8
+ */
+public class AuditRule {
+
+    /**
+     * 类及方法匹配（全类名，可附加#方法名）
+     */
+    private String target;
+    /**
+     * 业务名称匹配
+     */
+    private String business;
+    /**
+     * 是否输出（为空时不修改）
+     */
+    private Boolean enabled;
+    /**
+     * 日志级别（为空时不修改）
+     */
+    private Level level;
+
+    public AuditRule() {
+    }
+
+    /**
+     * 构造
+     *
+     * @param target   类及方法匹配
+     * @param business 业务名称匹配
+     * @param enabled  是否输出
+     * @param level    日志级别
+     */
+    public AuditRule(String target, String business, Boolean enabled, Level level) {
+        this.target = target;
+        this.business = business;
+        this.enabled = enabled;
+        this.level = level;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public String getBusiness() {
+        return business;
+    }
+
+    public void setBusiness(String business) {
+        this.business = business;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditRule{target=" + target + ", business=" + business + ", enabled=" + enabled + ", level=" + level + "}";
+    }
+}
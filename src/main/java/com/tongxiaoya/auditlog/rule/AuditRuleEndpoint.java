@@ -0,0 +1,52 @@
+package com.tongxiaoya.auditlog.rule;
+
+import com.tongxiaoya.auditlog.log.Level;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * 审计规则端点
+ * <p>
+ * GET查看生效规则；POST添加运行时规则（target、business、enabled、level）；DELETE清空运行时规则
+ *
+ * @since 1.8
+ */
+@Endpoint(id = "auditlog")
+public class AuditRuleEndpoint {
+
+    /**
+     * 审计规则注册表
+     */
+    private final AuditRuleRegistry registry;
+
+    /**
+     * 构造
+     *
+     * @param registry 审计规则注册表
+     */
+    public AuditRuleEndpoint(AuditRuleRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public List<AuditRule> rules() {
+        return this.registry.getSnapshot().getRules();
+    }
+
+    @WriteOperation
+    public List<AuditRule> addRule(@Nullable String target, @Nullable String business, @Nullable Boolean enabled, @Nullable Level level) {
+        this.registry.addRuntimeRule(new AuditRule(target, business, enabled, level));
+        return this.rules();
+    }
+
+    @DeleteOperation
+    public List<AuditRule> clearRules() {
+        this.registry.clearRuntimeRules();
+        return this.rules();
+    }
+}
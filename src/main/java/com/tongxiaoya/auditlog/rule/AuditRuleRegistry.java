@@ -0,0 +1,76 @@
+package com.tongxiaoya.auditlog.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 审计规则注册表
+ * <p>
+ * 由配置规则与运行时规则（如Actuator端点添加）组成，运行时规则优先；
+ * 变更时重建不可变快照并原子替换，切面仅读取一次volatile快照
+ *
+ * @since 1.8
+ */
+public class AuditRuleRegistry {
+
+    /**
+     * 配置规则
+     */
+    private List<AuditRule> propertyRules = Collections.emptyList();
+    /**
+     * 运行时规则
+     */
+    private final List<AuditRule> runtimeRules = new ArrayList<>();
+    /**
+     * 规则快照
+     */
+    private volatile AuditRules snapshot = AuditRules.EMPTY;
+
+    /**
+     * 获取规则快照
+     *
+     * @return 返回规则快照
+     */
+    public AuditRules getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 替换配置规则
+     *
+     * @param rules 配置规则
+     */
+    public synchronized void setPropertyRules(List<AuditRule> rules) {
+        this.propertyRules = rules == null ? Collections.emptyList() : new ArrayList<>(rules);
+        this.rebuild();
+    }
+
+    /**
+     * 添加运行时规则（优先于已有规则）
+     *
+     * @param rule 规则
+     */
+    public synchronized void addRuntimeRule(AuditRule rule) {
+        this.runtimeRules.add(0, rule);
+        this.rebuild();
+    }
+
+    /**
+     * 清空运行时规则
+     */
+    public synchronized void clearRuntimeRules() {
+        this.runtimeRules.clear();
+        this.rebuild();
+    }
+
+    /**
+     * 重建规则快照
+     */
+    private void rebuild() {
+        List<AuditRule> rules = new ArrayList<>(this.runtimeRules.size() + this.propertyRules.size());
+        rules.addAll(this.runtimeRules);
+        rules.addAll(this.propertyRules);
+        this.snapshot = AuditRules.of(rules);
+    }
+}
@@ -0,0 +1,175 @@
+package com.tongxiaoya.auditlog.rule;
+
+import com.tongxiaoya.auditlog.log.Level;
+import com.tongxiaoya.auditlog.log.LogPlan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * 审计规则快照
+ * <p>
+ * 规则不可变，按顺序匹配，首个匹配的规则生效；各注解的匹配结果首次查询后缓存，
+ * 规则变更时整体替换快照
+ *
+ * @since 1.8
+ */
+public final class AuditRules {
+
+    /**
+     * 空快照
+     */
+    public static final AuditRules EMPTY = new AuditRules(Collections.emptyList());
+
+    /**
+     * 关闭输出标记
+     */
+    private static final Object DISABLED = new Object();
+
+    /**
+     * 规则
+     */
+    private final List<AuditRule> rules;
+    /**
+     * 编译后的规则
+     */
+    private final CompiledRule[] compiled;
+    /**
+     * 匹配结果缓存（注解执行计划 -> 生效的注解执行计划或关闭输出标记）
+     */
+    private final ConcurrentMap<LogPlan.Entry, Object> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * 构造
+     *
+     * @param rules 规则
+     */
+    private AuditRules(List<AuditRule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.compiled = new CompiledRule[this.rules.size()];
+        for (int i = 0; i < this.compiled.length; i++) {
+            this.compiled[i] = new CompiledRule(this.rules.get(i));
+        }
+    }
+
+    /**
+     * 创建规则快照
+     *
+     * @param rules 规则
+     * @return 返回规则快照
+     */
+    public static AuditRules of(List<AuditRule> rules) {
+        return rules == null || rules.isEmpty() ? EMPTY : new AuditRules(rules);
+    }
+
+    /**
+     * 解析生效的注解执行计划
+     *
+     * @param plan  日志执行计划
+     * @param entry 注解执行计划
+     * @return 返回生效的注解执行计划，关闭输出时返回null
+     */
+    public LogPlan.Entry resolve(LogPlan plan, LogPlan.Entry entry) {
+        if (this.compiled.length == 0) {
+            return entry;
+        }
+        Object result = this.resolved.get(entry);
+        if (result == null) {
+            result = this.resolved.computeIfAbsent(entry, key -> this.match(plan, key));
+        }
+        return result == DISABLED ? null : (LogPlan.Entry) result;
+    }
+
+    /**
+     * 获取规则
+     *
+     * @return 返回规则（只读）
+     */
+    public List<AuditRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * 匹配规则
+     *
+     * @param plan  日志执行计划
+     * @param entry 注解执行计划
+     * @return 返回生效的注解执行计划或关闭输出标记
+     */
+    private Object match(LogPlan plan, LogPlan.Entry entry) {
+        String target = plan.getClassName() + "#" + plan.getMethodName();
+        for (CompiledRule rule : this.compiled) {
+            if (rule.matches(target, entry.getBusName())) {
+                if (Boolean.FALSE.equals(rule.enabled)) {
+                    return DISABLED;
+                }
+                return rule.level != null && rule.level != entry.getLevel() ? entry.withLevel(rule.level) : entry;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * 编译后的规则
+     *
+     * @since 1.8
+     */
+    private static final class CompiledRule {
+        /**
+         * 类及方法匹配
+         */
+        private final Pattern target;
+        /**
+         * 业务名称匹配
+         */
+        private final Pattern business;
+        /**
+         * 是否输出
+         */
+        private final Boolean enabled;
+        /**
+         * 日志级别
+         */
+        private final Level level;
+
+        CompiledRule(AuditRule rule) {
+            String target = rule.getTarget();
+            if (target != null && target.indexOf('#') < 0) {
+                target = target + "#*";
+            }
+            this.target = compile(target);
+            this.business = compile(rule.getBusiness());
+            this.enabled = rule.getEnabled();
+            this.level = rule.getLevel();
+        }
+
+        boolean matches(String target, String business) {
+            return (this.target == null || this.target.matcher(target).matches())
+                    && (this.business == null || this.business.matcher(business).matches());
+        }
+
+        /**
+         * 编译通配符表达式
+         *
+         * @param expression 通配符表达式
+         * @return 返回正则表达式，为空时返回null
+         */
+        private static Pattern compile(String expression) {
+            if (expression == null || expression.isEmpty()) {
+                return null;
+            }
+            StringBuilder regex = new StringBuilder();
+            int start = 0;
+            for (int i = expression.indexOf('*'); i >= 0; i = expression.indexOf('*', start)) {
+                regex.append(Pattern.quote(expression.substring(start, i))).append(".*");
+                start = i + 1;
+            }
+            regex.append(Pattern.quote(expression.substring(start)));
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.tongxiaoya.auditlog.sampling;
+
+import com.tongxiaoya.auditlog.metrics.MethodMetrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 审计采样器
+ * <p>
+ * 依次进行固定比例采样、自适应采样及令牌桶限流，均为无锁判断；
+ * 令牌桶采用GCRA算法，以单个原子变量记录理论到达时间，容量为一秒的令牌数
+ *
+ * @since 1.8
+ */
+public final class AuditSampler {
+
+    /**
+     * 自适应采样开始降低比例的饱和度
+     */
+    private static final double ADAPTIVE_THRESHOLD = 0.5D;
+    /**
+     * 自适应采样的最低输出比例
+     */
+    private static final double ADAPTIVE_MIN_RATE = 0.01D;
+    /**
+     * 一秒（纳秒）
+     */
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 采样比例（大于等于1时不采样）
+     */
+    private final double sampleRate;
+    /**
+     * 是否自适应采样
+     */
+    private final boolean adaptive;
+    /**
+     * 令牌产生间隔（纳秒，0为不限流）
+     */
+    private final long interval;
+    /**
+     * 突发容忍时间（纳秒）
+     */
+    private final long tolerance;
+    /**
+     * 理论到达时间（纳秒）
+     */
+    private final AtomicLong arrival;
+    /**
+     * 方法指标（记录采样丢弃数量）
+     */
+    private final MethodMetrics metrics;
+    /**
+     * 时钟（纳秒）
+     */
+    private final LongSupplier clock;
+    /**
+     * 随机数（0~1）
+     */
+    private final DoubleSupplier random;
+
+    /**
+     * 构造
+     *
+     * @param sampleRate 采样比例
+     * @param rateLimit  每秒最多输出次数
+     * @param adaptive   是否自适应采样
+     * @param metrics    方法指标
+     */
+    private AuditSampler(double sampleRate, int rateLimit, boolean adaptive, MethodMetrics metrics) {
+        this(sampleRate, rateLimit, adaptive, metrics, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * 构造
+     *
+     * @param sampleRate 采样比例
+     * @param rateLimit  每秒最多输出次数
+     * @param adaptive   是否自适应采样
+     * @param metrics    方法指标
+     * @param clock      时钟（纳秒）
+     * @param random     随机数（0~1）
+     */
+    AuditSampler(double sampleRate, int rateLimit, boolean adaptive, MethodMetrics metrics, LongSupplier clock, DoubleSupplier random) {
+        this.sampleRate = sampleRate;
+        this.adaptive = adaptive;
+        this.interval = rateLimit > 0 ? Math.max(1L, ONE_SECOND / rateLimit) : 0L;
+        this.tolerance = rateLimit > 0 ? ONE_SECOND - this.interval : 0L;
+        this.arrival = new AtomicLong(clock.getAsLong());
+        this.metrics = metrics;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * 创建采样器
+     *
+     * @param sampleRate 采样比例（0~1）
+     * @param rateLimit  每秒最多输出次数（小于等于0时不限流）
+     * @param adaptive   是否自适应采样
+     * @param metrics    方法指标
+     * @return 返回采样器，未配置采样时返回null
+     */
+    public static AuditSampler of(double sampleRate, int rateLimit, boolean adaptive, MethodMetrics metrics) {
+        if (!isConfigured(sampleRate, rateLimit, adaptive)) {
+            return null;
+        }
+        return new AuditSampler(Math.max(0D, sampleRate), rateLimit, adaptive, metrics);
+    }
+
+    /**
+     * 判断是否配置了采样
+     *
+     * @param sampleRate 采样比例
+     * @param rateLimit  每秒最多输出次数
+     * @param adaptive   是否自适应采样
+     * @return 返回布尔值
+     */
+    public static boolean isConfigured(double sampleRate, int rateLimit, boolean adaptive) {
+        return sampleRate < 1D || rateLimit > 0 || adaptive;
+    }
+
+    /**
+     * 是否需要输出管道饱和度
+     *
+     * @return 返回布尔值
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * 判断本次事件是否输出
+     *
+     * @param saturation 输出管道饱和度（0~1，非自适应时忽略）
+     * @return 返回布尔值，不输出时计入采样丢弃数量
+     */
+    public boolean sample(double saturation) {
+        if (this.sampleRate < 1D && this.random.getAsDouble() >= this.sampleRate) {
+            return this.reject();
+        }
+        if (this.adaptive && saturation > ADAPTIVE_THRESHOLD) {
+            double rate = Math.max(ADAPTIVE_MIN_RATE, (1D - saturation) / (1D - ADAPTIVE_THRESHOLD));
+            if (this.random.getAsDouble() >= rate) {
+                return this.reject();
+            }
+        }
+        if (this.interval > 0 && !this.acquire()) {
+            return this.reject();
+        }
+        return true;
+    }
+
+    /**
+     * 获取令牌
+     *
+     * @return 返回是否获取成功
+     */
+    private boolean acquire() {
+        long now = this.clock.getAsLong();
+        for (; ; ) {
+            long current = this.arrival.get();
+            long base = current - now > 0 ? current : now;
+            if (base - now > this.tolerance) {
+                return false;
+            }
+            if (this.arrival.compareAndSet(current, base + this.interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 记录采样丢弃
+     *
+     * @return 返回false
+     */
+    private boolean reject() {
+        this.metrics.incrementSampledOut();
+        return false;
+    }
+}
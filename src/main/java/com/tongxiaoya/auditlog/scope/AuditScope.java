@@ -0,0 +1,227 @@
+package com.tongxiaoya.auditlog.scope;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * 审计范围
+ * <p>
+ * 范围内（如一次请求或事务）产生的审计事件仅捕获参数引用并暂存于线程内的环形缓冲区，
+ * 范围以失败结束（抛出异常、出现失败调用或显式标记）时按顺序渲染输出，否则丢弃。
+ * 缓冲区满时覆盖最早的事件。注意：延迟渲染的参数若在范围内被修改，输出的是修改后的值
+ *
+ * <pre>
+ * try (AuditScope scope = AuditScope.begin("导入任务", 64, false)) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @since 1.8
+ */
+public final class AuditScope implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditScope.class);
+
+    /**
+     * 当前线程的审计范围
+     */
+    private static final ThreadLocal<AuditScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 范围名称
+     */
+    private final String name;
+    /**
+     * 事件缓冲区
+     */
+    private final AuditEvent[] events;
+    /**
+     * 是否在丢弃时输出摘要
+     */
+    private final boolean summary;
+    /**
+     * 最早事件下标
+     */
+    private int head;
+    /**
+     * 事件数量
+     */
+    private int size;
+    /**
+     * 覆盖数量
+     */
+    private int overwritten;
+    /**
+     * 嵌套层数
+     */
+    private int depth = 1;
+    /**
+     * 是否失败
+     */
+    private boolean failed;
+    /**
+     * 是否显式标记输出
+     */
+    private boolean marked;
+    /**
+     * 事件输出
+     */
+    private Consumer<AuditEvent> output;
+
+    /**
+     * 构造
+     *
+     * @param name     范围名称
+     * @param capacity 缓冲区容量
+     * @param summary  是否在丢弃时输出摘要
+     */
+    private AuditScope(String name, int capacity, boolean summary) {
+        this.name = name;
+        this.events = new AuditEvent[Math.max(1, capacity)];
+        this.summary = summary;
+    }
+
+    /**
+     * 开始审计范围（当前线程已存在范围时加入该范围）
+     *
+     * @param name     范围名称
+     * @param capacity 缓冲区容量
+     * @param summary  是否在丢弃时输出摘要
+     * @return 返回审计范围
+     */
+    public static AuditScope begin(String name, int capacity, boolean summary) {
+        AuditScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.depth++;
+            return scope;
+        }
+        scope = new AuditScope(name, capacity, summary);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 获取当前线程的审计范围
+     *
+     * @return 返回审计范围，不存在时返回null
+     */
+    public static AuditScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 标记当前范围结束时输出暂存事件（不存在范围时忽略）
+     */
+    public static void mark() {
+        AuditScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.marked = true;
+        }
+    }
+
+    /**
+     * 将最外层范围与当前线程分离（如servlet异步处理），此后不再暂存事件，由完成时的线程调用{@link #close()}结束
+     *
+     * @return 返回是否已分离，嵌套加入的范围不分离
+     */
+    public boolean detach() {
+        if (this.depth > 1 || CURRENT.get() != this) {
+            return false;
+        }
+        CURRENT.remove();
+        return true;
+    }
+
+    /**
+     * 标记范围失败
+     */
+    public void markFailed() {
+        this.failed = true;
+    }
+
+    /**
+     * 是否失败
+     *
+     * @return 返回布尔值
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * 暂存审计事件（失败事件同时标记范围失败）
+     *
+     * @param event  审计事件
+     * @param output 范围结束时的事件输出
+     * @return 返回是否已暂存
+     */
+    public boolean buffer(AuditEvent event, Consumer<AuditEvent> output) {
+        if (CURRENT.get() != this) {
+            return false;
+        }
+        this.output = output;
+        if (event.isFailed()) {
+            this.failed = true;
+        }
+        int capacity = this.events.length;
+        if (this.size == capacity) {
+            this.events[this.head] = event;
+            this.head = (this.head + 1) % capacity;
+            this.overwritten++;
+        } else {
+            this.events[(this.head + this.size) % capacity] = event;
+            this.size++;
+        }
+        return true;
+    }
+
+    /**
+     * 结束审计范围（最外层结束时输出或丢弃暂存事件）
+     */
+    @Override
+    public void close() {
+        if (--this.depth > 0) {
+            return;
+        }
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        if (this.size == 0) {
+            return;
+        }
+        if (this.failed || this.marked) {
+            this.flush();
+        } else if (this.summary) {
+            logger.info("审计范围：【{}】，未输出事件：【{}】条", this.name, this.size + this.overwritten);
+        }
+        this.clear();
+    }
+
+    /**
+     * 按顺序输出暂存事件
+     */
+    private void flush() {
+        if (this.overwritten > 0) {
+            logger.warn("审计范围：【{}】，缓冲区已满，最早的【{}】条事件已覆盖", this.name, this.overwritten);
+        }
+        int capacity = this.events.length;
+        for (int i = 0; i < this.size; i++) {
+            this.output.accept(this.events[(this.head + i) % capacity]);
+        }
+    }
+
+    /**
+     * 清空缓冲区
+     */
+    private void clear() {
+        for (int i = 0; i < this.events.length; i++) {
+            this.events[i] = null;
+        }
+        this.head = 0;
+        this.size = 0;
+        this.overwritten = 0;
+    }
+}
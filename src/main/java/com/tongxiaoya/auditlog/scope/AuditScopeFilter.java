@@ -0,0 +1,133 @@
+package com.tongxiaoya.auditlog.scope;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 请求审计范围过滤器
+ * <p>
+ * 每个请求开启一个审计范围，请求抛出异常或响应状态码不小于500时视为失败并输出暂存事件。
+ * 请求进入异步处理时，范围与请求线程分离，在异步处理完成时按最终状态码（超时或出错视为失败）输出或丢弃；
+ * 异步处理线程上产生的审计事件不在范围内，直接输出
+ *
+ * @since 1.8
+ */
+public class AuditScopeFilter implements Filter {
+
+    /**
+     * 缓冲区容量
+     */
+    private final int capacity;
+    /**
+     * 是否在丢弃时输出摘要
+     */
+    private final boolean summary;
+
+    /**
+     * 构造
+     *
+     * @param capacity 缓冲区容量
+     * @param summary  是否在丢弃时输出摘要
+     */
+    public AuditScopeFilter(int capacity, boolean summary) {
+        this.capacity = capacity;
+        this.summary = summary;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        AuditScope scope = AuditScope.begin(this.describe(request), this.capacity, this.summary);
+        boolean detached = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted() && scope.detach()) {
+                request.getAsyncContext().addListener(new ScopeListener(scope), request, response);
+                detached = true;
+            } else if (isServerError(response)) {
+                scope.markFailed();
+            }
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            scope.markFailed();
+            throw e;
+        } finally {
+            if (!detached) {
+                scope.close();
+            }
+        }
+    }
+
+    /**
+     * 响应状态码是否不小于500
+     *
+     * @param response 响应
+     * @return 返回布尔值
+     */
+    private static boolean isServerError(ServletResponse response) {
+        return response instanceof HttpServletResponse && ((HttpServletResponse) response).getStatus() >= 500;
+    }
+
+    /**
+     * 请求描述
+     *
+     * @param request 请求
+     * @return 返回请求描述（如：GET /orders）
+     */
+    private String describe(ServletRequest request) {
+        if (request instanceof HttpServletRequest) {
+            HttpServletRequest httpRequest = (HttpServletRequest) request;
+            return httpRequest.getMethod() + " " + httpRequest.getRequestURI();
+        }
+        return request.getRemoteAddr();
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * 异步处理监听器（完成时结束分离的审计范围）
+     *
+     * @since 1.8
+     */
+    private static final class ScopeListener implements AsyncListener {
+
+        /**
+         * 审计范围
+         */
+        private final AuditScope scope;
+
+        private ScopeListener(AuditScope scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (isServerError(event.getSuppliedResponse())) {
+                this.scope.markFailed();
+            }
+            this.scope.close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            this.scope.markFailed();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            this.scope.markFailed();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次开启异步处理时需重新注册
+            event.getAsyncContext().addListener(this, event.getSuppliedRequest(), event.getSuppliedResponse());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.tongxiaoya.auditlog.select;
+
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 字段选择
+ * <p>
+ * 单个注解声明的全部属性路径，按方法编译一次；选择结果代替完整的参数或返回值参与渲染
+ *
+ * @since 1.8
+ */
+public final class FieldSelection {
+
+    /**
+     * 输出名称（属性路径）
+     */
+    private final String[] names;
+    /**
+     * 输出键（预先拼接分隔符及等号）
+     */
+    private final String[] keys;
+    /**
+     * 字段选择器
+     */
+    private final FieldSelector[] selectors;
+
+    /**
+     * 构造
+     *
+     * @param selectors 字段选择器
+     */
+    private FieldSelection(FieldSelector[] selectors) {
+        this.selectors = selectors;
+        this.names = new String[selectors.length];
+        this.keys = new String[selectors.length];
+        for (int i = 0; i < selectors.length; i++) {
+            this.names[i] = selectors[i].getPath();
+            this.keys[i] = (i == 0 ? "" : ", ") + this.names[i] + "=";
+        }
+    }
+
+    /**
+     * 编译参数字段选择（路径首段为参数名称，如order.id）
+     *
+     * @param method     方法对象
+     * @param paramNames 参数名称
+     * @param paths      属性路径
+     * @param masking    脱敏策略
+     * @return 返回字段选择，未声明路径时返回null
+     */
+    public static FieldSelection ofParams(Method method, String[] paramNames, String[] paths, MaskingPolicy masking) {
+        if (paths.length == 0) {
+            return null;
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        FieldSelector[] selectors = new FieldSelector[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            String[] segments = paths[i].trim().split("\\.");
+            int index = indexOf(paramNames, segments[0]);
+            String[] properties = new String[segments.length - 1];
+            System.arraycopy(segments, 1, properties, 0, properties.length);
+            selectors[i] = index < 0
+                    ? FieldSelector.unresolved(paths[i], "参数" + segments[0] + "不存在")
+                    : FieldSelector.compile(paths[i], index, parameterTypes[index], properties,
+                    masking.forParameter(method, index, paramNames[index]), masking);
+        }
+        return new FieldSelection(selectors);
+    }
+
+    /**
+     * 编译返回值字段选择（路径相对于返回值，如id、customer.name；异步返回值相对于到达的值）
+     *
+     * @param method  方法对象
+     * @param async   是否异步返回值
+     * @param paths   属性路径
+     * @param masking 脱敏策略
+     * @return 返回字段选择，未声明路径时返回null
+     */
+    public static FieldSelection ofResult(Method method, boolean async, String[] paths, MaskingPolicy masking) {
+        if (paths.length == 0) {
+            return null;
+        }
+        Class<?> resultType = async ? valueType(method.getGenericReturnType()) : method.getReturnType();
+        FieldSelector[] selectors = new FieldSelector[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            selectors[i] = FieldSelector.compile(paths[i], 0, resultType, paths[i].trim().split("\\."), null, masking);
+        }
+        return new FieldSelection(selectors);
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+
+    public String[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * 选择参数字段
+     *
+     * @param args 参数列表
+     * @return 返回字段值（与输出名称一一对应）
+     */
+    public Object[] select(Object[] args) {
+        Object[] values = new Object[this.selectors.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.selectors[i].select(args);
+        }
+        return values;
+    }
+
+    /**
+     * 选择返回值字段
+     *
+     * @param result 返回值
+     * @return 返回属性路径与字段值的映射，返回值为空时返回null
+     */
+    public Map<String, Object> selectResult(Object result) {
+        if (result == null) {
+            return null;
+        }
+        Object[] roots = {result};
+        Map<String, Object> values = new LinkedHashMap<>(this.selectors.length * 2);
+        for (FieldSelector selector : this.selectors) {
+            values.put(selector.getPath(), selector.select(roots));
+        }
+        return values;
+    }
+
+    /**
+     * 获取异步返回值到达的值类型（泛型参数，无法确定时为Object）
+     *
+     * @param type 方法泛型返回类型
+     * @return 返回值类型
+     */
+    private static Class<?> valueType(Type type) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (arguments.length == 1) {
+                Type argument = arguments[0];
+                if (argument instanceof ParameterizedType) {
+                    argument = ((ParameterizedType) argument).getRawType();
+                }
+                if (argument instanceof Class) {
+                    return (Class<?>) argument;
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * 查找参数下标
+     *
+     * @param paramNames 参数名称
+     * @param name       参数名称
+     * @return 返回下标，不存在时返回-1
+     */
+    private static int indexOf(String[] paramNames, String name) {
+        for (int i = 0; i < paramNames.length; i++) {
+            if (paramNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,233 @@
+package com.tongxiaoya.auditlog.select;
+
+import com.tongxiaoya.auditlog.mask.MaskedValue;
+import com.tongxiaoya.auditlog.mask.Masker;
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 字段选择器
+ * <p>
+ * 将属性路径（如order.customer.name）按静态类型编译为一个MethodHandle：依次调用getter（或读取字段、Map取值），
+ * 中间值为空时返回空；编译仅在执行计划创建时进行一次，调用时不进行反射查找。
+ * 末段属性为敏感字段时（注解或脱敏规则），选择的值按脱敏器输出
+ *
+ * @since 1.8
+ */
+public final class FieldSelector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FieldSelector.class);
+
+    /**
+     * 访问器类型（Object）Object
+     */
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+    /**
+     * 空值判断
+     */
+    private static final MethodHandle IS_NULL;
+    /**
+     * 返回空值
+     */
+    private static final MethodHandle NULL_VALUE = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class);
+    /**
+     * Map取值
+     */
+    private static final MethodHandle MAP_GET;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            IS_NULL = lookup.findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class));
+            MAP_GET = lookup.findVirtual(Map.class, "get", MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 属性路径
+     */
+    private final String path;
+    /**
+     * 根对象下标（参数下标，返回值为0）
+     */
+    private final int index;
+    /**
+     * 编译后的访问器（根对象为空时不调用）
+     */
+    private final MethodHandle accessor;
+    /**
+     * 脱敏器（非敏感字段为空）
+     */
+    private final Masker masker;
+
+    /**
+     * 构造
+     *
+     * @param path     属性路径
+     * @param index    根对象下标
+     * @param accessor 访问器
+     * @param masker   脱敏器
+     */
+    private FieldSelector(String path, int index, MethodHandle accessor, Masker masker) {
+        this.path = path;
+        this.index = index;
+        this.accessor = accessor;
+        this.masker = masker;
+    }
+
+    /**
+     * 编译字段选择器
+     *
+     * @param path       属性路径（完整路径，用于输出）
+     * @param index      根对象下标
+     * @param rootType   根对象静态类型
+     * @param properties 根对象下的属性（为空时选择根对象本身）
+     * @param rootMasker 根对象脱敏器（仅在未声明属性时使用）
+     * @param masking    脱敏策略
+     * @return 返回字段选择器，无法解析时输出警告并始终选择空值
+     */
+    static FieldSelector compile(String path, int index, Class<?> rootType, String[] properties, Masker rootMasker, MaskingPolicy masking) {
+        MethodHandle accessor = MethodHandles.identity(Object.class);
+        Class<?> type = rootType;
+        Masker masker = rootMasker;
+        try {
+            for (String property : properties) {
+                MethodHandle step;
+                if (Map.class.isAssignableFrom(type)) {
+                    step = MethodHandles.insertArguments(MAP_GET, 1, property).asType(ACCESSOR_TYPE);
+                    type = Object.class;
+                    masker = masking.forName(property);
+                } else {
+                    Method getter = findGetter(type, property);
+                    if (getter != null) {
+                        step = MethodHandles.lookup().unreflect(getter).asType(ACCESSOR_TYPE);
+                        type = getter.getReturnType();
+                        Field field = findBackingField(getter.getDeclaringClass(), property);
+                        masker = field != null ? masking.forField(field) : masking.forName(property);
+                    } else {
+                        Field field = findField(type, property);
+                        step = MethodHandles.lookup().unreflectGetter(field).asType(ACCESSOR_TYPE);
+                        type = field.getType();
+                        masker = masking.forField(field);
+                    }
+                }
+                accessor = MethodHandles.filterReturnValue(accessor, MethodHandles.guardWithTest(IS_NULL, NULL_VALUE, step));
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return unresolved(path, e.toString());
+        }
+        return new FieldSelector(path, index, accessor, masker);
+    }
+
+    /**
+     * 无法解析的字段选择器（输出警告，始终选择空值）
+     *
+     * @param path   属性路径
+     * @param reason 原因
+     * @return 返回字段选择器
+     */
+    static FieldSelector unresolved(String path, String reason) {
+        LOGGER.warn("无法解析审计字段【{}】：{}", path, reason);
+        return new FieldSelector(path, 0, NULL_VALUE, null);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 选择字段值
+     *
+     * @param roots 根对象（参数列表，或仅包含返回值）
+     * @return 返回字段值（敏感字段包装为{@link MaskedValue}），中间值为空、类型不符或getter抛出异常时返回空
+     */
+    public Object select(Object[] roots) {
+        Object root = this.index < roots.length ? roots[this.index] : null;
+        if (root == null) {
+            return null;
+        }
+        try {
+            return MaskedValue.wrap((Object) this.accessor.invokeExact(root), this.masker);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 查找公共getter
+     *
+     * @param type     类型
+     * @param property 属性名称
+     * @return 返回getter，不存在时返回null
+     */
+    private static Method findGetter(Class<?> type, String property) {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String name : new String[]{"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = type.getMethod(name);
+                if (method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())
+                        && (name.startsWith("get") || method.getReturnType() == boolean.class)) {
+                    if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                        method.setAccessible(true);
+                    }
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // 尝试下一种命名
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找getter对应的字段（用于读取字段上的脱敏注解）
+     *
+     * @param type     getter所在类型
+     * @param property 属性名称
+     * @return 返回字段，不存在时返回null
+     */
+    private static Field findBackingField(Class<?> type, String property) {
+        try {
+            return findField(type, property);
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 查找字段（含父类字段）
+     *
+     * @param type     类型
+     * @param property 属性名称
+     * @return 返回字段
+     * @throws NoSuchFieldException 字段不存在
+     */
+    private static Field findField(Class<?> type, String property) throws NoSuchFieldException {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(property);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            } catch (NoSuchFieldException e) {
+                // 继续查找父类
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + "." + property);
+    }
+}
@@ -0,0 +1,229 @@
+package com.tongxiaoya.auditlog.sink;
+
+import com.tongxiaoya.auditlog.format.JsonWriter;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.log.RestoredThrowable;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+
+/**
+ * 审计记录
+ * <p>
+ * 审计事件渲染后的不可变快照，不再引用参数及结果对象，可安全地延迟批量输出
+ *
+ * @since 1.8
+ */
+public final class AuditRecord {
+
+    /**
+     * 事件时间（毫秒）
+     */
+    private final long timestamp;
+    /**
+     * 调用线程名称
+     */
+    private final String threadName;
+    /**
+     * 事件类型
+     */
+    private final String type;
+    /**
+     * 日志级别
+     */
+    private final String level;
+    /**
+     * 所在类全类名
+     */
+    private final String className;
+    /**
+     * 方法名称
+     */
+    private final String methodName;
+    /**
+     * 业务名称
+     */
+    private final String business;
+    /**
+     * 参数名称
+     */
+    private final String[] paramNames;
+    /**
+     * 渲染后的参数值（无参数事件为null）
+     */
+    private final String[] paramValues;
+    /**
+     * 渲染后的返回结果
+     */
+    private final String result;
+    /**
+     * 调用耗时（纳秒，未测量时为-1）
+     */
+    private final long duration;
+    /**
+     * 异常类名
+     */
+    private final String exceptionClass;
+    /**
+     * 异常信息
+     */
+    private final String exceptionMessage;
+
+    /**
+     * 构造
+     *
+     * @param timestamp        事件时间（毫秒）
+     * @param threadName       调用线程名称
+     * @param type             事件类型
+     * @param level            日志级别
+     * @param className        所在类全类名
+     * @param methodName       方法名称
+     * @param business         业务名称
+     * @param paramNames       参数名称
+     * @param paramValues      渲染后的参数值
+     * @param result           渲染后的返回结果
+     * @param duration         调用耗时（纳秒，未测量时为-1）
+     * @param exceptionClass   异常类名
+     * @param exceptionMessage 异常信息
+     */
+    public AuditRecord(long timestamp, String threadName, String type, String level, String className, String methodName,
+                       String business, String[] paramNames, String[] paramValues, String result,
+                       long duration, String exceptionClass, String exceptionMessage) {
+        this.timestamp = timestamp;
+        this.threadName = threadName;
+        this.type = type;
+        this.level = level;
+        this.className = className;
+        this.methodName = methodName;
+        this.business = business;
+        this.paramNames = paramNames;
+        this.paramValues = paramValues;
+        this.result = result;
+        this.duration = duration;
+        this.exceptionClass = exceptionClass;
+        this.exceptionMessage = exceptionMessage;
+    }
+
+    /**
+     * 渲染审计事件
+     *
+     * @param event    审计事件
+     * @param renderer 值渲染器
+     * @return 返回审计记录
+     */
+    public static AuditRecord of(AuditEvent event, ValueRenderer renderer) {
+        LogPlan plan = event.getPlan();
+        String[] paramNames = event.getParamNames();
+        String[] paramValues = null;
+        Object[] args = event.getArgs();
+        if (args != null) {
+            paramValues = new String[Math.min(paramNames.length, args.length)];
+            for (int i = 0; i < paramValues.length; i++) {
+                paramValues[i] = render(renderer, args[i]);
+            }
+        }
+        String result = event.getType() == AuditEvent.Type.RESULT
+                || event.getType() == AuditEvent.Type.INVOCATION && !event.isFailed() ? render(renderer, event.getResult()) : null;
+        Throwable throwable = event.getThrowable();
+        return new AuditRecord(
+                event.getTimestamp(),
+                event.getThreadName(),
+                event.getType().name(),
+                event.getLevel().name(),
+                plan.getClassName(),
+                plan.getMethodName(),
+                event.getEntry().getBusName(),
+                paramNames,
+                paramValues,
+                result,
+                event.getDuration(),
+                throwable != null ? RestoredThrowable.getTypeName(throwable) : null,
+                throwable != null ? throwable.getMessage() : null
+        );
+    }
+
+    /**
+     * 渲染值
+     *
+     * @param renderer 值渲染器
+     * @param value    值
+     * @return 返回渲染结果
+     */
+    private static String render(ValueRenderer renderer, Object value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(32);
+        renderer.render(builder, value);
+        return builder.toString();
+    }
+
+    /**
+     * 参数转为JSON对象字符串（按声明顺序）
+     *
+     * @return 返回JSON字符串，无参数事件返回null
+     */
+    public String getParamsJson() {
+        if (this.paramValues == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(64);
+        JsonWriter writer = new JsonWriter().reset(builder).beginObject();
+        for (int i = 0; i < this.paramValues.length; i++) {
+            writer.name(this.paramNames[i]).value(this.paramValues[i]);
+        }
+        writer.endObject();
+        return builder.toString();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getBusiness() {
+        return business;
+    }
+
+    public String[] getParamNames() {
+        return paramNames;
+    }
+
+    public String[] getParamValues() {
+        return paramValues;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public String getExceptionClass() {
+        return exceptionClass;
+    }
+
+    public String getExceptionMessage() {
+        return exceptionMessage;
+    }
+}
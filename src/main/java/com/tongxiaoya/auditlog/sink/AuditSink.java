@@ -0,0 +1,58 @@
+package com.tongxiaoya.auditlog.sink;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.Level;
+import com.tongxiaoya.auditlog.log.LogPlan;
+
+/**
+ * 审计输出端
+ * <p>
+ * 由{@link com.tongxiaoya.auditlog.log.LogProcessor}在事件产生线程（同步模式）或异步线程上调用，
+ * 实现需线程安全；参数及结果对象仅在调用期间有效，需要延迟输出时应先渲染为{@link AuditRecord}
+ *
+ * @since 1.8
+ */
+public interface AuditSink {
+
+    /**
+     * 输出审计事件
+     * <p>
+     * 带内部缓冲的输出端在缓冲已满时应阻塞等待（反压），而不是静默丢弃，使异步分发器的缓冲区及溢出队列得以生效
+     *
+     * @param event 审计事件
+     * @throws AuditSinkRejectedException 输出端已关闭或等待超时，事件未被接收
+     */
+    void write(AuditEvent event);
+
+    /**
+     * 是否开启（全部输出端关闭时切面不产生事件）
+     *
+     * @return 返回布尔值
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * 指定方法及级别的事件是否输出（在创建事件及渲染之前判断，全部输出端关闭时切面不产生事件）
+     *
+     * @param plan  日志执行计划
+     * @param level 日志级别
+     * @return 返回布尔值
+     */
+    default boolean isEnabled(LogPlan plan, Level level) {
+        return this.isEnabled();
+    }
+
+    /**
+     * 刷新缓冲数据
+     */
+    default void flush() {
+    }
+
+    /**
+     * 关闭输出端
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,22 @@
+package com.tongxiaoya.auditlog.sink;
+
+/**
+ * 审计输出端拒绝接收异常
+ * <p>
+ * 输出端已关闭，或内部缓冲已满且在等待时间内未能腾出空间时抛出；事件未被接收，调用方可稍后重试或转存（如溢出队列）
+ *
+ * @since 1.8
+ */
+public class AuditSinkRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构造
+     *
+     * @param message 原因
+     */
+    public AuditSinkRejectedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,389 @@
+package com.tongxiaoya.auditlog.sink;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JDBC批量输出端
+ * <p>
+ * 事件渲染为{@link AuditRecord}后进入有界队列，由后台线程在达到批量大小或刷新间隔时
+ * 通过addBatch/executeBatch一次写入，瞬时故障按退避时间重试；
+ * 队列已满时写入方阻塞等待，超过等待时间或已关闭时抛出{@link AuditSinkRejectedException}；
+ * 后台线程由{@link #start()}启动，启动前写入的记录在启动后输出
+ *
+ * <pre>
+ * CREATE TABLE audit_log (
+ *     id            BIGINT AUTO_INCREMENT PRIMARY KEY,
+ *     log_time      TIMESTAMP     NOT NULL,
+ *     thread_name   VARCHAR(128),
+ *     event_type    VARCHAR(16)   NOT NULL,
+ *     log_level     VARCHAR(8)    NOT NULL,
+ *     class_name    VARCHAR(255)  NOT NULL,
+ *     method_name   VARCHAR(128)  NOT NULL,
+ *     business      VARCHAR(255),
+ *     params        CLOB,
+ *     result        CLOB,
+ *     duration_ns   BIGINT,
+ *     error_class   VARCHAR(255),
+ *     error_message VARCHAR(2000)
+ * )
+ * </pre>
+ *
+ * @since 1.8
+ */
+public class JdbcAuditSink implements AuditSink {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 异常信息最大长度
+     */
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+    /**
+     * 队列已满时单次等待时间（毫秒，期间检查关闭标志）
+     */
+    private static final long OFFER_SLICE_MILLIS = 50L;
+
+    /**
+     * 数据源
+     */
+    private final DataSource dataSource;
+    /**
+     * 值渲染器
+     */
+    private final ValueRenderer renderer;
+    /**
+     * 插入语句
+     */
+    private final String insertSql;
+    /**
+     * 批量大小
+     */
+    private final int batchSize;
+    /**
+     * 刷新间隔（毫秒）
+     */
+    private final long flushInterval;
+    /**
+     * 最大重试次数
+     */
+    private final int maxRetries;
+    /**
+     * 重试退避时间（毫秒）
+     */
+    private final long retryBackoff;
+    /**
+     * 待写入队列
+     */
+    private final BlockingQueue<AuditRecord> queue;
+    /**
+     * 丢弃数量
+     */
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * 队列已满时写入方最长等待时间（毫秒）
+     */
+    private volatile long offerTimeout = 1000L;
+    /**
+     * 写入线程
+     */
+    private Thread worker;
+    /**
+     * 关闭标志
+     */
+    private volatile boolean closed;
+
+    /**
+     * 构造
+     *
+     * @param dataSource    数据源
+     * @param renderer      值渲染器
+     * @param tableName     表名
+     * @param batchSize     批量大小
+     * @param flushInterval 刷新间隔（毫秒）
+     * @param maxRetries    最大重试次数
+     * @param retryBackoff  重试退避时间（毫秒）
+     * @param queueCapacity 队列容量
+     */
+    public JdbcAuditSink(DataSource dataSource, ValueRenderer renderer, String tableName, int batchSize, long flushInterval,
+                         int maxRetries, long retryBackoff, int queueCapacity) {
+        this.dataSource = dataSource;
+        this.renderer = renderer;
+        this.insertSql = "INSERT INTO " + tableName
+                + " (log_time, thread_name, event_type, log_level, class_name, method_name, business, params, result, duration_ns, error_class, error_message)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = Math.max(1L, flushInterval);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoff = Math.max(0L, retryBackoff);
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.batchSize, queueCapacity));
+    }
+
+    /**
+     * 启动写入线程（重复调用无效）
+     */
+    public synchronized void start() {
+        if (this.worker != null || this.closed) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "auditlog-jdbc");
+        thread.setDaemon(true);
+        this.worker = thread;
+        thread.start();
+    }
+
+    /**
+     * 设置队列已满时写入方最长等待时间
+     *
+     * @param offerTimeout 等待时间（毫秒，0为不等待）
+     */
+    public void setOfferTimeout(long offerTimeout) {
+        this.offerTimeout = Math.max(0L, offerTimeout);
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        if (this.closed) {
+            throw new AuditSinkRejectedException("jdbc audit sink closed");
+        }
+        AuditRecord record = AuditRecord.of(event, this.renderer);
+        long deadline = System.currentTimeMillis() + this.offerTimeout;
+        try {
+            for (; ; ) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (this.queue.offer(record, Math.min(OFFER_SLICE_MILLIS, Math.max(0L, remaining)), TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+                if (this.closed) {
+                    throw new AuditSinkRejectedException("jdbc audit sink closed");
+                }
+                if (remaining <= 0) {
+                    throw new AuditSinkRejectedException("jdbc audit queue full");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuditSinkRejectedException("interrupted while waiting for jdbc audit queue");
+        }
+        // 与关闭并发时，写入线程可能已退出：仍在队列中则未被写入
+        if (this.closed && this.queue.remove(record)) {
+            throw new AuditSinkRejectedException("jdbc audit sink closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            thread = this.worker;
+        }
+        if (thread == null) {
+            // 未启动时由当前线程写入剩余记录
+            this.drain(new ArrayList<>(this.batchSize));
+        } else {
+            long timeout = this.flushInterval + this.retryBackoff * (this.maxRetries + 1) + 5000L;
+            try {
+                thread.join(timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                // 写入线程仍阻塞在当前批次上，队列中的剩余记录不再写入，移出后计入丢弃
+                int remaining = this.queue.drainTo(new ArrayList<>());
+                this.dropped.add(remaining);
+                logger.warn("审计日志JDBC输出端未能在{}毫秒内完成写入，丢弃队列中剩余的{}条记录", timeout, remaining);
+            }
+        }
+        long dropped = this.dropped.sum();
+        if (dropped > 0) {
+            logger.warn("审计日志JDBC输出端共丢弃{}条记录", dropped);
+        }
+    }
+
+    /**
+     * 丢弃数量（重试后仍写入失败）
+     *
+     * @return 返回丢弃数量
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * 写入循环（中断不结束写入，仅在关闭后退出，退出时恢复中断标志）
+     */
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(this.batchSize);
+        long deadline = System.currentTimeMillis() + this.flushInterval;
+        boolean interrupted = false;
+        while (!this.closed) {
+            try {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait > 0) {
+                    AuditRecord record = this.queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (record != null) {
+                        batch.add(record);
+                        this.queue.drainTo(batch, this.batchSize - batch.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (batch.size() >= this.batchSize || System.currentTimeMillis() >= deadline) {
+                interrupted |= this.flush(batch);
+                deadline = System.currentTimeMillis() + this.flushInterval;
+            }
+        }
+        interrupted |= this.drain(batch);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 写入队列中的剩余记录
+     *
+     * @param batch 当前批次
+     * @return 返回退避等待期间是否被中断
+     */
+    private boolean drain(List<AuditRecord> batch) {
+        boolean interrupted = false;
+        do {
+            this.queue.drainTo(batch, this.batchSize - batch.size());
+            interrupted |= this.flush(batch);
+        } while (!this.queue.isEmpty());
+        return interrupted;
+    }
+
+    /**
+     * 写入一批记录（失败时按次数重试）
+     *
+     * @param batch 记录列表
+     * @return 返回退避等待期间是否被中断
+     */
+    private boolean flush(List<AuditRecord> batch) {
+        if (batch.isEmpty()) {
+            return false;
+        }
+        boolean interrupted = false;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                this.insert(batch);
+                break;
+            } catch (SQLException e) {
+                if (attempt >= this.maxRetries || !this.isTransient(e)) {
+                    this.dropped.add(batch.size());
+                    logger.error("审计日志写入数据库失败，丢弃{}条记录", batch.size(), e);
+                    break;
+                }
+                interrupted |= this.sleep(this.retryBackoff * (attempt + 1));
+            }
+        }
+        batch.clear();
+        return interrupted;
+    }
+
+    /**
+     * 批量插入
+     *
+     * @param batch 记录列表
+     * @throws SQLException SQL异常
+     */
+    private void insert(List<AuditRecord> batch) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(this.insertSql)) {
+                for (AuditRecord record : batch) {
+                    statement.setTimestamp(1, new Timestamp(record.getTimestamp()));
+                    statement.setString(2, record.getThreadName());
+                    statement.setString(3, record.getType());
+                    statement.setString(4, record.getLevel());
+                    statement.setString(5, record.getClassName());
+                    statement.setString(6, record.getMethodName());
+                    statement.setString(7, record.getBusiness());
+                    statement.setString(8, record.getParamsJson());
+                    statement.setString(9, record.getResult());
+                    if (record.getDuration() >= 0) {
+                        statement.setLong(10, record.getDuration());
+                    } else {
+                        statement.setNull(10, Types.BIGINT);
+                    }
+                    statement.setString(11, record.getExceptionClass());
+                    statement.setString(12, this.truncate(record.getExceptionMessage()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                // 回滚及恢复自动提交的失败附加到原始异常上，不覆盖原始异常
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                try {
+                    connection.setAutoCommit(autoCommit);
+                } catch (SQLException resetFailure) {
+                    e.addSuppressed(resetFailure);
+                }
+                throw e;
+            }
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * 是否为瞬时故障（连接异常、事务回滚、超时等）
+     *
+     * @param e SQL异常
+     * @return 返回布尔值
+     */
+    private boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("40") || state.startsWith("HYT"));
+    }
+
+    /**
+     * 截断过长信息
+     *
+     * @param message 信息
+     * @return 返回截断后的信息
+     */
+    private String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    /**
+     * 退避等待（中断时提前结束等待，由调用方在退出时恢复中断标志）
+     *
+     * @param millis 毫秒
+     * @return 返回是否被中断
+     */
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
+}
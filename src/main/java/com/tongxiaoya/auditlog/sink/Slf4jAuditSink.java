@@ -0,0 +1,106 @@
+package com.tongxiaoya.auditlog.sink;
+
+import com.tongxiaoya.auditlog.format.AuditFormatter;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.Level;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import org.slf4j.Logger;
+
+/**
+ * SLF4J日志输出端
+ * <p>
+ * 输出至执行计划解析的日志（由日志路由决定），级别关闭时不进行格式化
+ *
+ * @since 1.8
+ */
+public class Slf4jAuditSink implements AuditSink {
+
+    /**
+     * 日志信息缓冲区保留的最大容量
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    /**
+     * 线程复用的日志信息缓冲区
+     */
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 审计事件格式化器
+     */
+    private final AuditFormatter formatter;
+
+    /**
+     * 构造
+     *
+     * @param formatter 审计事件格式化器
+     */
+    public Slf4jAuditSink(AuditFormatter formatter) {
+        this.formatter = formatter;
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        Logger logger = event.getPlan().getLogger();
+        Level level = event.getLevel();
+        if (!event.getPlan().isLevelEnabled(level)) {
+            return;
+        }
+        StringBuilder builder = BUFFERS.get();
+        builder.setLength(0);
+        try {
+            this.formatter.format(event, builder);
+            String msg = builder.toString();
+            if (event.isFailed()) {
+                if (this.formatter.isThrowableIncluded() || event.getRepeated() > 0) {
+                    logger.error(msg);
+                } else {
+                    logger.error(msg, event.getThrowable());
+                }
+            } else {
+                this.print(logger, level, msg);
+            }
+        } finally {
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFERS.remove();
+            }
+        }
+    }
+
+    /**
+     * 按执行计划的日志判断级别（日志每个方法解析一次，判断无需查找日志）
+     *
+     * @param plan  日志执行计划
+     * @param level 日志级别
+     * @return 返回布尔值
+     */
+    @Override
+    public boolean isEnabled(LogPlan plan, Level level) {
+        return plan.isLevelEnabled(level);
+    }
+
+    /**
+     * 打印信息
+     *
+     * @param logger 日志
+     * @param level  日志级别
+     * @param msg    输出信息
+     */
+    private void print(Logger logger, Level level, String msg) {
+        switch (level) {
+            case DEBUG:
+                logger.debug(msg);
+                break;
+            case INFO:
+                logger.info(msg);
+                break;
+            case WARN:
+                logger.warn(msg);
+                break;
+            case ERROR:
+                logger.error(msg);
+                break;
+            default:
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package com.tongxiaoya.auditlog.sink;
+
+import com.tongxiaoya.auditlog.format.AuditFormatter;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+
+/**
+ * TCP批量输出端
+ * <p>
+ * 事件格式化后进入按字节数限制的内存队列，由后台线程在达到批量大小或刷新间隔时打包为一个批次，
+ * 以deflate压缩后通过长连接发送，收到采集端确认后释放；连接失败时按指数退避重连并重发同一批次，
+ * 采集端不可用期间记录保留在内存上限内，超出时写入方阻塞等待，超过等待时间或已关闭时抛出{@link AuditSinkRejectedException}。协议（大端序）：
+ * <pre>
+ * 握手：  int 魔数(AUDN) | int 版本 | long 流标识（每个输出端实例随机生成）
+ * 批次：  long 序号 | int 记录数 | int 原始长度 | int 压缩长度 | byte[压缩长度] deflate(记录...)
+ * 记录：  int 长度 | byte[长度] UTF-8内容
+ * 确认：  long 序号
+ * </pre>
+ * 采集端处理完一个批次后回复确认；重连后重发的批次序号不变，采集端应按“流标识 + 序号”丢弃已处理的批次
+ *
+ * @since 1.8
+ */
+public class TcpAuditSink implements AuditSink {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 魔数（AUDN）
+     */
+    static final int MAGIC = 0x4155444E;
+    /**
+     * 协议版本
+     */
+    static final int VERSION = 1;
+    /**
+     * 批次头长度
+     */
+    static final int FRAME_HEADER_SIZE = 20;
+
+    /**
+     * 日志信息缓冲区保留的最大容量
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    /**
+     * 线程复用的日志信息缓冲区
+     */
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 采集端主机
+     */
+    private final String host;
+    /**
+     * 采集端端口
+     */
+    private final int port;
+    /**
+     * 审计事件格式化器
+     */
+    private final AuditFormatter formatter;
+    /**
+     * 批量大小
+     */
+    private final int batchSize;
+    /**
+     * 刷新间隔（毫秒）
+     */
+    private final long flushInterval;
+    /**
+     * 内存缓冲上限（字节）
+     */
+    private final long bufferSize;
+    /**
+     * 连接超时（毫秒）
+     */
+    private final int connectTimeout;
+    /**
+     * 确认超时（毫秒）
+     */
+    private final int ackTimeout;
+    /**
+     * 重连初始退避时间（毫秒）
+     */
+    private final long retryBackoff;
+    /**
+     * 重连最大退避时间（毫秒）
+     */
+    private final long maxRetryBackoff;
+    /**
+     * 流标识
+     */
+    private final long streamId = ThreadLocalRandom.current().nextLong();
+    /**
+     * 待发送队列
+     */
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    /**
+     * 已缓冲字节数（含待确认批次）
+     */
+    private final AtomicLong buffered = new AtomicLong();
+    /**
+     * 缓冲释放锁（写入方等待内存缓冲腾出空间）
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 缓冲释放条件
+     */
+    private final Condition released = this.lock.newCondition();
+    /**
+     * 丢弃数量
+     */
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * 已确认数量
+     */
+    private final LongAdder acknowledged = new LongAdder();
+    /**
+     * 压缩器（仅发送线程使用）
+     */
+    private final Deflater deflater;
+    /**
+     * 发送线程
+     */
+    private final Thread worker;
+    /**
+     * 运行标志
+     */
+    private volatile boolean running = true;
+    /**
+     * 内存缓冲已满时写入方最长等待时间（毫秒）
+     */
+    private volatile long offerTimeout = 1000L;
+
+    /**
+     * 连接（仅发送线程使用）
+     */
+    private Socket socket;
+    private DataOutputStream output;
+    private DataInputStream input;
+    /**
+     * 批次序号
+     */
+    private long sequence;
+    /**
+     * 连续失败次数
+     */
+    private int failures;
+    /**
+     * 下次重连时间（毫秒）
+     */
+    private long nextAttempt;
+    /**
+     * 原始内容缓冲区
+     */
+    private byte[] raw = new byte[64 * 1024];
+    /**
+     * 压缩缓冲区
+     */
+    private byte[] compressed = new byte[16 * 1024];
+
+    /**
+     * 构造
+     *
+     * @param host             采集端主机
+     * @param port             采集端端口
+     * @param formatter        审计事件格式化器
+     * @param batchSize        批量大小
+     * @param flushInterval    刷新间隔（毫秒）
+     * @param bufferSize       内存缓冲上限（字节）
+     * @param connectTimeout   连接超时（毫秒）
+     * @param ackTimeout       确认超时（毫秒）
+     * @param retryBackoff     重连初始退避时间（毫秒）
+     * @param maxRetryBackoff  重连最大退避时间（毫秒）
+     * @param compressionLevel 压缩级别（1~9）
+     */
+    public TcpAuditSink(String host, int port, AuditFormatter formatter, int batchSize, long flushInterval, long bufferSize,
+                        int connectTimeout, int ackTimeout, long retryBackoff, long maxRetryBackoff, int compressionLevel) {
+        this.host = host;
+        this.port = port;
+        this.formatter = formatter;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = Math.max(1L, flushInterval);
+        this.bufferSize = Math.max(1L, bufferSize);
+        this.connectTimeout = Math.max(0, connectTimeout);
+        this.ackTimeout = Math.max(0, ackTimeout);
+        this.retryBackoff = Math.max(1L, retryBackoff);
+        this.maxRetryBackoff = Math.max(this.retryBackoff, maxRetryBackoff);
+        this.deflater = new Deflater(Math.min(Deflater.BEST_COMPRESSION, Math.max(Deflater.BEST_SPEED, compressionLevel)));
+        this.worker = new Thread(this::run, "auditlog-tcp");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 设置内存缓冲已满时写入方最长等待时间
+     *
+     * @param offerTimeout 等待时间（毫秒，0为不等待）
+     */
+    public void setOfferTimeout(long offerTimeout) {
+        this.offerTimeout = Math.max(0L, offerTimeout);
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        if (!this.running) {
+            throw new AuditSinkRejectedException("tcp audit sink closed");
+        }
+        StringBuilder builder = BUFFERS.get();
+        builder.setLength(0);
+        byte[] record;
+        try {
+            this.formatter.format(event, builder);
+            record = builder.toString().getBytes(StandardCharsets.UTF_8);
+        } finally {
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFERS.remove();
+            }
+        }
+        this.reserve(record.length);
+        this.queue.offer(record);
+        // 与关闭并发时，发送线程可能已退出：仍在队列中则未被发送
+        if (!this.running && this.queue.remove(record)) {
+            this.release(record.length);
+            throw new AuditSinkRejectedException("tcp audit sink closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        this.release(0L);
+        this.worker.interrupt();
+        try {
+            this.worker.join(this.flushInterval + this.connectTimeout + this.ackTimeout + 5000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long dropped = this.dropped.sum();
+        if (dropped > 0) {
+            logger.warn("审计日志TCP输出端共丢弃{}条记录", dropped);
+        }
+    }
+
+    /**
+     * 丢弃数量（关闭时未能发送）
+     *
+     * @return 返回丢弃数量
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * 已被采集端确认的记录数量
+     *
+     * @return 返回确认数量
+     */
+    public long getAcknowledgedCount() {
+        return this.acknowledged.sum();
+    }
+
+    /**
+     * 已缓冲字节数（含待确认批次）
+     *
+     * @return 返回字节数
+     */
+    public long getBufferedBytes() {
+        return this.buffered.get();
+    }
+
+    /**
+     * 发送循环
+     */
+    private void run() {
+        List<byte[]> batch = new ArrayList<>(this.batchSize);
+        Frame pending = null;
+        long deadline = System.currentTimeMillis() + this.flushInterval;
+        while (this.running) {
+            try {
+                if (pending == null) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait > 0) {
+                        byte[] record = this.queue.poll(wait, TimeUnit.MILLISECONDS);
+                        if (record != null) {
+                            batch.add(record);
+                            this.queue.drainTo(batch, this.batchSize - batch.size());
+                        }
+                    }
+                    if (batch.size() >= this.batchSize || System.currentTimeMillis() >= deadline) {
+                        pending = batch.isEmpty() ? null : this.seal(batch);
+                        deadline = System.currentTimeMillis() + this.flushInterval;
+                    }
+                }
+                if (pending != null) {
+                    long wait = this.nextAttempt - System.currentTimeMillis();
+                    if (wait > 0) {
+                        Thread.sleep(Math.min(wait, this.flushInterval));
+                    } else if (this.send(pending)) {
+                        pending = null;
+                    }
+                }
+            } catch (InterruptedException e) {
+                this.running = false;
+            }
+        }
+        this.drain(pending, batch);
+        this.disconnect();
+        this.deflater.end();
+    }
+
+    /**
+     * 关闭时发送剩余记录（每个批次仅尝试一次，失败时丢弃剩余记录）
+     *
+     * @param pending 待确认批次
+     * @param batch   未打包的记录
+     */
+    private void drain(Frame pending, List<byte[]> batch) {
+        Frame frame = pending;
+        while (true) {
+            if (frame == null) {
+                this.queue.drainTo(batch, this.batchSize - batch.size());
+                if (batch.isEmpty()) {
+                    return;
+                }
+                frame = this.seal(batch);
+            }
+            if (!this.send(frame)) {
+                this.dropped.add(frame.records + batch.size() + this.queue.size());
+                this.queue.clear();
+                return;
+            }
+            frame = null;
+        }
+    }
+
+    /**
+     * 打包批次（压缩一次，重发时复用）
+     *
+     * @param batch 记录列表（打包后清空）
+     * @return 返回批次
+     */
+    private Frame seal(List<byte[]> batch) {
+        int rawLength = 0;
+        for (byte[] record : batch) {
+            rawLength += 4 + record.length;
+        }
+        if (this.raw.length < rawLength) {
+            this.raw = new byte[Math.max(rawLength, this.raw.length << 1)];
+        }
+        int position = 0;
+        for (byte[] record : batch) {
+            position = putInt(this.raw, position, record.length);
+            System.arraycopy(record, 0, this.raw, position, record.length);
+            position += record.length;
+        }
+        this.deflater.reset();
+        this.deflater.setInput(this.raw, 0, rawLength);
+        this.deflater.finish();
+        int compressedLength = 0;
+        while (!this.deflater.finished()) {
+            if (compressedLength == this.compressed.length) {
+                this.compressed = Arrays.copyOf(this.compressed, this.compressed.length << 1);
+            }
+            compressedLength += this.deflater.deflate(this.compressed, compressedLength, this.compressed.length - compressedLength);
+        }
+        byte[] data = new byte[FRAME_HEADER_SIZE + compressedLength];
+        long sequence = ++this.sequence;
+        int offset = putInt(data, 0, (int) (sequence >>> 32));
+        offset = putInt(data, offset, (int) sequence);
+        offset = putInt(data, offset, batch.size());
+        offset = putInt(data, offset, rawLength);
+        offset = putInt(data, offset, compressedLength);
+        System.arraycopy(this.compressed, 0, data, offset, compressedLength);
+        Frame frame = new Frame(sequence, batch.size(), rawLength - 4L * batch.size(), data);
+        batch.clear();
+        return frame;
+    }
+
+    /**
+     * 发送批次并等待确认
+     *
+     * @param frame 批次
+     * @return 返回是否已确认，失败时断开连接并设置下次重连时间
+     */
+    private boolean send(Frame frame) {
+        try {
+            if (this.socket == null) {
+                this.connect();
+            }
+            this.output.write(frame.data);
+            this.output.flush();
+            long ack = this.input.readLong();
+            if (ack != frame.sequence) {
+                throw new IOException("unexpected ack " + ack + ", expected " + frame.sequence);
+            }
+        } catch (IOException e) {
+            this.disconnect();
+            this.failures++;
+            long backoff = Math.min(this.maxRetryBackoff, this.retryBackoff << Math.min(this.failures - 1, 20));
+            backoff += ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+            this.nextAttempt = System.currentTimeMillis() + backoff;
+            if (this.failures == 1) {
+                logger.warn("审计日志发送至采集端失败，{}毫秒后重连：{}", backoff, e.toString());
+            } else {
+                logger.debug("审计日志第{}次重连失败，{}毫秒后重连：{}", this.failures, backoff, e.toString());
+            }
+            return false;
+        }
+        if (this.failures > 0) {
+            logger.info("审计日志采集端连接已恢复：{}:{}", this.host, this.port);
+            this.failures = 0;
+        }
+        this.release(frame.bytes);
+        this.acknowledged.add(frame.records);
+        return true;
+    }
+
+    /**
+     * 占用内存缓冲（缓冲已满时等待发送线程释放；缓冲为空时单条记录可超出上限）
+     *
+     * @param length 记录长度
+     * @throws AuditSinkRejectedException 已关闭或等待超时
+     */
+    private void reserve(int length) {
+        if (this.tryReserve(length)) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.offerTimeout);
+        this.lock.lock();
+        try {
+            while (!this.tryReserve(length)) {
+                if (!this.running) {
+                    throw new AuditSinkRejectedException("tcp audit sink closed");
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new AuditSinkRejectedException("tcp audit buffer full");
+                }
+                this.released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuditSinkRejectedException("interrupted while waiting for tcp audit buffer");
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 尝试占用内存缓冲
+     *
+     * @param length 记录长度
+     * @return 返回是否占用成功
+     */
+    private boolean tryReserve(int length) {
+        for (; ; ) {
+            long current = this.buffered.get();
+            if (current > 0 && current + length > this.bufferSize) {
+                return false;
+            }
+            if (this.buffered.compareAndSet(current, current + length)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放内存缓冲并唤醒等待的写入方
+     *
+     * @param bytes 释放的字节数
+     */
+    private void release(long bytes) {
+        this.buffered.addAndGet(-bytes);
+        this.lock.lock();
+        try {
+            this.released.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 连接采集端并握手
+     *
+     * @throws IOException IO异常
+     */
+    private void connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(new InetSocketAddress(this.host, this.port), this.connectTimeout);
+            socket.setSoTimeout(this.ackTimeout);
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64));
+            this.output.writeInt(MAGIC);
+            this.output.writeInt(VERSION);
+            this.output.writeLong(this.streamId);
+            this.socket = socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 断开连接
+     */
+    private void disconnect() {
+        if (this.socket != null) {
+            try {
+                this.socket.close();
+            } catch (IOException e) {
+                // 忽略关闭异常
+            }
+            this.socket = null;
+            this.output = null;
+            this.input = null;
+        }
+    }
+
+    /**
+     * 写入大端序整数
+     *
+     * @param buffer   缓冲区
+     * @param position 下标
+     * @param value    值
+     * @return 返回写入后的下标
+     */
+    private static int putInt(byte[] buffer, int position, int value) {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position + 1] = (byte) (value >>> 16);
+        buffer[position + 2] = (byte) (value >>> 8);
+        buffer[position + 3] = (byte) value;
+        return position + 4;
+    }
+
+    /**
+     * 已打包的批次
+     *
+     * @since 1.8
+     */
+    private static final class Frame {
+        /**
+         * 序号
+         */
+        private final long sequence;
+        /**
+         * 记录数
+         */
+        private final int records;
+        /**
+         * 记录内容字节数（计入内存缓冲）
+         */
+        private final long bytes;
+        /**
+         * 批次头及压缩内容
+         */
+        private final byte[] data;
+
+        Frame(long sequence, int records, long bytes, byte[] data) {
+            this.sequence = sequence;
+            this.records = records;
+            this.bytes = bytes;
+            this.data = data;
+        }
+    }
+}
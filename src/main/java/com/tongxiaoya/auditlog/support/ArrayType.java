@@ -1,5 +1,8 @@
 package com.tongxiaoya.auditlog.support;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 /**
  * 数组类型
  * @since 1.8
@@ -43,6 +46,19 @@ public enum ArrayType {
      */
     OBJECT_ARRAY(Object[].class);
 
+    /**
+     * 基本类型数组映射（类加载时构建，之后只读）
+     */
+    private static final Map<Class, ArrayType> PRIMITIVES = new IdentityHashMap<>(16);
+
+    static {
+        for (ArrayType arrayType : values()) {
+            if (arrayType != OBJECT_ARRAY) {
+                PRIMITIVES.put(arrayType.type, arrayType);
+            }
+        }
+    }
+
     /**
      * 类型
      */
@@ -63,4 +79,17 @@ public enum ArrayType {
     public Class getType() {
         return type;
     }
+
+    /**
+     * 获取数组类型（按类型直接查找，无需遍历枚举）
+     * @param type 类型
+     * @return 返回数组类型，非数组时返回null
+     */
+    public static ArrayType of(Class<?> type) {
+        if (!type.isArray()) {
+            return null;
+        }
+        ArrayType arrayType = PRIMITIVES.get(type);
+        return arrayType != null ? arrayType : OBJECT_ARRAY;
+    }
 }
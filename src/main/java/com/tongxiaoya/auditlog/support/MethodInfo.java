@@ -1,74 +1,56 @@
 package com.tongxiaoya.auditlog.support;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * 方法信息
+ * 方法信息（不可变，可安全缓存及跨线程共享）
  *
  * @since 1.8
  */
-public class MethodInfo {
+public final class MethodInfo {
     /**
      * 所在类全类名
      */
-    private String classAllName;
+    private final String classAllName;
     /**
      * 所在类简单类名
      */
-    private String classSimpleName;
+    private final String classSimpleName;
     /**
      * 方法名称
      */
-    private String methodName;
+    private final String methodName;
     /**
      * 参数列表
      */
-    private List<String> paramNames;
+    private final List<String> paramNames;
     /**
      * 方法行号
      */
-    private Integer lineNumber;
+    private final int lineNumber;
 
     public String getClassAllName() {
         return classAllName;
     }
 
-    public void setClassAllName(String classAllName) {
-        this.classAllName = classAllName;
-    }
-
     public String getClassSimpleName() {
         return classSimpleName;
     }
 
-    public void setClassSimpleName(String classSimpleName) {
-        this.classSimpleName = classSimpleName;
-    }
-
     public String getMethodName() {
         return methodName;
     }
 
-    public void setMethodName(String methodName) {
-        this.methodName = methodName;
-    }
-
     public List<String> getParamNames() {
         return paramNames;
     }
 
-    public void setParamNames(List<String> paramNames) {
-        this.paramNames = paramNames;
-    }
-
-    public Integer getLineNumber() {
+    public int getLineNumber() {
         return lineNumber;
     }
 
-    public void setLineNumber(Integer lineNumber) {
-        this.lineNumber = lineNumber;
-    }
-
     /**
      * 构造
      *
@@ -78,11 +60,11 @@ public class MethodInfo {
      * @param paramNames      参数列表
      * @param lineNumber      方法行号
      */
-    MethodInfo(String classAllName, String classSimpleName, String methodName, List<String> paramNames, Integer lineNumber) {
+    MethodInfo(String classAllName, String classSimpleName, String methodName, List<String> paramNames, int lineNumber) {
         this.classAllName = classAllName;
         this.classSimpleName = classSimpleName;
         this.methodName = methodName;
-        this.paramNames = paramNames;
+        this.paramNames = paramNames.isEmpty() ? Collections.<String>emptyList() : Collections.unmodifiableList(new ArrayList<>(paramNames));
         this.lineNumber = lineNumber;
     }
 }
@@ -0,0 +1,133 @@
+package com.tongxiaoya.auditlog.support;
+
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 方法信息缓存
+ * <p>
+ * 读取无锁，容量有界，超出容量时按写入顺序淘汰最早的条目
+ *
+ * @since 1.8
+ */
+public class MethodInfoCache {
+
+    /**
+     * 默认容量
+     */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    /**
+     * 缓存
+     */
+    private final ConcurrentHashMap<Method, MethodInfo> cache;
+    /**
+     * 写入顺序（用于淘汰）
+     */
+    private final Queue<Method> order = new ConcurrentLinkedQueue<>();
+    /**
+     * 当前数量
+     */
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * 最大容量
+     */
+    private volatile int maxSize;
+
+    /**
+     * 构造
+     *
+     * @param maxSize 最大容量
+     */
+    public MethodInfoCache(int maxSize) {
+        this.maxSize = this.checkSize(maxSize);
+        this.cache = new ConcurrentHashMap<>(Math.min(maxSize, 256));
+    }
+
+    /**
+     * 获取方法信息，不存在时加载并缓存
+     *
+     * @param method 方法对象
+     * @param loader 加载函数
+     * @return 返回方法信息
+     */
+    public MethodInfo get(Method method, Function<Method, MethodInfo> loader) {
+        MethodInfo info = this.cache.get(method);
+        if (info != null) {
+            return info;
+        }
+        info = loader.apply(method);
+        MethodInfo previous = this.cache.putIfAbsent(method, info);
+        if (previous != null) {
+            return previous;
+        }
+        this.order.offer(method);
+        if (this.size.incrementAndGet() > this.maxSize) {
+            this.evict();
+        }
+        return info;
+    }
+
+    /**
+     * 当前缓存数量
+     *
+     * @return 返回缓存数量
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * 设置最大容量
+     *
+     * @param maxSize 最大容量
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = this.checkSize(maxSize);
+        while (this.size.get() > this.maxSize && this.evict()) {
+            // 淘汰至容量以内
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        while (this.evict()) {
+            // 逐个淘汰以保持计数一致
+        }
+    }
+
+    /**
+     * 淘汰最早写入的条目
+     *
+     * @return 返回是否淘汰成功
+     */
+    private boolean evict() {
+        Method eldest = this.order.poll();
+        if (eldest == null) {
+            return false;
+        }
+        if (this.cache.remove(eldest) != null) {
+            this.size.decrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * 校验容量
+     *
+     * @param maxSize 最大容量
+     * @return 返回容量
+     */
+    private int checkSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        return maxSize;
+    }
+}
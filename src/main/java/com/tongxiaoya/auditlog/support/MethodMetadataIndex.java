@@ -0,0 +1,135 @@
+package com.tongxiaoya.auditlog.support;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 方法元数据索引
+ * <p>
+ * 由编译期注解处理器（{@code com.tongxiaoya.auditlog.processor.AuditMetadataProcessor}）生成，
+ * 每个类加载器首次使用时读取其下全部索引文件，此后按方法查找，无需读取类文件。
+ * 索引文件每行一个方法：{@code 全类名#方法名描述符<TAB>行号<TAB>参数名1,参数名2}，以#开头的行为注释
+ *
+ * @since 1.8
+ */
+public final class MethodMetadataIndex {
+
+    /**
+     * 索引文件位置
+     */
+    public static final String LOCATION = "META-INF/auditlog/methods.idx";
+
+    /**
+     * 各类加载器的索引（弱引用类加载器，避免应用重新部署时泄漏）
+     */
+    private static final Map<ClassLoader, Map<String, MethodInfo>> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private MethodMetadataIndex() {
+    }
+
+    /**
+     * 查找方法信息
+     *
+     * @param method 方法对象
+     * @return 返回方法信息，索引中不存在时返回null
+     */
+    public static MethodInfo find(Method method) {
+        ClassLoader loader = method.getDeclaringClass().getClassLoader();
+        if (loader == null) {
+            return null;
+        }
+        Map<String, MethodInfo> index = INDEXES.computeIfAbsent(loader, MethodMetadataIndex::load);
+        if (index.isEmpty()) {
+            return null;
+        }
+        return index.get(key(method.getDeclaringClass().getName(), method.getName(), MethodParser.getDescriptor(method)));
+    }
+
+    /**
+     * 生成索引键
+     *
+     * @param className  全类名（二进制名称）
+     * @param methodName 方法名称
+     * @param descriptor 方法描述符
+     * @return 返回索引键
+     */
+    public static String key(String className, String methodName, String descriptor) {
+        return className + '#' + methodName + descriptor;
+    }
+
+    /**
+     * 读取类加载器下的全部索引文件
+     *
+     * @param loader 类加载器
+     * @return 返回索引
+     */
+    private static Map<String, MethodInfo> load(ClassLoader loader) {
+        Map<String, MethodInfo> index = new HashMap<>();
+        try {
+            Enumeration<URL> urls = loader.getResources(LOCATION);
+            while (urls.hasMoreElements()) {
+                load(urls.nextElement(), index);
+            }
+        } catch (IOException e) {
+            // 无法读取索引时降级为读取类文件
+        }
+        return index.isEmpty() ? Collections.emptyMap() : index;
+    }
+
+    /**
+     * 读取索引文件
+     *
+     * @param url   索引文件
+     * @param index 索引
+     * @throws IOException IO异常
+     */
+    private static void load(URL url, Map<String, MethodInfo> index) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] columns = line.split("\t", -1);
+                if (columns.length != 3) {
+                    continue;
+                }
+                String key = columns[0];
+                int classEnd = key.indexOf('#');
+                int methodEnd = key.indexOf('(', classEnd);
+                if (classEnd <= 0 || methodEnd <= classEnd) {
+                    continue;
+                }
+                int lineNumber;
+                try {
+                    lineNumber = Integer.parseInt(columns[1]);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                String className = key.substring(0, classEnd);
+                List<String> paramNames = new ArrayList<>();
+                if (!columns[2].isEmpty()) {
+                    Collections.addAll(paramNames, columns[2].split(","));
+                }
+                index.put(key, new MethodInfo(
+                        className,
+                        className.substring(className.lastIndexOf('.') + 1),
+                        key.substring(classEnd + 1, methodEnd),
+                        paramNames,
+                        lineNumber
+                ));
+            }
+        }
+    }
+}
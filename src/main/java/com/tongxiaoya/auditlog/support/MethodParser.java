@@ -4,24 +4,80 @@ import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.NotFoundException;
+import javassist.bytecode.Descriptor;
 import javassist.bytecode.LocalVariableAttribute;
 import org.aspectj.lang.reflect.MethodSignature;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * 方法解析器
+ * <p>
+ * 优先使用编译期生成的方法元数据索引，索引中不存在时才通过Javassist读取类文件
  *
  * @since 1.8
  */
 public class MethodParser {
 
     /**
-     * 类池
+     * 代表本地方法或无法定位，不进行代码定位
      */
-    private static final ClassPool POOL = ClassPool.getDefault();
+    public static final int UNKNOWN_LINE_NUMBER = -2;
+
+    /**
+     * 是否运行于GraalVM本地镜像（镜像中不存在类文件，无法读取）
+     */
+    public static final boolean NATIVE_IMAGE = System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+
+    /**
+     * 方法信息缓存（按方法缓存类文件或元数据索引中的信息，不包含调用方传入的参数名称）
+     */
+    private static final MethodInfoCache CACHE = new MethodInfoCache(MethodInfoCache.DEFAULT_MAX_SIZE);
+
+    /**
+     * 获取方法信息缓存
+     *
+     * @return 返回方法信息缓存
+     */
+    public static MethodInfoCache getCache() {
+        return CACHE;
+    }
+
+    /**
+     * 获取方法信息（带代码定位，按方法缓存；本地镜像中不读取类文件）
+     * <p>
+     * 传入参数名称时以传入的名称替换缓存中的参数名称，缓存内容与调用方无关
+     *
+     * @param method         方法对象
+     * @param parameterNames 参数列表
+     * @return 返回方法信息
+     */
+    public static MethodInfo getMethodInfo(Method method, String[] parameterNames) {
+        return getMethodInfo(method, parameterNames, true);
+    }
+
+    /**
+     * 获取方法信息（带代码定位）
+     * <p>
+     * 不允许读取类文件时仅查找元数据索引，结果不进入缓存（避免影响允许读取类文件的调用方）
+     *
+     * @param method           方法对象
+     * @param parameterNames   参数列表
+     * @param classFileParsing 是否允许读取类文件（关闭时不初始化Javassist，本地镜像中始终关闭）
+     * @return 返回方法信息
+     */
+    public static MethodInfo getMethodInfo(Method method, String[] parameterNames, boolean classFileParsing) {
+        if (classFileParsing && !NATIVE_IMAGE) {
+            MethodInfo info = CACHE.get(method, m -> parse(m, null));
+            return parameterNames != null ? withParamNames(info, parameterNames) : info;
+        }
+        MethodInfo indexed = MethodMetadataIndex.find(method);
+        return indexed != null ? indexed : unknown(method, parameterNames);
+    }
 
     /**
      * 获取调用方法
@@ -32,7 +88,7 @@ public class MethodParser {
      * @throws NotFoundException 未知方法异常
      */
     public static CtMethod getMethod(String className, String methodName) throws NotFoundException {
-        return POOL.get(className).getDeclaredMethod(methodName);
+        return PoolHolder.POOL.get(className).getDeclaredMethod(methodName);
     }
 
     /**
@@ -44,17 +100,25 @@ public class MethodParser {
      * @return 返回方法信息
      */
     public static MethodInfo getMethodInfo(String className, String methodName, String[] parameterNames) {
-        try {
-            return getMethodInfo(getMethod(className, methodName), parameterNames);
-        } catch (Exception e) {
-            return new MethodInfo(
-                    className,
-                    className.substring(className.lastIndexOf('.')),
-                    methodName,
-                    new ArrayList<>(0),
-                    -2
-            );
+        if (!NATIVE_IMAGE) {
+            try {
+                CtMethod method = getMethod(className, methodName);
+                try {
+                    return getMethodInfo(method, parameterNames);
+                } finally {
+                    method.getDeclaringClass().detach();
+                }
+            } catch (Exception e) {
+                // 无法读取类文件时降级为不定位
+            }
         }
+        return new MethodInfo(
+                className,
+                className.substring(className.lastIndexOf('.') + 1),
+                methodName,
+                toList(parameterNames),
+                UNKNOWN_LINE_NUMBER
+        );
     }
 
     /**
@@ -71,15 +135,16 @@ public class MethodParser {
             int lineNumber = methodInfo.getLineNumber(0);
             List<String> paramNames;
             if (parameterNames != null) {
-                paramNames = new ArrayList<>(parameterNames.length);
-                Collections.addAll(paramNames, parameterNames);
+                paramNames = toList(parameterNames);
             } else {
                 LocalVariableAttribute attribute = (LocalVariableAttribute) methodInfo.getCodeAttribute().getAttribute(LocalVariableAttribute.tag);
                 if (attribute != null) {
-                    int count = method.getParameterTypes().length;
+                    // 按描述符计数，不解析参数类型（避免参数类型的CtClass缓存在类池中）
+                    int count = Descriptor.numOfParameters(method.getSignature());
+                    int offset = Modifier.isStatic(method.getModifiers()) ? 0 : 1;
                     paramNames = new ArrayList<>(count);
-                    for (int i = 1; i <= count; i++) {
-                        paramNames.add(attribute.variableName(i));
+                    for (int i = 0; i < count; i++) {
+                        paramNames.add(attribute.variableName(i + offset));
                     }
                 } else {
                     paramNames = new ArrayList<>(0);
@@ -87,7 +152,7 @@ public class MethodParser {
             }
             return new MethodInfo(declaringClass.getName(), declaringClass.getSimpleName(), method.getName(), paramNames, lineNumber);
         } catch (Exception e) {
-            return new MethodInfo(declaringClass.getName(), declaringClass.getSimpleName(), method.getName(), new ArrayList<>(0), -2);
+            return new MethodInfo(declaringClass.getName(), declaringClass.getSimpleName(), method.getName(), new ArrayList<>(0), UNKNOWN_LINE_NUMBER);
         }
     }
 
@@ -100,9 +165,137 @@ public class MethodParser {
      */
     public static MethodInfo getMethodInfo(MethodSignature signature, int lineNumber) {
         Class declaringClass = signature.getDeclaringType();
-        String[] parameterNames = signature.getParameterNames();
+        return new MethodInfo(declaringClass.getName(), declaringClass.getSimpleName(), signature.getName(), toList(signature.getParameterNames()), lineNumber);
+    }
+
+    /**
+     * 解析方法信息（优先查找元数据索引；读取类文件后将类从类池中移除，避免类池无限增长）
+     *
+     * @param method         方法对象
+     * @param parameterNames 参数列表
+     * @return 返回方法信息
+     */
+    private static MethodInfo parse(Method method, String[] parameterNames) {
+        MethodInfo indexed = MethodMetadataIndex.find(method);
+        if (indexed != null) {
+            return indexed;
+        }
+        Class<?> declaringClass = method.getDeclaringClass();
+        CtClass ctClass = null;
+        try {
+            ctClass = PoolHolder.POOL.get(declaringClass.getName());
+            String descriptor = getDescriptor(method);
+            for (CtMethod ctMethod : ctClass.getDeclaredMethods(method.getName())) {
+                if (descriptor.equals(ctMethod.getSignature())) {
+                    return getMethodInfo(ctMethod, parameterNames);
+                }
+            }
+        } catch (Exception e) {
+            // 无法读取类文件时降级为不定位
+        } finally {
+            if (ctClass != null) {
+                ctClass.detach();
+            }
+        }
+        return unknown(method, parameterNames);
+    }
+
+    /**
+     * 替换参数名称
+     *
+     * @param info           方法信息
+     * @param parameterNames 参数列表
+     * @return 返回方法信息
+     */
+    private static MethodInfo withParamNames(MethodInfo info, String[] parameterNames) {
+        return new MethodInfo(info.getClassAllName(), info.getClassSimpleName(), info.getMethodName(), toList(parameterNames), info.getLineNumber());
+    }
+
+    /**
+     * 创建不定位的方法信息
+     *
+     * @param method         方法对象
+     * @param parameterNames 参数列表
+     * @return 返回方法信息
+     */
+    private static MethodInfo unknown(Method method, String[] parameterNames) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        return new MethodInfo(declaringClass.getName(), declaringClass.getSimpleName(), method.getName(), toList(parameterNames), UNKNOWN_LINE_NUMBER);
+    }
+
+    /**
+     * 获取方法描述符
+     *
+     * @param method 方法对象
+     * @return 返回方法描述符
+     */
+    static String getDescriptor(Method method) {
+        StringBuilder builder = new StringBuilder("(");
+        for (Class<?> type : method.getParameterTypes()) {
+            appendDescriptor(builder, type);
+        }
+        builder.append(')');
+        appendDescriptor(builder, method.getReturnType());
+        return builder.toString();
+    }
+
+    /**
+     * 添加类型描述符
+     *
+     * @param builder 描述符builder
+     * @param type    类型
+     */
+    private static void appendDescriptor(StringBuilder builder, Class<?> type) {
+        while (type.isArray()) {
+            builder.append('[');
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            if (type == int.class) {
+                builder.append('I');
+            } else if (type == long.class) {
+                builder.append('J');
+            } else if (type == boolean.class) {
+                builder.append('Z');
+            } else if (type == byte.class) {
+                builder.append('B');
+            } else if (type == char.class) {
+                builder.append('C');
+            } else if (type == short.class) {
+                builder.append('S');
+            } else if (type == float.class) {
+                builder.append('F');
+            } else if (type == double.class) {
+                builder.append('D');
+            } else {
+                builder.append('V');
+            }
+        } else {
+            builder.append('L').append(type.getName().replace('.', '/')).append(';');
+        }
+    }
+
+    /**
+     * 转换参数列表
+     *
+     * @param parameterNames 参数列表
+     * @return 返回参数列表
+     */
+    private static List<String> toList(String[] parameterNames) {
+        if (parameterNames == null) {
+            return new ArrayList<>(0);
+        }
         List<String> paramNames = new ArrayList<>(parameterNames.length);
         Collections.addAll(paramNames, parameterNames);
-        return new MethodInfo(declaringClass.getName(), declaringClass.getSimpleName(), signature.getName(), paramNames, lineNumber);
+        return paramNames;
+    }
+
+    /**
+     * 类池（首次读取类文件时才初始化）
+     *
+     * @since 1.8
+     */
+    private static final class PoolHolder {
+        private static final ClassPool POOL = ClassPool.getDefault();
     }
 }
@@ -0,0 +1,205 @@
+package com.tongxiaoya.auditlog.async;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEventCodec;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import com.tongxiaoya.auditlog.sink.AuditSinkRejectedException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 异步审计分发器测试（输出端背压及溢出队列）
+ *
+ * @since 1.8
+ */
+public class AsyncAuditDispatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private LogPlan plan;
+
+    @Before
+    public void setUp() {
+        this.plan = AuditEvents.plan(Service.class, "send");
+    }
+
+    @Test
+    public void rejectedEventsBackPressureIntoSpillAndKeepOrder() throws Exception {
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        AsyncAuditDispatcher dispatcher = this.dispatcher(this.folder.getRoot().toPath());
+        dispatcher.start(this.handler(rejecting), method -> this.plan);
+        List<String> written = this.dispatch(dispatcher, 20);
+        assertThat(dispatcher.getSpilledCount()).isGreaterThanOrEqualTo(15);
+        assertThat(this.received).isEmpty();
+        rejecting.set(false);
+        await(() -> this.received.size() == 20);
+        assertThat(this.received).containsExactlyElementsOf(written);
+        assertThat(dispatcher.getRecoveredCount()).isEqualTo(dispatcher.getSpilledCount());
+        assertThat(dispatcher.getDroppedCount()).isZero();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void shutdownKeepsRejectedEventsOnDiskUntilAccepted() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        AsyncAuditDispatcher first = this.dispatcher(directory);
+        first.start(this.handler(rejecting), method -> this.plan);
+        List<String> written = this.dispatch(first, 20);
+        long start = System.nanoTime();
+        first.shutdown();
+        // 关闭时不等待输出端恢复，被拒绝的缓冲区事件写入溢出队列
+        assertThat(System.nanoTime() - start).isLessThan(2_000_000_000L);
+        assertThat(first.getSpilledCount()).isEqualTo(20);
+        assertThat(first.getDroppedCount()).isZero();
+        assertThat(count(directory)).isEqualTo(20);
+
+        // 读取溢出队列时被拒绝的记录不移除、不提交
+        AsyncAuditDispatcher second = this.dispatcher(directory);
+        second.start(this.handler(rejecting), method -> this.plan);
+        Thread.sleep(300L);
+        second.shutdown();
+        assertThat(second.getRecoveredCount()).isZero();
+        assertThat(count(directory)).isEqualTo(20);
+
+        rejecting.set(false);
+        AsyncAuditDispatcher third = this.dispatcher(directory);
+        third.start(this.handler(rejecting), method -> this.plan);
+        await(() -> this.received.size() == 20);
+        third.shutdown();
+        assertThat(this.received).containsExactlyInAnyOrderElementsOf(written);
+        assertThat(third.getRecoveredCount()).isEqualTo(20);
+        assertThat(count(directory)).isZero();
+    }
+
+    @Test
+    public void workerClosesSpillAfterShutdownTimeout() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        AsyncAuditDispatcher first = this.dispatcher(directory);
+        first.start(this.handler(rejecting), method -> this.plan);
+        this.dispatch(first, 20);
+        first.shutdown();
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        AsyncAuditDispatcher second = new AsyncAuditDispatcher(4, OverflowPolicy.SPILL, 1, 100L);
+        second.setSpill(new SpillQueue(directory, 4096, 1024 * 1024), new AuditEventCodec(new ObjectGraphRenderer()));
+        Set<Thread> existing = Thread.getAllStackTraces().keySet();
+        second.start(event -> {
+            blocked.countDown();
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.received.add(String.valueOf(event.getArgs()[0]));
+        }, method -> this.plan);
+        Thread worker = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("auditlog-async") && !existing.contains(thread))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        // 消费线程正在输出已查看的溢出记录，关闭超时后不得关闭溢出队列
+        second.shutdown();
+        assertThat(worker.isAlive()).isTrue();
+        released.countDown();
+        worker.join(5000L);
+        assertThat(worker.isAlive()).isFalse();
+        assertThat(this.received).hasSize(1);
+        assertThat(second.getRecoveredCount()).isEqualTo(1);
+        assertThat(count(directory)).isEqualTo(19);
+    }
+
+    @Test
+    public void tryDispatchDropsInsteadOfBlocking() throws Exception {
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        AsyncAuditDispatcher dispatcher = new AsyncAuditDispatcher(4, OverflowPolicy.BLOCK, 1, 5000L);
+        dispatcher.start(this.handler(rejecting), method -> this.plan);
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            assertThat(dispatcher.tryDispatch(AuditEvents.invocation(this.plan, new Object[]{"record-" + i}, null, null, 1L))).isTrue();
+        }
+        assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+        // 消费线程重试的1个事件及缓冲区中的4个事件之外全部丢弃
+        assertThat(dispatcher.getDroppedCount()).isBetween(15L, 16L);
+        rejecting.set(false);
+        await(() -> this.received.size() == 20 - dispatcher.getDroppedCount());
+        dispatcher.shutdown();
+        assertThat(dispatcher.tryDispatch(AuditEvents.invocation(this.plan, new Object[]{"late"}, null, null, 1L))).isFalse();
+    }
+
+    private AsyncAuditDispatcher dispatcher(Path directory) throws IOException {
+        AsyncAuditDispatcher dispatcher = new AsyncAuditDispatcher(4, OverflowPolicy.SPILL, 1, 5000L);
+        dispatcher.setSpill(new SpillQueue(directory, 4096, 1024 * 1024), new AuditEventCodec(new ObjectGraphRenderer()));
+        return dispatcher;
+    }
+
+    private Consumer<AuditEvent> handler(AtomicBoolean rejecting) {
+        return event -> {
+            if (rejecting.get()) {
+                throw new AuditSinkRejectedException("audit sink full");
+            }
+            this.received.add(String.valueOf(event.getArgs()[0]));
+        };
+    }
+
+    private List<String> dispatch(AsyncAuditDispatcher dispatcher, int count) {
+        List<String> written = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String value = "record-" + i;
+            assertThat(dispatcher.dispatch(AuditEvents.invocation(this.plan, new Object[]{value}, null, null, 1L))).isTrue();
+            written.add(value);
+        }
+        return written;
+    }
+
+    private static int count(Path directory) throws IOException {
+        int count = 0;
+        try (SpillQueue queue = new SpillQueue(directory, 4096, 1024 * 1024)) {
+            while (queue.poll() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("condition not met in time");
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    static class Service {
+
+        @Log("发送")
+        public void send(String value) {
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tongxiaoya.auditlog.async;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 环形缓冲区测试
+ *
+ * @since 1.8
+ */
+public class AuditRingBufferTest {
+
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new AuditRingBuffer<>(2).capacity()).isEqualTo(2);
+        assertThat(new AuditRingBuffer<>(3).capacity()).isEqualTo(4);
+        assertThat(new AuditRingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new AuditRingBuffer<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void rejectsWhenFullAndWrapsAround() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.offer(round * 4 + i)).isTrue();
+            }
+            assertThat(buffer.offer(-1)).isFalse();
+            assertThat(buffer.size()).isEqualTo(4);
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.poll()).isEqualTo(round * 4 + i);
+            }
+            assertThat(buffer.poll()).isNull();
+            assertThat(buffer.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingAndKeepPerProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 200_000;
+        AuditRingBuffer<long[]> buffer = new AuditRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long[] next = new long[producers];
+        long total = (long) producers * perProducer;
+        long received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        start.countDown();
+        while (received < total) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertThat(element[1]).isEqualTo(next[producer]);
+            next[producer]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(buffer.poll()).isNull();
+        assertThat(next).containsOnly(perProducer);
+    }
+}
@@ -0,0 +1,188 @@
+package com.tongxiaoya.auditlog.async;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 磁盘溢出队列测试
+ *
+ * @since 1.8
+ */
+public class SpillQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void peekedRecordStaysUntilRemoved() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (SpillQueue queue = open(directory)) {
+            append(queue, "a");
+            append(queue, "b");
+            assertThatThrownBy(queue::remove).isInstanceOf(IllegalStateException.class);
+            assertThat(text(queue.peek())).isEqualTo("a");
+            assertThat(text(queue.peek())).isEqualTo("a");
+            queue.commit();
+        }
+        try (SpillQueue queue = open(directory)) {
+            assertThat(text(queue.peek())).isEqualTo("a");
+            queue.remove();
+            assertThat(text(queue.poll())).isEqualTo("b");
+            assertThat(queue.poll()).isNull();
+            assertThat(queue.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    public void resumesFromCommittedCheckpointAfterReopen() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (SpillQueue queue = open(directory)) {
+            append(queue, "a");
+            append(queue, "b");
+            append(queue, "c");
+            assertThat(text(queue.poll())).isEqualTo("a");
+            queue.commit();
+            // 已移除但未提交的记录重启后重新读取（至少一次）
+            assertThat(text(queue.poll())).isEqualTo("b");
+            assertThat(text(queue.peek())).isEqualTo("c");
+        }
+        try (SpillQueue queue = open(directory)) {
+            assertThat(drain(queue)).containsExactly("b", "c");
+            queue.commit();
+            assertThat(queue.getBytes()).isZero();
+            assertThat(segments(directory)).hasSize(1);
+        }
+        try (SpillQueue queue = open(directory)) {
+            assertThat(queue.isEmpty()).isTrue();
+            assertThat(queue.poll()).isNull();
+        }
+    }
+
+    @Test
+    public void replaysFromEarliestSegmentWhenCheckpointIsCorrupt() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (SpillQueue queue = open(directory)) {
+            append(queue, "a");
+            append(queue, "b");
+            assertThat(text(queue.poll())).isEqualTo("a");
+            queue.commit();
+        }
+        Files.write(directory.resolve(SpillQueue.CHECKPOINT_FILE), new byte[20]);
+        try (SpillQueue queue = open(directory)) {
+            assertThat(drain(queue)).containsExactly("a", "b");
+            assertThat(queue.getCorruptedCount()).isZero();
+        }
+    }
+
+    @Test
+    public void skipsTruncatedRecordAtSegmentTail() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (SpillQueue queue = open(directory)) {
+            append(queue, "first");
+            append(queue, "second");
+        }
+        Path segment = segments(directory).get(0);
+        truncate(segment, Files.size(segment) - 3);
+        try (SpillQueue queue = open(directory)) {
+            assertThat(drain(queue)).containsExactly("first");
+            assertThat(queue.getCorruptedCount()).isEqualTo(1);
+            assertThat(queue.isEmpty()).isTrue();
+            append(queue, "third");
+            assertThat(drain(queue)).containsExactly("third");
+        }
+    }
+
+    @Test
+    public void skipsTruncatedRecordHeader() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (SpillQueue queue = open(directory)) {
+            append(queue, "first");
+            append(queue, "second");
+        }
+        Path segment = segments(directory).get(0);
+        truncate(segment, SpillQueue.RECORD_HEADER_SIZE + "first".length() + 3);
+        try (SpillQueue queue = open(directory)) {
+            assertThat(drain(queue)).containsExactly("first");
+            assertThat(queue.getCorruptedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void skipsRestOfSegmentOnChecksumMismatch() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (SpillQueue queue = open(directory)) {
+            append(queue, "first");
+            append(queue, "second");
+        }
+        Path segment = segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'F'}), SpillQueue.RECORD_HEADER_SIZE);
+        }
+        try (SpillQueue queue = open(directory)) {
+            assertThat(queue.poll()).isNull();
+            assertThat(queue.getCorruptedCount()).isEqualTo(1);
+            append(queue, "third");
+            assertThat(drain(queue)).containsExactly("third");
+            queue.commit();
+        }
+        // 跳过的分段随提交删除，不再重复报告
+        try (SpillQueue queue = open(directory)) {
+            assertThat(queue.poll()).isNull();
+            assertThat(queue.getCorruptedCount()).isZero();
+        }
+    }
+
+    private static SpillQueue open(Path directory) throws IOException {
+        return new SpillQueue(directory, 1024, 64 * 1024);
+    }
+
+    private static void append(SpillQueue queue, String record) throws IOException {
+        byte[] data = record.getBytes(StandardCharsets.UTF_8);
+        assertThat(queue.append(data, 0, data.length)).isTrue();
+    }
+
+    private static List<String> drain(SpillQueue queue) throws IOException {
+        List<String> records = new ArrayList<>();
+        byte[] record;
+        while ((record = queue.poll()) != null) {
+            records.add(text(record));
+        }
+        return records;
+    }
+
+    private static String text(byte[] record) {
+        return new String(record, StandardCharsets.UTF_8);
+    }
+
+    private static void truncate(Path segment, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SpillQueue.FILE_PREFIX + "*" + SpillQueue.FILE_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+}
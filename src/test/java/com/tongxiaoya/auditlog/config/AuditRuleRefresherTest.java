@@ -0,0 +1,66 @@
+package com.tongxiaoya.auditlog.config;
+
+import com.tongxiaoya.auditlog.log.Level;
+import com.tongxiaoya.auditlog.rule.AuditRule;
+import com.tongxiaoya.auditlog.rule.AuditRuleRegistry;
+import org.junit.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计规则刷新测试
+ *
+ * @since 1.8
+ */
+public class AuditRuleRefresherTest {
+
+    private final Map<String, Object> properties = new HashMap<>();
+
+    private final StandardEnvironment environment = new StandardEnvironment();
+
+    private final AuditRuleRegistry registry = new AuditRuleRegistry();
+
+    private final AuditRuleRefresher refresher = new AuditRuleRefresher(this.environment, this.registry,
+            Collections.singleton(RefreshEvent.class.getName()));
+
+    @Test
+    public void rebindsPropertyRulesOnRefreshEvent() {
+        this.properties.put("auditlog.rules[0].target", "com.example.OrderService");
+        this.properties.put("auditlog.rules[0].enabled", "false");
+        this.environment.getPropertySources().addFirst(new MapPropertySource("test", this.properties));
+        this.registry.addRuntimeRule(new AuditRule(null, "支付*", null, Level.WARN));
+        this.refresher.onApplicationEvent(new OtherEvent(this));
+        assertThat(this.registry.getSnapshot().getRules()).hasSize(1);
+
+        this.refresher.onApplicationEvent(new RefreshEvent(this));
+        assertThat(this.registry.getSnapshot().getRules()).extracting(AuditRule::getTarget)
+                .containsExactly(null, "com.example.OrderService");
+        assertThat(this.registry.getSnapshot().getRules().get(1).getEnabled()).isFalse();
+
+        // 配置中的规则被删除后刷新，仅保留运行时规则
+        this.properties.clear();
+        this.refresher.onApplicationEvent(new RefreshEvent(this));
+        assertThat(this.registry.getSnapshot().getRules()).extracting(AuditRule::getBusiness).containsExactly("支付*");
+    }
+
+    static class RefreshEvent extends ApplicationEvent {
+
+        RefreshEvent(Object source) {
+            super(source);
+        }
+    }
+
+    static class OtherEvent extends ApplicationEvent {
+
+        OtherEvent(Object source) {
+            super(source);
+        }
+    }
+}
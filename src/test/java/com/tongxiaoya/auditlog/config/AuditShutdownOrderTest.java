@@ -0,0 +1,101 @@
+package com.tongxiaoya.auditlog.config;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 关闭顺序测试（异步缓冲区中的事件须在输出端关闭之前写出）
+ *
+ * @since 1.8
+ */
+public class AuditShutdownOrderTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, LogAutoConfiguration.class))
+            .withUserConfiguration(TestConfiguration.class)
+            .withPropertyValues("auditlog.slf4j.enabled=false", "auditlog.async.enabled=true", "auditlog.async.buffer-size=1024");
+
+    @Test
+    public void dispatcherDrainsBeforeSinksClose() {
+        RecordingSink[] sinks = new RecordingSink[1];
+        this.runner.run(context -> {
+            RecordingSink sink = sinks[0] = context.getBean(RecordingSink.class);
+            AuditedService service = context.getBean(AuditedService.class);
+            for (int i = 0; i < 100; i++) {
+                service.call(i);
+            }
+            assertThat(sink.written.get()).isLessThan(100);
+        });
+        RecordingSink sink = sinks[0];
+        assertThat(sink.closed).isTrue();
+        assertThat(sink.written.get()).isEqualTo(100);
+        assertThat(sink.writtenAfterClose.get()).isZero();
+        assertThat(sink.writtenAtFlush).isEqualTo(100);
+    }
+
+    @Configuration
+    static class TestConfiguration {
+
+        @Bean
+        public AuditedService auditedService() {
+            return new AuditedService();
+        }
+
+        @Bean
+        public RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    static class AuditedService {
+
+        @Log("调用")
+        public int call(int value) {
+            return value;
+        }
+    }
+
+    static class RecordingSink implements AuditSink {
+
+        final AtomicInteger written = new AtomicInteger();
+        final AtomicInteger writtenAfterClose = new AtomicInteger();
+        volatile boolean closed;
+        volatile int writtenAtFlush = -1;
+
+        @Override
+        public void write(AuditEvent event) {
+            try {
+                Thread.sleep(2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (this.closed) {
+                this.writtenAfterClose.incrementAndGet();
+            }
+            this.written.incrementAndGet();
+        }
+
+        @Override
+        public void flush() {
+            if (!this.closed) {
+                this.writtenAtFlush = this.written.get();
+            }
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+}
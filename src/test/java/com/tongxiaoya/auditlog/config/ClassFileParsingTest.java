@@ -0,0 +1,100 @@
+package com.tongxiaoya.auditlog.config;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.Position;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import com.tongxiaoya.auditlog.support.MethodInfoCache;
+import com.tongxiaoya.auditlog.support.MethodParser;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 类文件读取开关测试（按容器配置，不影响其他容器）
+ *
+ * @since 1.8
+ */
+public class ClassFileParsingTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, LogAutoConfiguration.class))
+            .withUserConfiguration(TestConfiguration.class)
+            .withPropertyValues("auditlog.slf4j.enabled=false");
+
+    @Test
+    public void disabledParsingFallsBackToPlainLocation() throws NoSuchMethodException {
+        this.runner.withPropertyValues("auditlog.class-file-parsing=false").run(context -> {
+            assertThat(context).hasNotFailed();
+            context.getBean(PositionedService.class).call(1);
+            List<AuditEvent> events = context.getBean(RecordingSink.class).events;
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getLocation()).isEqualTo(PositionedService.class.getName() + ".call");
+        });
+        assertThat(MethodParser.getMethodInfo(PositionedService.class.getMethod("call", int.class), null).getLineNumber())
+                .isNotEqualTo(MethodParser.UNKNOWN_LINE_NUMBER);
+    }
+
+    @Test
+    public void enabledParsingLocatesSourceLine() {
+        this.runner.run(context -> {
+            context.getBean(PositionedService.class).call(1);
+            List<AuditEvent> events = context.getBean(RecordingSink.class).events;
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getLocation()).startsWith(PositionedService.class.getName() + ".call(").matches(".*\\.java:\\d+\\)");
+        });
+    }
+
+    @Test
+    public void methodCacheSizeIsConfigurable() {
+        try {
+            this.runner.withPropertyValues("auditlog.method-cache-size=1").run(context -> {
+                assertThat(context).hasNotFailed();
+                context.getBean(PositionedService.class).call(1);
+                assertThat(MethodParser.getCache().size()).isEqualTo(1);
+            });
+        } finally {
+            MethodParser.getCache().setMaxSize(MethodInfoCache.DEFAULT_MAX_SIZE);
+        }
+    }
+
+    @Configuration
+    static class TestConfiguration {
+
+        @Bean
+        public PositionedService positionedService() {
+            return new PositionedService();
+        }
+
+        @Bean
+        public RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    static class PositionedService {
+
+        @Log(value = "调用", position = Position.ENABLED)
+        public int call(int value) {
+            return value;
+        }
+    }
+
+    static class RecordingSink implements AuditSink {
+
+        final List<AuditEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void write(AuditEvent event) {
+            this.events.add(event);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tongxiaoya.auditlog.config;
+
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 原生镜像反射配置测试（配置属性类均需登记，否则原生镜像中无法绑定）
+ *
+ * @since 1.8
+ */
+public class ReflectConfigTest {
+
+    private static final String REFLECT_CONFIG = "META-INF/native-image/com.tongxiaoya/spring-boot-starter-auditlog/reflect-config.json";
+
+    @Test
+    public void registersEveryPropertiesClass() throws IOException {
+        String config;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(REFLECT_CONFIG)) {
+            assertThat(input).isNotNull();
+            config = StreamUtils.copyToString(input, StandardCharsets.UTF_8);
+        }
+        assertThat(config).contains("\"" + LogProperties.class.getName() + "\"");
+        for (Class<?> type : LogProperties.class.getDeclaredClasses()) {
+            assertThat(config).as(type.getName()).contains("\"" + type.getName() + "\"");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.tongxiaoya.auditlog.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.tongxiaoya.auditlog.async.AsyncAuditDispatcher;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogProcessor;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import com.tongxiaoya.auditlog.sink.AuditSinkRejectedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 输出端背压测试（默认开启的SLF4J输出端位于拒绝接收的输出端之前，拒绝的事件仅向该输出端重试）
+ *
+ * @since 1.8
+ */
+public class SinkBackpressureTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private Logger logger;
+
+    @Before
+    public void setUp() {
+        this.logger = (Logger) LoggerFactory.getLogger(LogProcessor.class);
+        this.appender.start();
+        this.logger.addAppender(this.appender);
+    }
+
+    @After
+    public void tearDown() {
+        this.logger.detachAppender(this.appender);
+    }
+
+    @Test
+    public void rejectedSinkIsRetriedWithoutDuplicatingSlf4jOutput() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, LogAutoConfiguration.class, RejectingSinkConfiguration.class))
+                .withUserConfiguration(TestConfiguration.class)
+                .withPropertyValues("auditlog.async.enabled=true", "auditlog.async.buffer-size=4", "auditlog.async.overflow-policy=SPILL",
+                        "auditlog.async.spill.directory=" + this.folder.getRoot().getAbsolutePath())
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    RejectingSink sink = context.getBean(RejectingSink.class);
+                    AuditedService service = context.getBean(AuditedService.class);
+                    for (int i = 0; i < 20; i++) {
+                        service.call(i);
+                    }
+                    AsyncAuditDispatcher dispatcher = context.getBean(AsyncAuditDispatcher.class);
+                    assertThat(dispatcher.getSpilledCount()).isPositive();
+                    assertThat(sink.written).isEmpty();
+                    sink.rejecting = false;
+                    await(() -> sink.written.size() == 20);
+                    assertThat(sink.written).doesNotHaveDuplicates();
+                    assertThat(dispatcher.getDroppedCount()).isZero();
+                });
+        List<String> audited = this.appender.list.stream()
+                .map(ILoggingEvent::getFormattedMessage)
+                .filter(message -> message.contains("调用"))
+                .collect(Collectors.toList());
+        assertThat(audited).hasSize(20).doesNotHaveDuplicates();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("condition not met in time");
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    @Configuration
+    static class TestConfiguration {
+
+        @Bean
+        public AuditedService auditedService() {
+            return new AuditedService();
+        }
+    }
+
+    /**
+     * 在日志自动装配之后注册，位于SLF4J输出端之后
+     */
+    @Configuration
+    @AutoConfigureAfter(LogAutoConfiguration.class)
+    static class RejectingSinkConfiguration {
+
+        @Bean
+        public RejectingSink rejectingSink() {
+            return new RejectingSink();
+        }
+    }
+
+    static class AuditedService {
+
+        @Log("调用")
+        public int call(int value) {
+            return value;
+        }
+    }
+
+    static class RejectingSink implements AuditSink {
+
+        final List<String> written = new CopyOnWriteArrayList<>();
+        volatile boolean rejecting = true;
+
+        @Override
+        public void write(AuditEvent event) {
+            if (this.rejecting) {
+                throw new AuditSinkRejectedException("rejecting sink full");
+            }
+            this.written.add(String.valueOf(event.getArgs()[0]));
+        }
+    }
+}
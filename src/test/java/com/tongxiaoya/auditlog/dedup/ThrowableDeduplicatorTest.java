@@ -0,0 +1,146 @@
+package com.tongxiaoya.auditlog.dedup;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogProcessor;
+import com.tongxiaoya.auditlog.log.ThrowingLog;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 异常去重测试
+ *
+ * @since 1.8
+ */
+public class ThrowableDeduplicatorTest {
+
+    private final List<AuditEvent> events = new CopyOnWriteArrayList<>();
+
+    private ThrowableDeduplicator deduplicator;
+
+    private Service service;
+
+    @Before
+    public void setUp() {
+        LogProcessor processor = new LogProcessor();
+        processor.setSinks(Collections.<AuditSink>singletonList(this.events::add));
+        this.deduplicator = new ThrowableDeduplicator(60_000L, 16, 8);
+        processor.setDeduplicator(this.deduplicator);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Service());
+        factory.addAspect(processor);
+        this.service = factory.getProxy();
+    }
+
+    @After
+    public void tearDown() {
+        this.deduplicator.close();
+    }
+
+    @Test
+    public void deduplicatesFailedInvocations() {
+        for (int i = 0; i < 5; i++) {
+            int order = i;
+            assertThatThrownBy(() -> this.service.pay(order)).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(this.service.pay(-1)).isEqualTo("ok");
+        assertThat(this.events).extracting(AuditEvent::getType).containsExactly(AuditEvent.Type.INVOCATION, AuditEvent.Type.INVOCATION);
+        assertThat(this.events.get(0).isFailed()).isTrue();
+        assertThat(this.events.get(1).isFailed()).isFalse();
+        assertThat(this.deduplicator.getSuppressedCount()).isEqualTo(4);
+        this.deduplicator.close();
+        AuditEvent summary = this.events.get(2);
+        assertThat(summary.getType()).isEqualTo(AuditEvent.Type.INVOCATION);
+        assertThat(summary.getRepeated()).isEqualTo(4);
+    }
+
+    @Test
+    public void keepsInvocationAndThrowingEventsApart() {
+        assertThatThrownBy(() -> this.service.refund(1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> this.service.refund(2)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(this.events).extracting(AuditEvent::getType)
+                .containsExactlyInAnyOrder(AuditEvent.Type.INVOCATION, AuditEvent.Type.THROWING);
+        assertThat(this.deduplicator.getSuppressedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void fingerprintIgnoresMessageAndIsStableForSameInstance() throws NoSuchMethodException {
+        java.lang.reflect.Method method = Service.class.getMethod("pay", int.class);
+        IllegalStateException[] failures = new IllegalStateException[2];
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] = failure("订单" + i);
+        }
+        IllegalStateException first = failures[0];
+        IllegalStateException second = failures[1];
+        long fingerprint = ThrowableFingerprint.of(AuditEvent.Type.INVOCATION, method, first, 8);
+        assertThat(ThrowableFingerprint.of(AuditEvent.Type.INVOCATION, method, first, 8)).isEqualTo(fingerprint);
+        assertThat(ThrowableFingerprint.of(AuditEvent.Type.INVOCATION, method, second, 8)).isEqualTo(fingerprint);
+        assertThat(ThrowableFingerprint.of(AuditEvent.Type.THROWING, method, first, 8)).isNotEqualTo(fingerprint);
+        assertThat(ThrowableFingerprint.of(AuditEvent.Type.INVOCATION, method, new IllegalStateException("a"), 8)).isNotEqualTo(fingerprint);
+        assertThat(ThrowableFingerprint.of(AuditEvent.Type.INVOCATION, method, new RuntimeException(first), 8))
+                .isNotEqualTo(ThrowableFingerprint.of(AuditEvent.Type.INVOCATION, method, new RuntimeException(new IllegalArgumentException()), 8));
+    }
+
+    @Test
+    public void sweepsFullTableAtMostOncePerPeriod() {
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        ThrowableDeduplicator deduplicator = new ThrowableDeduplicator(500L, 1, 8, clock::get);
+        AuditEvent a = this.failed(new IllegalStateException());
+        AuditEvent b = this.failed(new IllegalArgumentException());
+        AuditEvent c = this.failed(new UnsupportedOperationException());
+        AuditEvent d = this.failed(new ArithmeticException());
+        assertThat(deduplicator.accept(a)).isTrue();
+
+        // 窗口已满：清理一次后仍满，直接输出且不去重
+        clock.addAndGet(400L);
+        assertThat(deduplicator.accept(b)).isTrue();
+        assertThat(deduplicator.accept(b)).isTrue();
+
+        // a的窗口已结束，但距上次清理不足一个周期，不再遍历
+        clock.addAndGet(200L);
+        assertThat(deduplicator.accept(c)).isTrue();
+        assertThat(deduplicator.accept(c)).isTrue();
+
+        clock.addAndGet(300L);
+        assertThat(deduplicator.accept(d)).isTrue();
+        assertThat(deduplicator.accept(d)).isFalse();
+        assertThat(deduplicator.getSuppressedCount()).isEqualTo(1);
+        deduplicator.close();
+    }
+
+    private AuditEvent failed(Throwable throwable) {
+        return AuditEvents.throwing(AuditEvents.plan(Service.class, "pay"), throwable);
+    }
+
+    private static IllegalStateException failure(String message) {
+        return new IllegalStateException(message);
+    }
+
+    public static class Service {
+
+        @Log("支付")
+        public String pay(int order) {
+            if (order >= 0) {
+                throw new IllegalStateException("订单" + order + "余额不足");
+            }
+            return "ok";
+        }
+
+        @Log("退款")
+        @ThrowingLog("退款失败")
+        public void refund(int order) {
+            throw new IllegalArgumentException("订单" + order);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.tongxiaoya.auditlog.format;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.render.ValueRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JSON格式化器测试
+ *
+ * @since 1.8
+ */
+public class JsonAuditFormatterTest {
+
+    private static final ValueRenderer RENDERER = (builder, value) -> {
+        if ("boom".equals(value)) {
+            builder.append("partial");
+            throw new IllegalStateException("render failed");
+        }
+        builder.append(value);
+    };
+
+    private final JsonAuditFormatter formatter = new JsonAuditFormatter(RENDERER, 1);
+
+    private LogPlan plan;
+
+    @Before
+    public void setUp() {
+        this.plan = AuditEvents.plan(Service.class, "call");
+    }
+
+    @Test
+    public void formatsSuccessfulInvocation() {
+        AuditEvent event = AuditEvents.invocation(this.plan, new Object[]{"订单", 3}, "ok", null, 42L);
+        assertThat(this.format(event)).isEqualTo(this.head(event)
+                + "\"params\":{\"name\":\"订单\",\"count\":\"3\"},\"outcome\":\"SUCCESS\",\"result\":\"ok\",\"durationNanos\":42}");
+    }
+
+    @Test
+    public void escapesRenderedValues() {
+        AuditEvent event = AuditEvents.invocation(this.plan, new Object[]{"a\"b\\c\n\u0001\u2028\u2029", null}, "x\ty", null, 1L);
+        assertThat(this.format(event)).isEqualTo(this.head(event)
+                + "\"params\":{\"name\":\"a\\\"b\\\\c\\n\\u0001\\u2028\\u2029\",\"count\":null},\"outcome\":\"SUCCESS\",\"result\":\"x\\ty\",\"durationNanos\":1}");
+    }
+
+    @Test
+    public void formatsFailureWithTruncatedStackAndCause() {
+        IllegalArgumentException cause = new IllegalArgumentException(null, null);
+        cause.setStackTrace(new StackTraceElement[0]);
+        IllegalStateException failure = new IllegalStateException("失败\"", cause);
+        failure.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.example.A", "a", "A.java", 1),
+                new StackTraceElement("com.example.B", "b", "B.java", 2)});
+        AuditEvent event = AuditEvents.invocation(this.plan, new Object[]{"订单", 3}, null, failure, 5L);
+        assertThat(this.format(event)).isEqualTo(this.head(event)
+                + "\"params\":{\"name\":\"订单\",\"count\":\"3\"},\"outcome\":\"FAILURE\","
+                + "\"exception\":{\"class\":\"java.lang.IllegalStateException\",\"message\":\"失败\\\"\","
+                + "\"stack\":[\"com.example.A.a(A.java:1)\"],\"framesOmitted\":1,"
+                + "\"cause\":{\"class\":\"java.lang.IllegalArgumentException\",\"message\":null,\"stack\":[]}},"
+                + "\"durationNanos\":5}");
+    }
+
+    @Test
+    public void reusesThreadWriterAcrossEvents() {
+        AuditEvent first = AuditEvents.invocation(this.plan, new Object[]{"a", 1}, "r1", null, 1L);
+        AuditEvent second = AuditEvents.invocation(this.plan, new Object[]{"b", 2}, "r2", null, 2L);
+        String expected = this.head(second)
+                + "\"params\":{\"name\":\"b\",\"count\":\"2\"},\"outcome\":\"SUCCESS\",\"result\":\"r2\",\"durationNanos\":2}";
+        this.format(first);
+        assertThat(this.format(second)).isEqualTo(expected);
+
+        // 渲染中途失败后，同一线程的下一事件不残留嵌套层级与渲染缓冲内容
+        AuditEvent broken = AuditEvents.invocation(this.plan, new Object[]{"boom", 0}, null, null, 0L);
+        assertThatThrownBy(() -> this.format(broken)).isInstanceOf(IllegalStateException.class);
+        assertThat(this.format(second)).isEqualTo(expected);
+    }
+
+    @Test
+    public void threadsUseIndependentWriters() throws InterruptedException {
+        AuditEvent first = AuditEvents.invocation(this.plan, new Object[]{"a", 1}, "r1", null, 1L);
+        AuditEvent second = AuditEvents.invocation(this.plan, new Object[]{"b", 2}, "r2", null, 2L);
+        String expectedFirst = this.format(first);
+        String expectedSecond = this.format(second);
+        AtomicReference<String> mismatch = new AtomicReference<>();
+        Thread thread = new Thread(() -> this.formatRepeatedly(second, expectedSecond, mismatch));
+        thread.start();
+        this.formatRepeatedly(first, expectedFirst, mismatch);
+        thread.join(5000L);
+        assertThat(mismatch.get()).isNull();
+    }
+
+    private void formatRepeatedly(AuditEvent event, String expected, AtomicReference<String> mismatch) {
+        for (int i = 0; i < 10_000 && mismatch.get() == null; i++) {
+            String output = this.format(event);
+            if (!output.equals(expected)) {
+                mismatch.set(output);
+            }
+        }
+    }
+
+    private String format(AuditEvent event) {
+        StringBuilder builder = new StringBuilder();
+        this.formatter.format(event, builder);
+        return builder.toString();
+    }
+
+    private String head(AuditEvent event) {
+        return "{\"timestamp\":" + event.getTimestamp()
+                + ",\"thread\":\"" + event.getThreadName() + "\""
+                + ",\"type\":\"INVOCATION\",\"level\":\"" + event.getLevel() + "\""
+                + ",\"class\":\"" + Service.class.getName() + "\",\"method\":\"call\""
+                + ",\"business\":\"调用\",";
+    }
+
+    static class Service {
+
+        @Log("调用")
+        public String call(String name, Integer count) {
+            return name + count;
+        }
+    }
+}
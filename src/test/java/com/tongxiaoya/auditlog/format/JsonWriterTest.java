@@ -0,0 +1,86 @@
+package com.tongxiaoya.auditlog.format;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JSON写入器测试
+ *
+ * @since 1.8
+ */
+public class JsonWriterTest {
+
+    private final JsonWriter writer = new JsonWriter();
+
+    @Test
+    public void escapesQuotesBackslashAndControlCharacters() {
+        StringBuilder builder = new StringBuilder();
+        this.writer.reset(builder).value("a\"b\\c\n\r\t\b\f\u0000\u0001\u001f\u007f");
+        assertThat(builder.toString()).isEqualTo("\"a\\\"b\\\\c\\n\\r\\t\\u0008\\u000c\\u0000\\u0001\\u001f\u007f\"");
+    }
+
+    @Test
+    public void escapesLineAndParagraphSeparators() {
+        StringBuilder builder = new StringBuilder();
+        this.writer.reset(builder).value("x\u2028y\u2029z/中文");
+        assertThat(builder.toString()).isEqualTo("\"x\\u2028y\\u2029z/中文\"");
+    }
+
+    @Test
+    public void escapesNamesAndSubSequences() {
+        StringBuilder builder = new StringBuilder();
+        this.writer.reset(builder).beginObject()
+                .name("k\"\n").value("[\"\\]", 1, 3)
+                .endObject();
+        assertThat(builder.toString()).isEqualTo("{\"k\\\"\\n\":\"\\\"\\\\\"}");
+    }
+
+    @Test
+    public void writesNestedStructuresWithSeparators() {
+        StringBuilder builder = new StringBuilder();
+        this.writer.reset(builder).beginObject()
+                .name("a").value(1L)
+                .name("b").beginArray()
+                .value(true).nullValue().beginObject().endObject().beginArray().endArray()
+                .beginObject().name("c").value("d").name("e").beginArray().value(-2L).endArray().endObject()
+                .endArray()
+                .name("f").value(false)
+                .endObject();
+        assertThat(builder.toString()).isEqualTo("{\"a\":1,\"b\":[true,null,{},[],{\"c\":\"d\",\"e\":[-2]}],\"f\":false}");
+    }
+
+    @Test
+    public void rejectsTooDeepNesting() {
+        assertThatThrownBy(this::nestTooDeep).isInstanceOf(IllegalStateException.class).hasMessage("json nesting too deep");
+    }
+
+    @Test
+    public void resetStartsCleanDocument() {
+        StringBuilder first = new StringBuilder();
+        this.writer.reset(first).beginObject().name("a").beginArray().value(1L);
+        // 上一文档未结束（如写入中途异常）时，重置后不残留嵌套层级与分隔状态
+        StringBuilder second = new StringBuilder();
+        this.writer.reset(second).beginObject().name("b").value(2L).endObject();
+        assertThat(first.toString()).isEqualTo("{\"a\":[1");
+        assertThat(second.toString()).isEqualTo("{\"b\":2}");
+
+        StringBuilder third = new StringBuilder();
+        this.writer.reset(third).value("c");
+        assertThat(third.toString()).isEqualTo("\"c\"");
+
+        // 嵌套过深异常后仍可复用
+        assertThatThrownBy(this::nestTooDeep).isInstanceOf(IllegalStateException.class);
+        StringBuilder fourth = new StringBuilder();
+        this.writer.reset(fourth).beginArray().value(4L).endArray();
+        assertThat(fourth.toString()).isEqualTo("[4]");
+    }
+
+    private void nestTooDeep() {
+        this.writer.reset(new StringBuilder());
+        for (int i = 0; i < 64; i++) {
+            this.writer.beginArray();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.tongxiaoya.auditlog.journal;
+
+import com.tongxiaoya.auditlog.format.BinaryAuditEncoder;
+import com.tongxiaoya.auditlog.format.JsonAuditFormatter;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.log.ThrowingLog;
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计日志文件二进制输出端测试（编码、写入分段及解码）
+ *
+ * @since 1.8
+ */
+public class BinaryJournalAuditSinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void decodesToSameJsonAsFormatter() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        LogPlan pay = AuditEvents.plan(Service.class, "pay");
+        LogPlan refund = AuditEvents.plan(Service.class, "refund");
+        IllegalStateException failure = new IllegalStateException("余额不足");
+        List<AuditEvent> events = Arrays.asList(
+                AuditEvents.invocation(pay, new Object[]{"A001", 12L}, "ok", null, 1500L),
+                AuditEvents.invocation(pay, new Object[]{"A002", null}, null, failure, 2500L),
+                AuditEvents.invocation(pay, new Object[]{"A003", 3L}, null, failure, 10L).repeat(7, 1000L, 2000L),
+                AuditEvents.throwing(refund, new IllegalArgumentException("订单不存在")),
+                AuditEvents.throwing(refund, failure).repeat(3, 1000L, 2000L)
+        );
+        JsonAuditFormatter formatter = new JsonAuditFormatter(new ObjectGraphRenderer(), 0);
+        List<String> expected = new ArrayList<>();
+        BinaryJournalAuditSink sink = new BinaryJournalAuditSink(new JournalWriter(directory, 64 * 1024, 0L, 0L),
+                new BinaryAuditEncoder(new ObjectGraphRenderer(), 0));
+        for (AuditEvent event : events) {
+            StringBuilder builder = new StringBuilder();
+            formatter.format(event, builder);
+            expected.add(builder.toString());
+            sink.write(event);
+        }
+        sink.close();
+        StringBuilder out = new StringBuilder();
+        assertThat(JournalDecoder.decode(directory, out)).isZero();
+        assertThat(out.toString().split("\n")).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void everySegmentDecodesWhenPreambleIsTruncated() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        List<LogPlan> plans = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            plans.add(AuditEvents.plan(ManyMethods.class, "method" + i));
+        }
+        BinaryJournalAuditSink sink = new BinaryJournalAuditSink(new JournalWriter(directory, 1024, 0L, 0L),
+                new BinaryAuditEncoder(new ObjectGraphRenderer(), 0));
+        int written = 0;
+        for (int round = 0; round < 20; round++) {
+            for (LogPlan plan : plans) {
+                sink.write(AuditEvents.invocation(plan, new Object[]{"value-" + round}, round, null, 100L));
+                written++;
+            }
+        }
+        sink.close();
+        assertThat(JournalReader.segments(directory).size()).isGreaterThan(5);
+        StringBuilder out = new StringBuilder();
+        assertThat(JournalDecoder.decode(directory, out)).isZero();
+        assertThat(out.toString().split("\n")).hasSize(written);
+    }
+
+    @Test
+    public void reportsUndecodableRecordsToFailureHandler() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        JournalWriter writer = new JournalWriter(directory, 64 * 1024, 0L, 0L);
+        writer.append("{\"text\":true}".getBytes(StandardCharsets.UTF_8));
+        // 事件记录引用了未定义的模式
+        writer.append(new byte[]{0x02, 0x63});
+        writer.close();
+        BinaryJournalAuditSink sink = new BinaryJournalAuditSink(new JournalWriter(directory, 64 * 1024, 0L, 0L),
+                new BinaryAuditEncoder(new ObjectGraphRenderer(), 0));
+        sink.write(AuditEvents.invocation(AuditEvents.plan(Service.class, "pay"), new Object[]{"A001", 1L}, "ok", null, 1L));
+        sink.close();
+
+        List<String> failures = new ArrayList<>();
+        StringBuilder out = new StringBuilder();
+        long count = JournalDecoder.decode(directory, out, (segment, e) -> failures.add(e.getMessage()));
+        assertThat(count).isEqualTo(1L);
+        assertThat(failures).containsExactly("undefined schema: 99");
+        // 失败记录跳过，其余记录照常输出
+        assertThat(out.toString().split("\n")).hasSize(2).startsWith("{\"text\":true}");
+        assertThat(JournalDecoder.decode(directory, new StringBuilder())).isEqualTo(1L);
+    }
+
+    static class Service {
+
+        @Log("支付")
+        public String pay(String order, Long amount) {
+            return "ok";
+        }
+
+        @ThrowingLog("退款失败")
+        public void refund(String order) {
+        }
+    }
+
+    static class ManyMethods {
+
+        @Log("第零个较长的业务名称用于占用模式记录空间")
+        public int method0(String parameterWithLongName) {
+            return 0;
+        }
+
+        @Log("第一个较长的业务名称用于占用模式记录空间")
+        public int method1(String parameterWithLongName) {
+            return 1;
+        }
+
+        @Log("第二个较长的业务名称用于占用模式记录空间")
+        public int method2(String parameterWithLongName) {
+            return 2;
+        }
+
+        @Log("第三个较长的业务名称用于占用模式记录空间")
+        public int method3(String parameterWithLongName) {
+            return 3;
+        }
+
+        @Log("第四个较长的业务名称用于占用模式记录空间")
+        public int method4(String parameterWithLongName) {
+            return 4;
+        }
+
+        @Log("第五个较长的业务名称用于占用模式记录空间")
+        public int method5(String parameterWithLongName) {
+            return 5;
+        }
+
+        @Log("第六个较长的业务名称用于占用模式记录空间")
+        public int method6(String parameterWithLongName) {
+            return 6;
+        }
+
+        @Log("第七个较长的业务名称用于占用模式记录空间")
+        public int method7(String parameterWithLongName) {
+            return 7;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.tongxiaoya.auditlog.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 审计日志文件写入及回放测试
+ *
+ * @since 1.8
+ */
+public class JournalWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsAcrossRolledSegments() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        List<String> written = new ArrayList<>();
+        try (JournalWriter writer = new JournalWriter(directory, 256, 0L, 0L)) {
+            for (int i = 0; i < 200; i++) {
+                String record = "record-" + i + "-" + repeat('x', i % 40);
+                writer.append(record.getBytes(StandardCharsets.UTF_8));
+                written.add(record);
+            }
+        }
+        assertThat(JournalReader.segments(directory).size()).isGreaterThan(10);
+        assertThat(read(new JournalReader(directory))).containsExactlyElementsOf(written);
+    }
+
+    @Test
+    public void writesPreambleAtStartOfEverySegment() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (JournalWriter writer = new JournalWriter(directory, 128, 0L, 0L)) {
+            writer.setPreamble(() -> Collections.singletonList("schema".getBytes(StandardCharsets.UTF_8)));
+            for (int i = 0; i < 30; i++) {
+                writer.append(("event-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        List<Path> segments = JournalReader.segments(directory);
+        assertThat(segments.size()).isGreaterThan(1);
+        List<String> events = new ArrayList<>();
+        for (Path segment : segments) {
+            List<String> records = read(JournalReader.records(segment));
+            assertThat(records.get(0)).isEqualTo("schema");
+            events.addAll(records.subList(1, records.size()));
+        }
+        assertThat(events).hasSize(30).startsWith("event-0").endsWith("event-29");
+    }
+
+    @Test
+    public void continuesAfterReopen() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (JournalWriter writer = new JournalWriter(directory, 1024, 0L, 0L)) {
+            writer.append(bytes("first"));
+        }
+        try (JournalWriter writer = new JournalWriter(directory, 1024, 0L, 50L)) {
+            writer.append(bytes("second"));
+        }
+        assertThat(JournalReader.segments(directory)).hasSize(2);
+        assertThat(read(new JournalReader(directory))).containsExactly("first", "second");
+    }
+
+    @Test
+    public void skipsRestOfSegmentAfterCorruptRecord() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (JournalWriter writer = new JournalWriter(directory, 64, 0L, 0L)) {
+            for (int i = 0; i < 6; i++) {
+                writer.append(bytes("r" + i + "-abcdefghij"));
+            }
+        }
+        List<Path> segments = JournalReader.segments(directory);
+        assertThat(segments).hasSize(3);
+        // 第一个分段第二条记录内容损坏：段头8字节 + 记录(8 + 13) + 记录头8字节
+        try (RandomAccessFile file = new RandomAccessFile(segments.get(0).toFile(), "rw")) {
+            file.seek(JournalWriter.HEADER_SIZE + JournalWriter.RECORD_HEADER_SIZE + 13 + JournalWriter.RECORD_HEADER_SIZE);
+            file.write('#');
+        }
+        assertThat(read(new JournalReader(directory))).containsExactly("r0-abcdefghij", "r2-abcdefghij", "r3-abcdefghij", "r4-abcdefghij", "r5-abcdefghij");
+    }
+
+    @Test
+    public void rejectsRecordsLargerThanSegment() throws IOException {
+        try (JournalWriter writer = new JournalWriter(this.folder.getRoot().toPath(), 64, 0L, 0L)) {
+            assertThatThrownBy(() -> writer.append(new byte[64])).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.append(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void rejectsAppendAfterClose() throws IOException {
+        JournalWriter writer = new JournalWriter(this.folder.getRoot().toPath(), 64, 0L, 0L);
+        writer.close();
+        assertThatThrownBy(() -> writer.append(bytes("late"))).isInstanceOf(IOException.class);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static List<String> read(Iterable<byte[]> records) {
+        List<String> result = new ArrayList<>();
+        for (byte[] record : records) {
+            result.add(new String(record, StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.tongxiaoya.auditlog.log;
+
+import com.tongxiaoya.auditlog.scope.AuditScope;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 异步返回值完成事件发布测试（完成线程不等待输出端，审计范围在调用时确定）
+ *
+ * @since 1.8
+ */
+public class AsyncResultPublishTest {
+
+    private final List<AuditEvent> events = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private LogProcessor processor;
+
+    private Service service;
+
+    @Before
+    public void setUp() {
+        this.processor = new LogProcessor();
+        this.processor.setSinks(Collections.<AuditSink>singletonList(event -> {
+            try {
+                this.released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.events.add(event);
+        }));
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Service());
+        factory.addAspect(this.processor);
+        this.service = factory.getProxy();
+    }
+
+    @After
+    public void tearDown() {
+        this.released.countDown();
+        this.processor.shutdown();
+    }
+
+    @Test
+    public void completingThreadDoesNotWaitForSlowSink() throws Exception {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        assertThat(this.service.query(future)).isSameAs(future);
+        long start = System.nanoTime();
+        future.complete("done");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(this.events).isEmpty();
+        this.released.countDown();
+        await(() -> this.events.size() == 1);
+        assertThat(this.events.get(0).getResult()).isEqualTo("done");
+        assertThat(this.processor.getCompletionDroppedCount()).isZero();
+    }
+
+    @Test
+    public void completionIgnoresScopeOfCompletingThread() throws Exception {
+        this.released.countDown();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        this.service.query(future);
+        Thread completing = new Thread(() -> {
+            // 完成线程上的范围未失败，结束时丢弃暂存事件；完成事件不应进入该范围
+            try (AuditScope ignored = AuditScope.begin("其他请求", 16, false)) {
+                future.complete("done");
+            }
+        });
+        completing.start();
+        completing.join();
+        await(() -> this.events.size() == 1);
+    }
+
+    @Test
+    public void completionOnCallingThreadIsBufferedInScope() throws Exception {
+        this.released.countDown();
+        try (AuditScope ignored = AuditScope.begin("请求", 16, false)) {
+            this.service.query(CompletableFuture.completedFuture("done"));
+        }
+        Thread.sleep(100L);
+        assertThat(this.events).isEmpty();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("condition not met in time");
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    static class Service {
+
+        @Log("查询")
+        public CompletableFuture<String> query(CompletableFuture<String> future) {
+            return future;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.tongxiaoya.auditlog.log;
+
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import com.tongxiaoya.auditlog.metrics.AuditMetrics;
+import com.tongxiaoya.auditlog.reactive.AsyncResultHandlers;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * 测试用审计事件构造
+ *
+ * @since 1.8
+ */
+public final class AuditEvents {
+
+    private AuditEvents() {
+    }
+
+    /**
+     * 编译执行计划
+     *
+     * @param type       声明类
+     * @param methodName 方法名称（不可重载）
+     * @return 返回执行计划
+     */
+    public static LogPlan plan(Class<?> type, String methodName) {
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getName().equals(methodName)) {
+                return LogPlan.compile(method, new AuditMetrics(), LoggerFactory::getLogger, AsyncResultHandlers.create(100), MaskingPolicy.annotations(), true);
+            }
+        }
+        throw new IllegalArgumentException(methodName);
+    }
+
+    /**
+     * 创建调用事件（@Log）
+     *
+     * @param plan      执行计划
+     * @param args      参数列表
+     * @param result    返回结果
+     * @param throwable 异常
+     * @param duration  耗时（纳秒）
+     * @return 返回审计事件
+     */
+    public static AuditEvent invocation(LogPlan plan, Object[] args, Object result, Throwable throwable, long duration) {
+        return new AuditEvent(AuditEvent.Type.INVOCATION, plan, plan.getLogEntry(), false, args, result, throwable, duration);
+    }
+
+    /**
+     * 创建异常事件（@ThrowingLog）
+     *
+     * @param plan      执行计划
+     * @param throwable 异常
+     * @return 返回审计事件
+     */
+    public static AuditEvent throwing(LogPlan plan, Throwable throwable) {
+        return new AuditEvent(AuditEvent.Type.THROWING, plan, plan.getThrowingEntry(), false, null, null, throwable, -1L);
+    }
+}
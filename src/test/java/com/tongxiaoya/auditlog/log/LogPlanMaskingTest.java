@@ -0,0 +1,76 @@
+package com.tongxiaoya.auditlog.log;
+
+import com.tongxiaoya.auditlog.format.TextAuditFormatter;
+import com.tongxiaoya.auditlog.mask.MaskType;
+import com.tongxiaoya.auditlog.mask.MaskedValue;
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import com.tongxiaoya.auditlog.mask.Sensitive;
+import com.tongxiaoya.auditlog.metrics.AuditMetrics;
+import com.tongxiaoya.auditlog.reactive.AsyncResultHandlers;
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 执行计划参数及返回值脱敏测试
+ *
+ * @since 1.8
+ */
+public class LogPlanMaskingTest {
+
+    private static final Object[] ARGS = {"alice", "secret", "110101199001011234"};
+
+    @Test
+    public void masksParametersAndResultThroughPlan() throws NoSuchMethodException {
+        LogPlan plan = compile(MaskingPolicy.of(Collections.singletonMap("id-card", MaskType.ID_CARD)));
+        Object[] args = plan.captureArgs(plan.getLogEntry(), ARGS);
+        assertThat(args[0]).isEqualTo("alice");
+        assertThat(args[1]).isInstanceOf(MaskedValue.class).hasToString("******");
+        assertThat(args[2]).isInstanceOf(MaskedValue.class).hasToString("110***********1234");
+        assertThat(plan.captureResult(plan.getLogEntry(), "13812345678")).hasToString("138****5678");
+        assertThat(plan.captureResult(plan.getLogEntry(), null)).isNull();
+        // 原参数数组不被修改
+        assertThat(ARGS[1]).isEqualTo("secret");
+
+        StringBuilder builder = new StringBuilder();
+        new TextAuditFormatter(new ObjectGraphRenderer()).format(
+                AuditEvents.invocation(plan, args, plan.captureResult(plan.getLogEntry(), "13812345678"), null, 1000L), builder);
+        assertThat(builder.toString())
+                .contains("alice", "******", "110***********1234", "138****5678")
+                .doesNotContain("secret", "199001011", "13812345678");
+    }
+
+    @Test
+    public void annotationsOnlyPolicyIgnoresNameRules() throws NoSuchMethodException {
+        LogPlan plan = compile(MaskingPolicy.annotations());
+        Object[] args = plan.captureArgs(plan.getLogEntry(), ARGS);
+        assertThat(args[1]).hasToString("******");
+        assertThat(args[2]).isEqualTo("110101199001011234");
+    }
+
+    @Test
+    public void disabledPolicyLeavesValuesUntouched() throws NoSuchMethodException {
+        LogPlan plan = compile(MaskingPolicy.disabled());
+        assertThat(plan.captureArgs(plan.getLogEntry(), ARGS)).containsExactly(ARGS);
+        assertThat(plan.captureResult(plan.getLogEntry(), "13812345678")).isEqualTo("13812345678");
+    }
+
+    private static LogPlan compile(MaskingPolicy masking) throws NoSuchMethodException {
+        Method method = Service.class.getDeclaredMethod("login", String.class, String.class, String.class);
+        return LogPlan.compile(method, new AuditMetrics(), LoggerFactory::getLogger, AsyncResultHandlers.create(100), masking, true);
+    }
+
+    static class Service {
+
+        @Log("登录")
+        @Sensitive(MaskType.PHONE)
+        public String login(String user, @Sensitive(MaskType.PASSWORD) String password, String idCard) {
+            return "13812345678";
+        }
+    }
+}
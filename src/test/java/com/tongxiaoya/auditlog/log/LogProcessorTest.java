@@ -0,0 +1,127 @@
+package com.tongxiaoya.auditlog.log;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.tongxiaoya.auditlog.format.TextAuditFormatter;
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import com.tongxiaoya.auditlog.sink.AuditSink;
+import com.tongxiaoya.auditlog.sink.AuditSinkRejectedException;
+import com.tongxiaoya.auditlog.sink.Slf4jAuditSink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 日志处理器测试
+ *
+ * @since 1.8
+ */
+public class LogProcessorTest {
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private Logger logger;
+
+    @Before
+    public void setUp() {
+        this.logger = (Logger) LoggerFactory.getLogger(LogProcessor.class);
+        this.appender.start();
+        this.logger.addAppender(this.appender);
+    }
+
+    @After
+    public void tearDown() {
+        this.logger.detachAppender(this.appender);
+    }
+
+    @Test
+    public void unexpectedSinkFailureIsLoggedAndNotCountedAsDelivered() {
+        List<AuditEvent> accepted = new CopyOnWriteArrayList<>();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        IllegalStateException failure = new IllegalStateException("连接已断开");
+        AuditSink broken = event -> {
+            if (failing.get()) {
+                throw failure;
+            }
+            accepted.add(event);
+        };
+        AuditSink rejecting = event -> {
+            throw new AuditSinkRejectedException("audit sink full");
+        };
+        LogProcessor processor = new LogProcessor();
+        processor.setSinks(Arrays.asList(broken, rejecting));
+        AuditEvent event = AuditEvents.invocation(AuditEvents.plan(Service.class, "call"), new Object[0], null, null, 1L);
+
+        assertThatThrownBy(() -> processor.write(event)).isInstanceOf(AuditSinkRejectedException.class);
+        assertThat(event.getDelivered()).isZero();
+        assertThat(this.appender.list).anySatisfy(logged -> {
+            assertThat(logged.getFormattedMessage()).contains(Service.class.getName(), "call");
+            assertThat(logged.getThrowableProxy()).isNotNull();
+            assertThat(logged.getThrowableProxy().getMessage()).isEqualTo("连接已断开");
+        });
+
+        // 因拒绝而重试时，出现意外异常的输出端一并重试
+        failing.set(false);
+        assertThatThrownBy(() -> processor.write(event)).isInstanceOf(AuditSinkRejectedException.class);
+        assertThat(accepted).containsExactly(event);
+        assertThat(event.getDelivered()).isEqualTo(1L);
+    }
+
+    @Test
+    public void targetRoutingUsesPrefixedTargetLoggerForLevelChecks() {
+        Logger target = (Logger) LoggerFactory.getLogger("audit." + Service.class.getName());
+        ListAppender<ILoggingEvent> targetAppender = new ListAppender<>();
+        targetAppender.start();
+        target.addAppender(targetAppender);
+        LogProcessor processor = new LogProcessor();
+        processor.setSinks(Collections.<AuditSink>singletonList(new Slf4jAuditSink(new TextAuditFormatter(new ObjectGraphRenderer()))));
+        processor.setLoggerRouting(LoggerRouting.TARGET, " audit ");
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Service());
+        factory.addAspect(processor);
+        Service service = factory.getProxy();
+        try {
+            // 级别按所在类的日志判断，与处理器日志的级别无关
+            this.logger.setLevel(ch.qos.logback.classic.Level.OFF);
+            target.setLevel(ch.qos.logback.classic.Level.INFO);
+            service.call();
+            assertThat(targetAppender.list).isEmpty();
+
+            target.setLevel(ch.qos.logback.classic.Level.DEBUG);
+            service.call();
+            assertThat(targetAppender.list).hasSize(1);
+            assertThat(targetAppender.list.get(0).getLoggerName()).isEqualTo("audit." + Service.class.getName());
+            assertThat(targetAppender.list.get(0).getFormattedMessage()).contains("调用");
+
+            // 切换路由后重新编译执行计划
+            this.logger.setLevel(ch.qos.logback.classic.Level.DEBUG);
+            processor.setLoggerRouting(LoggerRouting.PROCESSOR, "audit");
+            service.call();
+            assertThat(targetAppender.list).hasSize(1);
+            assertThat(this.appender.list).extracting(ILoggingEvent::getLoggerName).containsExactly(LogProcessor.class.getName());
+        } finally {
+            this.logger.setLevel(null);
+            target.setLevel(null);
+            target.detachAppender(targetAppender);
+            processor.shutdown();
+        }
+    }
+
+    static class Service {
+
+        @Log("调用")
+        public void call() {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.tongxiaoya.auditlog.mask;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 脱敏器测试
+ *
+ * @since 1.8
+ */
+public class MaskerTest {
+
+    @Test
+    public void keepsPrefixAndSuffixOfType() {
+        assertThat(Masker.of(MaskType.PHONE).mask("13812345678")).isEqualTo("138****5678");
+        assertThat(Masker.of(MaskType.ID_CARD).mask("110101199001011234")).isEqualTo("110***********1234");
+        assertThat(Masker.of(MaskType.BANK_CARD).mask(6222020200001234L)).isEqualTo("6222********1234");
+        assertThat(Masker.of(MaskType.NAME).mask("张三丰")).isEqualTo("张**");
+        assertThat(Masker.of(MaskType.FULL).mask("abc")).isEqualTo("***");
+    }
+
+    @Test
+    public void overridesPrefixAndSuffix() {
+        assertThat(Masker.of(MaskType.FULL, 2, -1).mask("abcdef")).isEqualTo("ab****");
+        assertThat(Masker.of(MaskType.PHONE, 0, 2).mask("13812345678")).isEqualTo("*********78");
+    }
+
+    @Test
+    public void masksEverythingWhenValueIsNotLongerThanPrefixAndSuffix() {
+        Masker phone = Masker.of(MaskType.PHONE);
+        assertThat(phone.mask("1234567")).isEqualTo("*******");
+        assertThat(phone.mask("12345678")).isEqualTo("123*5678");
+        assertThat(phone.mask("12")).isEqualTo("**");
+        assertThat(phone.mask("")).isEmpty();
+    }
+
+    @Test
+    public void masksLocalPartOfEmailOnly() {
+        Masker email = Masker.of(MaskType.EMAIL);
+        assertThat(email.mask("alice@example.com")).isEqualTo("a****@example.com");
+        assertThat(email.mask("a@example.com")).isEqualTo("*@example.com");
+        assertThat(email.mask("a.b@c@example.com")).isEqualTo("a****@example.com");
+        // 缺少本地部分或@时按整体遮盖
+        assertThat(email.mask("@example.com")).isEqualTo("@***********");
+        assertThat(email.mask("alice")).isEqualTo("a****");
+    }
+
+    @Test
+    public void passwordIsFixedRegardlessOfValue() {
+        Masker password = Masker.of(MaskType.PASSWORD);
+        assertThat(password.mask("secret")).isEqualTo("******");
+        assertThat(password.mask("a")).isEqualTo("******");
+        assertThat(password.mask("")).isEqualTo("******");
+        assertThat(password.mask(123456789L)).isEqualTo("******");
+        assertThat(Masker.of(MaskType.PASSWORD, 2, 2).mask("secret")).isEqualTo("******");
+    }
+
+    @Test
+    public void masksNonScalarValuesAsWholeAndKeepsNull() {
+        Masker phone = Masker.of(MaskType.PHONE);
+        assertThat(phone.mask(Collections.singletonList("13812345678"))).isEqualTo("******");
+        assertThat(phone.mask((Object) null)).isEqualTo("null");
+        assertThat(phone.mask('x')).isEqualTo("*");
+        StringBuilder builder = new StringBuilder("phone=");
+        phone.mask("13812345678", builder);
+        assertThat(builder.toString()).isEqualTo("phone=138****5678");
+    }
+}
@@ -0,0 +1,89 @@
+package com.tongxiaoya.auditlog.mask;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 脱敏策略测试
+ *
+ * @since 1.8
+ */
+public class MaskingPolicyTest {
+
+    @Test
+    public void matchesNamesIgnoringCaseAndSeparators() {
+        MaskingPolicy policy = MaskingPolicy.of(rules("id-card", MaskType.ID_CARD));
+        for (String name : new String[]{"id-card", "idCard", "ID_CARD", "IdCard", "id__card", "-idcard-"}) {
+            assertThat(policy.forName(name)).as(name).isNotNull();
+            assertThat(policy.forName(name).getType()).isEqualTo(MaskType.ID_CARD);
+        }
+        for (String name : new String[]{"id", "idCards", "cardId", "id-car", ""}) {
+            assertThat(policy.forName(name)).as(name).isNull();
+        }
+        assertThat(policy.forName(null)).isNull();
+    }
+
+    @Test
+    public void keepsDistinctRulesApart() {
+        MaskingPolicy policy = MaskingPolicy.of(rules("email", MaskType.EMAIL, "email-backup", MaskType.FULL, " phone ", MaskType.PHONE));
+        assertThat(policy.hasRules()).isTrue();
+        assertThat(policy.forName("EMAIL").getType()).isEqualTo(MaskType.EMAIL);
+        assertThat(policy.forName("emailBackup").getType()).isEqualTo(MaskType.FULL);
+        assertThat(policy.forName("phone").getType()).isEqualTo(MaskType.PHONE);
+        assertThat(MaskingPolicy.of(null)).isSameAs(MaskingPolicy.annotations());
+        assertThat(MaskingPolicy.annotations().hasRules()).isFalse();
+    }
+
+    @Test
+    public void annotationTakesPrecedenceOverNameRule() throws Exception {
+        MaskingPolicy policy = MaskingPolicy.of(rules("phone", MaskType.FULL, "mobile", MaskType.PHONE));
+        assertThat(policy.forField(Contact.class.getDeclaredField("phone")).getType()).isEqualTo(MaskType.PHONE);
+        assertThat(policy.forField(Contact.class.getDeclaredField("mobile")).getType()).isEqualTo(MaskType.PHONE);
+        assertThat(policy.forField(Contact.class.getDeclaredField("name"))).isNull();
+
+        Method method = Contact.class.getDeclaredMethod("update", String.class, String.class);
+        assertThat(policy.forParameter(method, 0, "phone").getType()).isEqualTo(MaskType.FULL);
+        assertThat(policy.forParameter(method, 1, "code").getType()).isEqualTo(MaskType.PASSWORD);
+        assertThat(policy.forResult(method).getType()).isEqualTo(MaskType.NAME);
+        assertThat(policy.forResult(Contact.class.getDeclaredMethod("toString"))).isNull();
+    }
+
+    @Test
+    public void disabledPolicyIgnoresAnnotationsAndRules() throws Exception {
+        MaskingPolicy policy = MaskingPolicy.disabled();
+        assertThat(policy.forField(Contact.class.getDeclaredField("phone"))).isNull();
+        Method method = Contact.class.getDeclaredMethod("update", String.class, String.class);
+        assertThat(policy.forParameter(method, 1, "code")).isNull();
+        assertThat(policy.forResult(method)).isNull();
+    }
+
+    private static Map<String, MaskType> rules(Object... pairs) {
+        Map<String, MaskType> rules = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            rules.put((String) pairs[i], (MaskType) pairs[i + 1]);
+        }
+        return rules;
+    }
+
+    static class Contact {
+        private String name;
+        @Sensitive(MaskType.PHONE)
+        private String phone;
+        private String mobile;
+
+        @Sensitive(MaskType.NAME)
+        public String update(String phone, @Sensitive(MaskType.PASSWORD) String code) {
+            return phone;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.tongxiaoya.auditlog.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 延迟直方图测试
+ *
+ * @since 1.8
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketBoundariesAreContiguous() {
+        assertThat(LatencyHistogram.bucketIndex(0)).isZero();
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT - 1; i++) {
+            long upperUnits = LatencyHistogram.bucketUpperBound(i) >>> 10;
+            assertThat(LatencyHistogram.bucketIndex(upperUnits)).as("upper bound of bucket %d", i).isEqualTo(i);
+            assertThat(LatencyHistogram.bucketIndex(upperUnits + 1)).as("first value after bucket %d", i).isEqualTo(i + 1);
+        }
+        assertThat(LatencyHistogram.bucketIndex((1L << 31) - 1)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+        assertThat(LatencyHistogram.BUCKET_COUNT).isEqualTo(232);
+    }
+
+    @Test
+    public void upperBoundsStayWithinRelativeError() {
+        for (int i = 8; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            long lower = LatencyHistogram.bucketUpperBound(i - 1) + 1;
+            long upper = LatencyHistogram.bucketUpperBound(i);
+            assertThat((double) (upper - lower + 1) / lower).isLessThanOrEqualTo(0.125);
+        }
+    }
+
+    @Test
+    public void recordsCountSumAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500L);
+        histogram.record(2_000_000L);
+        histogram.record(-5L);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(3);
+        assertThat(snapshot.getSum()).isEqualTo(2_000_495L);
+        assertThat(snapshot.getMax()).isEqualTo(2_000_000L);
+    }
+
+    @Test
+    public void quantilesReturnBucketUpperBoundCappedByMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getValueAtQuantile(0.5)).isBetween(50_000_000L, (long) (50_000_000L * 1.125));
+        assertThat(snapshot.getValueAtQuantile(0.99)).isBetween(99_000_000L, 100_000_000L);
+        assertThat(snapshot.getValueAtQuantile(1.0)).isEqualTo(100_000_000L);
+        assertThat(new LatencyHistogram().snapshot().getValueAtQuantile(0.5)).isZero();
+    }
+
+    @Test
+    public void subMicrosecondAndHugeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10L);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getValueAtQuantile(0.5)).isEqualTo(1023L);
+        assertThat(snapshot.getValueAtQuantile(1.0)).isEqualTo(LatencyHistogram.bucketUpperBound(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void intervalSnapshotCoversOnlyRecordsSinceLastInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100_000_000L);
+        histogram.record(1_000_000L);
+        LatencyHistogram.Snapshot first = histogram.intervalSnapshot();
+        assertThat(first.getCount()).isEqualTo(2);
+        assertThat(first.getSum()).isEqualTo(101_000_000L);
+        assertThat(first.getMax()).isEqualTo(100_000_000L);
+
+        histogram.record(2_000_000L);
+        histogram.record(3_000_000L);
+        LatencyHistogram.Snapshot second = histogram.intervalSnapshot();
+        assertThat(second.getCount()).isEqualTo(2);
+        assertThat(second.getSum()).isEqualTo(5_000_000L);
+        assertThat(second.getMax()).isEqualTo(3_000_000L);
+        assertThat(second.getValueAtQuantile(0.99)).isEqualTo(3_000_000L);
+
+        LatencyHistogram.Snapshot empty = histogram.intervalSnapshot();
+        assertThat(empty.getCount()).isZero();
+        assertThat(empty.getMax()).isZero();
+        assertThat(empty.getValueAtQuantile(0.5)).isZero();
+
+        // 累计快照不受区间快照影响
+        LatencyHistogram.Snapshot total = histogram.snapshot();
+        assertThat(total.getCount()).isEqualTo(4);
+        assertThat(total.getSum()).isEqualTo(106_000_000L);
+        assertThat(total.getMax()).isEqualTo(100_000_000L);
+    }
+}
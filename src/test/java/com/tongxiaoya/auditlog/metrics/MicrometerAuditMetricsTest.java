@@ -0,0 +1,87 @@
+package com.tongxiaoya.auditlog.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Micrometer指标绑定测试
+ *
+ * @since 1.8
+ */
+public class MicrometerAuditMetricsTest {
+
+    @Test
+    public void allocatesHistogramOnlyForMetricsConsumers() throws NoSuchMethodException {
+        AuditMetrics metrics = new AuditMetrics();
+        MethodMetrics before = metrics.register(Orders.class.getName(), method(String.class), "查询");
+        before.recordLatency(1_000L);
+        assertThat(before.getLatency()).isNull();
+        new MicrometerAuditMetrics(metrics).bindTo(new SimpleMeterRegistry());
+        assertThat(before.getLatency()).isNotNull();
+        assertThat(metrics.register(Orders.class.getName(), method(long.class), "查询").getLatency()).isNotNull();
+    }
+
+    @Test
+    public void keepsOverloadsApart() throws NoSuchMethodException {
+        AuditMetrics metrics = new AuditMetrics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MicrometerAuditMetrics(metrics).bindTo(registry);
+        MethodMetrics byName = metrics.register(Orders.class.getName(), method(String.class), "查询");
+        MethodMetrics byId = metrics.register(Orders.class.getName(), method(long.class), "查询");
+        assertThat(byName).isNotSameAs(byId);
+        byName.recordLatency(1_000_000L);
+        byId.recordLatency(2_000_000L);
+        byId.recordLatency(3_000_000L);
+        assertThat(registry.get("auditlog.method.calls").tag("signature", "find(String)").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auditlog.method.calls").tag("signature", "find(long)").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("auditlog.method.latency").tag("signature", "find(long)").tag("quantile", "max").gauge().value())
+                .isEqualTo(0.003);
+    }
+
+    @Test
+    public void sharesSnapshotWithinScrape() throws NoSuchMethodException {
+        AuditMetrics metrics = new AuditMetrics();
+        metrics.enableLatency();
+        MethodMetrics method = metrics.register(Orders.class.getName(), method(String.class), "查询");
+        method.recordLatency(1_000L);
+        MicrometerAuditMetrics.CachedSnapshot snapshot = new MicrometerAuditMetrics.CachedSnapshot(method.getLatency());
+        LatencyHistogram.Snapshot first = snapshot.get();
+        method.recordLatency(2_000L);
+        assertThat(snapshot.get()).isSameAs(first);
+        assertThat(first.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void latencyGaugesCoverOnlyLastInterval() throws NoSuchMethodException {
+        AuditMetrics metrics = new AuditMetrics();
+        metrics.enableLatency();
+        MethodMetrics method = metrics.register(Orders.class.getName(), method(String.class), "查询");
+        MicrometerAuditMetrics.CachedSnapshot snapshot = new MicrometerAuditMetrics.CachedSnapshot(method.getLatency(), 0L);
+        method.recordLatency(500_000_000L);
+        assertThat(snapshot.getInterval().getMax()).isEqualTo(500_000_000L);
+        method.recordLatency(1_000_000L);
+        assertThat(snapshot.getInterval().getMax()).isEqualTo(1_000_000L);
+        assertThat(snapshot.getInterval().getCount()).isZero();
+        assertThat(snapshot.get().getCount()).isEqualTo(2);
+        assertThat(snapshot.get().getMax()).isEqualTo(500_000_000L);
+    }
+
+    private static Method method(Class<?> parameterType) throws NoSuchMethodException {
+        return Orders.class.getDeclaredMethod("find", parameterType);
+    }
+
+    static class Orders {
+
+        String find(String name) {
+            return name;
+        }
+
+        String find(long id) {
+            return String.valueOf(id);
+        }
+    }
+}
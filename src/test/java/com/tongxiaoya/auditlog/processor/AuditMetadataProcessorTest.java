@@ -0,0 +1,112 @@
+package com.tongxiaoya.auditlog.processor;
+
+import com.tongxiaoya.auditlog.support.MethodMetadataIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计元数据注解处理器测试
+ *
+ * @since 1.8
+ */
+public class AuditMetadataProcessorTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reflectConfigCoversSelectedPaths() throws Exception {
+        Path source = this.folder.getRoot().toPath().resolve("demo");
+        Files.createDirectories(source);
+        write(source.resolve("Address.java"), "package demo; public class Address { private String city; public String getCity() { return city; } }");
+        write(source.resolve("User.java"), "package demo; public class User { public Address address; }");
+        write(source.resolve("Order.java"), "package demo; public class Order { private User user; public User getUser() { return user; } }");
+        write(source.resolve("Receipt.java"), "package demo; public class Receipt { private Order order; public Order getOrder() { return order; } }");
+        write(source.resolve("Service.java"), "package demo; import com.tongxiaoya.auditlog.log.Log; import java.util.concurrent.CompletableFuture;\n"
+                + "public class Service {\n"
+                + "    @Log(value = \"下单\", fields = {\"order.user.address.city\"}, resultFields = {\"order.user\"})\n"
+                + "    public CompletableFuture<Receipt> place(Order order, String remark) { return null; }\n"
+                + "}");
+        File output = this.folder.newFolder("classes");
+        compile(output, source.resolve("Service.java"), source.resolve("Order.java"), source.resolve("User.java"),
+                source.resolve("Address.java"), source.resolve("Receipt.java"));
+        String config = read(output, reflectConfig("demo.Service"));
+        assertThat(config).contains("\"name\":\"demo.Service\"", "\"name\":\"place\"", "\"name\":\"demo.Order\"",
+                "\"name\":\"demo.User\"", "\"name\":\"demo.Address\"", "\"name\":\"demo.Receipt\"");
+        assertThat(config).doesNotContain("java.lang.String\",\"allDeclaredFields");
+    }
+
+    @Test
+    public void incrementalCompileKeepsEntriesOfOtherTypes() throws Exception {
+        Path source = this.folder.getRoot().toPath().resolve("demo");
+        Files.createDirectories(source);
+        write(source.resolve("Order.java"), "package demo; public class Order { public String id; }");
+        write(source.resolve("First.java"), "package demo; import com.tongxiaoya.auditlog.log.Log;\n"
+                + "public class First { @Log(\"一\") public void one(Order order) { } @Log(\"二\") public void two() { } }");
+        write(source.resolve("Second.java"), "package demo; import com.tongxiaoya.auditlog.log.Log;\n"
+                + "public class Second { @Log(\"三\") public void three(String value) { } }");
+        File output = this.folder.newFolder("classes");
+        compile(output, source.resolve("First.java"), source.resolve("Second.java"), source.resolve("Order.java"));
+        assertThat(read(output, MethodMetadataIndex.LOCATION)).contains("demo.First#one", "demo.First#two", "demo.Second#three");
+
+        // 仅重新编译First：其已删除的方法从索引及反射配置中移除，Second的条目保留
+        write(source.resolve("First.java"), "package demo; import com.tongxiaoya.auditlog.log.Log;\n"
+                + "public class First { @Log(\"一\") public void one(Order order) { } public void two() { } }");
+        compile(output, source.resolve("First.java"));
+        assertThat(read(output, MethodMetadataIndex.LOCATION))
+                .contains("demo.First#one(Ldemo/Order;)V", "demo.Second#three(Ljava/lang/String;)V")
+                .doesNotContain("demo.First#two");
+        assertThat(read(output, reflectConfig("demo.First"))).contains("\"name\":\"one\"", "\"name\":\"demo.Order\"").doesNotContain("\"name\":\"two\"");
+        assertThat(read(output, reflectConfig("demo.Second"))).contains("\"name\":\"three\"");
+
+        // 不再含注解方法的类型：索引条目移除，反射配置置空
+        write(source.resolve("First.java"), "package demo; public class First { public void one(Order order) { } }");
+        compile(output, source.resolve("First.java"));
+        assertThat(read(output, MethodMetadataIndex.LOCATION)).doesNotContain("demo.First#").contains("demo.Second#three");
+        assertThat(read(output, reflectConfig("demo.First")).trim()).isEqualTo("[]");
+    }
+
+    private static void compile(File output, Path... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output));
+            List<File> files = new ArrayList<>(sources.length);
+            for (Path source : sources) {
+                files.add(source.toFile());
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path"),
+                            "-sourcepath", sources[0].getParent().getParent().toString()), null, fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(new AuditMetadataProcessor()));
+            assertThat(task.call()).isTrue();
+        }
+    }
+
+    private static String reflectConfig(String type) {
+        return "META-INF/native-image/com.tongxiaoya.auditlog/default/" + type + "/reflect-config.json";
+    }
+
+    private static String read(File output, String location) throws Exception {
+        return new String(Files.readAllBytes(output.toPath().resolve(location)), StandardCharsets.UTF_8);
+    }
+
+    private static void write(Path path, String content) throws Exception {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
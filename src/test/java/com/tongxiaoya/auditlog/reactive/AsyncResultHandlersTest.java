@@ -0,0 +1,154 @@
+package com.tongxiaoya.auditlog.reactive;
+
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import com.tongxiaoya.auditlog.render.TruncatedList;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 异步返回值处理器测试
+ *
+ * @since 1.8
+ */
+@SuppressWarnings("unchecked")
+public class AsyncResultHandlersTest {
+
+    private final List<Completion> completions = new ArrayList<>();
+
+    private final AsyncResultHandler.Callback callback = (value, throwable, duration) -> this.completions.add(new Completion(value, throwable, duration));
+
+    @Test
+    public void matchesDeclaredReturnTypes() {
+        List<AsyncResultHandler> handlers = AsyncResultHandlers.create(10);
+        assertThat(handlers).hasSize(2);
+        assertThat(handlers.get(0).supports(CompletableFuture.class)).isTrue();
+        assertThat(handlers.get(0).supports(CompletionStage.class)).isTrue();
+        assertThat(handlers.get(0).supports(Object.class)).isFalse();
+        assertThat(handlers.get(1).supports(Mono.class)).isTrue();
+        assertThat(handlers.get(1).supports(Flux.class)).isTrue();
+        assertThat(handlers.get(1).supports(Object.class)).isFalse();
+    }
+
+    @Test
+    public void completableFutureCompletesOnceWithValue() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Object decorated = new CompletionStageResultHandler().decorate(future, System.nanoTime(), this.callback);
+        assertThat(decorated).isSameAs(future);
+        assertThat(this.completions).isEmpty();
+        future.complete("done");
+        assertThat(this.completions).hasSize(1);
+        assertThat(this.completions.get(0).value).isEqualTo("done");
+        assertThat(this.completions.get(0).throwable).isNull();
+        assertThat(this.completions.get(0).duration).isNotNegative();
+    }
+
+    @Test
+    public void completableFutureUnwrapsCompletionException() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        IllegalStateException failure = new IllegalStateException("failed");
+        CompletableFuture<String> dependent = future.thenApply(value -> value);
+        new CompletionStageResultHandler().decorate(dependent, System.nanoTime(), this.callback);
+        future.completeExceptionally(failure);
+        assertThat(this.completions).hasSize(1);
+        assertThat(this.completions.get(0).throwable).isSameAs(failure);
+
+        CompletableFuture<String> cancelled = new CompletableFuture<>();
+        new CompletionStageResultHandler().decorate(cancelled, System.nanoTime(), this.callback);
+        cancelled.cancel(false);
+        assertThat(this.completions.get(1).throwable).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    public void monoCompletesOncePerSubscription() {
+        Mono<?> mono = (Mono<?>) new ReactorResultHandler(10).decorate(Mono.just("value"), System.nanoTime(), this.callback);
+        assertThat(this.completions).isEmpty();
+        assertThat(mono.block()).isEqualTo("value");
+        assertThat(mono.block()).isEqualTo("value");
+        assertThat(this.completions).hasSize(2);
+        assertThat(this.completions.get(0).value).isEqualTo("value");
+
+        Mono<?> empty = (Mono<?>) new ReactorResultHandler(10).decorate(Mono.empty(), System.nanoTime(), this.callback);
+        assertThat(empty.block()).isNull();
+        assertThat(this.completions).hasSize(3);
+        assertThat(this.completions.get(2).value).isNull();
+        assertThat(this.completions.get(2).throwable).isNull();
+    }
+
+    @Test
+    public void monoReportsErrorAndCancel() {
+        IllegalStateException failure = new IllegalStateException("failed");
+        Mono<?> failing = (Mono<?>) new ReactorResultHandler(10).decorate(Mono.error(failure), System.nanoTime(), this.callback);
+        assertThatThrownBy(failing::block).isSameAs(failure);
+        assertThat(this.completions).hasSize(1);
+        assertThat(this.completions.get(0).throwable).isSameAs(failure);
+
+        Mono<?> never = (Mono<?>) new ReactorResultHandler(10).decorate(Mono.never(), System.nanoTime(), this.callback);
+        Disposable subscription = never.subscribe();
+        assertThat(this.completions).hasSize(1);
+        subscription.dispose();
+        assertThat(this.completions).hasSize(2);
+        assertThat(this.completions.get(1).value).isNull();
+        assertThat(this.completions.get(1).throwable).isNull();
+    }
+
+    @Test
+    public void fluxKeepsFirstElementsAndCountsTheRest() {
+        Flux<?> flux = (Flux<?>) new ReactorResultHandler(3).decorate(Flux.range(1, 10), System.nanoTime(), this.callback);
+        assertThat(flux.collectList().block()).hasSize(10);
+        assertThat(this.completions).hasSize(1);
+        Object value = this.completions.get(0).value;
+        assertThat(value).isInstanceOf(TruncatedList.class);
+        assertThat((List<Object>) value).containsExactly(1, 2, 3);
+        assertThat(((TruncatedList<?>) value).getTotal()).isEqualTo(10L);
+        assertThat(render(value)).isEqualTo("[1, 2, 3, ...(10 total)]");
+
+        Flux<?> small = (Flux<?>) new ReactorResultHandler(3).decorate(Flux.just("a", "b"), System.nanoTime(), this.callback);
+        small.blockLast();
+        assertThat(render(this.completions.get(1).value)).isEqualTo("[a, b]");
+    }
+
+    @Test
+    public void fluxReportsErrorAndCancelWithElementsSoFar() {
+        IllegalStateException failure = new IllegalStateException("failed");
+        Flux<?> failing = (Flux<?>) new ReactorResultHandler(10).decorate(Flux.just(1, 2).concatWith(Flux.error(failure)), System.nanoTime(), this.callback);
+        assertThatThrownBy(failing::blockLast).isSameAs(failure);
+        assertThat(this.completions).hasSize(1);
+        assertThat((List<Object>) this.completions.get(0).value).containsExactly(1, 2);
+        assertThat(this.completions.get(0).throwable).isSameAs(failure);
+
+        Flux<?> flux = (Flux<?>) new ReactorResultHandler(10).decorate(Flux.range(1, 100), System.nanoTime(), this.callback);
+        assertThat(flux.take(3).collectList().block()).hasSize(3);
+        assertThat(this.completions).hasSize(2);
+        assertThat((List<Object>) this.completions.get(1).value).containsExactly(1, 2, 3);
+        assertThat(this.completions.get(1).throwable).isNull();
+    }
+
+    private static String render(Object value) {
+        StringBuilder builder = new StringBuilder();
+        new ObjectGraphRenderer().render(builder, value);
+        return builder.toString();
+    }
+
+    private static final class Completion {
+        private final Object value;
+        private final Throwable throwable;
+        private final long duration;
+
+        private Completion(Object value, Throwable throwable, long duration) {
+            this.value = value;
+            this.throwable = throwable;
+            this.duration = duration;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.tongxiaoya.auditlog.render;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 数组渲染器测试
+ *
+ * @since 1.8
+ */
+public class ArrayRendererTest {
+
+    @Test
+    public void truncatesToElementBudget() {
+        ArrayRenderer renderer = new ArrayRenderer(3, 32, ByteFormat.HEX);
+        assertThat(render(renderer, new int[]{1, 2, 3})).isEqualTo("[1, 2, 3]");
+        assertThat(render(renderer, new int[]{1, 2, 3, 4, 5})).isEqualTo("[1, 2, 3, ...(5 total)]");
+        assertThat(render(renderer, new char[]{'a', 'b', 'c', 'd'})).isEqualTo("[a, b, c, ...(4 total)]");
+        assertThat(render(renderer, new Object[]{"a", null, 1L, true})).isEqualTo("[a, null, 1, ...(4 total)]");
+        assertThat(render(renderer, new long[0])).isEqualTo("[]");
+        assertThat(render(new ArrayRenderer(0, 32, ByteFormat.HEX), new double[]{1.5, 2.5})).isEqualTo("[...(2 total)]");
+    }
+
+    @Test
+    public void truncatesToByteBudget() {
+        byte[] bytes = {0x0a, 0x0b, (byte) 0xff, 0x00, 0x7f};
+        assertThat(render(new ArrayRenderer(100, 8, ByteFormat.HEX), bytes)).isEqualTo("byte[5]{hex=0a0bff007f}");
+        assertThat(render(new ArrayRenderer(100, 2, ByteFormat.HEX), bytes)).isEqualTo("byte[5]{hex=0a0b...}");
+        assertThat(render(new ArrayRenderer(100, 3, ByteFormat.BASE64), bytes)).isEqualTo("byte[5]{base64=Cgv/...}");
+        assertThat(render(new ArrayRenderer(100, 0, ByteFormat.HEX), bytes)).isEqualTo("byte[5]{hex=...}");
+        assertThat(render(new ArrayRenderer(100, 2, ByteFormat.HEX), new byte[0])).isEqualTo("byte[0]{hex=}");
+    }
+
+    @Test
+    public void rendersNestedArrays() {
+        ArrayRenderer renderer = new ArrayRenderer(2, 1, ByteFormat.HEX);
+        Object[] nested = {new int[]{1, 2, 3}, new Object[]{"a", new byte[]{1, 2}}, "b"};
+        assertThat(render(renderer, nested)).isEqualTo("[[1, 2, ...(3 total)], [a, byte[2]{hex=01...}], ...(3 total)]");
+        // 同一数组在不同位置重复出现不视为循环引用
+        int[] shared = {7};
+        assertThat(render(renderer, new Object[]{shared, shared})).isEqualTo("[[7], [7]]");
+    }
+
+    @Test
+    public void stopsAtCycles() {
+        ArrayRenderer renderer = new ArrayRenderer();
+        Object[] self = new Object[1];
+        self[0] = self;
+        assertThat(render(renderer, self)).isEqualTo("[<cycle>]");
+
+        Object[] outer = new Object[2];
+        Object[] inner = {"x", outer};
+        outer[0] = inner;
+        outer[1] = inner;
+        assertThat(render(renderer, outer)).isEqualTo("[[x, <cycle>], [x, <cycle>]]");
+    }
+
+    @Test
+    public void stopsAtMaxNesting() {
+        Object[] root = new Object[1];
+        Object[] current = root;
+        for (int i = 0; i < 100; i++) {
+            Object[] next = new Object[1];
+            current[0] = next;
+            current = next;
+        }
+        String rendered = render(new ArrayRenderer(), root);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < ArrayRenderer.MAX_NESTING; i++) {
+            expected.append('[');
+        }
+        expected.append("[...]");
+        for (int i = 0; i < ArrayRenderer.MAX_NESTING; i++) {
+            expected.append(']');
+        }
+        assertThat(rendered).isEqualTo(expected.toString());
+    }
+
+    private static String render(ArrayRenderer renderer, Object array) {
+        StringBuilder builder = new StringBuilder();
+        renderer.render(builder, array);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.tongxiaoya.auditlog.render;
+
+import com.tongxiaoya.auditlog.mask.MaskType;
+import com.tongxiaoya.auditlog.mask.MaskingPolicy;
+import com.tongxiaoya.auditlog.mask.Sensitive;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 对象图渲染器测试
+ *
+ * @since 1.8
+ */
+public class ObjectGraphRendererTest {
+
+    @Test
+    public void doesNotReadPrivateFieldsByDefault() {
+        String rendered = this.render(new ObjectGraphRenderer(), new Plain("alice"));
+        assertThat(rendered).startsWith(Plain.class.getName() + "@").doesNotContain("alice");
+    }
+
+    @Test
+    public void rendersFieldsOfSensitiveTypeWithoutOptIn() {
+        assertThat(this.render(new ObjectGraphRenderer(), new Account("alice", "13812345678"))).isEqualTo("Account{name=alice, phone=138****5678}");
+        assertThat(this.render(new ObjectGraphRenderer(), new User("alice", "secret"))).isEqualTo("User{name=alice, password=******}");
+    }
+
+    @Test
+    public void rendersFieldsOfTypeMatchingNameRule() {
+        ObjectGraphRenderer renderer = new ObjectGraphRenderer(4096, 3, 100, new ArrayRenderer(), Collections.emptyMap(),
+                MaskingPolicy.of(Collections.singletonMap("secret", MaskType.PASSWORD)));
+        assertThat(this.render(renderer, new Token("secret"))).isEqualTo("Token[***]");
+        assertThat(this.render(renderer, new Credential("bob", "hunter2"))).isEqualTo("Credential{user=bob, secret=******}");
+        assertThat(this.render(new ObjectGraphRenderer(), new Credential("bob", "hunter2"))).contains("hunter2");
+    }
+
+    @Test
+    public void rendersFieldsOfTypeNestingSensitiveType() {
+        Order order = new Order(1L, Collections.singletonList(new User("alice", "secret")));
+        assertThat(this.render(new ObjectGraphRenderer(), order)).isEqualTo("Order{id=1, users=[User{name=alice, password=******}]}");
+    }
+
+    @Test
+    public void disabledMaskingKeepsToString() {
+        ObjectGraphRenderer renderer = new ObjectGraphRenderer(4096, 3, 100, new ArrayRenderer(), Collections.emptyMap(), MaskingPolicy.disabled());
+        assertThat(this.render(renderer, new User("alice", "secret"))).isEqualTo("User(name=alice, password=secret)");
+    }
+
+    @Test
+    public void usesOverriddenToString() {
+        assertThat(this.render(new ObjectGraphRenderer(), new Token("secret"))).isEqualTo("Token[***]");
+    }
+
+    @Test
+    public void rendersFieldsOfOptedInPackage() {
+        ObjectGraphRenderer renderer = this.renderer(getClass().getPackage().getName());
+        assertThat(this.render(renderer, new Account("alice", "13812345678"))).isEqualTo("Account{name=alice, phone=138****5678}");
+        assertThat(this.render(renderer, new Token("secret"))).isEqualTo("Token{value=secret}");
+    }
+
+    @Test
+    public void rendersFieldsOfOptedInType() {
+        ObjectGraphRenderer renderer = this.renderer(Account.class.getName());
+        assertThat(this.render(renderer, new Account("bob", null))).isEqualTo("Account{name=bob, phone=null}");
+        assertThat(this.render(renderer, new Token("secret"))).isEqualTo("Token[***]");
+    }
+
+    @Test
+    public void ignoresSimilarPackagePrefix() {
+        ObjectGraphRenderer renderer = this.renderer("com.tongxiaoya.auditlog.rend");
+        assertThat(this.render(renderer, new Token("secret"))).isEqualTo("Token[***]");
+    }
+
+    private ObjectGraphRenderer renderer(String fieldType) {
+        return new ObjectGraphRenderer(4096, 3, 100, new ArrayRenderer(), Collections.emptyMap(), MaskingPolicy.annotations(),
+                Collections.singletonList(fieldType));
+    }
+
+    private String render(ObjectGraphRenderer renderer, Object value) {
+        StringBuilder builder = new StringBuilder();
+        renderer.render(builder, value);
+        return builder.toString();
+    }
+
+    static class Account {
+        private final String name;
+        @Sensitive(MaskType.PHONE)
+        private final String phone;
+
+        Account(String name, String phone) {
+            this.name = name;
+            this.phone = phone;
+        }
+    }
+
+    static class Plain {
+        private final String name;
+
+        Plain(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * 类似Lombok @Data生成的toString()
+     */
+    static class User {
+        private final String name;
+        @Sensitive(MaskType.PASSWORD)
+        private final String password;
+
+        User(String name, String password) {
+            this.name = name;
+            this.password = password;
+        }
+
+        @Override
+        public String toString() {
+            return "User(name=" + this.name + ", password=" + this.password + ")";
+        }
+    }
+
+    static class Credential {
+        private final String user;
+        private final String secret;
+
+        Credential(String user, String secret) {
+            this.user = user;
+            this.secret = secret;
+        }
+
+        @Override
+        public String toString() {
+            return "Credential(user=" + this.user + ", secret=" + this.secret + ")";
+        }
+    }
+
+    static class Order {
+        private final long id;
+        private final List<User> users;
+
+        Order(long id, List<User> users) {
+            this.id = id;
+            this.users = users;
+        }
+
+        @Override
+        public String toString() {
+            return "Order(id=" + this.id + ", users=" + this.users + ")";
+        }
+    }
+
+    static class Token {
+        private final String value;
+
+        Token(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "Token[***]";
+        }
+    }
+}
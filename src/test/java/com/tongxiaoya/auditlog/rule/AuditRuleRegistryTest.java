@@ -0,0 +1,119 @@
+package com.tongxiaoya.auditlog.rule;
+
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Level;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计规则注册表及端点测试
+ *
+ * @since 1.8
+ */
+public class AuditRuleRegistryTest {
+
+    private static final String SERVICE = OrderService.class.getName();
+
+    private final AuditRuleRegistry registry = new AuditRuleRegistry();
+
+    private LogPlan plan;
+
+    @Before
+    public void setUp() {
+        this.plan = AuditEvents.plan(OrderService.class, "pay");
+    }
+
+    @Test
+    public void runtimeRulesPrecedePropertyRules() {
+        this.registry.setPropertyRules(Collections.singletonList(new AuditRule(SERVICE, null, false, null)));
+        assertThat(this.resolve()).isNull();
+        this.registry.addRuntimeRule(new AuditRule(SERVICE + "#pay", null, true, Level.WARN));
+        assertThat(this.resolve().getLevel()).isEqualTo(Level.WARN);
+        // 后添加的运行时规则优先
+        this.registry.addRuntimeRule(new AuditRule(null, "支付*", true, Level.ERROR));
+        assertThat(this.resolve().getLevel()).isEqualTo(Level.ERROR);
+        assertThat(this.registry.getSnapshot().getRules()).extracting(AuditRule::getLevel)
+                .containsExactly(Level.ERROR, Level.WARN, null);
+
+        // 配置刷新不影响运行时规则
+        this.registry.setPropertyRules(null);
+        assertThat(this.resolve().getLevel()).isEqualTo(Level.ERROR);
+        this.registry.clearRuntimeRules();
+        assertThat(this.registry.getSnapshot()).isSameAs(AuditRules.EMPTY);
+        assertThat(this.resolve().getLevel()).isEqualTo(Level.INFO);
+    }
+
+    @Test
+    public void changesSwapSnapshotWithoutAffectingPreviousOne() {
+        this.registry.setPropertyRules(Collections.singletonList(new AuditRule(SERVICE, null, false, null)));
+        AuditRules before = this.registry.getSnapshot();
+        this.registry.addRuntimeRule(new AuditRule(SERVICE, null, true, null));
+        AuditRules after = this.registry.getSnapshot();
+        assertThat(after).isNotSameAs(before);
+        assertThat(before.getRules()).hasSize(1);
+        assertThat(before.resolve(this.plan, this.plan.getLogEntry())).isNull();
+        assertThat(after.resolve(this.plan, this.plan.getLogEntry())).isNotNull();
+    }
+
+    @Test
+    public void readersSeeOnlyCompleteSnapshots() throws InterruptedException {
+        AuditRule disable = new AuditRule(SERVICE, null, false, null);
+        AuditRule warn = new AuditRule(null, "支付*", true, Level.WARN);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> inconsistent = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            while (running.get()) {
+                this.registry.setPropertyRules(Arrays.asList(disable, warn));
+                this.registry.setPropertyRules(Collections.singletonList(warn));
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 100_000 && inconsistent.get() == null; i++) {
+                AuditRules snapshot = this.registry.getSnapshot();
+                LogPlan.Entry entry = snapshot.resolve(this.plan, this.plan.getLogEntry());
+                int size = snapshot.getRules().size();
+                // 快照内的规则与其匹配结果始终一致
+                if (size == 2 && entry != null || size == 1 && (entry == null || entry.getLevel() != Level.WARN)) {
+                    inconsistent.set(snapshot.getRules() + " -> " + entry);
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join(5000L);
+        }
+        assertThat(inconsistent.get()).isNull();
+    }
+
+    @Test
+    public void endpointManagesRuntimeRules() {
+        this.registry.setPropertyRules(Collections.singletonList(new AuditRule(SERVICE, null, false, null)));
+        AuditRuleEndpoint endpoint = new AuditRuleEndpoint(this.registry);
+        assertThat(endpoint.rules()).hasSize(1);
+        assertThat(endpoint.addRule(SERVICE + "#pay", null, null, Level.ERROR))
+                .extracting(AuditRule::getTarget).containsExactly(SERVICE + "#pay", SERVICE);
+        assertThat(this.resolve().getLevel()).isEqualTo(Level.ERROR);
+        assertThat(endpoint.clearRules()).extracting(AuditRule::getTarget).containsExactly(SERVICE);
+        assertThat(this.resolve()).isNull();
+    }
+
+    private LogPlan.Entry resolve() {
+        return this.registry.getSnapshot().resolve(this.plan, this.plan.getLogEntry());
+    }
+
+    static class OrderService {
+
+        @Log(value = "支付订单", level = Level.INFO)
+        public void pay(String id) {
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.tongxiaoya.auditlog.rule;
+
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Level;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 审计规则快照测试
+ *
+ * @since 1.8
+ */
+public class AuditRulesTest {
+
+    private static final String SERVICE = OrderService.class.getName();
+
+    private LogPlan query;
+
+    private LogPlan pay;
+
+    @Before
+    public void setUp() {
+        this.query = AuditEvents.plan(OrderService.class, "queryOrder");
+        this.pay = AuditEvents.plan(OrderService.class, "pay");
+    }
+
+    @Test
+    public void emptyRulesKeepEntry() {
+        assertThat(AuditRules.of(null)).isSameAs(AuditRules.EMPTY);
+        assertThat(AuditRules.of(Collections.emptyList())).isSameAs(AuditRules.EMPTY);
+        LogPlan.Entry entry = this.query.getLogEntry();
+        assertThat(AuditRules.EMPTY.resolve(this.query, entry)).isSameAs(entry);
+    }
+
+    @Test
+    public void matchesTargetAndBusinessWithWildcards() {
+        assertThat(resolve(rules(new AuditRule(SERVICE, null, false, null)), this.query)).isNull();
+        assertThat(resolve(rules(new AuditRule(SERVICE + "#query*", null, false, null)), this.query)).isNull();
+        assertThat(resolve(rules(new AuditRule(SERVICE + "#query*", null, false, null)), this.pay)).isNotNull();
+        assertThat(resolve(rules(new AuditRule("*OrderService#pay", null, false, null)), this.pay)).isNull();
+        assertThat(resolve(rules(new AuditRule(null, "支付*", false, null)), this.pay)).isNull();
+        assertThat(resolve(rules(new AuditRule(null, "支付*", false, null)), this.query)).isNotNull();
+        // 同时声明时两者均需匹配
+        assertThat(resolve(rules(new AuditRule(SERVICE + "#pay", "查询*", false, null)), this.pay)).isNotNull();
+        // 通配符以外的正则字符按字面匹配
+        assertThat(resolve(rules(new AuditRule("com.tongxiaoya.auditlog.rule.AuditRulesTest.OrderService", null, false, null)), this.pay)).isNotNull();
+    }
+
+    @Test
+    public void firstMatchingRuleWins() {
+        AuditRules rules = rules(
+                new AuditRule(SERVICE + "#pay", null, null, Level.WARN),
+                new AuditRule(SERVICE, null, false, null));
+        LogPlan.Entry pay = resolve(rules, this.pay);
+        assertThat(pay).isNotNull();
+        assertThat(pay.getLevel()).isEqualTo(Level.WARN);
+        assertThat(resolve(rules, this.query)).isNull();
+    }
+
+    @Test
+    public void overridesLevelWithoutChangingOriginalEntry() {
+        LogPlan.Entry entry = this.pay.getLogEntry();
+        assertThat(entry.getLevel()).isEqualTo(Level.INFO);
+        AuditRules rules = rules(new AuditRule(null, "支付*", true, Level.ERROR));
+        LogPlan.Entry resolved = rules.resolve(this.pay, entry);
+        assertThat(resolved).isNotSameAs(entry);
+        assertThat(resolved.getLevel()).isEqualTo(Level.ERROR);
+        assertThat(resolved.getBusName()).isEqualTo(entry.getBusName());
+        assertThat(entry.getLevel()).isEqualTo(Level.INFO);
+        // 匹配结果按注解执行计划缓存
+        assertThat(rules.resolve(this.pay, entry)).isSameAs(resolved);
+        // 级别相同或规则仅开启输出时沿用原执行计划
+        assertThat(resolve(rules(new AuditRule(null, "支付*", null, Level.INFO)), this.pay)).isSameAs(entry);
+        assertThat(resolve(rules(new AuditRule(null, "支付*", true, null)), this.pay)).isSameAs(entry);
+    }
+
+    @Test
+    public void rulesAreImmutableSnapshot() {
+        List<AuditRule> source = new ArrayList<>(Collections.singletonList(new AuditRule(SERVICE, null, false, null)));
+        AuditRules rules = AuditRules.of(source);
+        source.clear();
+        assertThat(rules.getRules()).hasSize(1);
+        assertThatThrownBy(() -> rules.getRules().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(resolve(rules, this.query)).isNull();
+    }
+
+    private static AuditRules rules(AuditRule... rules) {
+        return AuditRules.of(Arrays.asList(rules));
+    }
+
+    private static LogPlan.Entry resolve(AuditRules rules, LogPlan plan) {
+        return rules.resolve(plan, plan.getLogEntry());
+    }
+
+    static class OrderService {
+
+        @Log("查询订单")
+        public String queryOrder(String id) {
+            return id;
+        }
+
+        @Log(value = "支付订单", level = Level.INFO)
+        public void pay(String id) {
+        }
+    }
+}
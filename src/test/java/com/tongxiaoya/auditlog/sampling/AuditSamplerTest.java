@@ -0,0 +1,127 @@
+package com.tongxiaoya.auditlog.sampling;
+
+import com.tongxiaoya.auditlog.metrics.MethodMetrics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计采样器测试（固定时钟及随机数，结果确定）
+ *
+ * @since 1.8
+ */
+public class AuditSamplerTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    private MethodMetrics metrics;
+
+    @Before
+    public void setUp() throws NoSuchMethodException {
+        this.metrics = new MethodMetrics(Service.class.getName(), Service.class.getMethod("call"), "调用");
+    }
+
+    @Test
+    public void allowsBurstOfOneSecond() {
+        AuditSampler sampler = this.sampler(1D, 10, false, () -> 0D);
+        assertThat(accepted(sampler, 0D, 20)).isEqualTo(10);
+        assertThat(this.metrics.getSampledOutCount()).isEqualTo(10);
+        // 长时间空闲后突发容量不超过一秒的令牌数
+        this.advance(10_000L);
+        assertThat(accepted(sampler, 0D, 20)).isEqualTo(10);
+    }
+
+    @Test
+    public void limitsSteadyRate() {
+        AuditSampler sampler = this.sampler(1D, 10, false, () -> 0D);
+        assertThat(accepted(sampler, 0D, 10)).isEqualTo(10);
+        int accepted = 0;
+        for (int i = 0; i < 1000; i++) {
+            this.advance(10L);
+            if (sampler.sample(0D)) {
+                accepted++;
+            }
+        }
+        // 10秒内每100毫秒产生一个令牌
+        assertThat(accepted).isEqualTo(100);
+        this.advance(50L);
+        assertThat(sampler.sample(0D)).isFalse();
+        this.advance(50L);
+        assertThat(sampler.sample(0D)).isTrue();
+    }
+
+    @Test
+    public void scalesWithSaturation() {
+        AuditSampler sampler = this.sampler(1D, 0, true, sequence());
+        assertThat(sampler.isAdaptive()).isTrue();
+        assertThat(accepted(sampler, 0.3D, 100)).isEqualTo(100);
+        assertThat(accepted(sampler, 0.5D, 100)).isEqualTo(100);
+        assertThat(accepted(sampler, 0.75D, 100)).isEqualTo(50);
+        assertThat(accepted(sampler, 0.9D, 100)).isEqualTo(20);
+        // 完全饱和时仍保留最低输出比例
+        assertThat(accepted(sampler, 1D, 100)).isEqualTo(1);
+        assertThat(this.metrics.getSampledOutCount()).isEqualTo(50 + 80 + 99);
+    }
+
+    @Test
+    public void ignoresSaturationWhenNotAdaptive() {
+        AuditSampler sampler = this.sampler(0.25D, 0, false, sequence());
+        assertThat(sampler.isAdaptive()).isFalse();
+        assertThat(accepted(sampler, 1D, 100)).isEqualTo(25);
+        assertThat(this.metrics.getSampledOutCount()).isEqualTo(75);
+    }
+
+    @Test
+    public void sampledOutEventsDoNotConsumeTokens() {
+        AtomicInteger next = new AtomicInteger();
+        AuditSampler sampler = this.sampler(0.5D, 10, false, () -> next.getAndIncrement() % 2 == 0 ? 0.9D : 0.1D);
+        // 一半事件被比例采样丢弃，不占用令牌，其余事件用满一秒的令牌
+        assertThat(accepted(sampler, 0D, 40)).isEqualTo(10);
+        assertThat(this.metrics.getSampledOutCount()).isEqualTo(30);
+    }
+
+    @Test
+    public void notConfiguredWithoutSampling() {
+        assertThat(AuditSampler.isConfigured(1D, 0, false)).isFalse();
+        assertThat(AuditSampler.of(1D, 0, false, this.metrics)).isNull();
+        assertThat(AuditSampler.of(0.5D, 0, false, this.metrics)).isNotNull();
+    }
+
+    private AuditSampler sampler(double sampleRate, int rateLimit, boolean adaptive, DoubleSupplier random) {
+        return new AuditSampler(sampleRate, rateLimit, adaptive, this.metrics, this.clock::get, random);
+    }
+
+    private void advance(long millis) {
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static int accepted(AuditSampler sampler, double saturation, int count) {
+        int accepted = 0;
+        for (int i = 0; i < count; i++) {
+            if (sampler.sample(saturation)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 依次返回0.005、0.015……0.995，循环使用
+     */
+    private static DoubleSupplier sequence() {
+        AtomicInteger next = new AtomicInteger();
+        return () -> (next.getAndIncrement() % 100 + 0.5D) / 100D;
+    }
+
+    static class Service {
+
+        public void call() {
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.tongxiaoya.auditlog.scope;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 请求审计范围过滤器测试
+ *
+ * @since 1.8
+ */
+public class AuditScopeFilterTest {
+
+    private final AuditScopeFilter filter = new AuditScopeFilter(4, false);
+
+    private final List<AuditEvent> output = new ArrayList<>();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private LogPlan plan;
+
+    @Before
+    public void setUp() {
+        this.plan = AuditEvents.plan(Service.class, "call");
+    }
+
+    @After
+    public void tearDown() {
+        assertThat(AuditScope.current()).isNull();
+    }
+
+    @Test
+    public void discardsEventsOfSuccessfulRequest() throws Exception {
+        this.filter.doFilter(this.request, this.response, (request, response) -> this.buffer(1));
+        assertThat(this.output).isEmpty();
+    }
+
+    @Test
+    public void flushesEventsOfServerError() throws Exception {
+        this.filter.doFilter(this.request, this.response, (request, response) -> {
+            this.buffer(1);
+            this.response.setStatus(503);
+        });
+        assertThat(this.output).hasSize(1);
+    }
+
+    @Test
+    public void flushesEventsWhenRequestThrows() {
+        FilterChain chain = (request, response) -> {
+            this.buffer(1);
+            throw new ServletException("失败");
+        };
+        assertThatThrownBy(() -> this.filter.doFilter(this.request, this.response, chain)).isInstanceOf(ServletException.class);
+        assertThat(this.output).hasSize(1);
+    }
+
+    @Test
+    public void decidesAsyncRequestOnCompletion() throws Exception {
+        AsyncRequest request = new AsyncRequest(this.request);
+        this.filter.doFilter(request, this.response, (req, response) -> {
+            this.buffer(1);
+            req.startAsync();
+        });
+        // 请求线程返回时不输出也不丢弃，范围已与请求线程分离
+        assertThat(this.output).isEmpty();
+        this.response.setStatus(500);
+        request.complete(this.response);
+        assertThat(this.output).hasSize(1);
+    }
+
+    @Test
+    public void discardsAsyncRequestCompletedSuccessfully() throws Exception {
+        AsyncRequest request = new AsyncRequest(this.request);
+        this.filter.doFilter(request, this.response, (req, response) -> {
+            this.buffer(1);
+            req.startAsync();
+        });
+        request.complete(this.response);
+        assertThat(this.output).isEmpty();
+    }
+
+    @Test
+    public void flushesAsyncRequestOnTimeout() throws Exception {
+        AsyncRequest request = new AsyncRequest(this.request);
+        this.filter.doFilter(request, this.response, (req, response) -> {
+            this.buffer(1);
+            req.startAsync();
+        });
+        for (AsyncListener listener : request.listeners) {
+            listener.onTimeout(new AsyncEvent(request.getAsyncContext(), request, this.response));
+        }
+        request.complete(this.response);
+        assertThat(this.output).hasSize(1);
+    }
+
+    private void buffer(int value) {
+        AuditScope scope = AuditScope.current();
+        assertThat(scope).isNotNull();
+        assertThat(scope.buffer(AuditEvents.invocation(this.plan, new Object[]{value}, value, null, 1L), this.output::add)).isTrue();
+    }
+
+    /**
+     * 支持异步处理的请求（异步上下文仅记录监听器）
+     */
+    static class AsyncRequest extends HttpServletRequestWrapper {
+
+        final List<AsyncListener> listeners = new ArrayList<>();
+
+        private AsyncContext context;
+
+        AsyncRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public AsyncContext startAsync() {
+            this.context = (AsyncContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{AsyncContext.class}, (proxy, method, args) -> {
+                if ("addListener".equals(method.getName())) {
+                    this.listeners.add((AsyncListener) args[0]);
+                }
+                return null;
+            });
+            return this.context;
+        }
+
+        @Override
+        public boolean isAsyncStarted() {
+            return this.context != null;
+        }
+
+        @Override
+        public AsyncContext getAsyncContext() {
+            return this.context;
+        }
+
+        void complete(ServletResponse response) throws IOException {
+            for (AsyncListener listener : new ArrayList<>(this.listeners)) {
+                listener.onComplete(new AsyncEvent(this.context, this, response));
+            }
+        }
+    }
+
+    static class Service {
+
+        @Log("调用")
+        public int call(int value) {
+            return value;
+        }
+    }
+}
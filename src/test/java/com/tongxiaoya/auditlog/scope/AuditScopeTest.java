@@ -0,0 +1,196 @@
+package com.tongxiaoya.auditlog.scope;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计范围测试
+ *
+ * @since 1.8
+ */
+public class AuditScopeTest {
+
+    private final List<AuditEvent> output = new ArrayList<>();
+
+    private final Consumer<AuditEvent> sink = this.output::add;
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private Logger logger;
+
+    private LogPlan plan;
+
+    @Before
+    public void setUp() {
+        this.plan = AuditEvents.plan(Service.class, "call");
+        this.logger = (Logger) LoggerFactory.getLogger(AuditScope.class);
+        this.appender.start();
+        this.logger.addAppender(this.appender);
+    }
+
+    @After
+    public void tearDown() {
+        this.logger.detachAppender(this.appender);
+        assertThat(AuditScope.current()).isNull();
+    }
+
+    @Test
+    public void discardsBufferedEventsOnSuccess() {
+        try (AuditScope scope = AuditScope.begin("导入任务", 4, true)) {
+            assertThat(AuditScope.current()).isSameAs(scope);
+            assertThat(scope.buffer(this.success(1), this.sink)).isTrue();
+            assertThat(scope.buffer(this.success(2), this.sink)).isTrue();
+            assertThat(scope.isFailed()).isFalse();
+        }
+        assertThat(this.output).isEmpty();
+        assertThat(this.messages()).containsExactly("审计范围：【导入任务】，未输出事件：【2】条");
+    }
+
+    @Test
+    public void flushesInOrderOnFailedEvent() {
+        AuditEvent first = this.success(1);
+        AuditEvent failed = this.failure();
+        AuditEvent last = this.success(2);
+        try (AuditScope scope = AuditScope.begin("导入任务", 4, true)) {
+            scope.buffer(first, this.sink);
+            scope.buffer(failed, this.sink);
+            scope.buffer(last, this.sink);
+            assertThat(scope.isFailed()).isTrue();
+            assertThat(this.output).isEmpty();
+        }
+        assertThat(this.output).containsExactly(first, failed, last);
+        assertThat(this.messages()).isEmpty();
+    }
+
+    @Test
+    public void flushesOnMarkFailedOrMark() {
+        AuditEvent event = this.success(1);
+        try (AuditScope scope = AuditScope.begin("导入任务", 4, false)) {
+            scope.buffer(event, this.sink);
+            scope.markFailed();
+        }
+        assertThat(this.output).containsExactly(event);
+
+        this.output.clear();
+        try (AuditScope scope = AuditScope.begin("导入任务", 4, false)) {
+            scope.buffer(event, this.sink);
+            AuditScope.mark();
+        }
+        assertThat(this.output).containsExactly(event);
+    }
+
+    @Test
+    public void overwritesEldestEventsWhenFull() {
+        List<AuditEvent> events = new ArrayList<>();
+        try (AuditScope scope = AuditScope.begin("导入任务", 2, false)) {
+            for (int i = 0; i < 5; i++) {
+                AuditEvent event = this.success(i);
+                events.add(event);
+                assertThat(scope.buffer(event, this.sink)).isTrue();
+            }
+            scope.markFailed();
+        }
+        assertThat(this.output).containsExactly(events.get(3), events.get(4));
+        assertThat(this.messages()).containsExactly("审计范围：【导入任务】，缓冲区已满，最早的【3】条事件已覆盖");
+
+        // 范围结束后缓冲区已清空，再次开启时重新计数
+        this.output.clear();
+        this.appender.list.clear();
+        try (AuditScope scope = AuditScope.begin("导入任务", 2, true)) {
+            scope.buffer(this.success(9), this.sink);
+        }
+        assertThat(this.output).isEmpty();
+        assertThat(this.messages()).containsExactly("审计范围：【导入任务】，未输出事件：【1】条");
+    }
+
+    @Test
+    public void nestedScopesJoinOutermost() {
+        AuditEvent inner = this.success(1);
+        AuditEvent failed = this.failure();
+        try (AuditScope outer = AuditScope.begin("请求", 4, false)) {
+            try (AuditScope nested = AuditScope.begin("事务", 8, false)) {
+                assertThat(nested).isSameAs(outer);
+                nested.buffer(inner, this.sink);
+                assertThat(nested.detach()).isFalse();
+            }
+            // 内层结束时不输出，范围仍属于当前线程
+            assertThat(AuditScope.current()).isSameAs(outer);
+            assertThat(this.output).isEmpty();
+            outer.buffer(failed, this.sink);
+        }
+        assertThat(this.output).containsExactly(inner, failed);
+    }
+
+    @Test
+    public void detachedScopeStopsBufferingAndClosesOnAnotherThread() throws InterruptedException {
+        AuditEvent event = this.success(1);
+        AuditScope scope = AuditScope.begin("请求", 4, false);
+        scope.buffer(event, this.sink);
+        assertThat(scope.detach()).isTrue();
+        assertThat(AuditScope.current()).isNull();
+        assertThat(scope.buffer(this.success(2), this.sink)).isFalse();
+
+        AuditScope other = AuditScope.begin("其他", 4, false);
+        AtomicBoolean closed = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            scope.markFailed();
+            scope.close();
+            closed.set(true);
+        });
+        thread.start();
+        thread.join(5000L);
+        assertThat(closed).isTrue();
+        assertThat(this.output).containsExactly(event);
+        // 在其他线程结束时不影响该线程的范围
+        assertThat(AuditScope.current()).isSameAs(other);
+        other.close();
+    }
+
+    @Test
+    public void bufferIsRejectedOutsideOwningThread() throws InterruptedException {
+        try (AuditScope scope = AuditScope.begin("请求", 4, false)) {
+            AtomicBoolean buffered = new AtomicBoolean(true);
+            Thread thread = new Thread(() -> buffered.set(scope.buffer(this.success(1), this.sink)));
+            thread.start();
+            thread.join(5000L);
+            assertThat(buffered).isFalse();
+        }
+    }
+
+    private AuditEvent success(int value) {
+        return AuditEvents.invocation(this.plan, new Object[]{value}, value, null, 1L);
+    }
+
+    private AuditEvent failure() {
+        return AuditEvents.invocation(this.plan, new Object[]{0}, null, new IllegalStateException("失败"), 1L);
+    }
+
+    private List<String> messages() {
+        return this.appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+
+    static class Service {
+
+        @Log("调用")
+        public int call(int value) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.tongxiaoya.auditlog.sink;
+
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import com.tongxiaoya.auditlog.render.ObjectGraphRenderer;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JDBC批量输出端测试（内嵌H2）
+ *
+ * @since 1.8
+ */
+public class JdbcAuditSinkTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private JdbcDataSource dataSource;
+
+    private LogPlan plan;
+
+    @Before
+    public void setUp() throws SQLException {
+        this.dataSource = new JdbcDataSource();
+        this.dataSource.setURL("jdbc:h2:mem:audit" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        this.execute("CREATE TABLE audit_log (id BIGINT AUTO_INCREMENT PRIMARY KEY, log_time TIMESTAMP NOT NULL, thread_name VARCHAR(128),"
+                + " event_type VARCHAR(16) NOT NULL, log_level VARCHAR(8) NOT NULL, class_name VARCHAR(255) NOT NULL,"
+                + " method_name VARCHAR(128) NOT NULL, business VARCHAR(255), params CLOB, result CLOB, duration_ns BIGINT,"
+                + " error_class VARCHAR(255), error_message VARCHAR(2000))");
+        this.plan = AuditEvents.plan(Service.class, "transfer");
+    }
+
+    @Test
+    public void writesBatchesAndFlushesOnClose() throws SQLException {
+        JdbcAuditSink sink = this.sink("audit_log");
+        sink.start();
+        for (int i = 0; i < 250; i++) {
+            sink.write(this.event(i, null));
+        }
+        sink.write(this.event(-1, new IllegalStateException("余额不足")));
+        sink.close();
+        assertThat(this.count("SELECT COUNT(*) FROM audit_log")).isEqualTo(251);
+        assertThat(this.count("SELECT COUNT(*) FROM audit_log WHERE error_class = 'java.lang.IllegalStateException' AND error_message = '余额不足'")).isEqualTo(1);
+        assertThat(this.count("SELECT COUNT(*) FROM audit_log WHERE event_type = 'INVOCATION' AND business = '转账' AND duration_ns = 1000")).isEqualTo(251);
+        assertThat(sink.getDroppedCount()).isZero();
+    }
+
+    @Test
+    public void doesNotStartWorkerInConstructor() throws SQLException {
+        JdbcAuditSink sink = this.sink("audit_log");
+        sink.write(this.event(1, null));
+        assertThat(Thread.getAllStackTraces().keySet()).noneMatch(thread -> thread.getName().equals("auditlog-jdbc"));
+        sink.close();
+        assertThat(this.count("SELECT COUNT(*) FROM audit_log")).isEqualTo(1);
+    }
+
+    @Test
+    public void survivesInterruptOfWorker() throws Exception {
+        JdbcAuditSink sink = this.sink("audit_log");
+        sink.start();
+        Thread worker = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("auditlog-jdbc"))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        worker.interrupt();
+        Thread.sleep(50L);
+        assertThat(worker.isAlive()).isTrue();
+        sink.write(this.event(1, null));
+        sink.close();
+        assertThat(worker.isAlive()).isFalse();
+        assertThat(this.count("SELECT COUNT(*) FROM audit_log")).isEqualTo(1);
+    }
+
+    @Test
+    public void countsPermanentFailuresAsDropped() {
+        JdbcAuditSink sink = this.sink("missing_table");
+        sink.start();
+        sink.write(this.event(1, null));
+        sink.write(this.event(2, null));
+        sink.close();
+        assertThat(sink.getDroppedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void rejectsWhenQueueStaysFullOrSinkIsClosed() throws SQLException {
+        JdbcAuditSink sink = new JdbcAuditSink(this.dataSource, new ObjectGraphRenderer(), "audit_log", 2, 20L, 2, 10L, 2);
+        sink.setOfferTimeout(20L);
+        sink.write(this.event(1, null));
+        sink.write(this.event(2, null));
+        assertThatThrownBy(() -> sink.write(this.event(3, null)))
+                .isInstanceOf(AuditSinkRejectedException.class)
+                .hasMessageContaining("full");
+        sink.close();
+        assertThatThrownBy(() -> sink.write(this.event(4, null)))
+                .isInstanceOf(AuditSinkRejectedException.class)
+                .hasMessageContaining("closed");
+        assertThat(this.count("SELECT COUNT(*) FROM audit_log")).isEqualTo(2);
+        assertThat(sink.getDroppedCount()).isZero();
+    }
+
+    @Test
+    public void countsQueuedRecordsAsDroppedWhenCloseTimesOut() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        DataSource stuck = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getConnection")) {
+                blocked.countDown();
+                released.await(30, TimeUnit.SECONDS);
+            }
+            return method.invoke(this.dataSource, args);
+        });
+        JdbcAuditSink sink = new JdbcAuditSink(stuck, new ObjectGraphRenderer(), "audit_log", 1, 20L, 0, 0L, 100);
+        sink.start();
+        sink.write(this.event(1, null));
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 2; i <= 6; i++) {
+            sink.write(this.event(i, null));
+        }
+        sink.close();
+        assertThat(sink.getDroppedCount()).isEqualTo(5);
+        released.countDown();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("auditlog-jdbc")) {
+                thread.join(5000L);
+            }
+        }
+        assertThat(this.count("SELECT COUNT(*) FROM audit_log")).isEqualTo(1);
+    }
+
+    private JdbcAuditSink sink(String tableName) {
+        return new JdbcAuditSink(this.dataSource, new ObjectGraphRenderer(), tableName, 100, 20L, 2, 10L, 1000);
+    }
+
+    private AuditEvent event(int amount, Throwable throwable) {
+        return AuditEvents.invocation(this.plan, new Object[]{"A", "B", amount}, throwable == null ? Boolean.TRUE : null, throwable, 1000L);
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    static class Service {
+
+        @Log("转账")
+        public boolean transfer(String from, String to, int amount) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.tongxiaoya.auditlog.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 测试用TCP采集端
+ * <p>
+ * {@link TcpAuditSink}协议的参考实现：每个连接一个线程，解压批次后按顺序交给记录处理器，处理完成后确认；
+ * 按“流标识 + 序号”丢弃重连后重发的已处理批次。可指定若干批次处理后不确认并断开连接，模拟确认丢失
+ *
+ * @since 1.8
+ */
+public class TcpAuditCollector implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 单个批次原始内容最大长度
+     */
+    private static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * 服务端套接字
+     */
+    private final ServerSocket server;
+    /**
+     * 记录处理器（UTF-8解码后的记录内容，按连接串行调用）
+     */
+    private final Consumer<String> handler;
+    /**
+     * 各流已确认的最大序号
+     */
+    private final Map<Long, Long> acknowledged = new ConcurrentHashMap<>();
+    /**
+     * 活动连接
+     */
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    /**
+     * 收到的批次数量（含重发）
+     */
+    private final AtomicInteger frames = new AtomicInteger();
+    /**
+     * 剩余的不确认批次数量
+     */
+    private final AtomicInteger ackFailures = new AtomicInteger();
+    /**
+     * 运行标志
+     */
+    private volatile boolean running = true;
+
+    /**
+     * 构造并开始接受连接
+     *
+     * @param port    端口（0为随机端口）
+     * @param handler 记录处理器
+     * @throws IOException IO异常
+     */
+    public TcpAuditCollector(int port, Consumer<String> handler) throws IOException {
+        this.server = new ServerSocket();
+        this.server.bind(new InetSocketAddress(port));
+        this.handler = handler;
+        Thread acceptor = new Thread(this::accept, "auditlog-collector");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * 获取监听端口
+     *
+     * @return 返回端口
+     */
+    public int getPort() {
+        return this.server.getLocalPort();
+    }
+
+    /**
+     * 获取收到的批次数量（含重发）
+     *
+     * @return 返回批次数量
+     */
+    public int getFrameCount() {
+        return this.frames.get();
+    }
+
+    /**
+     * 之后的若干批次处理后不确认并断开连接
+     *
+     * @param count 批次数量
+     */
+    public void failAcks(int count) {
+        this.ackFailures.set(count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.running = false;
+        this.server.close();
+        for (Socket socket : this.connections) {
+            socket.close();
+        }
+    }
+
+    /**
+     * 接受连接
+     */
+    private void accept() {
+        while (this.running) {
+            try {
+                Socket socket = this.server.accept();
+                this.connections.add(socket);
+                Thread thread = new Thread(() -> this.serve(socket), "auditlog-collector-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (this.running) {
+                    logger.warn("审计日志采集端接受连接失败", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理单个连接
+     *
+     * @param socket 连接
+     */
+    private void serve(Socket socket) {
+        Inflater inflater = new Inflater();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64))) {
+            if (input.readInt() != TcpAuditSink.MAGIC || input.readInt() != TcpAuditSink.VERSION) {
+                throw new IOException("unsupported protocol");
+            }
+            long streamId = input.readLong();
+            byte[] raw = new byte[0];
+            while (this.running) {
+                long sequence;
+                try {
+                    sequence = input.readLong();
+                } catch (EOFException e) {
+                    return;
+                }
+                int records = input.readInt();
+                int rawLength = input.readInt();
+                int compressedLength = input.readInt();
+                if (records < 0 || rawLength < 0 || rawLength > MAX_FRAME_SIZE || compressedLength < 0 || compressedLength > MAX_FRAME_SIZE) {
+                    throw new IOException("frame size out of range");
+                }
+                byte[] compressed = new byte[compressedLength];
+                input.readFully(compressed);
+                this.frames.incrementAndGet();
+                Long last = this.acknowledged.get(streamId);
+                if (last == null || sequence > last) {
+                    if (raw.length < rawLength) {
+                        raw = new byte[rawLength];
+                    }
+                    inflate(inflater, compressed, raw, rawLength);
+                    this.deliver(raw, rawLength, records);
+                    this.acknowledged.put(streamId, sequence);
+                }
+                if (this.ackFailures.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                    return;
+                }
+                output.writeLong(sequence);
+                output.flush();
+            }
+        } catch (SocketException | EOFException e) {
+            logger.debug("审计日志采集端连接断开：{}", e.toString());
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            logger.warn("审计日志采集端处理失败，断开连接", e);
+        } finally {
+            inflater.end();
+            this.connections.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // 忽略关闭异常
+            }
+        }
+    }
+
+    /**
+     * 解压批次
+     *
+     * @param inflater   解压器
+     * @param compressed 压缩内容
+     * @param raw        原始内容缓冲区
+     * @param rawLength  原始长度
+     * @throws DataFormatException 压缩格式错误
+     */
+    private static void inflate(Inflater inflater, byte[] compressed, byte[] raw, int rawLength) throws DataFormatException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        int length = 0;
+        while (length < rawLength && !inflater.finished()) {
+            int count = inflater.inflate(raw, length, rawLength - length);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                break;
+            }
+            length += count;
+        }
+        if (length != rawLength) {
+            throw new DataFormatException("length mismatch: " + length + " != " + rawLength);
+        }
+    }
+
+    /**
+     * 交付批次内的记录
+     *
+     * @param raw       原始内容
+     * @param rawLength 原始长度
+     * @param records   记录数
+     * @throws IOException 批次内容不正确
+     */
+    private void deliver(byte[] raw, int rawLength, int records) throws IOException {
+        int position = 0;
+        for (int i = 0; i < records; i++) {
+            if (position + 4 > rawLength) {
+                throw new IOException("truncated frame");
+            }
+            int length = ((raw[position] & 0xFF) << 24) | ((raw[position + 1] & 0xFF) << 16)
+                    | ((raw[position + 2] & 0xFF) << 8) | (raw[position + 3] & 0xFF);
+            position += 4;
+            if (length < 0 || length > rawLength - position) {
+                throw new IOException("truncated frame");
+            }
+            this.handler.accept(new String(raw, position, length, StandardCharsets.UTF_8));
+            position += length;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.tongxiaoya.auditlog.sink;
+
+import com.tongxiaoya.auditlog.format.AuditFormatter;
+import com.tongxiaoya.auditlog.log.AuditEvent;
+import com.tongxiaoya.auditlog.log.AuditEvents;
+import com.tongxiaoya.auditlog.log.Log;
+import com.tongxiaoya.auditlog.log.LogPlan;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TCP批量输出端测试（进程内采集端）
+ *
+ * @since 1.8
+ */
+public class TcpAuditSinkTest {
+
+    private static final AuditFormatter FORMATTER = (event, builder) -> builder.append(event.getArgs()[0]);
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private LogPlan plan;
+
+    @Before
+    public void setUp() {
+        this.plan = AuditEvents.plan(Service.class, "send");
+    }
+
+    @Test
+    public void sendsBatchesAndCountsAcks() throws Exception {
+        try (TcpAuditCollector collector = new TcpAuditCollector(0, this.received::add)) {
+            TcpAuditSink sink = this.sink(collector.getPort(), 10, 50L);
+            List<String> written = this.write(sink, 0, 95);
+            await(() -> sink.getAcknowledgedCount() == 95);
+            assertThat(this.received).containsExactlyElementsOf(written);
+            assertThat(collector.getFrameCount()).isBetween(10, 94);
+            assertThat(sink.getBufferedBytes()).isZero();
+            sink.close();
+            assertThat(sink.getDroppedCount()).isZero();
+        }
+    }
+
+    @Test
+    public void resendsUnacknowledgedBatchWithoutDuplicates() throws Exception {
+        try (TcpAuditCollector collector = new TcpAuditCollector(0, this.received::add)) {
+            collector.failAcks(2);
+            TcpAuditSink sink = this.sink(collector.getPort(), 5, 60_000L);
+            List<String> written = this.write(sink, 0, 5);
+            await(() -> sink.getAcknowledgedCount() == 5);
+            assertThat(collector.getFrameCount()).isEqualTo(3);
+            assertThat(this.received).containsExactlyElementsOf(written);
+            sink.close();
+        }
+    }
+
+    @Test
+    public void reconnectsWithBackoffOnceCollectorIsUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        TcpAuditSink sink = this.sink(port, 5, 20L);
+        List<String> written = this.write(sink, 0, 12);
+        Thread.sleep(200L);
+        assertThat(sink.getAcknowledgedCount()).isZero();
+        assertThat(sink.getBufferedBytes()).isPositive();
+        try (TcpAuditCollector collector = new TcpAuditCollector(port, this.received::add)) {
+            await(() -> sink.getAcknowledgedCount() == 12);
+            assertThat(this.received).containsExactlyElementsOf(written);
+            sink.close();
+        }
+        assertThat(sink.getDroppedCount()).isZero();
+    }
+
+    @Test
+    public void blocksWhileBufferIsFullAndRejectsAfterTimeout() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        TcpAuditSink sink = this.sink(port, 5, 20L, 40L);
+        sink.setOfferTimeout(50L);
+        List<String> written = this.write(sink, 0, 5);
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> sink.write(this.event("record-5")))
+                .isInstanceOf(AuditSinkRejectedException.class)
+                .hasMessageContaining("full");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+        try (TcpAuditCollector collector = new TcpAuditCollector(port, this.received::add)) {
+            // 采集端恢复后发送线程释放缓冲，等待中的写入方随之写入
+            sink.setOfferTimeout(10_000L);
+            written.addAll(this.write(sink, 5, 5));
+            await(() -> sink.getAcknowledgedCount() == 10);
+            assertThat(this.received).containsExactlyElementsOf(written);
+            sink.close();
+        }
+        assertThat(sink.getDroppedCount()).isZero();
+        assertThatThrownBy(() -> sink.write(this.event("record-10")))
+                .isInstanceOf(AuditSinkRejectedException.class)
+                .hasMessageContaining("closed");
+    }
+
+    private TcpAuditSink sink(int port, int batchSize, long flushInterval) {
+        return this.sink(port, batchSize, flushInterval, 1024 * 1024);
+    }
+
+    private TcpAuditSink sink(int port, int batchSize, long flushInterval, long bufferSize) {
+        return new TcpAuditSink("127.0.0.1", port, FORMATTER, batchSize, flushInterval, bufferSize,
+                1000, 1000, 10L, 50L, 1);
+    }
+
+    private List<String> write(TcpAuditSink sink, int from, int count) {
+        List<String> written = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            String value = "record-" + i;
+            sink.write(this.event(value));
+            written.add(value);
+        }
+        return written;
+    }
+
+    private AuditEvent event(String value) {
+        return AuditEvents.invocation(this.plan, new Object[]{value}, null, null, 1L);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("condition not met in time");
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    static class Service {
+
+        @Log("发送")
+        public void send(String value) {
+        }
+    }
+}
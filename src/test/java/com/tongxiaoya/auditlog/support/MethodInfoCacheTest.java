@@ -0,0 +1,102 @@
+package com.tongxiaoya.auditlog.support;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 方法信息缓存测试
+ *
+ * @since 1.8
+ */
+public class MethodInfoCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void loadsOncePerMethod() throws NoSuchMethodException {
+        MethodInfoCache cache = new MethodInfoCache(4);
+        Method first = method("first");
+        MethodInfo info = cache.get(first, this.loader());
+        assertThat(cache.get(first, this.loader())).isSameAs(info);
+        assertThat(cache.get(method("second"), this.loader())).isNotSameAs(info);
+        assertThat(this.loads).hasValue(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void evictsEldestEntryWhenFull() throws NoSuchMethodException {
+        MethodInfoCache cache = new MethodInfoCache(2);
+        cache.get(method("first"), this.loader());
+        cache.get(method("second"), this.loader());
+        cache.get(method("third"), this.loader());
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(this.loads).hasValue(3);
+        // 最早写入的条目被淘汰，再次获取时重新加载
+        cache.get(method("second"), this.loader());
+        cache.get(method("third"), this.loader());
+        assertThat(this.loads).hasValue(3);
+        cache.get(method("first"), this.loader());
+        assertThat(this.loads).hasValue(4);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shrinksToNewMaxSize() throws NoSuchMethodException {
+        MethodInfoCache cache = new MethodInfoCache(4);
+        cache.get(method("first"), this.loader());
+        cache.get(method("second"), this.loader());
+        cache.get(method("third"), this.loader());
+        cache.setMaxSize(1);
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get(method("third"), this.loader());
+        assertThat(this.loads).hasValue(3);
+        cache.clear();
+        assertThat(cache.size()).isZero();
+        assertThatThrownBy(() -> cache.setMaxSize(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void parameterNamesOfCallerAreNotCached() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("call", String.class, int.class);
+        MethodInfo named = MethodParser.getMethodInfo(method, new String[]{"a", "b"});
+        assertThat(named.getParamNames()).containsExactly("a", "b");
+        MethodInfo parsed = MethodParser.getMethodInfo(method, null);
+        assertThat(parsed.getParamNames()).containsExactly("name", "count");
+        assertThat(parsed.getLineNumber()).isEqualTo(named.getLineNumber()).isNotEqualTo(MethodParser.UNKNOWN_LINE_NUMBER);
+        assertThat(MethodParser.getMethodInfo(method, new String[]{"x", "y"}).getParamNames()).containsExactly("x", "y");
+    }
+
+    private Function<Method, MethodInfo> loader() {
+        return method -> {
+            this.loads.incrementAndGet();
+            return new MethodInfo(Service.class.getName(), Service.class.getSimpleName(), method.getName(), Collections.emptyList(), 1);
+        };
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return Service.class.getMethod(name);
+    }
+
+    static class Service {
+
+        public void first() {
+        }
+
+        public void second() {
+        }
+
+        public void third() {
+        }
+
+        public String call(String name, int count) {
+            return name + count;
+        }
+    }
+}